@@ -0,0 +1,90 @@
+package com.example.scanner.benchmark;
+
+import com.example.scanner.dto.SignableConsent;
+import com.example.scanner.util.ConsentSerializer;
+import com.example.scanner.util.ConsentUtil;
+import com.example.scanner.util.InstantTypeAdapter;
+import com.example.scanner.util.LocalDateTypeAdapter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of serializing one consent version for hashing, signing, encryption and the token: the
+ * previous four passes (Jackson for signing, Jackson again for the payload hash, a new Gson for
+ * the token and another new Gson with whitespace stripping for encryption) against the single
+ * canonical pass of {@link ConsentSerializer}. Run with the GC profiler for allocations per
+ * consent ({@code gc.alloc.rate.norm}):
+ *
+ * <pre>
+ * mvn -Pjmh verify -Djmh.include=ConsentSerializationBenchmark -Djmh.args="-prof gc"
+ * </pre>
+ *
+ * The previous passes serialized the whole entity; both sides use the signable fields here so
+ * that only the number of passes differs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConsentSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private ConsentSerializer serializer;
+    private SignableConsent consent;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        serializer = new ConsentSerializer(objectMapper, new SimpleMeterRegistry());
+        consent = Consents.signableConsent();
+    }
+
+    @Benchmark
+    public void separatePasses(Blackhole blackhole) throws Exception {
+        String signableJson = objectMapper.writeValueAsString(consent);
+        blackhole.consume(signableJson);
+
+        blackhole.consume(ConsentUtil.computeSHA256Hash(objectMapper.writeValueAsString(consent)));
+
+        Gson tokenGson = new GsonBuilder()
+                .registerTypeAdapter(LocalDateTime.class, new LocalDateTypeAdapter())
+                .registerTypeAdapter(Instant.class, new InstantTypeAdapter())
+                .create();
+        blackhole.consume(tokenGson.toJson(consent));
+
+        Gson encryptionGson = new GsonBuilder()
+                .registerTypeAdapter(LocalDateTime.class, new LocalDateTypeAdapter())
+                .registerTypeAdapter(Instant.class, new InstantTypeAdapter())
+                .disableHtmlEscaping()
+                .create();
+        blackhole.consume(encryptionGson.toJson(consent).replaceAll("\\s+", ""));
+    }
+
+    @Benchmark
+    public ConsentSerializer.CanonicalConsent canonicalPass() throws Exception {
+        return serializer.serialize(consent);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.scanner.benchmark;
+
+import com.example.scanner.dto.CustomerIdentifiers;
+import com.example.scanner.dto.Duration;
+import com.example.scanner.dto.LanguageSpecificContent;
+import com.example.scanner.dto.Multilingual;
+import com.example.scanner.dto.Preference;
+import com.example.scanner.dto.SignableConsent;
+import com.example.scanner.enums.LANGUAGE;
+import com.example.scanner.enums.Period;
+import com.example.scanner.enums.PreferenceStatus;
+import com.example.scanner.enums.StaleStatus;
+import com.example.scanner.enums.Status;
+import com.example.scanner.enums.VersionStatus;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A consent of typical size: two languages and five cookie categories.
+ */
+final class Consents {
+
+    private static final List<String> PURPOSES = List.of("Necessary", "Functional", "Analytics", "Advertisement", "Others");
+
+    private Consents() {
+    }
+
+    static SignableConsent signableConsent() {
+        LocalDateTime start = LocalDateTime.of(2026, 1, 15, 10, 30, 12, 345_678_000);
+
+        Map<LANGUAGE, LanguageSpecificContent> content = new EnumMap<>(LANGUAGE.class);
+        for (LANGUAGE language : List.of(LANGUAGE.ENGLISH, LANGUAGE.HINDI)) {
+            content.put(language, LanguageSpecificContent.builder()
+                    .title("Cookie preferences")
+                    .label("We use cookies to improve your experience")
+                    .rightsText("You can change or withdraw your consent at any time from the privacy settings page.")
+                    .permissionText("By accepting, you allow us to store cookies on your device for the selected purposes.")
+                    .build());
+        }
+
+        List<Preference> preferences = new ArrayList<>();
+        for (String purpose : PURPOSES) {
+            preferences.add(Preference.builder()
+                    .preferenceId("pref-" + purpose.toLowerCase())
+                    .purpose(purpose)
+                    .isMandatory("Necessary".equals(purpose))
+                    .preferenceValidity(Duration.builder().value(12).unit(Period.MONTHS).build())
+                    .startDate(start)
+                    .endDate(start.plusMonths(12))
+                    .preferenceStatus(PreferenceStatus.ACCEPTED)
+                    .build());
+        }
+
+        return SignableConsent.builder()
+                .consentId("6f1c2a9e-4b7d-4c1a-9f3e-2d8b7a6c5e40")
+                .consentHandleId("0b9d8c7e-6f5a-4e3d-8c2b-1a0f9e8d7c6b")
+                .businessId("business-1")
+                .templateId("template-1")
+                .templateVersion(3)
+                .languagePreferences(LANGUAGE.ENGLISH)
+                .multilingual(Multilingual.builder()
+                        .supportedLanguages(List.of(LANGUAGE.ENGLISH, LANGUAGE.HINDI))
+                        .languageSpecificContentMap(content)
+                        .build())
+                .customerIdentifiers(CustomerIdentifiers.builder().type("EMAIL").value("user@example.com").build())
+                .preferences(preferences)
+                .status(Status.ACTIVE)
+                .consentStatus(VersionStatus.ACTIVE)
+                .version(1)
+                .startDate(start)
+                .endDate(start.plusMonths(12))
+                .createdAt(Instant.parse("2026-01-15T10:30:12.345678Z"))
+                .updatedAt(Instant.parse("2026-01-15T10:30:12.345678Z"))
+                .staleStatus(StaleStatus.NOT_STALE)
+                .build();
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.scanner.benchmark;
+
+import com.example.scanner.config.ConsentTokenProperties;
+import com.example.scanner.util.ConsentSerializer;
+import com.example.scanner.util.TokenSigningKeys;
+import com.example.scanner.util.TokenUtility;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.util.Base64URL;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consent tokens signed and verified per second for each algorithm and claim format, through
+ * {@link TokenUtility}. The size of the token is logged once per trial.
+ *
+ * <pre>
+ * mvn -Pjmh verify -Djmh.include=TokenFormatBenchmark
+ * </pre>
+ */
+@Slf4j
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenFormatBenchmark {
+
+    private static final String TENANT = "benchmark";
+
+    @Param({"RS256", "ES256", "EdDSA"})
+    public String algorithm;
+
+    @Param({"FULL", "COMPACT"})
+    public ConsentTokenProperties.Claims claims;
+
+    private TokenUtility tokenUtility;
+    private ConsentSerializer.CanonicalConsent canonical;
+    private Date expiry;
+    private String token;
+
+    @Setup
+    public void setUp() throws Exception {
+        TokenSigningKeys signingKeys = new TokenSigningKeys();
+        ReflectionTestUtils.setField(signingKeys, "jwkSetPath", writeKeySet().toString());
+        signingKeys.load();
+
+        ConsentTokenProperties properties = new ConsentTokenProperties();
+        properties.setAlgorithm(algorithm);
+        properties.setClaims(claims);
+        tokenUtility = new TokenUtility(signingKeys, properties, new SimpleMeterRegistry());
+
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        canonical = new ConsentSerializer(objectMapper, new SimpleMeterRegistry())
+                .serialize(Consents.signableConsent());
+        expiry = new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(365));
+        token = sign();
+        log.info("{} {} token: {} bytes", algorithm, claims, token.length());
+    }
+
+    @Benchmark
+    public String sign() throws Exception {
+        return tokenUtility.generateConsentToken(TENANT, canonical, "consent-1", 1, "ACTIVE", expiry);
+    }
+
+    @Benchmark
+    public Object verify() throws Exception {
+        return tokenUtility.verifyConsentToken(token);
+    }
+
+    private static Path writeKeySet() throws Exception {
+        KeyPair ed25519 = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        byte[] x509 = ed25519.getPublic().getEncoded();
+        byte[] pkcs8 = ed25519.getPrivate().getEncoded();
+        // The raw 32-byte keys are the tail of the JDK's X.509 and PKCS#8 encodings
+        OctetKeyPair okp = new OctetKeyPair.Builder(Curve.Ed25519,
+                Base64URL.encode(Arrays.copyOfRange(x509, x509.length - 32, x509.length)))
+                .d(Base64URL.encode(Arrays.copyOfRange(pkcs8, pkcs8.length - 32, pkcs8.length)))
+                .keyID("ed25519")
+                .build();
+
+        JWKSet keySet = new JWKSet(List.of(
+                new RSAKeyGenerator(2048).keyID("rsa").generate(),
+                new ECKeyGenerator(Curve.P_256).keyID("ec").generate(),
+                okp));
+        Path file = Files.createTempFile("consent-token-keys", ".json");
+        file.toFile().deleteOnExit();
+        Files.writeString(file, keySet.toString(false), StandardCharsets.UTF_8);
+        return file;
+    }
+}
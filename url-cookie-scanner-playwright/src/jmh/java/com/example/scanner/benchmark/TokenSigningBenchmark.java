@@ -0,0 +1,106 @@
+package com.example.scanner.benchmark;
+
+import com.example.scanner.util.TokenSigningKeys;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consent tokens signed and verified per second with the bundled RS256 key: the previous path,
+ * which re-read {@code jwt-set.json} and built a new signer or verifier for every token, against
+ * the keys cached by {@link TokenSigningKeys}.
+ *
+ * <pre>
+ * mvn -Pjmh verify -Djmh.include=TokenSigningBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenSigningBenchmark {
+
+    private TokenSigningKeys signingKeys;
+    private JWTClaimsSet claims;
+    private String token;
+
+    @Setup
+    public void setUp() throws Exception {
+        signingKeys = new TokenSigningKeys();
+        signingKeys.load();
+        claims = new JWTClaimsSet.Builder()
+                .subject("{\"consentId\":\"c-1\",\"version\":1,\"status\":\"ACTIVE\"}")
+                .issuer("JIO CONSENT")
+                .issueTime(new Date())
+                .expirationTime(new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(365)))
+                .build();
+        token = signCached();
+    }
+
+    @Benchmark
+    public String signReloadingKey() throws Exception {
+        RSAKey rsaKey = loadBundledKey();
+        SignedJWT signedJWT = new SignedJWT(header(JWSAlgorithm.RS256, rsaKey.getKeyID()), claims);
+        signedJWT.sign(new RSASSASigner(rsaKey));
+        return signedJWT.serialize();
+    }
+
+    @Benchmark
+    public String signCached() throws Exception {
+        TokenSigningKeys.SigningKey signingKey = signingKeys.signingKey(JWSAlgorithm.RS256);
+        SignedJWT signedJWT = new SignedJWT(header(signingKey.algorithm(), signingKey.kid()), claims);
+        signedJWT.sign(signingKey.signer());
+        return signedJWT.serialize();
+    }
+
+    @Benchmark
+    public boolean verifyReloadingKey() throws Exception {
+        SignedJWT signedJWT = SignedJWT.parse(token);
+        return signedJWT.verify(new RSASSAVerifier(loadBundledKey().toRSAPublicKey()));
+    }
+
+    @Benchmark
+    public boolean verifyCached() throws Exception {
+        SignedJWT signedJWT = SignedJWT.parse(token);
+        for (JWSVerifier verifier : signingKeys.verifiersFor(signedJWT.getHeader().getKeyID())) {
+            if (signedJWT.verify(verifier)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static JWSHeader header(JWSAlgorithm algorithm, String kid) {
+        return new JWSHeader.Builder(algorithm).keyID(kid).type(JOSEObjectType.JWT).build();
+    }
+
+    private static RSAKey loadBundledKey() throws Exception {
+        try (InputStream is = TokenSigningBenchmark.class.getResourceAsStream("/jwt-set.json")) {
+            return (RSAKey) JWK.parse(new String(is.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+}
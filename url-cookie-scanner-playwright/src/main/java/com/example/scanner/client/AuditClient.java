@@ -24,32 +24,38 @@ public class AuditClient {
 
     public AuditResponse createAudit(AuditRequest auditRequest, String tenantId, String businessId, String transactionId) {
         try {
-            String url = auditBaseUrl + auditEndpoint;
+            return send(auditRequest, tenantId, businessId, transactionId);
+        } catch (Exception e) {
+            log.error("Audit logging failed for action: {} - Error: {}",
+                    auditRequest.getActionType(), e.getMessage());
+            return null;
+        }
+    }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.set("X-Tenant-ID", tenantId);
-            headers.set("X-Business-ID", businessId);
-            headers.set("X-Transaction-ID", transactionId);
+    /**
+     * Like {@link #createAudit}, but failures are thrown so that the caller can retry.
+     */
+    public AuditResponse send(AuditRequest auditRequest, String tenantId, String businessId, String transactionId) {
+        String url = auditBaseUrl + auditEndpoint;
 
-            HttpEntity<AuditRequest> requestEntity = new HttpEntity<>(auditRequest, headers);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("X-Tenant-ID", tenantId);
+        headers.set("X-Business-ID", businessId);
+        headers.set("X-Transaction-ID", transactionId);
 
-            log.debug("Sending audit log to: {} for action: {}", url, auditRequest.getActionType());
+        HttpEntity<AuditRequest> requestEntity = new HttpEntity<>(auditRequest, headers);
 
-            ResponseEntity<AuditResponse> response = restTemplate.exchange(
-                    url,
-                    HttpMethod.POST,
-                    requestEntity,
-                    AuditResponse.class
-            );
+        log.debug("Sending audit log to: {} for action: {}", url, auditRequest.getActionType());
 
-            log.info("Audit logged: {} - Status: {}", auditRequest.getActionType(), response.getStatusCode());
-            return response.getBody();
+        ResponseEntity<AuditResponse> response = restTemplate.exchange(
+                url,
+                HttpMethod.POST,
+                requestEntity,
+                AuditResponse.class
+        );
 
-        } catch (Exception e) {
-            log.error("Audit logging failed for action: {} - Error: {}",
-                    auditRequest.getActionType(), e.getMessage());
-            return null;
-        }
+        log.info("Audit logged: {} - Status: {}", auditRequest.getActionType(), response.getStatusCode());
+        return response.getBody();
     }
 }
\ No newline at end of file
@@ -15,6 +15,7 @@ import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Component
@@ -36,6 +37,9 @@ public class VaultClient {
     @Value("${vault.service.endpoints.encryptPayload}")
     private String encryptPayload;
 
+    @Value("${vault.service.jwks-endpoint:/jwks}")
+    private String jwksEndpoint;
+
     public String signPayload(String jsonPayload, String tenantId, String businessId) {
         try {
             String url = vaultBaseUrl + signEndpoint;
@@ -116,6 +120,39 @@ public class VaultClient {
         }
     }
 
+    /**
+     * Fetch the public signing keys of a tenant's business as a JWK set JSON document
+     */
+    public String fetchJwks(String tenantId, String businessId) {
+        try {
+            String url = vaultBaseUrl + jwksEndpoint;
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+            headers.set("Tenant-Id", tenantId);
+            headers.set("Business-Id", businessId);
+
+            log.debug("Calling vault JWKS API: {}", url);
+
+            ResponseEntity<String> response = restTemplate.exchange(
+                    url,
+                    HttpMethod.GET,
+                    new HttpEntity<>(headers),
+                    String.class
+            );
+
+            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
+                return response.getBody();
+            } else {
+                throw new RuntimeException("Vault API returned invalid response");
+            }
+
+        } catch (Exception e) {
+            log.error("Vault JWKS API failed - Error: {}", e.getMessage());
+            throw new RuntimeException("Failed to fetch signing keys: " + e.getMessage(), e);
+        }
+    }
+
     /**
      * Encrypt a payload
      *
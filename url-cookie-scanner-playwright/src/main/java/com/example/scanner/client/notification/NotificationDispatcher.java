@@ -0,0 +1,334 @@
+package com.example.scanner.client.notification;
+
+import com.example.scanner.config.TenantRegistry;
+import com.example.scanner.dto.NotificationTrigger;
+import com.example.scanner.dto.request.TriggerEventRequest;
+import com.example.scanner.dto.response.TriggerEventResponse;
+import com.example.scanner.enums.LANGUAGE;
+import com.example.scanner.enums.NotificationStatus;
+import com.example.scanner.repository.NotificationTriggerRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.RateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers notification triggers, using each tenant's {@code notification_triggers} collection
+ * as an outbox.
+ *
+ * Writers only insert PENDING triggers through {@link #enqueue}; triggers whose event key was
+ * already stored within {@code notification.outbox.dedupe-window-minutes} are dropped. The
+ * dispatcher visits tenants that enqueued work or have retries due, plus every known tenant
+ * each {@code sweep-interval-ms}. Per tenant it leases a batch of due PENDING and FAILED
+ * triggers, sends them concurrently within the tenant's rate limit, and stores all outcomes
+ * with one bulk write. Failures are retried with exponential backoff until
+ * {@code max-attempts}, then marked DEAD; client errors other than 429 are not retried.
+ *
+ * Metrics: {@code notification_dispatch_total{result}}, {@code notification_delivery_latency_seconds}
+ * from creation to acceptance, and {@code notification_backlog{status}} sampled on each sweep.
+ */
+@Slf4j
+@Component
+public class NotificationDispatcher {
+
+    private final NotificationTriggerRepository notificationTriggerRepository;
+    private final NotificationApiManager notificationApiManager;
+    private final TenantRegistry tenantRegistry;
+    private final ObjectMapper objectMapper;
+    private final Executor executor;
+    private final MeterRegistry meterRegistry;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Set<String> dirtyTenants = ConcurrentHashMap.newKeySet();
+    private final Map<String, Instant> retriesDue = new ConcurrentHashMap<>();
+    private final Map<String, RateLimiter> rateLimiters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> results = new ConcurrentHashMap<>();
+    private final Timer deliveryLatency;
+    private final AtomicLong pendingBacklog = new AtomicLong();
+    private final AtomicLong failedBacklog = new AtomicLong();
+    private volatile Instant nextSweep = Instant.EPOCH;
+
+    @Value("${notification.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${notification.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${notification.outbox.lease-ms:60000}")
+    private long leaseMs;
+
+    @Value("${notification.outbox.sweep-interval-ms:60000}")
+    private long sweepIntervalMs;
+
+    @Value("${notification.outbox.tenant-rate-per-second:20}")
+    private double tenantRatePerSecond;
+
+    @Value("${notification.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${notification.outbox.backoff-initial-ms:5000}")
+    private long backoffInitialMs;
+
+    @Value("${notification.outbox.backoff-max-ms:900000}")
+    private long backoffMaxMs;
+
+    @Value("${notification.outbox.dedupe-window-minutes:10}")
+    private long dedupeWindowMinutes;
+
+    public NotificationDispatcher(NotificationTriggerRepository notificationTriggerRepository,
+                                  @Qualifier("notificationApiManager") NotificationApiManager notificationApiManager,
+                                  TenantRegistry tenantRegistry,
+                                  ObjectMapper objectMapper,
+                                  @Qualifier("notificationDispatchExecutor") Executor executor,
+                                  MeterRegistry meterRegistry) {
+        this.notificationTriggerRepository = notificationTriggerRepository;
+        this.notificationApiManager = notificationApiManager;
+        this.tenantRegistry = tenantRegistry;
+        this.objectMapper = objectMapper;
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+
+        this.deliveryLatency = Timer.builder("notification_delivery_latency_seconds")
+                .description("Time from creating a notification trigger to its acceptance by the notification module")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+
+        Gauge.builder("notification_backlog", pendingBacklog, AtomicLong::get)
+                .description("Notification triggers waiting for delivery")
+                .tag("status", "pending")
+                .register(meterRegistry);
+
+        Gauge.builder("notification_backlog", failedBacklog, AtomicLong::get)
+                .description("Notification triggers waiting for delivery")
+                .tag("status", "failed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Store a PENDING trigger for delivery. Returns false if the same event was already stored
+     * within the dedupe window.
+     */
+    public boolean enqueue(NotificationTrigger trigger, String tenantId) {
+        LocalDateTime now = LocalDateTime.now();
+        trigger.setStatus(NotificationStatus.PENDING);
+        trigger.setTransactionId(UUID.randomUUID().toString());
+        trigger.setCreatedAt(now);
+        trigger.setUpdatedAt(now);
+        trigger.setNextAttemptAt(Instant.now());
+
+        if (!notificationTriggerRepository.insertIfAbsent(trigger, now.minusMinutes(dedupeWindowMinutes), tenantId)) {
+            result("deduplicated").increment();
+            log.debug("Skipped duplicate notification event {}", trigger.getEventKey());
+            return false;
+        }
+        dirtyTenants.add(tenantId);
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${notification.outbox.dispatch-interval-ms:500}")
+    public void dispatch() {
+        if (!enabled) {
+            return;
+        }
+        Instant now = Instant.now();
+        Set<String> tenants = new HashSet<>();
+        for (Iterator<String> it = dirtyTenants.iterator(); it.hasNext(); ) {
+            tenants.add(it.next());
+            it.remove();
+        }
+        retriesDue.forEach((tenantId, due) -> {
+            if (!due.isAfter(now) && retriesDue.remove(tenantId, due)) {
+                tenants.add(tenantId);
+            }
+        });
+        boolean sweep = !now.isBefore(nextSweep);
+        if (sweep) {
+            tenants.addAll(tenantRegistry.getKnownTenants());
+            nextSweep = now.plusMillis(sweepIntervalMs);
+        }
+
+        // Claims run here; sends run on the executor so slow tenants do not hold up the others
+        Map<String, List<CompletableFuture<NotificationTrigger>>> sendsByTenant = new LinkedHashMap<>();
+        for (String tenantId : tenants) {
+            try {
+                List<CompletableFuture<NotificationTrigger>> sends = startTenant(tenantId);
+                if (!sends.isEmpty()) {
+                    sendsByTenant.put(tenantId, sends);
+                }
+            } catch (Exception e) {
+                log.debug("Notification dispatch skipped tenant {}: {}", tenantId, e.getMessage());
+            }
+        }
+
+        sendsByTenant.forEach(this::finishTenant);
+
+        if (sweep) {
+            sampleBacklog(tenants);
+        }
+    }
+
+    private List<CompletableFuture<NotificationTrigger>> startTenant(String tenantId) {
+        List<NotificationTrigger> batch = notificationTriggerRepository.claimDue(
+                nodeId, Instant.now().plusMillis(leaseMs), batchSize, tenantId);
+        if (batch.isEmpty()) {
+            return List.of();
+        }
+        if (batch.size() == batchSize) {
+            dirtyTenants.add(tenantId);
+        }
+
+        RateLimiter rateLimiter = rateLimiters.computeIfAbsent(tenantId, key -> RateLimiter.create(tenantRatePerSecond));
+        List<CompletableFuture<NotificationTrigger>> sends = new ArrayList<>();
+        List<NotificationTrigger> deferred = new ArrayList<>();
+        for (NotificationTrigger trigger : batch) {
+            if (rateLimiter.tryAcquire()) {
+                sends.add(CompletableFuture.supplyAsync(() -> send(trigger, tenantId), executor));
+            } else {
+                deferred.add(trigger);
+            }
+        }
+
+        if (!deferred.isEmpty()) {
+            result("rate_limited").increment(deferred.size());
+            notificationTriggerRepository.releaseLeases(deferred, tenantId);
+            dirtyTenants.add(tenantId);
+        }
+        return sends;
+    }
+
+    private void finishTenant(String tenantId, List<CompletableFuture<NotificationTrigger>> sends) {
+        List<NotificationTrigger> outcomes = new ArrayList<>();
+        for (CompletableFuture<NotificationTrigger> send : sends) {
+            try {
+                outcomes.add(send.get(leaseMs, TimeUnit.MILLISECONDS));
+            } catch (Exception e) {
+                // Still leased; picked up again once the lease expires
+                log.warn("Notification send did not complete for tenant {}: {}", tenantId, e.getMessage());
+            }
+        }
+        try {
+            notificationTriggerRepository.saveOutcomes(outcomes, tenantId);
+        } catch (Exception e) {
+            log.error("Failed to store notification outcomes for tenant {}: {}", tenantId, e.getMessage());
+        }
+    }
+
+    private NotificationTrigger send(NotificationTrigger trigger, String tenantId) {
+        if (trigger.getTransactionId() == null) {
+            trigger.setTransactionId(UUID.randomUUID().toString());
+        }
+        Map<String, String> headers = new HashMap<>();
+        headers.put("X-Tenant-Id", tenantId);
+        headers.put("X-Business-Id", trigger.getBusinessId());
+        headers.put("X-Transaction-Id", trigger.getTransactionId());
+
+        TriggerEventRequest request = TriggerEventRequest.builder()
+                .eventType(trigger.getEventType())
+                .resource(trigger.getResource())
+                .dataProcessorIds(trigger.getDataProcessorsIds())
+                .customerIdentifiers(trigger.getCustomerIdentifiers())
+                .language(trigger.getLanguage() != null ? trigger.getLanguage() : LANGUAGE.ENGLISH)
+                .eventPayload(trigger.getEventPayload())
+                .build();
+
+        trigger.setAttempts(trigger.getAttempts() + 1);
+        try {
+            ResponseEntity<TriggerEventResponse> response =
+                    notificationApiManager.posttriggerEvent(headers, request, TriggerEventResponse.class);
+            trigger.setHttpStatus(response.getStatusCode().toString());
+            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+                markSent(trigger, response.getBody().getEventId());
+            } else {
+                markFailed(trigger, objectMapper.writeValueAsString(response.getBody()), true, tenantId);
+            }
+        } catch (HttpClientErrorException e) {
+            trigger.setHttpStatus(e.getStatusCode().toString());
+            markFailed(trigger, e.getMessage(), e.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value(), tenantId);
+        } catch (RestClientException | JsonProcessingException e) {
+            markFailed(trigger, e.getMessage(), true, tenantId);
+        }
+        return trigger;
+    }
+
+    private void markSent(NotificationTrigger trigger, String notificationEventId) {
+        trigger.setStatus(NotificationStatus.SENT);
+        trigger.setNotificationEventId(notificationEventId);
+        trigger.setErrorMessage(null);
+        trigger.setNextAttemptAt(null);
+        trigger.setSentAt(Instant.now());
+        result("sent").increment();
+        if (trigger.getCreatedAt() != null) {
+            deliveryLatency.record(Duration.between(trigger.getCreatedAt(), LocalDateTime.now()));
+        }
+    }
+
+    private void markFailed(NotificationTrigger trigger, String errorMessage, boolean retryable, String tenantId) {
+        trigger.setErrorMessage(errorMessage);
+        if (!retryable || trigger.getAttempts() >= maxAttempts) {
+            trigger.setStatus(NotificationStatus.DEAD);
+            trigger.setNextAttemptAt(null);
+            result("dead").increment();
+            log.error("Giving up on notification {} after {} attempts: {}",
+                    trigger.getEventKey(), trigger.getAttempts(), errorMessage);
+            return;
+        }
+        long backoffMs = Math.min(backoffMaxMs, backoffInitialMs << Math.min(trigger.getAttempts() - 1, 20));
+        Instant nextAttemptAt = Instant.now().plusMillis(backoffMs);
+        trigger.setStatus(NotificationStatus.FAILED);
+        trigger.setNextAttemptAt(nextAttemptAt);
+        retriesDue.merge(tenantId, nextAttemptAt, (current, candidate) -> current.isBefore(candidate) ? current : candidate);
+        result("failed").increment();
+    }
+
+    private void sampleBacklog(Set<String> tenants) {
+        long pending = 0;
+        long failed = 0;
+        for (String tenantId : tenants) {
+            try {
+                pending += notificationTriggerRepository.countByStatus(NotificationStatus.PENDING, tenantId);
+                failed += notificationTriggerRepository.countByStatus(NotificationStatus.FAILED, tenantId);
+            } catch (Exception e) {
+                log.debug("Notification backlog unavailable for tenant {}: {}", tenantId, e.getMessage());
+            }
+        }
+        pendingBacklog.set(pending);
+        failedBacklog.set(failed);
+    }
+
+    private Counter result(String result) {
+        return results.computeIfAbsent(result, key -> Counter.builder("notification_dispatch_total")
+                .description("Notification triggers by dispatch outcome")
+                .tag("result", key)
+                .register(meterRegistry));
+    }
+}
@@ -2,38 +2,31 @@ package com.example.scanner.client.notification;
 
 import com.example.scanner.dto.CustomerIdentifiers;
 import com.example.scanner.dto.NotificationTrigger;
-import com.example.scanner.dto.request.TriggerEventRequest;
-import com.example.scanner.dto.response.TriggerEventResponse;
 import com.example.scanner.enums.LANGUAGE;
 import com.example.scanner.enums.NotificationEvent;
-import com.example.scanner.enums.NotificationStatus;
-import com.example.scanner.repository.NotificationTriggerRepository;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.ResponseEntity;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestClientException;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 @Component
 @Slf4j
 public class NotificationManager extends NotificationApiManager {
 
-    NotificationTriggerRepository notificationTriggerRepository;
+    private final NotificationDispatcher notificationDispatcher;
 
     @Autowired
-    public NotificationManager(NotificationTriggerRepository notificationTriggerRepository) {
-        this.notificationTriggerRepository = notificationTriggerRepository;
+    public NotificationManager(NotificationDispatcher notificationDispatcher) {
+        this.notificationDispatcher = notificationDispatcher;
     }
 
     /**
-     * Common logic for triggering notification events
+     * Common logic for triggering notification events. The trigger is only stored in the
+     * tenant's outbox; {@link NotificationDispatcher} delivers it and retries failures.
      * 
      * @param eventType The notification event type
      * @param tenantId The tenant ID
@@ -42,6 +35,7 @@ public class NotificationManager extends NotificationApiManager {
      * @param dataProcessorIds Data processor IDs
      * @param eventPayload Event payload
      * @param language Language preference
+     * @param eventKey Identifies the occurrence of the event, used for dedupe
      */
     private void triggerNotificationEvent(NotificationEvent eventType,
                                           String tenantId,
@@ -49,62 +43,37 @@ public class NotificationManager extends NotificationApiManager {
                                           CustomerIdentifiers customerIdentifiers,
                                           List<String> dataProcessorIds,
                                           Object eventPayload,
-                                          LANGUAGE language) {
-        String eventId = eventType.getEventId();
-        String resource = eventType.getResource();
-
-        TriggerEventRequest request = TriggerEventRequest.builder()
-                .eventType(eventId)
-                .resource(resource)
-                .dataProcessorIds(dataProcessorIds)
-                .customerIdentifiers(customerIdentifiers)
-                .build();
-
-        if (language != null) {
-            request.setLanguage(language);
-        }
-
-        if (eventPayload != null) {
-            request.setEventPayload(eventPayload);
-        }
-
+                                          LANGUAGE language,
+                                          String eventKey) {
         NotificationTrigger notificationTrigger = NotificationTrigger.builder()
-                .eventType(eventId)
-                .resource(resource)
+                .eventType(eventType.getEventId())
+                .resource(eventType.getResource())
                 .businessId(businessId)
-                .status(NotificationStatus.PENDING)
+                .eventKey(eventKey)
                 .eventPayload(eventPayload)
                 .customerIdentifiers(customerIdentifiers)
                 .dataProcessorsIds(dataProcessorIds)
+                .language(language)
                 .build();
 
-        this.notificationTriggerRepository.save(notificationTrigger, tenantId);
-
-        Map<String, String> headers = new HashMap<>();
-        headers.put("X-Tenant-Id", tenantId);
-        headers.put("X-Business-Id", businessId);
+        this.notificationDispatcher.enqueue(notificationTrigger, tenantId);
+    }
 
-        //Todo: add logic to generate unique transaction id
-        headers.put("X-Transaction-Id", "ABCD1234567890EF1234567890");
+    /**
+     * Key of an event that happens once per consent version: event type, referenced consent and,
+     * when the payload carries one, the consent version.
+     */
+    private static String versionEventKey(NotificationEvent eventType, String referenceId, Object eventPayload) {
+        Object version = eventPayload instanceof Map<?, ?> payload ? payload.get("version") : null;
+        return eventType.getEventId() + ":" + referenceId + ":" + version;
+    }
 
-        ObjectMapper ob = new ObjectMapper();
-        try {
-            ResponseEntity<TriggerEventResponse> response = super.posttriggerEvent(headers, request, TriggerEventResponse.class);
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                notificationTrigger.setHttpStatus(response.getStatusCode().toString());
-                notificationTrigger.setNotificationEventId(response.getBody().getEventId());
-                notificationTrigger.setStatus(NotificationStatus.SENT);
-            } else {
-                notificationTrigger.setHttpStatus(response.getStatusCode().toString());
-                notificationTrigger.setStatus(NotificationStatus.FAILED);
-                notificationTrigger.setErrorMessage(ob.writeValueAsString(response.getBody()));
-            }
-        } catch (RestClientException | JsonProcessingException e) {
-            notificationTrigger.setStatus(NotificationStatus.FAILED);
-            notificationTrigger.setErrorMessage(e.getMessage());
-        } finally {
-            this.notificationTriggerRepository.save(notificationTrigger, tenantId);
-        }
+    /**
+     * Key of an event that can legitimately repeat for the same consent version, such as a token
+     * validation; every call is its own occurrence.
+     */
+    private static String occurrenceEventKey(NotificationEvent eventType, String referenceId) {
+        return eventType.getEventId() + ":" + referenceId + ":" + UUID.randomUUID();
     }
 
     @Async
@@ -117,7 +86,7 @@ public class NotificationManager extends NotificationApiManager {
                                             String consentHandleId) {
         try {
             triggerNotificationEvent(eventType, tenantId, businessId, customerIdentifiers,
-                    null , eventPayload, language);
+                    null , eventPayload, language, versionEventKey(eventType, consentHandleId, eventPayload));
         } catch (Exception e) {
             log.error("Notification trigger failed for event: {}, Cookie consent id: {}, error: {}",
                     eventType.getEventId(), consentHandleId, e.getMessage());
@@ -134,7 +103,7 @@ public class NotificationManager extends NotificationApiManager {
                                                                String consentId) {
         try {
             triggerNotificationEvent(eventType, tenantId, businessId, customerIdentifiers,
-                    null , eventPayload, language);
+                    null , eventPayload, language, versionEventKey(eventType, consentId, eventPayload));
         } catch (Exception e) {
             log.error("Notification trigger failed for event: {}, Cookie consent id: {}, error: {}",
                     eventType.getEventId(), consentId, e.getMessage());
@@ -151,7 +120,7 @@ public class NotificationManager extends NotificationApiManager {
                                                          String consentId) {
         try {
             triggerNotificationEvent(eventType, tenantId, businessId, customerIdentifiers,
-                    null , eventPayload, language);
+                    null , eventPayload, language, versionEventKey(eventType, consentId, eventPayload));
         } catch (Exception e) {
             log.error("Notification trigger failed for event: {}, Cookie consent id: {}, error: {}",
                     eventType.getEventId(), consentId, e.getMessage());
@@ -168,7 +137,7 @@ public class NotificationManager extends NotificationApiManager {
                                                                    String consentId) {
         try {
             triggerNotificationEvent(eventType, tenantId, businessId, customerIdentifiers,
-                    null , eventPayload, language);
+                    null , eventPayload, language, occurrenceEventKey(eventType, consentId));
         } catch (Exception e) {
             log.error("Notification trigger failed for event: {}, Cookie consent id: {}, error: {}",
                     eventType.getEventId(), consentId, e.getMessage());
@@ -185,7 +154,7 @@ public class NotificationManager extends NotificationApiManager {
                                                            String consentId) {
         try {
             triggerNotificationEvent(eventType, tenantId, businessId, customerIdentifiers,
-                    null , eventPayload, language);
+                    null , eventPayload, language, versionEventKey(eventType, consentId, eventPayload));
         } catch (Exception e) {
             log.error("Notification trigger failed for event: {}, Cookie consent id: {}, error: {}",
                     eventType.getEventId(), consentId, e.getMessage());
@@ -5,12 +5,14 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 public class AppConfig {
@@ -26,6 +28,52 @@ public class AppConfig {
     return ex;
   }
 
+  /**
+   * Runs the independent remote calls and writes of consent creation concurrently (see ConsentPipeline).
+   * Saturation falls back to running on the request thread rather than rejecting.
+   */
+  @Bean
+  public Executor consentPipelineExecutor(@Value("${consent.pipeline.executor.core-size:16}") int coreSize,
+                                          @Value("${consent.pipeline.executor.max-size:64}") int maxSize,
+                                          @Value("${consent.pipeline.executor.queue-capacity:200}") int queueCapacity) {
+    ThreadPoolTaskExecutor ex = new ThreadPoolTaskExecutor();
+    ex.setCorePoolSize(coreSize);
+    ex.setMaxPoolSize(maxSize);
+    ex.setQueueCapacity(queueCapacity);
+    ex.setThreadNamePrefix("consent-pipeline-");
+    ex.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+    ex.initialize();
+    return ex;
+  }
+
+  /**
+   * Sends audit events from the outbox, one ordering key per task (see AuditOutboxDispatcher).
+   */
+  @Bean
+  public Executor auditDispatchExecutor(@Value("${audit.outbox.dispatch-concurrency:8}") int concurrency) {
+    ThreadPoolTaskExecutor ex = new ThreadPoolTaskExecutor();
+    ex.setCorePoolSize(concurrency);
+    ex.setMaxPoolSize(concurrency);
+    ex.setThreadNamePrefix("audit-dispatch-");
+    ex.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+    ex.initialize();
+    return ex;
+  }
+
+  /**
+   * Sends notification triggers leased by NotificationDispatcher.
+   */
+  @Bean
+  public Executor notificationDispatchExecutor(@Value("${notification.outbox.dispatch-concurrency:8}") int concurrency) {
+    ThreadPoolTaskExecutor ex = new ThreadPoolTaskExecutor();
+    ex.setCorePoolSize(concurrency);
+    ex.setMaxPoolSize(concurrency);
+    ex.setThreadNamePrefix("notification-dispatch-");
+    ex.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+    ex.initialize();
+    return ex;
+  }
+
   @Bean
   @Primary
   public ObjectMapper objectMapper() {
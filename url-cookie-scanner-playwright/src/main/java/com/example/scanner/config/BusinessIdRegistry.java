@@ -0,0 +1,272 @@
+package com.example.scanner.config;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.mongodb.client.MongoCollection;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-tenant view of the business IDs in {@code business_applications}.
+ *
+ * Confirmed IDs are held in a positive cache, and IDs Mongo does not have in a short-lived
+ * negative cache ({@code business-id.negative-cache.ttl-seconds}). With
+ * {@code business-id.bloom.enabled}, a Bloom filter per tenant, rebuilt from the collection every
+ * {@code business-id.bloom.rebuild-interval-ms}, rejects unknown IDs without a database call;
+ * only filter hits are confirmed against Mongo. Business applications are written by another
+ * service: one it does not report through {@link #registerBusinessId} (the {@code businessids}
+ * actuator endpoint) is rejected until the next rebuild. Disable the filter to check every
+ * miss against Mongo instead, which also stops the periodic scans.
+ */
+@Slf4j
+@Component
+public class BusinessIdRegistry {
+
+    static final String COLLECTION_BUSINESS_APPLICATIONS = "business_applications";
+    private static final String BUSINESS_ID = "businessId";
+
+    private final TenantMongoTemplateRegistry mongoTemplateRegistry;
+    private final Cache<String, Boolean> confirmedIds;
+    private final Cache<String, Boolean> unknownIds;
+    private final Map<String, TenantFilter> filters = new ConcurrentHashMap<>();
+
+    private final Counter bloomRejected;
+    private final Counter bloomPassed;
+    private final Counter bloomFalsePositives;
+
+    @Value("${business-id.bloom.enabled:true}")
+    private boolean bloomEnabled;
+
+    @Value("${business-id.bloom.false-positive-probability:0.01}")
+    private double falsePositiveProbability;
+
+    @Value("${business-id.bloom.idle-tenant-minutes:60}")
+    private long idleTenantMinutes;
+
+    public BusinessIdRegistry(TenantMongoTemplateRegistry mongoTemplateRegistry,
+                              MeterRegistry meterRegistry,
+                              @Value("${business-id.cache.ttl-seconds:300}") long cacheTtlSeconds,
+                              @Value("${business-id.cache.max-size:50000}") long cacheMaxSize,
+                              @Value("${business-id.negative-cache.ttl-seconds:10}") long negativeTtlSeconds,
+                              @Value("${business-id.negative-cache.max-size:50000}") long negativeMaxSize) {
+        this.mongoTemplateRegistry = mongoTemplateRegistry;
+        this.confirmedIds = CacheBuilder.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheTtlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+
+        this.unknownIds = CacheBuilder.newBuilder()
+                .maximumSize(negativeMaxSize)
+                .expireAfterWrite(negativeTtlSeconds, TimeUnit.SECONDS)
+                .build();
+
+        GuavaCacheMetrics.monitor(meterRegistry, confirmedIds, "business_id_cache");
+
+        Gauge.builder("business_id_cache_hit_ratio", confirmedIds, cache -> cache.stats().hitRate())
+                .description("Hit ratio of the confirmed business ID cache")
+                .register(meterRegistry);
+
+        this.bloomRejected = Counter.builder("business_id_bloom_total")
+                .description("Business ID Bloom filter checks")
+                .tag("outcome", "rejected")
+                .register(meterRegistry);
+
+        this.bloomPassed = Counter.builder("business_id_bloom_total")
+                .description("Business ID Bloom filter checks")
+                .tag("outcome", "passed")
+                .register(meterRegistry);
+
+        this.bloomFalsePositives = Counter.builder("business_id_bloom_total")
+                .description("Business ID Bloom filter checks")
+                .tag("outcome", "false_positive")
+                .register(meterRegistry);
+
+        Gauge.builder("business_id_bloom_false_positive_ratio", this, BusinessIdRegistry::observedFalsePositiveRatio)
+                .description("Share of Bloom filter passes that the database did not confirm")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether the business ID exists in the tenant's business_applications collection.
+     */
+    public boolean exists(String tenantId, String businessId) {
+        String key = cacheKey(tenantId, businessId);
+        if (confirmedIds.getIfPresent(key) != null) {
+            return true;
+        }
+        if (unknownIds.getIfPresent(key) != null) {
+            return false;
+        }
+
+        TenantFilter filter = bloomEnabled ? filterFor(tenantId) : null;
+        if (filter != null) {
+            if (!filter.mightContain(businessId)) {
+                bloomRejected.increment();
+                unknownIds.put(key, Boolean.TRUE);
+                return false;
+            }
+            bloomPassed.increment();
+        }
+
+        Query query = new Query(Criteria.where(BUSINESS_ID).is(businessId));
+        boolean exists = mongoTemplateRegistry.getMongoTemplateForTenant(tenantId)
+                .exists(query, COLLECTION_BUSINESS_APPLICATIONS);
+
+        if (exists) {
+            confirmedIds.put(key, Boolean.TRUE);
+        } else {
+            unknownIds.put(key, Boolean.TRUE);
+            if (filter != null) {
+                bloomFalsePositives.increment();
+            }
+        }
+        return exists;
+    }
+
+    /**
+     * Record a newly created business application so it is accepted before the next rebuild.
+     */
+    public void registerBusinessId(String tenantId, String businessId) {
+        // Serialized with the swap in rebuild, so the ID reaches whichever filter is current
+        filters.computeIfPresent(tenantId, (id, filter) -> {
+            filter.register(businessId);
+            return filter;
+        });
+        unknownIds.invalidate(cacheKey(tenantId, businessId));
+    }
+
+    /**
+     * Drop a business ID from the positive cache (e.g. after the application was deleted).
+     * The Bloom filter cannot remove entries, so it is rebuilt for the tenant.
+     */
+    public void invalidate(String tenantId, String businessId) {
+        confirmedIds.invalidate(cacheKey(tenantId, businessId));
+        if (filters.containsKey(tenantId)) {
+            rebuild(tenantId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${business-id.bloom.rebuild-interval-ms:60000}",
+            initialDelayString = "${business-id.bloom.rebuild-interval-ms:60000}")
+    public void rebuildFilters() {
+        long idleCutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(idleTenantMinutes);
+        filters.entrySet().removeIf(entry -> entry.getValue().lastAccess < idleCutoff);
+
+        for (String tenantId : filters.keySet()) {
+            rebuild(tenantId);
+        }
+    }
+
+    private TenantFilter filterFor(String tenantId) {
+        TenantFilter filter = filters.get(tenantId);
+        if (filter == null) {
+            filter = filters.computeIfAbsent(tenantId, this::build);
+        }
+        if (filter == null) {
+            return null;
+        }
+        filter.lastAccess = System.currentTimeMillis();
+        return filter;
+    }
+
+    private void rebuild(String tenantId) {
+        TenantFilter rebuilt = build(tenantId);
+        if (rebuilt != null) {
+            filters.computeIfPresent(tenantId, (id, previous) -> {
+                // IDs registered while the scan ran may not be in it
+                previous.registered.forEach(rebuilt::put);
+                rebuilt.lastAccess = previous.lastAccess;
+                return rebuilt;
+            });
+        }
+    }
+
+    /**
+     * Scan the business IDs of a tenant into a fresh filter. Returns null if the collection
+     * cannot be read, in which case lookups fall back to the database.
+     */
+    private TenantFilter build(String tenantId) {
+        try {
+            MongoTemplate tenantTemplate = mongoTemplateRegistry.getMongoTemplateForTenant(tenantId);
+            MongoCollection<Document> collection = tenantTemplate.getCollection(COLLECTION_BUSINESS_APPLICATIONS);
+            // Pooled tenants share the collection, so only count and read their own documents
+            Document tenantFilter = TenantScopedMongoTemplate.tenantFilter(tenantTemplate);
+            long documents = tenantFilter.isEmpty()
+                    ? collection.estimatedDocumentCount()
+                    : collection.countDocuments(tenantFilter);
+
+            // Size for growth so IDs registered between rebuilds do not degrade the error rate
+            long expected = Math.max(documents * 2, 1024);
+            BloomFilter<CharSequence> bloom = BloomFilter.create(
+                    Funnels.stringFunnel(StandardCharsets.UTF_8), expected, falsePositiveProbability);
+
+            int count = 0;
+            for (Document doc : collection.find(tenantFilter)
+                    .projection(new Document(BUSINESS_ID, 1).append("_id", 0))) {
+                String businessId = doc.getString(BUSINESS_ID);
+                if (businessId != null) {
+                    bloom.put(businessId);
+                    count++;
+                }
+            }
+
+            log.debug("Built business ID filter for tenant {} with {} IDs", tenantId, count);
+            return new TenantFilter(bloom);
+        } catch (Exception e) {
+            log.warn("Failed to build business ID filter for tenant {}: {}", tenantId, e.getMessage());
+            return null;
+        }
+    }
+
+    private double observedFalsePositiveRatio() {
+        double passed = bloomPassed.count();
+        return passed == 0 ? 0.0 : bloomFalsePositives.count() / passed;
+    }
+
+    private static String cacheKey(String tenantId, String businessId) {
+        return tenantId + ":" + businessId;
+    }
+
+    private static final class TenantFilter {
+        private final BloomFilter<CharSequence> bloom;
+        private final Set<String> registered = ConcurrentHashMap.newKeySet();
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        TenantFilter(BloomFilter<CharSequence> bloom) {
+            this.bloom = bloom;
+        }
+
+        boolean mightContain(String businessId) {
+            return bloom.mightContain(businessId);
+        }
+
+        void put(String businessId) {
+            // Guava's BloomFilter is lock-free and safe for concurrent put/mightContain
+            bloom.put(businessId);
+        }
+
+        void register(String businessId) {
+            registered.add(businessId);
+            put(businessId);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.scanner.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Invalidation hook for business application writes made by other services.
+ *
+ * POST   /actuator/businessids/{tenantId}/{businessId} - business application created
+ * DELETE /actuator/businessids/{tenantId}/{businessId} - business application changed or removed
+ */
+@Component
+@Endpoint(id = "businessids")
+@RequiredArgsConstructor
+public class BusinessIdRegistryEndpoint {
+
+    private final BusinessIdRegistry businessIdRegistry;
+
+    @WriteOperation
+    public Map<String, Object> register(@Selector String tenantId, @Selector String businessId) {
+        businessIdRegistry.registerBusinessId(tenantId, businessId);
+        return result(tenantId, businessId, "registered");
+    }
+
+    @DeleteOperation
+    public Map<String, Object> invalidate(@Selector String tenantId, @Selector String businessId) {
+        businessIdRegistry.invalidate(tenantId, businessId);
+        return result(tenantId, businessId, "invalidated");
+    }
+
+    private Map<String, Object> result(String tenantId, String businessId, String action) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("tenantId", tenantId);
+        result.put("businessId", businessId);
+        result.put(action, true);
+        return result;
+    }
+}
@@ -10,9 +10,6 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.annotation.Order;
-import org.springframework.data.mongodb.core.MongoTemplate;
-import org.springframework.data.mongodb.core.query.Criteria;
-import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
@@ -27,7 +24,7 @@ import java.util.List;
 @Slf4j
 public class BusinessIdValidationFilter implements Filter {
 
-    private final MultiTenantMongoConfig mongoConfig;
+    private final BusinessIdRegistry businessIdRegistry;
     private final ObjectMapper objectMapper;
 
     @Value("${multi-tenant.tenant-database-prefix}")
@@ -46,8 +43,8 @@ public class BusinessIdValidationFilter implements Filter {
             "/cookie-templates"
     );
 
-    public BusinessIdValidationFilter(MultiTenantMongoConfig mongoConfig, ObjectMapper objectMapper) {
-        this.mongoConfig = mongoConfig;
+    public BusinessIdValidationFilter(BusinessIdRegistry businessIdRegistry, ObjectMapper objectMapper) {
+        this.businessIdRegistry = businessIdRegistry;
         this.objectMapper = objectMapper;
     }
 
@@ -134,22 +131,15 @@ public class BusinessIdValidationFilter implements Filter {
     }
 
     /**
-     * Check if business ID exists in tenant's business_applications collection
-     * Uses dynamic query without entity/repository
+     * Check if business ID exists in tenant's business_applications collection.
+     * Answered by the Bloom filter and positive cache where possible
      */
     private boolean businessIdExistsInTenant(String businessId, String tenantId) {
         try {
             // Set tenant context
             TenantContext.setCurrentTenant(tenantId);
 
-            // Get MongoTemplate for this tenant
-            MongoTemplate tenantMongoTemplate = mongoConfig.getMongoTemplateForTenant(tenantId);
-
-            // Create dynamic query to check if businessId exists
-            Query query = new Query(Criteria.where("businessId").is(businessId));
-
-            // Check existence in business_applications collection
-            return tenantMongoTemplate.exists(query, "business_applications");
+            return businessIdRegistry.exists(tenantId, businessId);
         } catch (Exception e) {
             log.error("Error checking business ID existence");
             return false;
@@ -0,0 +1,28 @@
+package com.example.scanner.config;
+
+import com.example.scanner.service.ConsentAnalyticsCounters;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Backfill hook for the consent analytics counters.
+ *
+ * POST /actuator/consentanalytics/{tenantId} - recompute the tenant's counters from its consents and handles
+ */
+@Component
+@Endpoint(id = "consentanalytics")
+@RequiredArgsConstructor
+public class ConsentAnalyticsEndpoint {
+
+    private final ConsentAnalyticsCounters consentAnalytics;
+
+    @WriteOperation
+    public Map<String, Object> rebuild(@Selector String tenantId) {
+        return consentAnalytics.rebuild(tenantId);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.scanner.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Consent token format per tenant.
+ *
+ * {@code algorithm} picks the signing key (RS256, ES256 or EdDSA); the key set of
+ * {@code TokenSigningKeys} must contain a private key for every algorithm in use.
+ * {@code claims=full} puts the whole consent JSON in the subject; {@code claims=compact} only
+ * carries the consent id, version, status, expiry and a SHA-256 of the consent JSON.
+ * Tokens of every algorithm in the key set verify regardless of these settings.
+ *
+ * <pre>
+ * consent.token.algorithm=RS256
+ * consent.token.claims=full
+ * consent.token.tenants.acme.algorithm=ES256
+ * consent.token.tenants.acme.claims=compact
+ * </pre>
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "consent.token")
+public class ConsentTokenProperties {
+
+    private String algorithm = "RS256";
+    private Claims claims = Claims.FULL;
+    private Map<String, Profile> tenants = new LinkedHashMap<>();
+
+    public enum Claims {
+        FULL,
+        COMPACT
+    }
+
+    /**
+     * Tenant overrides. Unset values fall back to the defaults above.
+     */
+    @Getter
+    @Setter
+    public static class Profile {
+        private String algorithm;
+        private Claims claims;
+    }
+
+    public String algorithmFor(String tenantId) {
+        Profile profile = tenantId != null ? tenants.get(tenantId) : null;
+        return profile != null && profile.getAlgorithm() != null ? profile.getAlgorithm() : algorithm;
+    }
+
+    public Claims claimsFor(String tenantId) {
+        Profile profile = tenantId != null ? tenants.get(tenantId) : null;
+        return profile != null && profile.getClaims() != null ? profile.getClaims() : claims;
+    }
+}
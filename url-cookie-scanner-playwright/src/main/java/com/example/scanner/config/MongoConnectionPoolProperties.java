@@ -0,0 +1,63 @@
+package com.example.scanner.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mongo connection pool layout.
+ *
+ * With {@code per-tenant=false} every tenant uses the shared client. With
+ * {@code per-tenant=true}, tenants listed under a group get that group's dedicated client
+ * and pool; all other tenants stay on the shared pool.
+ *
+ * <pre>
+ * multi-tenant.connection-pool.per-tenant=true
+ * multi-tenant.connection-pool.shared.max-size=100
+ * multi-tenant.connection-pool.groups.large.tenants=acme,globex
+ * multi-tenant.connection-pool.groups.large.max-size=40
+ * multi-tenant.connection-pool.groups.large.wait-queue-size=80
+ * </pre>
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "multi-tenant.connection-pool")
+public class MongoConnectionPoolProperties {
+
+    public static final String SHARED_GROUP = "shared";
+
+    private boolean perTenant = false;
+    private Pool shared = new Pool();
+    private Map<String, Group> groups = new LinkedHashMap<>();
+
+    /**
+     * Pool settings. Unset values keep the driver defaults / connection string options.
+     */
+    @Getter
+    @Setter
+    public static class Pool {
+        private Integer maxSize;
+        private Integer minSize;
+        private Integer maxConnecting;
+        private Long maxWaitTimeMs;
+        private Long maxIdleTimeMs;
+        /**
+         * Operations allowed to wait for a connection beyond max-size before being rejected.
+         * The driver no longer bounds its wait queue, so this is enforced by a bulkhead.
+         */
+        private Integer waitQueueSize;
+    }
+
+    @Getter
+    @Setter
+    public static class Group extends Pool {
+        private List<String> tenants = new ArrayList<>();
+    }
+}
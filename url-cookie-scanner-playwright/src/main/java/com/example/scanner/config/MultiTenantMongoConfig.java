@@ -2,6 +2,7 @@ package com.example.scanner.config;
 
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -18,6 +19,9 @@ import org.springframework.data.mongodb.config.AbstractMongoClientConfiguration;
 @RequiredArgsConstructor
 public class MultiTenantMongoConfig extends AbstractMongoClientConfiguration {
 
+    private final MongoConnectionPoolProperties connectionPoolProperties;
+    private final MeterRegistry meterRegistry;
+
     @Value("${spring.data.mongodb.uri}")
     private String mongoUri;
 
@@ -36,7 +40,8 @@ public class MultiTenantMongoConfig extends AbstractMongoClientConfiguration {
     @Override
     public MongoClient mongoClient() {
         log.info("Connecting to MongoDB");
-        return MongoClients.create(mongoUri);
+        return MongoClients.create(TenantPoolGroups.buildSettings(mongoUri, connectionPoolProperties.getShared(),
+                meterRegistry, MongoConnectionPoolProperties.SHARED_GROUP));
     }
 
     /**
@@ -44,15 +49,16 @@ public class MultiTenantMongoConfig extends AbstractMongoClientConfiguration {
      */
     @Bean
     @Primary
-    public MongoTemplate tenantMongoTemplate(MongoClient mongoClient) {
+    public MongoTemplate tenantMongoTemplate(MongoClient mongoClient, TenantClusterRouter clusterRouter) {
         log.info("Initializing primary tenant-aware MongoTemplate.");
         TenantAwareMongoDbFactory tenantAwareFactory =
-                new TenantAwareMongoDbFactory(mongoClient, sharedDatabase, tenantDatabasePrefix);
+                new TenantAwareMongoDbFactory(mongoClient, sharedDatabase, tenantDatabasePrefix, clusterRouter);
         return new TenantAwareMongoTemplate(tenantAwareFactory, tenantAwareFactory);
     }
 
     /**
-     * MongoTemplate for shared database operations
+     * MongoTemplate for shared database operations.
+     * Per-tenant templates are served by {@link TenantMongoTemplateRegistry}.
      */
     @Bean
     public MongoTemplate sharedMongoTemplate(MongoClient mongoClient) {
@@ -60,14 +66,4 @@ public class MultiTenantMongoConfig extends AbstractMongoClientConfiguration {
         return new MongoTemplate(factory);
     }
 
-    /**
-     * Helper method to get tenant-specific MongoTemplate programmatically
-     */
-    public MongoTemplate getMongoTemplateForTenant(String tenantId) {
-        String dbName = tenantDatabasePrefix + tenantId;
-        log.info("Getting MongoTemplate");
-        MongoDatabaseFactory factory = new SimpleMongoClientDatabaseFactory(mongoClient(), dbName);
-        return new MongoTemplate(factory);
-    }
-
 }
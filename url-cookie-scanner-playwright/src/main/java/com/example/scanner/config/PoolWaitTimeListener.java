@@ -0,0 +1,44 @@
+package com.example.scanner.config;
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how long operations wait to check a connection out of a pool, tagged by tenant group.
+ */
+public class PoolWaitTimeListener implements ConnectionPoolListener {
+
+    private final Timer checkedOut;
+    private final Timer checkOutFailed;
+
+    public PoolWaitTimeListener(MeterRegistry meterRegistry, String tenantGroup) {
+        this.checkedOut = Timer.builder("mongodb_pool_wait")
+                .description("Time spent waiting for a pooled Mongo connection")
+                .tag("tenant_group", tenantGroup)
+                .tag("outcome", "checked_out")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+
+        this.checkOutFailed = Timer.builder("mongodb_pool_wait")
+                .description("Time spent waiting for a pooled Mongo connection")
+                .tag("tenant_group", tenantGroup)
+                .tag("outcome", "failed")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        checkedOut.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        checkOutFailed.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.scanner.config;
+
+import com.example.scanner.service.RequestResponseSignatureService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Invalidation hook for certificate writes made by other services.
+ *
+ * DELETE /actuator/requestsigningkeys/{tenantId}/{ownerId} - business or data processor certificate changed
+ */
+@Component
+@Endpoint(id = "requestsigningkeys")
+@RequiredArgsConstructor
+public class RequestSigningKeyEndpoint {
+
+    private final RequestResponseSignatureService signatureService;
+
+    @DeleteOperation
+    public Map<String, Object> invalidate(@Selector String tenantId, @Selector String ownerId) {
+        signatureService.invalidate(tenantId, ownerId);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("tenantId", tenantId);
+        result.put("ownerId", ownerId);
+        result.put("invalidated", true);
+        return result;
+    }
+}
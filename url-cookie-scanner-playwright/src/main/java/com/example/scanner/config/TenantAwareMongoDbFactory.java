@@ -1,8 +1,10 @@
 package com.example.scanner.config;
 
+import com.example.scanner.entity.TenantPlacement;
+import com.example.scanner.enums.PlacementState;
+import com.example.scanner.exception.TenantMigrationInProgressException;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoDatabase;
-import com.mongodb.client.MongoIterable;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
 
@@ -11,11 +13,14 @@ public class TenantAwareMongoDbFactory extends SimpleMongoClientDatabaseFactory
 
     private final String sharedDatabase;
     private final String tenantDatabasePrefix;
+    private final TenantClusterRouter clusterRouter;
 
-    public TenantAwareMongoDbFactory(MongoClient mongoClient, String sharedDatabase, String tenantDatabasePrefix) {
+    public TenantAwareMongoDbFactory(MongoClient mongoClient, String sharedDatabase, String tenantDatabasePrefix,
+                                     TenantClusterRouter clusterRouter) {
         super(mongoClient, sharedDatabase);
         this.sharedDatabase = sharedDatabase;
         this.tenantDatabasePrefix = tenantDatabasePrefix;
+        this.clusterRouter = clusterRouter;
     }
 
     @Override
@@ -27,7 +32,25 @@ public class TenantAwareMongoDbFactory extends SimpleMongoClientDatabaseFactory
             return super.getMongoDatabase(sharedDatabase);
         }
 
-        String dbName = tenantDatabasePrefix + tenantId;
-        return super.getMongoDatabase(dbName);
+        TenantPlacement placement = clusterRouter.placementFor(tenantId);
+        // Same rule as TenantMongoTemplateRegistry: writes made here during a freeze would land on
+        // the source cluster after the copy and be lost at the switch
+        if (placement.getState() == PlacementState.FROZEN) {
+            throw new TenantMigrationInProgressException(tenantId);
+        }
+        String dbName = placement.isPooled() ? clusterRouter.getPooledDatabase() : tenantDatabasePrefix + tenantId;
+        // Tenant databases may live on another cluster than the shared database
+        return clusterRouter.clientForCluster(placement.getCluster(), tenantId).getDatabase(dbName);
+    }
+
+    /**
+     * The current tenant if it is stored in pooled collections, otherwise null.
+     */
+    public String getPooledTenant() {
+        String tenantId = TenantContext.getCurrentTenant();
+        if (tenantId == null || tenantId.trim().isEmpty()) {
+            return null;
+        }
+        return clusterRouter.placementFor(tenantId).isPooled() ? tenantId : null;
     }
 }
\ No newline at end of file
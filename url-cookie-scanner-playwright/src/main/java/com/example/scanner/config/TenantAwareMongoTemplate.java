@@ -2,14 +2,17 @@ package com.example.scanner.config;
 
 import com.mongodb.client.MongoDatabase;
 import org.springframework.data.mongodb.MongoDatabaseFactory;
-import org.springframework.data.mongodb.core.MongoTemplate;
 
-public class TenantAwareMongoTemplate extends MongoTemplate {
+/**
+ * Template bound to the database of the tenant in {@link TenantContext}; pooled tenants are
+ * scoped to their own documents in the shared collections.
+ */
+public class TenantAwareMongoTemplate extends TenantScopedMongoTemplate {
 
     private final TenantAwareMongoDbFactory tenantAwareMongoDbFactory;
 
     public TenantAwareMongoTemplate(MongoDatabaseFactory mongoDatabaseFactory, TenantAwareMongoDbFactory tenantAwareMongoDbFactory) {
-        super(mongoDatabaseFactory);
+        super(mongoDatabaseFactory, tenantAwareMongoDbFactory::getPooledTenant);
         this.tenantAwareMongoDbFactory = tenantAwareMongoDbFactory;
     }
 
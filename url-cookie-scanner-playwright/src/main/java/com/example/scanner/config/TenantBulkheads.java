@@ -0,0 +1,123 @@
+package com.example.scanner.config;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * Semaphore bulkheads that keep one class of Mongo work from starving the others.
+ *
+ * Each (pool group, operation class) pair gets its own bulkhead, so a dashboard storm in one
+ * group cannot take the permits consent checks need, and a dedicated group cannot take permits
+ * from the shared group. When a group configures {@code wait-queue-size}, an additional
+ * group-wide bulkhead caps concurrent operations at {@code max-size + wait-queue-size}.
+ *
+ * Limits per operation class: {@code multi-tenant.bulkhead.<operation>.max-concurrent-calls}
+ * and {@code multi-tenant.bulkhead.<operation>.max-wait-ms}, e.g. {@code consent-read}.
+ */
+@Component
+public class TenantBulkheads {
+
+    public enum OperationClass {
+        CONSENT_READ(200, 50),
+        CONSENT_WRITE(50, 500),
+        SCAN_WRITE(20, 10000),
+        ANALYTICS(5, 100);
+
+        private final int defaultMaxConcurrentCalls;
+        private final long defaultMaxWaitMs;
+
+        OperationClass(int defaultMaxConcurrentCalls, long defaultMaxWaitMs) {
+            this.defaultMaxConcurrentCalls = defaultMaxConcurrentCalls;
+            this.defaultMaxWaitMs = defaultMaxWaitMs;
+        }
+
+        String propertyKey() {
+            return name().toLowerCase(Locale.ROOT).replace('_', '-');
+        }
+    }
+
+    private final BulkheadRegistry bulkheadRegistry;
+    private final TenantPoolGroups tenantPoolGroups;
+    private final Environment environment;
+
+    @Value("${multi-tenant.bulkhead.enabled:true}")
+    private boolean enabled;
+
+    public TenantBulkheads(BulkheadRegistry bulkheadRegistry, TenantPoolGroups tenantPoolGroups, Environment environment) {
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.tenantPoolGroups = tenantPoolGroups;
+        this.environment = environment;
+    }
+
+    /**
+     * Run a call inside the tenant's bulkheads. Throws
+     * {@link io.github.resilience4j.bulkhead.BulkheadFullException} when no permit is available
+     * within the configured wait.
+     */
+    public <T> T call(String tenantId, OperationClass operation, Callable<T> callable) throws Exception {
+        if (!enabled) {
+            return callable.call();
+        }
+        String group = tenantPoolGroups.groupFor(tenantId);
+        Callable<T> decorated = Bulkhead.decorateCallable(operationBulkhead(group, operation), callable);
+        Bulkhead groupBulkhead = groupBulkhead(group);
+        if (groupBulkhead != null) {
+            decorated = Bulkhead.decorateCallable(groupBulkhead, decorated);
+        }
+        return decorated.call();
+    }
+
+    public <T> T get(String tenantId, OperationClass operation, Supplier<T> supplier) {
+        if (!enabled) {
+            return supplier.get();
+        }
+        String group = tenantPoolGroups.groupFor(tenantId);
+        Supplier<T> decorated = Bulkhead.decorateSupplier(operationBulkhead(group, operation), supplier);
+        Bulkhead groupBulkhead = groupBulkhead(group);
+        if (groupBulkhead != null) {
+            decorated = Bulkhead.decorateSupplier(groupBulkhead, decorated);
+        }
+        return decorated.get();
+    }
+
+    public void run(String tenantId, OperationClass operation, Runnable runnable) {
+        get(tenantId, operation, () -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    private Bulkhead operationBulkhead(String group, OperationClass operation) {
+        String name = "mongo-" + group + "-" + operation.propertyKey();
+        return bulkheadRegistry.bulkhead(name, () -> {
+            String prefix = "multi-tenant.bulkhead." + operation.propertyKey();
+            return BulkheadConfig.custom()
+                    .maxConcurrentCalls(environment.getProperty(prefix + ".max-concurrent-calls",
+                            Integer.class, operation.defaultMaxConcurrentCalls))
+                    .maxWaitDuration(Duration.ofMillis(environment.getProperty(prefix + ".max-wait-ms",
+                            Long.class, operation.defaultMaxWaitMs)))
+                    .build();
+        });
+    }
+
+    private Bulkhead groupBulkhead(String group) {
+        MongoConnectionPoolProperties.Pool pool = tenantPoolGroups.poolSettings(group);
+        if (pool.getWaitQueueSize() == null || pool.getMaxSize() == null) {
+            return null;
+        }
+        long maxWaitMs = pool.getMaxWaitTimeMs() != null ? pool.getMaxWaitTimeMs() : 0L;
+        return bulkheadRegistry.bulkhead("mongo-pool-" + group, () -> BulkheadConfig.custom()
+                .maxConcurrentCalls(pool.getMaxSize() + pool.getWaitQueueSize())
+                .maxWaitDuration(Duration.ofMillis(maxWaitMs))
+                .build());
+    }
+}
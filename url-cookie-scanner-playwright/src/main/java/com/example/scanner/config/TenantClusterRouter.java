@@ -0,0 +1,207 @@
+package com.example.scanner.config;
+
+import com.example.scanner.entity.TenantPlacement;
+import com.example.scanner.enums.PlacementState;
+import com.example.scanner.enums.StorageMode;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Routes each tenant to the Mongo cluster holding its data, and tells whether the tenant has
+ * its own database or lives in the pooled collections of {@code multi-tenant.pooled.database}.
+ *
+ * Clusters are configured as {@code multi-tenant.routing.clusters.<name>=<uri>}; the cluster
+ * behind {@code spring.data.mongodb.uri} is always available as {@value #DEFAULT_CLUSTER}.
+ * Placements live in the shared database ({@code tenant_placements}) and are cached for
+ * {@code multi-tenant.routing.placement-cache-ttl-seconds}, which also bounds how long other
+ * instances take to observe a migration freeze or switch. Placements are only read when
+ * routing or pooled storage is enabled.
+ */
+@Slf4j
+@Component
+public class TenantClusterRouter {
+
+    public static final String DEFAULT_CLUSTER = "default";
+
+    private final TenantPoolGroups tenantPoolGroups;
+    private final MongoTemplate sharedMongoTemplate;
+    private final boolean enabled;
+    private final boolean pooledEnabled;
+    private final String pooledDatabase;
+    private final long placementCacheTtlSeconds;
+    private final Map<String, MongoClient> clusterClients = new LinkedHashMap<>();
+    private final LoadingCache<String, TenantPlacement> placements;
+
+    public TenantClusterRouter(TenantPoolGroups tenantPoolGroups,
+                               @Qualifier("sharedMongoTemplate") MongoTemplate sharedMongoTemplate,
+                               MongoConnectionPoolProperties connectionPoolProperties,
+                               MeterRegistry meterRegistry,
+                               Environment environment,
+                               @Value("${multi-tenant.routing.enabled:false}") boolean enabled,
+                               @Value("${multi-tenant.routing.placement-cache-ttl-seconds:5}") long placementCacheTtlSeconds,
+                               @Value("${multi-tenant.pooled.enabled:false}") boolean pooledEnabled,
+                               @Value("${multi-tenant.pooled.database:pooled_tenants}") String pooledDatabase) {
+        this.tenantPoolGroups = tenantPoolGroups;
+        this.sharedMongoTemplate = sharedMongoTemplate;
+        this.enabled = enabled;
+        this.pooledEnabled = pooledEnabled;
+        this.pooledDatabase = pooledDatabase;
+        this.placementCacheTtlSeconds = placementCacheTtlSeconds;
+
+        if (enabled) {
+            Map<String, String> clusters = Binder.get(environment)
+                    .bind("multi-tenant.routing.clusters", Bindable.mapOf(String.class, String.class))
+                    .orElse(Collections.emptyMap());
+            clusters.forEach((name, uri) -> {
+                if (DEFAULT_CLUSTER.equals(name)) {
+                    return;
+                }
+                clusterClients.put(name, MongoClients.create(TenantPoolGroups.buildSettings(
+                        uri, connectionPoolProperties.getShared(), meterRegistry, "cluster:" + name)));
+                log.info("Registered Mongo cluster '{}'", name);
+            });
+        }
+
+        this.placements = CacheBuilder.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(placementCacheTtlSeconds, TimeUnit.SECONDS)
+                .build(new CacheLoader<String, TenantPlacement>() {
+                    @Override
+                    public TenantPlacement load(String tenantId) {
+                        return loadPlacement(tenantId);
+                    }
+                });
+    }
+
+    public TenantPlacement placementFor(String tenantId) {
+        if (!enabled && !pooledEnabled) {
+            return defaultPlacement(tenantId);
+        }
+        return placements.getUnchecked(tenantId);
+    }
+
+    public String clusterFor(String tenantId) {
+        return placementFor(tenantId).getCluster();
+    }
+
+    /**
+     * Client for the tenant's cluster. On the default cluster the tenant's pool group decides
+     * between the shared and a dedicated client.
+     */
+    public MongoClient clientFor(String tenantId) {
+        return clientForCluster(clusterFor(tenantId), tenantId);
+    }
+
+    public MongoClient clientForCluster(String cluster, String tenantId) {
+        if (DEFAULT_CLUSTER.equals(cluster)) {
+            return tenantPoolGroups.clientFor(tenantId);
+        }
+        MongoClient client = clusterClients.get(cluster);
+        if (client == null) {
+            throw new IllegalStateException("Unknown Mongo cluster '" + cluster + "' for tenant " + tenantId);
+        }
+        return client;
+    }
+
+    public boolean isKnownCluster(String cluster) {
+        return DEFAULT_CLUSTER.equals(cluster) || clusterClients.containsKey(cluster);
+    }
+
+    /**
+     * One client per cluster, for cluster-wide operations such as listing databases.
+     */
+    public Map<String, MongoClient> clusterClients(MongoClient defaultClient) {
+        Map<String, MongoClient> clients = new LinkedHashMap<>();
+        clients.put(DEFAULT_CLUSTER, defaultClient);
+        clients.putAll(clusterClients);
+        return clients;
+    }
+
+    public void savePlacement(TenantPlacement placement) {
+        placement.setUpdatedAt(Instant.now());
+        sharedMongoTemplate.save(placement);
+        placements.invalidate(placement.getTenantId());
+    }
+
+    public void invalidate(String tenantId) {
+        placements.invalidate(tenantId);
+    }
+
+    /**
+     * Tenants whose placement selects pooled storage; they have no database of their own.
+     */
+    public Set<String> pooledTenantIds() {
+        if (!pooledEnabled) {
+            return Set.of();
+        }
+        Query query = new Query(Criteria.where("storageMode").is(StorageMode.POOLED));
+        query.fields().include("_id");
+        return sharedMongoTemplate.find(query, TenantPlacement.class).stream()
+                .map(TenantPlacement::getTenantId)
+                .collect(Collectors.toSet());
+    }
+
+    public String getPooledDatabase() {
+        return pooledDatabase;
+    }
+
+    public boolean isPooledEnabled() {
+        return pooledEnabled;
+    }
+
+    public long getPlacementCacheTtlSeconds() {
+        return placementCacheTtlSeconds;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private TenantPlacement loadPlacement(String tenantId) {
+        TenantPlacement placement = sharedMongoTemplate.findById(tenantId, TenantPlacement.class);
+        return placement != null ? placement : defaultPlacement(tenantId);
+    }
+
+    private static TenantPlacement defaultPlacement(String tenantId) {
+        return TenantPlacement.builder()
+                .tenantId(tenantId)
+                .cluster(DEFAULT_CLUSTER)
+                .state(PlacementState.ACTIVE)
+                .storageMode(StorageMode.DATABASE)
+                .build();
+    }
+
+    @PreDestroy
+    public void close() {
+        clusterClients.forEach((name, client) -> {
+            try {
+                client.close();
+            } catch (Exception e) {
+                log.warn("Failed to close Mongo client for cluster {}: {}", name, e.getMessage());
+            }
+        });
+    }
+}
@@ -13,9 +13,6 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 
-import com.mongodb.client.MongoClient;
-import com.mongodb.client.MongoIterable;
-
 import java.io.IOException;
 import java.time.Instant;
 import java.util.Arrays;
@@ -26,7 +23,7 @@ import java.util.List;
 @Slf4j
 public class TenantDatabaseValidationFilter implements Filter {
 
-    private final MongoClient mongoClient;
+    private final TenantRegistry tenantRegistry;
     private final ObjectMapper objectMapper;
 
     @Value("${multi-tenant.tenant-database-prefix}")
@@ -37,8 +34,8 @@ public class TenantDatabaseValidationFilter implements Filter {
             "/health", "/metrics", "/error", "/swagger-ui", "/api-docs", "/dashboard"
     );
 
-    public TenantDatabaseValidationFilter(MongoClient mongoClient, ObjectMapper objectMapper) {
-        this.mongoClient = mongoClient;
+    public TenantDatabaseValidationFilter(TenantRegistry tenantRegistry, ObjectMapper objectMapper) {
+        this.tenantRegistry = tenantRegistry;
         this.objectMapper = objectMapper;
     }
 
@@ -74,7 +71,7 @@ public class TenantDatabaseValidationFilter implements Filter {
             // Validate tenant database exists
             String databaseName = tenantDatabasePrefix + tenantId.trim();
 
-            if (!databaseExists(databaseName)) {
+            if (!tenantRegistry.isKnownTenant(tenantId.trim())) {
                 log.warn("TENANT DATABASE ERROR");
                 handleDatabaseNotExists(httpRequest, httpResponse, tenantId, databaseName);
                 return;
@@ -116,21 +113,6 @@ public class TenantDatabaseValidationFilter implements Filter {
         return SKIP_PATHS.stream().anyMatch(requestURI::startsWith);
     }
 
-    private boolean databaseExists(String databaseName) {
-        try {
-            MongoIterable<String> databaseNames = mongoClient.listDatabaseNames();
-            for (String name : databaseNames) {
-                if (name.equals(databaseName)) {
-                    return true;
-                }
-            }
-            return false;
-        } catch (Exception e) {
-            log.error("Error checking database existence for: {}", databaseName, e);
-            return false;
-        }
-    }
-
     private void handleDatabaseNotExists(HttpServletRequest request, HttpServletResponse response,
                                          String tenantId, String databaseName) throws IOException {
 
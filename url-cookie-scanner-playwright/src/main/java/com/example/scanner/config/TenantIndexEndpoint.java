@@ -0,0 +1,69 @@
+package com.example.scanner.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint reporting missing and unused indexes per tenant database.
+ *
+ * GET  /actuator/tenantindexes/{tenantId} - index report
+ * POST /actuator/tenantindexes/{tenantId} - re-run index provisioning
+ */
+@Component
+@Endpoint(id = "tenantindexes")
+@RequiredArgsConstructor
+public class TenantIndexEndpoint {
+
+    private final TenantMongoTemplateRegistry mongoTemplateRegistry;
+    private final TenantIndexProvisioner indexProvisioner;
+    private final TenantRegistry tenantRegistry;
+    private final TenantClusterRouter clusterRouter;
+
+    @ReadOperation
+    public Map<String, Object> indexes(@Selector String tenantId) {
+        Map<String, Object> result = tenantHeader(tenantId);
+        if (!Boolean.TRUE.equals(result.get("exists"))) {
+            return result;
+        }
+        result.put("provisioned", indexProvisioner.isProvisioned(tenantId));
+        result.put("collections", indexProvisioner.report(mongoTemplateRegistry.getMongoTemplateForTenant(tenantId),
+                Boolean.TRUE.equals(result.get("pooled"))));
+        return result;
+    }
+
+    @WriteOperation
+    public Map<String, Object> provision(@Selector String tenantId) {
+        Map<String, Object> result = tenantHeader(tenantId);
+        if (!Boolean.TRUE.equals(result.get("exists"))) {
+            return result;
+        }
+        if (Boolean.TRUE.equals(result.get("pooled"))) {
+            String cluster = clusterRouter.clusterFor(tenantId);
+            result.put("failures", indexProvisioner.reprovisionPooled(cluster,
+                    mongoTemplateRegistry.getPooledTemplateOnCluster(cluster, tenantId)));
+            return result;
+        }
+        result.put("failures", indexProvisioner.reprovision(tenantId,
+                mongoTemplateRegistry.getMongoTemplateForTenant(tenantId)));
+        return result;
+    }
+
+    private Map<String, Object> tenantHeader(String tenantId) {
+        boolean pooled = clusterRouter.placementFor(tenantId).isPooled();
+        String databaseName = pooled ? clusterRouter.getPooledDatabase() : mongoTemplateRegistry.getDatabaseName(tenantId);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("tenantId", tenantId);
+        result.put("database", databaseName);
+        result.put("pooled", pooled);
+        // Never create a tenant database as a side effect of an index report
+        result.put("exists", tenantRegistry.isKnownTenant(tenantId));
+        return result;
+    }
+}
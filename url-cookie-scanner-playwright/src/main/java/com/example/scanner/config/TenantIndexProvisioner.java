@@ -0,0 +1,297 @@
+package com.example.scanner.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Declares the indexes backing the hot query shapes of each tenant collection and ensures
+ * them idempotently the first time a tenant database is touched by this instance.
+ *
+ * Index names are fixed so that existing indexes are recognised across restarts and
+ * reported by the {@code tenantindexes} actuator endpoint.
+ *
+ * The pooled collections shared by small tenants get the same indexes with {@code tenantId}
+ * as leading key (e.g. {@code idx_tenantId_transactionId}), so every tenant-scoped query
+ * stays on an index.
+ */
+@Slf4j
+@Component
+public class TenantIndexProvisioner {
+
+    private static final String ID_INDEX = "_id_";
+
+    private static final Map<String, List<Index>> REQUIRED_INDEXES = new LinkedHashMap<>();
+
+    private static final Map<String, List<Index>> POOLED_INDEXES = new LinkedHashMap<>();
+
+    static {
+        // Scan lookups by transaction ID (scan status, template creation, cookie edits)
+        REQUIRED_INDEXES.put("cookie_scan_results", List.of(
+                new Index().on("transactionId", Sort.Direction.ASC).named("idx_transactionId")
+        ));
+
+        REQUIRED_INDEXES.put("cookie_consent_handles", List.of(
+                // Reusable handle lookup: device + url + template version, latest first
+                new Index().on("customerIdentifiers.value", Sort.Direction.ASC)
+                        .on("url", Sort.Direction.ASC)
+                        .on("templateId", Sort.Direction.ASC)
+                        .on("templateVersion", Sort.Direction.ASC)
+                        .on("createdAt", Sort.Direction.DESC)
+                        .named("idx_device_url_template_createdAt"),
+                // Consent check by device + url, latest first
+                new Index().on("customerIdentifiers.value", Sort.Direction.ASC)
+                        .on("url", Sort.Direction.ASC)
+                        .on("createdAt", Sort.Direction.DESC)
+                        .named("idx_device_url_createdAt"),
+                new Index().on("consentHandleId", Sort.Direction.ASC).named("idx_consentHandleId"),
+                // Dashboard: handles per template version by status and creation date
+                new Index().on("templateId", Sort.Direction.ASC)
+                        .on("templateVersion", Sort.Direction.ASC)
+                        .on("status", Sort.Direction.ASC)
+                        .on("createdAt", Sort.Direction.DESC)
+                        .named("idx_template_status_createdAt")
+        ));
+
+        REQUIRED_INDEXES.put("cookie_consents", List.of(
+                new Index().on("consentId", Sort.Direction.ASC)
+                        .on("version", Sort.Direction.DESC)
+                        .named("idx_consentId_version"),
+                new Index().on("consentId", Sort.Direction.ASC)
+                        .on("consentStatus", Sort.Direction.ASC)
+                        .named("idx_consentId_consentStatus"),
+                new Index().on("consentHandleId", Sort.Direction.ASC)
+                        .on("version", Sort.Direction.DESC)
+                        .named("idx_consentHandleId_version"),
+                new Index().on("templateId", Sort.Direction.ASC)
+                        .on("templateVersion", Sort.Direction.ASC)
+                        .on("startDate", Sort.Direction.ASC)
+                        .named("idx_template_startDate"),
+                // Dashboard: consent pages per template version, newest first
+                new Index().on("templateId", Sort.Direction.ASC)
+                        .on("templateVersion", Sort.Direction.ASC)
+                        .on("createdAt", Sort.Direction.DESC)
+                        .on("_id", Sort.Direction.DESC)
+                        .named("idx_template_createdAt")
+        ));
+
+        REQUIRED_INDEXES.put("cookie_consent_templates", List.of(
+                new Index().on("templateId", Sort.Direction.ASC)
+                        .on("version", Sort.Direction.DESC)
+                        .named("idx_templateId_version"),
+                new Index().on("templateId", Sort.Direction.ASC)
+                        .on("templateStatus", Sort.Direction.ASC)
+                        .named("idx_templateId_templateStatus"),
+                new Index().on("scanId", Sort.Direction.ASC).named("idx_scanId"),
+                new Index().on("businessId", Sort.Direction.ASC)
+                        .on("templateStatus", Sort.Direction.ASC)
+                        .named("idx_businessId_templateStatus")
+        ));
+
+        REQUIRED_INDEXES.put("cookie_category_master", List.of(
+                new Index().on("category", Sort.Direction.ASC).named("idx_category")
+        ));
+
+        REQUIRED_INDEXES.put("consent_analytics_counters", List.of(
+                // Dashboard summary: counters of a template version over a day range
+                new Index().on("templateId", Sort.Direction.ASC)
+                        .on("templateVersion", Sort.Direction.ASC)
+                        .on("day", Sort.Direction.ASC)
+                        .named("idx_template_day"),
+                new Index().on("day", Sort.Direction.ASC).named("idx_day")
+        ));
+
+        REQUIRED_INDEXES.put("banner_payloads", List.of(
+                // Dropping the payloads of a scan when its cookies are edited
+                new Index().on("scanId", Sort.Direction.ASC).named("idx_scanId")
+        ));
+
+        REQUIRED_INDEXES.put("notification_triggers", List.of(
+                // Notification outbox: due PENDING and FAILED triggers
+                new Index().on("status", Sort.Direction.ASC)
+                        .on("nextAttemptAt", Sort.Direction.ASC)
+                        .named("idx_status_nextAttemptAt"),
+                // Dedupe by event key within a time window
+                new Index().on("eventKey", Sort.Direction.ASC)
+                        .on("createdAt", Sort.Direction.DESC)
+                        .named("idx_eventKey_createdAt")
+        ));
+
+        REQUIRED_INDEXES.forEach((collection, indexes) ->
+                POOLED_INDEXES.put(collection, indexes.stream().map(TenantIndexProvisioner::tenantPrefixed).toList()));
+
+        // Collections without declared query shapes still need the tenant predicate indexed
+        for (String collection : List.of("business_keys", "business_applications", "system_configurations",
+                "data_processors")) {
+            POOLED_INDEXES.put(collection, List.of(
+                    new Index().on(TenantScopedMongoTemplate.TENANT_FIELD, Sort.Direction.ASC).named("idx_tenantId")));
+        }
+    }
+
+    private final Set<String> provisionedTenants = ConcurrentHashMap.newKeySet();
+    private final Set<String> provisionedPooledClusters = ConcurrentHashMap.newKeySet();
+    private final Counter indexesEnsured;
+    private final Counter indexFailures;
+
+    @Value("${multi-tenant.index-provisioning.enabled:true}")
+    private boolean enabled;
+
+    public TenantIndexProvisioner(MeterRegistry meterRegistry) {
+        this.indexesEnsured = Counter.builder("tenant_index_provisioning_total")
+                .description("Tenant index ensure operations")
+                .tag("outcome", "ensured")
+                .register(meterRegistry);
+
+        this.indexFailures = Counter.builder("tenant_index_provisioning_total")
+                .description("Tenant index ensure operations")
+                .tag("outcome", "failed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ensure the required indexes exist in the tenant database. Runs once per tenant per
+     * instance; createIndex is a no-op on the server when the index already exists.
+     */
+    public void ensureIndexes(String tenantId, MongoTemplate tenantTemplate) {
+        if (!enabled || !provisionedTenants.add(tenantId)) {
+            return;
+        }
+        provisionTenant(tenantId, tenantTemplate);
+    }
+
+    /**
+     * Re-run provisioning regardless of whether the tenant was already handled.
+     */
+    public Map<String, List<String>> reprovision(String tenantId, MongoTemplate tenantTemplate) {
+        provisionedTenants.add(tenantId);
+        return provisionTenant(tenantId, tenantTemplate);
+    }
+
+    /**
+     * Ensure the tenant-prefixed indexes of the pooled collections on a cluster. Runs once per
+     * cluster per instance.
+     */
+    public void ensurePooledIndexes(String cluster, MongoTemplate pooledTemplate) {
+        if (!enabled || !provisionedPooledClusters.add(cluster)) {
+            return;
+        }
+        provision("pooled@" + cluster, pooledTemplate, POOLED_INDEXES);
+    }
+
+    public Map<String, List<String>> reprovisionPooled(String cluster, MongoTemplate pooledTemplate) {
+        provisionedPooledClusters.add(cluster);
+        return provision("pooled@" + cluster, pooledTemplate, POOLED_INDEXES);
+    }
+
+    /**
+     * Compare the declared indexes with what exists in the tenant database.
+     *
+     * "missing" lists declared indexes that do not exist, "unused" lists existing indexes
+     * (other than _id_) with no recorded accesses since the server last started, and
+     * "undeclared" lists existing indexes this provisioner does not manage.
+     */
+    public Map<String, Object> report(MongoTemplate tenantTemplate, boolean pooled) {
+        Map<String, Object> collections = new LinkedHashMap<>();
+
+        (pooled ? POOLED_INDEXES : REQUIRED_INDEXES).forEach((collection, indexes) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            try {
+                List<String> declared = indexes.stream().map(TenantIndexProvisioner::indexName).toList();
+                List<String> present = tenantTemplate.indexOps(collection).getIndexInfo().stream()
+                        .map(IndexInfo::getName)
+                        .toList();
+                Map<String, Long> accesses = indexAccesses(tenantTemplate, collection);
+
+                entry.put("declared", declared);
+                entry.put("present", present);
+                entry.put("missing", declared.stream().filter(name -> !present.contains(name)).toList());
+                entry.put("undeclared", present.stream()
+                        .filter(name -> !ID_INDEX.equals(name) && !declared.contains(name))
+                        .toList());
+                entry.put("unused", present.stream()
+                        .filter(name -> !ID_INDEX.equals(name) && accesses.getOrDefault(name, -1L) == 0L)
+                        .toList());
+                entry.put("accesses", accesses);
+            } catch (Exception e) {
+                entry.put("error", e.getMessage());
+            }
+            collections.put(collection, entry);
+        });
+
+        return collections;
+    }
+
+    public boolean isProvisioned(String tenantId) {
+        return provisionedTenants.contains(tenantId);
+    }
+
+    private Map<String, List<String>> provisionTenant(String tenantId, MongoTemplate tenantTemplate) {
+        return provision(tenantId, tenantTemplate, REQUIRED_INDEXES);
+    }
+
+    private Map<String, List<String>> provision(String target, MongoTemplate template,
+                                                Map<String, List<Index>> requiredIndexes) {
+        long start = System.currentTimeMillis();
+        Map<String, List<String>> failures = new LinkedHashMap<>();
+
+        requiredIndexes.forEach((collection, indexes) -> {
+            for (Index index : indexes) {
+                try {
+                    template.indexOps(collection).ensureIndex(index);
+                    indexesEnsured.increment();
+                } catch (Exception e) {
+                    // An index with the same keys under another name is reported, not replaced
+                    indexFailures.increment();
+                    failures.computeIfAbsent(collection, c -> new ArrayList<>()).add(indexName(index));
+                    log.warn("Failed to ensure index {} on {} for {}: {}",
+                            indexName(index), collection, target, e.getMessage());
+                }
+            }
+        });
+
+        log.info("Index provisioning for {} finished in {}ms ({} failures)",
+                target, System.currentTimeMillis() - start, failures.size());
+        return failures;
+    }
+
+    private static Map<String, Long> indexAccesses(MongoTemplate tenantTemplate, String collection) {
+        Map<String, Long> accesses = new LinkedHashMap<>();
+        try {
+            for (Document stats : tenantTemplate.getCollection(collection)
+                    .aggregate(List.of(new Document("$indexStats", new Document())))) {
+                Document access = stats.get("accesses", Document.class);
+                Number ops = access != null ? access.get("ops", Number.class) : null;
+                accesses.put(stats.getString("name"), ops != null ? ops.longValue() : 0L);
+            }
+        } catch (Exception e) {
+            // $indexStats needs clusterMonitor privileges; report without usage data
+            log.debug("Index usage stats unavailable for {}: {}", collection, e.getMessage());
+        }
+        return accesses;
+    }
+
+    private static Index tenantPrefixed(Index index) {
+        Index prefixed = new Index().on(TenantScopedMongoTemplate.TENANT_FIELD, Sort.Direction.ASC);
+        index.getIndexKeys().forEach((field, direction) -> prefixed.on(field,
+                ((Number) direction).intValue() < 0 ? Sort.Direction.DESC : Sort.Direction.ASC));
+        return prefixed.named(indexName(index).replaceFirst("^idx_", "idx_tenantId_"));
+    }
+
+    private static String indexName(Index index) {
+        return index.getIndexOptions().getString("name");
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.scanner.config;
+
+import com.example.scanner.entity.TenantPlacement;
+import com.example.scanner.enums.PlacementState;
+import com.example.scanner.exception.TenantMigrationInProgressException;
+import com.example.scanner.exception.UnknownTenantException;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalCause;
+import com.mongodb.ReadPreference;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded registry of per-tenant MongoTemplates.
+ *
+ * Templates are created lazily on first use, use the MongoClient of the tenant's cluster and
+ * pool group (see {@link TenantClusterRouter}), share the application's MappingMongoConverter (so mapping
+ * metadata is built once), and are evicted after a period of inactivity or when the registry
+ * is full. The first template created for a
+ * tenant also ensures the tenant's indexes. Templates are only created for tenants the
+ * {@link TenantRegistry} knows, since ensuring indexes would otherwise create a database for
+ * any ID a caller passes.
+ *
+ * Pooled tenants get a {@link TenantScopedMongoTemplate} on the pooled database, so callers
+ * use the same template API in both storage modes.
+ *
+ * Each tenant may also get a secondary-preferred template for read-only analytics (see
+ * {@link TenantReadRouter}); secondaries lagging more than
+ * {@code multi-tenant.read-routing.max-staleness-seconds} are skipped by the driver.
+ */
+@Slf4j
+@Component
+public class TenantMongoTemplateRegistry {
+
+    private static final String POOLED_KEY_PREFIX = "pooled@";
+    private static final String SECONDARY_KEY_PREFIX = "secondary@";
+
+    /** Smallest maxStalenessSeconds the server selection spec accepts */
+    private static final long MIN_MAX_STALENESS_SECONDS = 90;
+
+    private final TenantClusterRouter clusterRouter;
+    private final MappingMongoConverter mappingMongoConverter;
+    private final TenantIndexProvisioner indexProvisioner;
+    private final TenantRegistry tenantRegistry;
+    private final String tenantDatabasePrefix;
+    private final ReadPreference secondaryReadPreference;
+    private final LoadingCache<String, MongoTemplate> templates;
+    private final Counter templatesCreated;
+    private final Counter templatesEvicted;
+
+    public TenantMongoTemplateRegistry(TenantClusterRouter clusterRouter,
+                                       MappingMongoConverter mappingMongoConverter,
+                                       TenantIndexProvisioner indexProvisioner,
+                                       TenantRegistry tenantRegistry,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${multi-tenant.tenant-database-prefix}") String tenantDatabasePrefix,
+                                       @Value("${multi-tenant.template-registry.max-size:1000}") long maxSize,
+                                       @Value("${multi-tenant.template-registry.idle-eviction-minutes:30}") long idleEvictionMinutes,
+                                       @Value("${multi-tenant.read-routing.max-staleness-seconds:90}") long maxStalenessSeconds) {
+        this.clusterRouter = clusterRouter;
+        this.mappingMongoConverter = mappingMongoConverter;
+        this.indexProvisioner = indexProvisioner;
+        this.tenantRegistry = tenantRegistry;
+        this.tenantDatabasePrefix = tenantDatabasePrefix;
+
+        if (maxStalenessSeconds < MIN_MAX_STALENESS_SECONDS) {
+            log.warn("multi-tenant.read-routing.max-staleness-seconds={} is below the minimum of {}s, using {}s",
+                    maxStalenessSeconds, MIN_MAX_STALENESS_SECONDS, MIN_MAX_STALENESS_SECONDS);
+        }
+        this.secondaryReadPreference = ReadPreference.secondaryPreferred(
+                Math.max(maxStalenessSeconds, MIN_MAX_STALENESS_SECONDS), TimeUnit.SECONDS);
+
+        this.templatesCreated = Counter.builder("tenant_mongo_templates_created_total")
+                .description("Per-tenant MongoTemplates created by the registry")
+                .register(meterRegistry);
+
+        this.templatesEvicted = Counter.builder("tenant_mongo_templates_evicted_total")
+                .description("Per-tenant MongoTemplates evicted from the registry")
+                .register(meterRegistry);
+
+        this.templates = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(idleEvictionMinutes, TimeUnit.MINUTES)
+                .<String, MongoTemplate>removalListener(notification -> {
+                    if (notification.getCause() != RemovalCause.EXPLICIT && notification.getCause() != RemovalCause.REPLACED) {
+                        templatesEvicted.increment();
+                        log.debug("Evicted MongoTemplate for tenant {} ({})", notification.getKey(), notification.getCause());
+                    }
+                })
+                .build(new CacheLoader<String, MongoTemplate>() {
+                    @Override
+                    public MongoTemplate load(String key) {
+                        int separator = key.indexOf('/');
+                        String cluster = key.substring(0, separator);
+                        String tenantId = key.substring(separator + 1);
+
+                        boolean secondary = cluster.startsWith(SECONDARY_KEY_PREFIX);
+                        if (secondary) {
+                            cluster = cluster.substring(SECONDARY_KEY_PREFIX.length());
+                        }
+                        MongoTemplate template = cluster.startsWith(POOLED_KEY_PREFIX)
+                                ? createPooledTemplate(cluster.substring(POOLED_KEY_PREFIX.length()), tenantId)
+                                : createTemplate(cluster, tenantId);
+                        if (secondary) {
+                            template.setReadPreference(secondaryReadPreference);
+                        }
+                        return template;
+                    }
+                });
+
+        Gauge.builder("tenant_mongo_template_registry_size", templates, LoadingCache::size)
+                .description("Per-tenant MongoTemplates currently held by the registry")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Get the MongoTemplate bound to the tenant's database on its current cluster, creating it
+     * on first use. Templates are keyed by cluster and storage mode, so a placement switch picks
+     * up a new template once the placement cache refreshes.
+     *
+     * @throws UnknownTenantException if the tenant is not in the {@link TenantRegistry}
+     * @throws TenantMigrationInProgressException while the tenant is frozen for migration
+     */
+    public MongoTemplate getMongoTemplateForTenant(String tenantId) {
+        return templates.getUnchecked(templateKey(tenantId));
+    }
+
+    /**
+     * Like {@link #getMongoTemplateForTenant(String)}, but reads prefer a secondary within the
+     * configured staleness bound. Only for reads that tolerate replication lag.
+     */
+    public MongoTemplate getSecondaryTemplateForTenant(String tenantId) {
+        return templates.getUnchecked(SECONDARY_KEY_PREFIX + templateKey(tenantId));
+    }
+
+    public ReadPreference getSecondaryReadPreference() {
+        return secondaryReadPreference;
+    }
+
+    /**
+     * Template for the tenant's database on a specific cluster, bypassing placement and freeze
+     * checks. Used by the migration tool.
+     */
+    public MongoTemplate getMongoTemplateOnCluster(String cluster, String tenantId) {
+        return new MongoTemplate(new SimpleMongoClientDatabaseFactory(
+                clusterRouter.clientForCluster(cluster, tenantId), getDatabaseName(tenantId)), mappingMongoConverter);
+    }
+
+    /**
+     * Unscoped template for the pooled database of a cluster. Used by the migration tool and
+     * index provisioning.
+     */
+    public MongoTemplate getPooledTemplateOnCluster(String cluster, String tenantId) {
+        return new MongoTemplate(new SimpleMongoClientDatabaseFactory(
+                clusterRouter.clientForCluster(cluster, tenantId), clusterRouter.getPooledDatabase()), mappingMongoConverter);
+    }
+
+    public String getDatabaseName(String tenantId) {
+        return tenantDatabasePrefix + tenantId;
+    }
+
+    public void evict(String tenantId) {
+        templates.asMap().keySet().removeIf(key -> key.substring(key.indexOf('/') + 1).equals(tenantId));
+    }
+
+    public long size() {
+        return templates.size();
+    }
+
+    private String templateKey(String tenantId) {
+        if (tenantId == null || tenantId.trim().isEmpty()) {
+            throw new IllegalArgumentException("Tenant ID cannot be null or empty");
+        }
+        String trimmed = tenantId.trim();
+        if (!tenantRegistry.isKnownTenant(trimmed)) {
+            throw new UnknownTenantException(trimmed);
+        }
+        TenantPlacement placement = clusterRouter.placementFor(trimmed);
+        if (placement.getState() == PlacementState.FROZEN) {
+            throw new TenantMigrationInProgressException(trimmed);
+        }
+        String cluster = placement.isPooled() ? POOLED_KEY_PREFIX + placement.getCluster() : placement.getCluster();
+        return cluster + "/" + trimmed;
+    }
+
+    private MongoTemplate createTemplate(String cluster, String tenantId) {
+        templatesCreated.increment();
+        log.debug("Creating MongoTemplate for tenant {} on cluster {}", tenantId, cluster);
+        SimpleMongoClientDatabaseFactory factory = new SimpleMongoClientDatabaseFactory(
+                clusterRouter.clientForCluster(cluster, tenantId), getDatabaseName(tenantId));
+        MongoTemplate template = new MongoTemplate(factory, mappingMongoConverter);
+        indexProvisioner.ensureIndexes(tenantId, template);
+        return template;
+    }
+
+    private MongoTemplate createPooledTemplate(String cluster, String tenantId) {
+        templatesCreated.increment();
+        log.debug("Creating pooled MongoTemplate for tenant {} on cluster {}", tenantId, cluster);
+        SimpleMongoClientDatabaseFactory factory = new SimpleMongoClientDatabaseFactory(
+                clusterRouter.clientForCluster(cluster, tenantId), clusterRouter.getPooledDatabase());
+        MongoTemplate template = new TenantScopedMongoTemplate(factory, mappingMongoConverter, () -> tenantId);
+        indexProvisioner.ensurePooledIndexes(cluster, template);
+        return template;
+    }
+}
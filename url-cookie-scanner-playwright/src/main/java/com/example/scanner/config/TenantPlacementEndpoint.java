@@ -0,0 +1,38 @@
+package com.example.scanner.config;
+
+import com.example.scanner.entity.TenantPlacement;
+import com.example.scanner.service.TenantMigrationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint for tenant cluster placement.
+ *
+ * GET  /actuator/tenantplacement/{tenantId}           - current placement
+ * POST /actuator/tenantplacement/{tenantId}/{cluster} - migrate the tenant to another cluster
+ */
+@Component
+@Endpoint(id = "tenantplacement")
+@RequiredArgsConstructor
+public class TenantPlacementEndpoint {
+
+    private final TenantClusterRouter clusterRouter;
+    private final TenantMigrationService migrationService;
+
+    @ReadOperation
+    public TenantPlacement placement(@Selector String tenantId) {
+        clusterRouter.invalidate(tenantId);
+        return clusterRouter.placementFor(tenantId);
+    }
+
+    @WriteOperation
+    public Map<String, Object> migrate(@Selector String tenantId, @Selector String cluster) {
+        return migrationService.migrate(tenantId, cluster);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.scanner.config;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maps tenants to connection pool groups and owns the dedicated MongoClient of each group.
+ * Tenants not assigned to a group (or all tenants when per-tenant pools are disabled) use
+ * the shared application client.
+ */
+@Slf4j
+@Component
+public class TenantPoolGroups {
+
+    private final MongoClient sharedClient;
+    private final MongoConnectionPoolProperties properties;
+    private final Map<String, String> groupByTenant = new HashMap<>();
+    private final Map<String, MongoClient> dedicatedClients = new LinkedHashMap<>();
+
+    public TenantPoolGroups(MongoClient mongoClient,
+                            MongoConnectionPoolProperties properties,
+                            MeterRegistry meterRegistry,
+                            @Value("${spring.data.mongodb.uri}") String mongoUri) {
+        this.sharedClient = mongoClient;
+        this.properties = properties;
+
+        if (!properties.isPerTenant()) {
+            return;
+        }
+
+        properties.getGroups().forEach((group, settings) -> {
+            if (MongoConnectionPoolProperties.SHARED_GROUP.equals(group) || settings.getTenants().isEmpty()) {
+                return;
+            }
+            dedicatedClients.put(group, MongoClients.create(buildSettings(mongoUri, settings, meterRegistry, group)));
+            for (String tenantId : settings.getTenants()) {
+                String previous = groupByTenant.put(tenantId.trim(), group);
+                if (previous != null) {
+                    log.warn("Tenant {} is listed in pool groups {} and {}; using {}", tenantId, previous, group, group);
+                }
+            }
+            log.info("Dedicated Mongo pool group '{}' for {} tenants (maxSize={})",
+                    group, settings.getTenants().size(), settings.getMaxSize());
+        });
+    }
+
+    /**
+     * Client settings for a pool: the application connection string with the pool overrides
+     * applied on top, plus wait-time metrics tagged with the group name.
+     */
+    public static MongoClientSettings buildSettings(String mongoUri, MongoConnectionPoolProperties.Pool pool,
+                                                    MeterRegistry meterRegistry, String group) {
+        return MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(mongoUri))
+                .applyToConnectionPoolSettings(builder -> {
+                    if (pool.getMaxSize() != null) {
+                        builder.maxSize(pool.getMaxSize());
+                    }
+                    if (pool.getMinSize() != null) {
+                        builder.minSize(pool.getMinSize());
+                    }
+                    if (pool.getMaxConnecting() != null) {
+                        builder.maxConnecting(pool.getMaxConnecting());
+                    }
+                    if (pool.getMaxWaitTimeMs() != null) {
+                        builder.maxWaitTime(pool.getMaxWaitTimeMs(), TimeUnit.MILLISECONDS);
+                    }
+                    if (pool.getMaxIdleTimeMs() != null) {
+                        builder.maxConnectionIdleTime(pool.getMaxIdleTimeMs(), TimeUnit.MILLISECONDS);
+                    }
+                    builder.addConnectionPoolListener(new PoolWaitTimeListener(meterRegistry, group));
+                })
+                .build();
+    }
+
+    public String groupFor(String tenantId) {
+        return groupByTenant.getOrDefault(tenantId, MongoConnectionPoolProperties.SHARED_GROUP);
+    }
+
+    public MongoClient clientFor(String tenantId) {
+        MongoClient client = dedicatedClients.get(groupFor(tenantId));
+        return client != null ? client : sharedClient;
+    }
+
+    public MongoConnectionPoolProperties.Pool poolSettings(String group) {
+        MongoConnectionPoolProperties.Pool pool = properties.getGroups().get(group);
+        return pool != null && dedicatedClients.containsKey(group) ? pool : properties.getShared();
+    }
+
+    @PreDestroy
+    public void close() {
+        dedicatedClients.forEach((group, client) -> {
+            try {
+                client.close();
+            } catch (Exception e) {
+                log.warn("Failed to close Mongo client for pool group {}: {}", group, e.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.scanner.config;
+
+import com.google.common.util.concurrent.AtomicDouble;
+import com.mongodb.client.MongoClient;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Sends designated read-only operations to secondaries so that dashboards and history views
+ * do not compete with consent writes on the primary.
+ *
+ * Only the operation classes listed in {@code multi-tenant.read-routing.secondary-operations}
+ * are routed; every other read, in particular the read-your-writes consent check, keeps using
+ * {@link TenantMongoTemplateRegistry#getMongoTemplateForTenant(String)} and the primary.
+ * Secondaries further behind than {@code max-staleness-seconds} are not selected, and reads
+ * fall back to the primary when no secondary qualifies.
+ *
+ * Metrics: {@code mongo_read_routing_total{operation,target}} for routing decisions and
+ * {@code mongodb_replica_lag_seconds{cluster,member}} sampled from {@code replSetGetStatus}.
+ */
+@Slf4j
+@Component
+public class TenantReadRouter {
+
+    public enum ReadClass {
+        DASHBOARD,
+        TEMPLATE_HISTORY,
+        CONSENT_HISTORY,
+        EXPORT;
+
+        String propertyKey() {
+            return name().toLowerCase(Locale.ROOT).replace('_', '-');
+        }
+    }
+
+    private final TenantMongoTemplateRegistry mongoTemplateRegistry;
+    private final TenantClusterRouter clusterRouter;
+    private final MongoClient mongoClient;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Set<ReadClass> secondaryOperations;
+    private final Map<ReadClass, Counter> secondaryReads = new EnumMap<>(ReadClass.class);
+    private final Map<ReadClass, Counter> primaryReads = new EnumMap<>(ReadClass.class);
+    private final Map<String, AtomicDouble> replicaLag = new ConcurrentHashMap<>();
+
+    public TenantReadRouter(TenantMongoTemplateRegistry mongoTemplateRegistry,
+                            TenantClusterRouter clusterRouter,
+                            MongoClient mongoClient,
+                            MeterRegistry meterRegistry,
+                            @Value("${multi-tenant.read-routing.enabled:false}") boolean enabled,
+                            @Value("${multi-tenant.read-routing.secondary-operations:dashboard,template-history,consent-history,export}")
+                            List<String> secondaryOperations) {
+        this.mongoTemplateRegistry = mongoTemplateRegistry;
+        this.clusterRouter = clusterRouter;
+        this.mongoClient = mongoClient;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+
+        Set<String> configured = secondaryOperations.stream()
+                .map(operation -> operation.trim().toLowerCase(Locale.ROOT))
+                .collect(Collectors.toSet());
+        this.secondaryOperations = Arrays.stream(ReadClass.values())
+                .filter(operation -> configured.contains(operation.propertyKey()))
+                .collect(Collectors.toSet());
+
+        for (ReadClass operation : ReadClass.values()) {
+            secondaryReads.put(operation, Counter.builder("mongo_read_routing_total")
+                    .description("Routed read-only Mongo operations")
+                    .tag("operation", operation.propertyKey())
+                    .tag("target", "secondary_preferred")
+                    .register(meterRegistry));
+            primaryReads.put(operation, Counter.builder("mongo_read_routing_total")
+                    .description("Routed read-only Mongo operations")
+                    .tag("operation", operation.propertyKey())
+                    .tag("target", "primary")
+                    .register(meterRegistry));
+        }
+
+        if (enabled) {
+            log.info("Read routing enabled for {} with {}", this.secondaryOperations,
+                    mongoTemplateRegistry.getSecondaryReadPreference());
+        }
+    }
+
+    /**
+     * Template for a read-only operation: secondary-preferred when the operation is routed,
+     * otherwise the tenant's primary template.
+     */
+    public MongoTemplate templateFor(String tenantId, ReadClass operation) {
+        if (enabled && secondaryOperations.contains(operation)) {
+            secondaryReads.get(operation).increment();
+            return mongoTemplateRegistry.getSecondaryTemplateForTenant(tenantId);
+        }
+        primaryReads.get(operation).increment();
+        return mongoTemplateRegistry.getMongoTemplateForTenant(tenantId);
+    }
+
+    /**
+     * Sample secondary lag behind the primary on every cluster. Standalone servers and users
+     * without clusterMonitor privileges are skipped.
+     */
+    @Scheduled(fixedDelayString = "${multi-tenant.read-routing.lag-sample-interval-ms:15000}")
+    public void sampleReplicaLag() {
+        if (!enabled) {
+            return;
+        }
+        clusterRouter.clusterClients(mongoClient).forEach((cluster, client) -> {
+            try {
+                Document status = client.getDatabase("admin").runCommand(new Document("replSetGetStatus", 1));
+                List<Document> members = status.getList("members", Document.class);
+
+                Date primaryOptime = members.stream()
+                        .filter(member -> "PRIMARY".equals(member.getString("stateStr")))
+                        .map(member -> member.getDate("optimeDate"))
+                        .findFirst()
+                        .orElse(null);
+                if (primaryOptime == null) {
+                    return;
+                }
+
+                for (Document member : members) {
+                    Date optime = member.getDate("optimeDate");
+                    if (!"SECONDARY".equals(member.getString("stateStr")) || optime == null) {
+                        continue;
+                    }
+                    double lagSeconds = Math.max(0, primaryOptime.getTime() - optime.getTime()) / 1000.0;
+                    lagGauge(cluster, member.getString("name")).set(lagSeconds);
+                }
+            } catch (Exception e) {
+                log.debug("Replica lag unavailable for cluster {}: {}", cluster, e.getMessage());
+            }
+        });
+    }
+
+    private AtomicDouble lagGauge(String cluster, String member) {
+        return replicaLag.computeIfAbsent(cluster + "/" + member, key -> {
+            AtomicDouble lag = new AtomicDouble();
+            Gauge.builder("mongodb_replica_lag_seconds", lag, AtomicDouble::get)
+                    .description("Replication lag of a secondary behind its primary")
+                    .tag("cluster", cluster)
+                    .tag("member", member)
+                    .register(meterRegistry);
+            return lag;
+        });
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.scanner.config;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.mongodb.client.MongoClient;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory registry of the tenants that exist: tenant databases on the configured clusters
+ * plus tenants placed in pooled collections.
+ *
+ * The set of tenants is refreshed from {@code listDatabaseNames} in the background, so
+ * lookups for known tenants never touch Mongo. Unknown IDs trigger at most one rate-limited
+ * refresh and are then held in a short-lived negative cache.
+ */
+@Slf4j
+@Component
+public class TenantRegistry {
+
+    private final MongoClient mongoClient;
+    private final TenantClusterRouter clusterRouter;
+    private final String tenantDatabasePrefix;
+    private final long minRefreshIntervalMs;
+    private final Cache<String, Boolean> unknownTenants;
+    private final Object refreshLock = new Object();
+
+    private final Counter knownHits;
+    private final Counter negativeHits;
+    private final Counter misses;
+
+    private volatile Set<String> knownTenants = Set.of();
+    private volatile long lastRefreshMillis;
+
+    public TenantRegistry(MongoClient mongoClient,
+                          TenantClusterRouter clusterRouter,
+                          MeterRegistry meterRegistry,
+                          @Value("${multi-tenant.tenant-database-prefix}") String tenantDatabasePrefix,
+                          @Value("${multi-tenant.registry.negative-ttl-seconds:10}") long negativeTtlSeconds,
+                          @Value("${multi-tenant.registry.negative-max-size:10000}") long negativeMaxSize,
+                          @Value("${multi-tenant.registry.min-refresh-interval-ms:1000}") long minRefreshIntervalMs) {
+        this.mongoClient = mongoClient;
+        this.clusterRouter = clusterRouter;
+        this.tenantDatabasePrefix = tenantDatabasePrefix;
+        this.minRefreshIntervalMs = minRefreshIntervalMs;
+        this.unknownTenants = CacheBuilder.newBuilder()
+                .maximumSize(negativeMaxSize)
+                .expireAfterWrite(negativeTtlSeconds, TimeUnit.SECONDS)
+                .build();
+
+        this.knownHits = Counter.builder("tenant_registry_lookups_total")
+                .description("Tenant registry lookups")
+                .tag("result", "known")
+                .register(meterRegistry);
+
+        this.negativeHits = Counter.builder("tenant_registry_lookups_total")
+                .description("Tenant registry lookups")
+                .tag("result", "negative_cached")
+                .register(meterRegistry);
+
+        this.misses = Counter.builder("tenant_registry_lookups_total")
+                .description("Tenant registry lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+
+        Gauge.builder("tenant_registry_size", this, registry -> registry.knownTenants.size())
+                .description("Tenant databases known to the registry")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${multi-tenant.registry.refresh-interval-ms:30000}",
+            initialDelayString = "${multi-tenant.registry.refresh-interval-ms:30000}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    /**
+     * Whether a database exists for the tenant. Known and negatively cached IDs are answered
+     * from memory; any other ID refreshes the tenant list at most once per
+     * {@code multi-tenant.registry.min-refresh-interval-ms}.
+     */
+    public boolean isKnownTenant(String tenantId) {
+        if (tenantId == null || tenantId.isBlank()) {
+            return false;
+        }
+
+        if (knownTenants.contains(tenantId)) {
+            knownHits.increment();
+            return true;
+        }
+
+        if (unknownTenants.getIfPresent(tenantId) != null) {
+            negativeHits.increment();
+            return false;
+        }
+
+        misses.increment();
+        refreshIfStale();
+
+        boolean known = knownTenants.contains(tenantId);
+        if (!known) {
+            unknownTenants.put(tenantId, Boolean.TRUE);
+        }
+        return known;
+    }
+
+    /**
+     * Record a tenant created out of band (e.g. by onboarding), without waiting for the next
+     * refresh. Only operators call this; request paths never register tenants.
+     */
+    public void registerTenant(String tenantId) {
+        synchronized (refreshLock) {
+            if (!knownTenants.contains(tenantId)) {
+                Set<String> updated = new HashSet<>(knownTenants);
+                updated.add(tenantId);
+                knownTenants = Set.copyOf(updated);
+            }
+        }
+        unknownTenants.invalidate(tenantId);
+    }
+
+    public Set<String> getKnownTenants() {
+        return knownTenants;
+    }
+
+    public Instant getLastRefresh() {
+        return lastRefreshMillis == 0 ? null : Instant.ofEpochMilli(lastRefreshMillis);
+    }
+
+    public long getNegativeCacheSize() {
+        return unknownTenants.size();
+    }
+
+    /**
+     * Reload the tenant list from the server. On failure the previous list is kept.
+     */
+    public void refresh() {
+        synchronized (refreshLock) {
+            try {
+                Set<String> tenants = new HashSet<>();
+                for (MongoClient client : clusterRouter.clusterClients(mongoClient).values()) {
+                    for (String databaseName : client.listDatabaseNames()) {
+                        if (databaseName.startsWith(tenantDatabasePrefix)) {
+                            tenants.add(databaseName.substring(tenantDatabasePrefix.length()));
+                        }
+                    }
+                }
+                tenants.addAll(clusterRouter.pooledTenantIds());
+                knownTenants = Set.copyOf(tenants);
+                unknownTenants.invalidateAll(tenants);
+                lastRefreshMillis = System.currentTimeMillis();
+                log.debug("Tenant registry refreshed: {} tenants", tenants.size());
+            } catch (Exception e) {
+                log.error("Failed to refresh tenant registry, keeping {} known tenants: {}",
+                        knownTenants.size(), e.getMessage());
+            }
+        }
+    }
+
+    private void refreshIfStale() {
+        if (System.currentTimeMillis() - lastRefreshMillis < minRefreshIntervalMs) {
+            return;
+        }
+        synchronized (refreshLock) {
+            // Another thread may have refreshed while this one waited for the lock
+            if (System.currentTimeMillis() - lastRefreshMillis >= minRefreshIntervalMs) {
+                refresh();
+            }
+        }
+    }
+}
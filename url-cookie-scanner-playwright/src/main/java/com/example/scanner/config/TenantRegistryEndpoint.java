@@ -0,0 +1,52 @@
+package com.example.scanner.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Actuator endpoint exposing the tenant registry.
+ *
+ * GET  /actuator/tenants            - known tenants and cache state
+ * POST /actuator/tenants            - refresh the tenant list now
+ * POST /actuator/tenants/{tenantId} - register a newly provisioned tenant
+ */
+@Component
+@Endpoint(id = "tenants")
+@RequiredArgsConstructor
+public class TenantRegistryEndpoint {
+
+    private final TenantRegistry tenantRegistry;
+
+    @ReadOperation
+    public Map<String, Object> tenants() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("count", tenantRegistry.getKnownTenants().size());
+        result.put("lastRefresh", tenantRegistry.getLastRefresh());
+        result.put("negativeCacheSize", tenantRegistry.getNegativeCacheSize());
+        result.put("tenants", new TreeSet<>(tenantRegistry.getKnownTenants()));
+        return result;
+    }
+
+    @WriteOperation
+    public Map<String, Object> refresh() {
+        tenantRegistry.refresh();
+        return tenants();
+    }
+
+    @WriteOperation
+    public Map<String, Object> register(@Selector String tenantId) {
+        tenantRegistry.registerTenant(tenantId);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("tenantId", tenantId);
+        result.put("registered", true);
+        return result;
+    }
+}
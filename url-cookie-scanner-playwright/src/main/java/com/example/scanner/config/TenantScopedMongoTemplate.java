@@ -0,0 +1,430 @@
+package com.example.scanner.config;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperationContext;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.ExposedFields;
+import org.springframework.data.mongodb.core.aggregation.FacetOperation;
+import org.springframework.data.mongodb.core.aggregation.FieldsExposingAggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.GraphLookupOperation;
+import org.springframework.data.mongodb.core.aggregation.LookupOperation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.aggregation.UnionWithOperation;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.data.util.Pair;
+import org.springframework.lang.Nullable;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * MongoTemplate for tenants stored in shared collections ({@link com.example.scanner.enums.StorageMode#POOLED}).
+ *
+ * When the scope supplier returns a tenant ID, every query, update, delete, bulk operation and
+ * aggregation through the template is restricted to {@code tenantId = <id>}, and every saved or
+ * inserted document is stamped with it. {@code save} replaces a document only if it belongs to the
+ * tenant. Sub-pipelines of {@code $lookup}, {@code $unionWith}, {@code $graphLookup} and
+ * {@code $facet} stages are scoped too; a {@code $lookup} on {@code localField} gains a
+ * sub-pipeline, which needs MongoDB 5.0. When the supplier returns null the template behaves like
+ * a plain MongoTemplate.
+ *
+ * Raw driver access via {@link #getCollection(String)} and estimated counts are not scoped; use
+ * {@link #tenantFilter(MongoTemplate)} when reading collections directly. Documents inserted in
+ * bulk are converted before they reach the bulk, so they skip entity callbacks.
+ */
+public class TenantScopedMongoTemplate extends MongoTemplate {
+
+    public static final String TENANT_FIELD = "tenantId";
+
+    private final Supplier<String> tenantScope;
+
+    public TenantScopedMongoTemplate(MongoDatabaseFactory mongoDatabaseFactory, Supplier<String> tenantScope) {
+        super(mongoDatabaseFactory);
+        this.tenantScope = tenantScope;
+    }
+
+    public TenantScopedMongoTemplate(MongoDatabaseFactory mongoDatabaseFactory, MongoConverter mongoConverter,
+                                     Supplier<String> tenantScope) {
+        super(mongoDatabaseFactory, mongoConverter);
+        this.tenantScope = tenantScope;
+    }
+
+    /**
+     * Filter restricting a raw collection read to the template's tenant; empty for templates
+     * that are not scoped.
+     */
+    public static Document tenantFilter(MongoTemplate template) {
+        if (template instanceof TenantScopedMongoTemplate scopedTemplate) {
+            String tenantId = scopedTemplate.tenantScope.get();
+            if (tenantId != null) {
+                return new Document(TENANT_FIELD, tenantId);
+            }
+        }
+        return new Document();
+    }
+
+    @Override
+    public <T> List<T> find(Query query, Class<T> entityClass, String collectionName) {
+        return super.find(scoped(query), entityClass, collectionName);
+    }
+
+    @Override
+    public <T> T findOne(Query query, Class<T> entityClass, String collectionName) {
+        return super.findOne(scoped(query), entityClass, collectionName);
+    }
+
+    @Override
+    public <T> T findById(Object id, Class<T> entityClass, String collectionName) {
+        if (tenantScope.get() == null) {
+            return super.findById(id, entityClass, collectionName);
+        }
+        return findOne(new Query(Criteria.where("_id").is(id)), entityClass, collectionName);
+    }
+
+    @Override
+    public <T> List<T> findAll(Class<T> entityClass, String collectionName) {
+        return find(new Query(), entityClass, collectionName);
+    }
+
+    @Override
+    public boolean exists(Query query, @Nullable Class<?> entityClass, String collectionName) {
+        return super.exists(scoped(query), entityClass, collectionName);
+    }
+
+    @Override
+    public long count(Query query, @Nullable Class<?> entityClass, String collectionName) {
+        return super.count(scoped(query), entityClass, collectionName);
+    }
+
+    @Override
+    public <T> Stream<T> stream(Query query, Class<T> entityType, String collectionName) {
+        return super.stream(scoped(query), entityType, collectionName);
+    }
+
+    @Override
+    public <T> List<T> findDistinct(Query query, String field, String collectionName, Class<?> entityClass,
+                                    Class<T> resultClass) {
+        return super.findDistinct(scoped(query), field, collectionName, entityClass, resultClass);
+    }
+
+    @Override
+    public <T> T findAndModify(Query query, UpdateDefinition update, FindAndModifyOptions options,
+                               Class<T> entityClass, String collectionName) {
+        return super.findAndModify(scoped(query), update, options, entityClass, collectionName);
+    }
+
+    @Override
+    public <T> T findAndRemove(Query query, Class<T> entityClass, String collectionName) {
+        return super.findAndRemove(scoped(query), entityClass, collectionName);
+    }
+
+    @Override
+    protected UpdateResult doUpdate(String collectionName, Query query, UpdateDefinition update,
+                                    @Nullable Class<?> entityClass, boolean upsert, boolean multi) {
+        // Upserts copy the tenant equality into the inserted document
+        return super.doUpdate(collectionName, scoped(query), update, entityClass, upsert, multi);
+    }
+
+    @Override
+    protected <T> DeleteResult doRemove(String collectionName, Query query, @Nullable Class<T> entityClass,
+                                        boolean multi) {
+        return super.doRemove(collectionName, scoped(query), entityClass, multi);
+    }
+
+    @Override
+    public <O> AggregationResults<O> aggregate(Aggregation aggregation, String collectionName, Class<O> outputType) {
+        String tenantId = tenantScope.get();
+        if (tenantId == null) {
+            return super.aggregate(aggregation, collectionName, outputType);
+        }
+        return super.aggregate(Aggregation.newAggregation(scopedPipeline(aggregation, tenantId))
+                .withOptions(aggregation.getOptions()), collectionName, outputType);
+    }
+
+    @Override
+    public <O> AggregationResults<O> aggregate(Aggregation aggregation, Class<?> inputType, Class<O> outputType) {
+        String tenantId = tenantScope.get();
+        if (tenantId == null) {
+            return super.aggregate(aggregation, inputType, outputType);
+        }
+        return super.aggregate(Aggregation.newAggregation(scopedPipeline(aggregation, tenantId))
+                .withOptions(aggregation.getOptions()), inputType, outputType);
+    }
+
+    @Override
+    public <O> AggregationResults<O> aggregate(TypedAggregation<?> aggregation, String inputCollectionName,
+                                               Class<O> outputType) {
+        String tenantId = tenantScope.get();
+        if (tenantId == null) {
+            return super.aggregate(aggregation, inputCollectionName, outputType);
+        }
+        TypedAggregation<?> scopedAggregation = Aggregation.newAggregation(aggregation.getInputType(),
+                scopedPipeline(aggregation, tenantId)).withOptions(aggregation.getOptions());
+        return super.aggregate(scopedAggregation, inputCollectionName, outputType);
+    }
+
+    @Override
+    public BulkOperations bulkOps(BulkOperations.BulkMode mode, @Nullable Class<?> entityType, String collectionName) {
+        BulkOperations bulk = super.bulkOps(mode, entityType, collectionName);
+        String tenantId = tenantScope.get();
+        if (tenantId == null) {
+            return bulk;
+        }
+        return (BulkOperations) Proxy.newProxyInstance(BulkOperations.class.getClassLoader(),
+                new Class<?>[] {BulkOperations.class}, new ScopedBulkOperations(bulk, tenantId));
+    }
+
+    @Override
+    protected Object saveDocument(String collectionName, Document document, Class<?> entityClass) {
+        String tenantId = tenantScope.get();
+        Object id = document.get("_id");
+        if (tenantId == null || id == null) {
+            return super.saveDocument(collectionName, document, entityClass);
+        }
+        // An _id owned by another tenant does not match, and the upsert then fails on the unique _id index
+        execute(collectionName, collection -> collection.replaceOne(
+                Filters.and(Filters.eq("_id", id), Filters.eq(TENANT_FIELD, tenantId)),
+                document, new ReplaceOptions().upsert(true)));
+        return id;
+    }
+
+    @Override
+    protected <T> T maybeCallBeforeSave(T object, Document document, String collection) {
+        String tenantId = tenantScope.get();
+        if (tenantId != null) {
+            document.put(TENANT_FIELD, tenantId);
+        }
+        return super.maybeCallBeforeSave(object, document, collection);
+    }
+
+    private Query scoped(Query query) {
+        return scoped(query, tenantScope.get());
+    }
+
+    private static Query scoped(Query query, String tenantId) {
+        if (tenantId == null || query.getQueryObject().containsKey(TENANT_FIELD)) {
+            return query;
+        }
+        return Query.of(query).addCriteria(Criteria.where(TENANT_FIELD).is(tenantId));
+    }
+
+    static List<AggregationOperation> scopedPipeline(Aggregation aggregation, String tenantId) {
+        List<AggregationOperation> operations = new ArrayList<>();
+        operations.add(Aggregation.match(Criteria.where(TENANT_FIELD).is(tenantId)));
+        for (AggregationOperation operation : aggregation.getPipeline().getOperations()) {
+            operations.add(joinsOtherDocuments(operation) ? scopedStage(operation, tenantId) : operation);
+        }
+        return operations;
+    }
+
+    /**
+     * Whether a stage may read documents other than its input: the joining stages, and custom
+     * stages, whose rendering is not known in advance.
+     */
+    private static boolean joinsOtherDocuments(AggregationOperation operation) {
+        return operation instanceof LookupOperation
+                || operation instanceof UnionWithOperation
+                || operation instanceof GraphLookupOperation
+                || operation instanceof FacetOperation
+                || !operation.getClass().getName().startsWith("org.springframework.data.mongodb.");
+    }
+
+    /**
+     * Wrap a stage so its rendered sub-pipelines are scoped, keeping the fields it exposes to
+     * later stages.
+     */
+    private static AggregationOperation scopedStage(AggregationOperation operation, String tenantId) {
+        if (operation instanceof FieldsExposingAggregationOperation.InheritsFieldsAggregationOperation inheriting) {
+            return new ScopedInheritingStage(inheriting, tenantId);
+        }
+        if (operation instanceof FieldsExposingAggregationOperation exposing) {
+            return new ScopedExposingStage(exposing, tenantId);
+        }
+        return new ScopedStage(operation, tenantId);
+    }
+
+    static Document scopedStage(Document stage, String tenantId) {
+        Document tenantMatch = new Document("$match", new Document(TENANT_FIELD, tenantId));
+        Document scoped = new Document(stage);
+
+        if (stage.get("$lookup") instanceof Document lookup) {
+            scoped.put("$lookup", new Document(lookup)
+                    .append("pipeline", scopedSubPipeline(lookup.get("pipeline"), tenantMatch, tenantId)));
+        }
+        Object unionWith = stage.get("$unionWith");
+        if (unionWith instanceof String collection) {
+            scoped.put("$unionWith", new Document("coll", collection)
+                    .append("pipeline", scopedSubPipeline(null, tenantMatch, tenantId)));
+        } else if (unionWith instanceof Document union) {
+            scoped.put("$unionWith", new Document(union)
+                    .append("pipeline", scopedSubPipeline(union.get("pipeline"), tenantMatch, tenantId)));
+        }
+        if (stage.get("$graphLookup") instanceof Document graphLookup) {
+            Object restriction = graphLookup.get("restrictSearchWithMatch");
+            Document tenantFilter = new Document(TENANT_FIELD, tenantId);
+            scoped.put("$graphLookup", new Document(graphLookup).append("restrictSearchWithMatch",
+                    restriction == null ? tenantFilter : new Document("$and", List.of(restriction, tenantFilter))));
+        }
+        if (stage.get("$facet") instanceof Document facet) {
+            // Facets read the already scoped input; only joins inside them need scoping
+            Document scopedFacet = new Document();
+            for (Map.Entry<String, Object> entry : facet.entrySet()) {
+                scopedFacet.put(entry.getKey(), scopedSubPipeline(entry.getValue(), null, tenantId));
+            }
+            scoped.put("$facet", scopedFacet);
+        }
+        return scoped;
+    }
+
+    private static List<Object> scopedSubPipeline(@Nullable Object pipeline, @Nullable Document tenantMatch,
+                                                  String tenantId) {
+        List<Object> stages = new ArrayList<>();
+        if (tenantMatch != null) {
+            stages.add(tenantMatch);
+        }
+        if (pipeline instanceof List<?> list) {
+            for (Object stage : list) {
+                stages.add(stage instanceof Document document ? scopedStage(document, tenantId) : stage);
+            }
+        }
+        return stages;
+    }
+
+    private static class ScopedStage implements AggregationOperation {
+
+        private final AggregationOperation delegate;
+        private final String tenantId;
+
+        ScopedStage(AggregationOperation delegate, String tenantId) {
+            this.delegate = delegate;
+            this.tenantId = tenantId;
+        }
+
+        @Override
+        public Document toDocument(AggregationOperationContext context) {
+            return scopedStage(delegate.toDocument(context), tenantId);
+        }
+
+        @Override
+        public List<Document> toPipelineStages(AggregationOperationContext context) {
+            return delegate.toPipelineStages(context).stream()
+                    .map(stage -> scopedStage(stage, tenantId))
+                    .toList();
+        }
+
+        @Override
+        public String getOperator() {
+            return delegate.getOperator();
+        }
+    }
+
+    private static class ScopedExposingStage extends ScopedStage implements FieldsExposingAggregationOperation {
+
+        private final FieldsExposingAggregationOperation delegate;
+
+        ScopedExposingStage(FieldsExposingAggregationOperation delegate, String tenantId) {
+            super(delegate, tenantId);
+            this.delegate = delegate;
+        }
+
+        @Override
+        public ExposedFields getFields() {
+            return delegate.getFields();
+        }
+
+        @Override
+        public boolean inheritsFields() {
+            return delegate.inheritsFields();
+        }
+    }
+
+    private static final class ScopedInheritingStage extends ScopedExposingStage
+            implements FieldsExposingAggregationOperation.InheritsFieldsAggregationOperation {
+
+        ScopedInheritingStage(FieldsExposingAggregationOperation.InheritsFieldsAggregationOperation delegate,
+                              String tenantId) {
+            super(delegate, tenantId);
+        }
+    }
+
+    /**
+     * Scopes the queries of a {@link BulkOperations} and stamps the documents it inserts or
+     * replaces. Upserts copy the tenant equality from the scoped query into the inserted document.
+     */
+    private final class ScopedBulkOperations implements InvocationHandler {
+
+        private final BulkOperations delegate;
+        private final String tenantId;
+
+        ScopedBulkOperations(BulkOperations delegate, String tenantId) {
+            this.delegate = delegate;
+            this.tenantId = tenantId;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object[] scopedArgs = args == null ? null : args.clone();
+            if (scopedArgs != null) {
+                boolean insert = method.getName().equals("insert");
+                boolean replace = method.getName().equals("replaceOne");
+                for (int i = 0; i < scopedArgs.length; i++) {
+                    scopedArgs[i] = scopedArgument(scopedArgs[i], insert || (replace && i == 1));
+                }
+            }
+            try {
+                Object result = method.invoke(delegate, scopedArgs);
+                return result == delegate ? proxy : result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private Object scopedArgument(Object argument, boolean document) {
+            if (argument instanceof Query query) {
+                return scoped(query, tenantId);
+            }
+            if (argument instanceof List<?> list) {
+                List<Object> scopedList = new ArrayList<>(list.size());
+                for (Object element : list) {
+                    scopedList.add(scopedArgument(element, document));
+                }
+                return scopedList;
+            }
+            if (argument instanceof Pair<?, ?> pair && pair.getFirst() instanceof Query query) {
+                return Pair.of(scoped(query, tenantId), pair.getSecond());
+            }
+            return document && argument != null ? stamped(argument) : argument;
+        }
+
+        private Document stamped(Object entity) {
+            Document document = new Document();
+            if (entity instanceof Document source) {
+                document.putAll(source);
+            } else {
+                getConverter().write(entity, document);
+            }
+            document.put(TENANT_FIELD, tenantId);
+            return document;
+        }
+    }
+}
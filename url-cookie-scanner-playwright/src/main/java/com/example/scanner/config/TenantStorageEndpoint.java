@@ -0,0 +1,31 @@
+package com.example.scanner.config;
+
+import com.example.scanner.enums.StorageMode;
+import com.example.scanner.service.TenantMigrationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint switching a tenant between its own database and pooled collections.
+ *
+ * POST /actuator/tenantstorage/{tenantId}/{mode} - mode is {@code database} or {@code pooled}
+ *
+ * The current mode is part of the placement reported by {@code /actuator/tenantplacement}.
+ */
+@Component
+@Endpoint(id = "tenantstorage")
+@RequiredArgsConstructor
+public class TenantStorageEndpoint {
+
+    private final TenantMigrationService migrationService;
+
+    @WriteOperation
+    public Map<String, Object> migrate(@Selector String tenantId, @Selector StorageMode mode) {
+        return migrationService.migrateStorage(tenantId, mode);
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.scanner.controller;
 
+import com.example.scanner.config.TenantBulkheads;
+import com.example.scanner.dto.request.BatchCheckConsentRequest;
 import com.example.scanner.dto.request.CreateConsentRequest;
 import com.example.scanner.dto.request.UpdateConsentRequest;
 import com.example.scanner.dto.response.*;
@@ -27,6 +29,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+import static com.example.scanner.config.TenantBulkheads.OperationClass.CONSENT_READ;
+import static com.example.scanner.config.TenantBulkheads.OperationClass.CONSENT_WRITE;
+
 @RestController
 @RequestMapping("/consent")
 @RequiredArgsConstructor
@@ -35,6 +40,7 @@ import java.util.Optional;
 public class ConsentController {
 
     private final ConsentService consentService;
+    private final TenantBulkheads tenantBulkheads;
 
     @PostMapping("/create")
     @Operation(
@@ -90,7 +96,8 @@ public class ConsentController {
             @RequestHeader("X-Tenant-ID") String tenantId,
             @org.springframework.web.bind.annotation.RequestBody @Valid CreateConsentRequest request) throws Exception {
 
-        ConsentCreateResponse response = consentService.createConsentByConsentHandleId(request, tenantId);
+        ConsentCreateResponse response = tenantBulkheads.call(tenantId, CONSENT_WRITE,
+                () -> consentService.createConsentByConsentHandleId(request, tenantId));
 
         HttpHeaders responseHeaders = new HttpHeaders();
         if (response.getJwsToken() != null) {
@@ -145,7 +152,8 @@ public class ConsentController {
             @PathVariable String consentId,
             @org.springframework.web.bind.annotation.RequestBody @Valid UpdateConsentRequest updateRequest) throws Exception {
 
-        UpdateConsentResponse response = consentService.updateConsent(consentId, updateRequest, tenantId);
+        UpdateConsentResponse response = tenantBulkheads.call(tenantId, CONSENT_WRITE,
+                () -> consentService.updateConsent(consentId, updateRequest, tenantId));
 
         HttpHeaders responseHeaders = new HttpHeaders();
         if (response.getJwsToken() != null) {
@@ -181,7 +189,8 @@ public class ConsentController {
             @RequestHeader("X-Tenant-ID") String tenantId,
             @PathVariable String consentId) throws Exception {
 
-        List<CookieConsent> history = consentService.getConsentHistory(consentId, tenantId);
+        List<CookieConsent> history = tenantBulkheads.call(tenantId, CONSENT_READ,
+                () -> consentService.getConsentHistory(consentId, tenantId));
         return ResponseEntity.ok(history);
     }
 
@@ -210,7 +219,8 @@ public class ConsentController {
             @PathVariable String consentId,
             @PathVariable Integer version) throws Exception {
 
-        Optional<CookieConsent> consentOpt = consentService.getConsentByIdAndVersion(tenantId, consentId, version);
+        Optional<CookieConsent> consentOpt = tenantBulkheads.call(tenantId, CONSENT_READ,
+                () -> consentService.getConsentByIdAndVersion(tenantId, consentId, version));
 
         if (consentOpt.isEmpty()) {
             throw new IllegalArgumentException("No consent found with ID '" + consentId + "' and version " + version);
@@ -251,7 +261,8 @@ public class ConsentController {
             @RequestHeader("business-id") String businessId,
             @RequestHeader("X-Tenant-ID") String tenantId,
             @RequestHeader Map<String, String> headers) throws Exception {
-        return new ResponseEntity<>(consentService.validateConsentToken(consentToken, jwsToken, tenantId, businessId),
+        return new ResponseEntity<>(tenantBulkheads.call(tenantId, CONSENT_READ,
+                () -> consentService.validateConsentToken(consentToken, jwsToken, tenantId, businessId)),
                 HttpStatus.OK);
     }
 
@@ -291,6 +302,50 @@ public class ConsentController {
             @RequestParam(value = "deviceId", required = true) String deviceId,
             @RequestParam(value = "url", required = true) String url,
             @RequestParam(value = "consentId", required = false) String consentId) throws Exception {
-        return new ResponseEntity<>(consentService.getConsentStatus(deviceId, url, consentId, tenantId), HttpStatus.OK);
+        return new ResponseEntity<>(tenantBulkheads.call(tenantId, CONSENT_READ,
+                () -> consentService.getConsentStatus(deviceId, url, consentId, tenantId)), HttpStatus.OK);
+    }
+
+    @PostMapping("/check/batch")
+    @Operation(
+            summary = "Check several consent statuses",
+            description = """
+                Batch form of /consent/check for pages that embed several properties. Each check takes the
+                same deviceId, url and optional consentId as the single check; statuses are returned in
+                request order. At most consent.check.batch-max-size checks per request.
+                
+                Error Codes: R4001 (Missing params or batch too large), R5001 (Retrieval failed)
+                """,
+            requestBody = @RequestBody(
+                    content = @Content(
+                            schema = @Schema(implementation = BatchCheckConsentRequest.class)
+                    )
+            ),
+            parameters = {
+                    @Parameter(name = "X-Tenant-ID", description = "Tenant ID", required = true, in = ParameterIn.HEADER, example = "pl_123e4567-CXXXXXX....")
+            },
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Statuses retrieved successfully",
+                            content = @Content(
+                                    schema = @Schema(implementation = BatchCheckConsentResponse.class),
+                                    examples = @ExampleObject(value = """
+                                        {"results": [{"consentStatus": "ACTIVE", "consentHandleId": "9bb14c63-7ec8-47f5-86b5-4a8c848012c1"}, {"consentStatus": "No_Record", "consentHandleId": "No_Record"}]}
+                                        """)
+                            )
+                    ),
+                    @ApiResponse(responseCode = "400", description = "Missing required parameters or too many checks",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+                    @ApiResponse(responseCode = "500", description = "Internal server error",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+            }
+    )
+    public ResponseEntity<BatchCheckConsentResponse> checkConsents(
+            @RequestHeader("X-Tenant-ID") String tenantId,
+            @org.springframework.web.bind.annotation.RequestBody @Valid BatchCheckConsentRequest request) throws Exception {
+        List<CheckConsentResponse> results = tenantBulkheads.call(tenantId, CONSENT_READ,
+                () -> consentService.getConsentStatuses(request.getChecks(), tenantId));
+        return ResponseEntity.ok(BatchCheckConsentResponse.builder().results(results).build());
     }
 }
\ No newline at end of file
@@ -6,10 +6,9 @@ import com.example.scanner.dto.response.ErrorResponse;
 import com.example.scanner.dto.response.GetConsentHandleAndSecureCodeResponse;
 import com.example.scanner.dto.response.GetHandleResponse;
 import com.example.scanner.exception.ScannerException;
+import com.example.scanner.service.BannerResponseCache;
 import com.example.scanner.service.ConsentHandleService;
 import com.example.scanner.service.RequestResponseSignatureService;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -21,14 +20,16 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
 
 @RestController
 @RequestMapping("/consent-handle")
@@ -111,6 +112,9 @@ public class ConsentHandleController {
             description = """
                 Retrieves consent handle details with template and cookie information.
                 Returns cookie report, UI config, and preferences with cookies.
+                The response carries a strong ETag; send it back in If-None-Match to get a 304
+                while the handle and its template version are unchanged. Pass lang (e.g. ENGLISH,HINDI)
+                to receive only those languages' texts.
                 
                 Error Codes: R4001 (Invalid ID), R4041 (Not found), R4101 (Expired), R5000 (Internal)
                 """,
@@ -146,9 +150,18 @@ public class ConsentHandleController {
     public ResponseEntity<GetHandleResponse> getHandleById(
             @RequestHeader("X-Tenant-ID") String tenantId,
             @PathVariable("consentHandleId") String consentHandleId,
-            @RequestHeader Map<String, String> headers) throws ScannerException {
-        GetHandleResponse response = this.consentHandleService.getConsentHandleById(consentHandleId, tenantId);
-        return new ResponseEntity<>(response, HttpStatus.OK);
+            @RequestParam(value = "lang", required = false) List<String> lang,
+            @RequestHeader Map<String, String> headers,
+            WebRequest webRequest) throws ScannerException {
+        GetHandleResponse response = this.consentHandleService.getConsentHandleById(
+                consentHandleId, tenantId, BannerResponseCache.parseLanguages(lang));
+        if (webRequest.checkNotModified(response.getEtag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(response.getEtag())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(response);
     }
 
     @PostMapping("/handle-code")
@@ -293,9 +306,7 @@ public class ConsentHandleController {
                 tenantId, businessId, request.getTemplateId());
 
 
-        ObjectMapper mapper = new ObjectMapper();
-        Map<String, Object> map =
-                mapper.convertValue(request, new TypeReference<TreeMap<String, Object>>() {});
+        Map<String, Object> map = requestResponseSignatureService.toSignablePayload(request);
         requestResponseSignatureService.verifyRequest(map ,headers);
 
         GetConsentHandleAndSecureCodeResponse response = consentHandleService
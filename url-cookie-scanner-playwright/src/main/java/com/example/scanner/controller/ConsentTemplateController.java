@@ -3,12 +3,15 @@ package com.example.scanner.controller;
 import com.example.scanner.constants.ErrorCodes;
 import com.example.scanner.dto.request.CreateTemplateRequest;
 import com.example.scanner.dto.request.UpdateTemplateRequest;
+import com.example.scanner.dto.response.BannerResponse;
 import com.example.scanner.dto.response.ErrorResponse;
 import com.example.scanner.dto.response.TemplateResponse;
 import com.example.scanner.dto.response.TemplateWithCookiesResponse;
 import com.example.scanner.dto.response.UpdateTemplateResponse;
 import com.example.scanner.entity.ConsentTemplate;
 import com.example.scanner.exception.ConsentException;
+import com.example.scanner.service.BannerPayloadService;
+import com.example.scanner.service.BannerResponseCache;
 import com.example.scanner.service.ConsentTemplateService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -21,11 +24,15 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.Instant;
 import java.util.List;
@@ -41,6 +48,9 @@ public class ConsentTemplateController {
     @Autowired
     private ConsentTemplateService service;
 
+    @Autowired
+    private BannerResponseCache bannerResponses;
+
     @Operation(
             summary = "Create consent template",
             description = """
@@ -109,7 +119,8 @@ public class ConsentTemplateController {
 
     @Operation(
             summary = "Get templates with filters",
-            description = "Retrieves templates for tenant. Supports optional filtering by businessId, scanId, templateId",
+            description = "Retrieves templates for tenant. Supports optional filtering by businessId, scanId, templateId. "
+                    + "Responses carry a strong ETag for If-None-Match revalidation.",
             parameters = {
                     @Parameter(name = "X-Tenant-ID", description = "Tenant ID", required = true, example = "b1c2d3e4-f5g6-7890-1234-567890abcdef"),
                     @Parameter(name = "businessId", description = "Business ID (optional)", example = "b1c2d3e4-f5g6-7890-1234-567890abcdef"),
@@ -133,7 +144,8 @@ public class ConsentTemplateController {
             @RequestHeader("X-Tenant-ID") String tenantId,
             @RequestParam(value = "businessId", required = false) String businessId,
             @RequestParam(value = "scanId", required = false) String scanId,
-            @RequestParam(value = "templateId", required = false) String templateId) {
+            @RequestParam(value = "templateId", required = false) String templateId,
+            WebRequest webRequest) {
 
         try {
             if (tenantId == null || tenantId.trim().isEmpty()) {
@@ -148,7 +160,14 @@ public class ConsentTemplateController {
                         "No templates found", "No templates found for given criteria", "/cookie-templates/tenant");
             }
 
-            return ResponseEntity.ok(templates);
+            String etag = BannerPayloadService.etag(templates.stream().map(TemplateWithCookiesResponse::getEtag).toArray());
+            if (webRequest.checkNotModified(etag)) {
+                return null;
+            }
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .body(templates);
 
         } catch (Exception e) {
             return buildErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR, ErrorCodes.INTERNAL_ERROR,
@@ -279,6 +298,75 @@ public class ConsentTemplateController {
         }
     }
 
+    @GetMapping("/{templateId}/versions/{version}/banner")
+    @Operation(
+            summary = "Get banner content of a template version",
+            description = """
+                Returns the banner texts, UI config and preferences with cookies of a template version.
+                Pass lang (e.g. ENGLISH,HINDI) to receive only those languages' texts. Bodies are
+                prepared once per version and language set, and sent gzip-compressed when the client
+                accepts it. Responses carry a strong ETag per encoding for If-None-Match revalidation.
+                """,
+            parameters = {
+                    @Parameter(name = "X-Tenant-ID", description = "Tenant ID", example = "b1c2d3e4-f5g6-7890-1234-567890abcdef"),
+                    @Parameter(name = "templateId", description = "Template ID", example = "b1c2d3e4-f5g6-7890-1234-567890abcdef"),
+                    @Parameter(name = "version", description = "Version number", example = "2"),
+                    @Parameter(name = "lang", description = "Languages (optional)", example = "ENGLISH,HINDI")
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Banner retrieved successfully",
+                            content = @Content(schema = @Schema(implementation = BannerResponse.class))),
+                    @ApiResponse(responseCode = "304", description = "Not modified"),
+                    @ApiResponse(responseCode = "400", description = "Unknown language",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+                    @ApiResponse(responseCode = "404", description = "Version not found",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+                    @ApiResponse(responseCode = "500", description = "Internal server error",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+            }
+    )
+    public ResponseEntity<?> getBanner(
+            @RequestHeader("X-Tenant-ID") String tenantId,
+            @PathVariable String templateId,
+            @PathVariable Integer version,
+            @RequestParam(value = "lang", required = false) List<String> lang,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest) {
+
+        String path = "/cookie-templates/" + templateId + "/versions/" + version + "/banner";
+        try {
+            BannerResponseCache.EncodedBanner banner = bannerResponses.get(tenantId, templateId, version,
+                    BannerResponseCache.parseLanguages(lang));
+            if (banner == null) {
+                return buildErrorResponse(HttpStatus.NOT_FOUND, ErrorCodes.NOT_FOUND,
+                        "Version not found", "No template found with ID '" + templateId + "' and version " + version,
+                        path);
+            }
+
+            boolean gzip = BannerResponseCache.acceptsGzip(acceptEncoding);
+            if (webRequest.checkNotModified(banner.etag(gzip))) {
+                return null;
+            }
+
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .eTag(banner.etag(gzip))
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .cacheControl(CacheControl.noCache());
+            if (gzip) {
+                response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            return response.body(banner.body(gzip));
+
+        } catch (IllegalArgumentException e) {
+            return buildErrorResponse(HttpStatus.BAD_REQUEST, ErrorCodes.VALIDATION_ERROR,
+                    "Invalid parameters", e.getMessage(), path);
+        } catch (Exception e) {
+            return buildErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR, ErrorCodes.INTERNAL_ERROR,
+                    "Failed to retrieve banner", e.getMessage(), path);
+        }
+    }
+
     private ResponseEntity<ErrorResponse> handleValidationErrors(BindingResult bindingResult, String path) {
         List<String> errors = bindingResult.getAllErrors().stream()
                 .map(error -> {
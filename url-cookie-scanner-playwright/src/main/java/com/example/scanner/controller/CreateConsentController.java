@@ -1,5 +1,6 @@
 package com.example.scanner.controller;
 
+import com.example.scanner.config.TenantBulkheads;
 import com.example.scanner.dto.request.CreateConsentRequest;
 import com.example.scanner.dto.response.ConsentCreateResponse;
 import com.example.scanner.service.ConsentService;
@@ -27,6 +28,7 @@ import java.util.Map;
 public class CreateConsentController {
 
     private final ConsentService consentService;
+    private final TenantBulkheads tenantBulkheads;
 
     @PostMapping("/create")
     @Operation(summary = "Create a consent by consent handle ID",
@@ -55,7 +57,8 @@ public class CreateConsentController {
 
         log.info("Creating consent for handle: {}, tenant: {}", request.getConsentHandleId(), tenantId);
 
-        ConsentCreateResponse response = this.consentService.createConsentByConsentHandleId(request, tenantId);
+        ConsentCreateResponse response = tenantBulkheads.call(tenantId, TenantBulkheads.OperationClass.CONSENT_WRITE,
+                () -> this.consentService.createConsentByConsentHandleId(request, tenantId));
 
         log.info("Successfully created consent: {} for handle: {}", response.getConsentId(), request.getConsentHandleId());
 
@@ -1,11 +1,18 @@
 package com.example.scanner.controller;
 
+import com.example.scanner.config.TenantBulkheads;
+import com.example.scanner.config.TenantRegistry;
 import com.example.scanner.constants.ErrorCodes;
 import com.example.scanner.dto.request.DashboardRequest;
+import com.example.scanner.dto.response.DashboardSummaryResponse;
 import com.example.scanner.dto.response.DashboardTemplateResponse;
 import com.example.scanner.dto.response.ErrorResponse;
+import com.example.scanner.exception.ConsentException;
+import com.example.scanner.service.ConsentAnalyticsCounters;
+import com.example.scanner.service.ConsentExportService;
 import com.example.scanner.service.ConsentService;
 import com.example.scanner.util.CommonUtil;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -17,11 +24,15 @@ import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -34,11 +45,24 @@ public class DashboardController {
     @Autowired
     private ConsentService consentService;
 
+    @Autowired
+    private TenantBulkheads tenantBulkheads;
+
+    @Autowired
+    private ConsentAnalyticsCounters consentAnalytics;
+
+    @Autowired
+    private ConsentExportService consentExportService;
+
+    @Autowired
+    private TenantRegistry tenantRegistry;
+
     @Operation(
             summary = "Get consent dashboard data",
             description = """
                 Fetches consent data grouped by template. TenantId mandatory, all query params optional.
-                Returns all templates if only tenantId provided.
+                Returns all templates if only tenantId provided. Each template returns one page of
+                rows; pass its nextCursor as cursor to read the next page of that template.
                 """,
             responses = {
                     @ApiResponse(responseCode = "200", description = "Dashboard data retrieved successfully",
@@ -65,10 +89,14 @@ public class DashboardController {
             @Parameter(description = "End date (optional) - ISO 8601 format", example = "2025-11-22T23:59:59")
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
             @RequestParam(value = "endDt", required = false) LocalDateTime endDate,
+            @Parameter(description = "Cursor from a template's nextCursor (optional)")
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @Parameter(description = "Rows per template (optional)", example = "100")
+            @RequestParam(value = "limit", required = false) Integer limit,
             HttpServletRequest httpRequest) {
 
         try {
-            CommonUtil.validateTenantId(tenantId);
+            requireKnownTenant(tenantId);
 
             DashboardRequest request = DashboardRequest.builder()
                     .templateID(templateId)
@@ -76,9 +104,12 @@ public class DashboardController {
                     .version(version)
                     .startDate(startDate)
                     .endDate(endDate)
+                    .cursor(cursor)
+                    .limit(limit)
                     .build();
 
-            List<DashboardTemplateResponse> dashboardData = consentService.getDashboardDataGroupedByTemplate(tenantId, request);
+            List<DashboardTemplateResponse> dashboardData = tenantBulkheads.call(tenantId, TenantBulkheads.OperationClass.ANALYTICS,
+                    () -> consentService.getDashboardDataGroupedByTemplate(tenantId, request));
 
             if (dashboardData.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(
@@ -89,6 +120,69 @@ public class DashboardController {
 
             return ResponseEntity.ok(dashboardData);
 
+        } catch (BulkheadFullException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "5").body(
+                    new ErrorResponse("R5034", "Too many concurrent dashboard requests, please retry shortly",
+                            e.getMessage(), Instant.now(), httpRequest.getRequestURI())
+            );
+        } catch (ConsentException e) {
+            HttpStatus status = ErrorCodes.VALIDATION_ERROR.equals(e.getErrorCode())
+                    ? HttpStatus.BAD_REQUEST : HttpStatus.INTERNAL_SERVER_ERROR;
+            return ResponseEntity.status(status).body(
+                    new ErrorResponse(e.getErrorCode(), e.getUserMessage(),
+                            e.getDeveloperDetails(), Instant.now(), httpRequest.getRequestURI())
+            );
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
+                    new ErrorResponse(ErrorCodes.INTERNAL_ERROR, "Internal server error",
+                            e.getMessage(), Instant.now(), httpRequest.getRequestURI())
+            );
+        }
+    }
+
+    @Operation(
+            summary = "Get consent analytics summary",
+            description = """
+                Consent volumes, handle conversion and per-purpose accept/reject rates for a day range
+                (UTC, default the last 30 days), read from pre-aggregated counters.
+                """,
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Summary retrieved successfully",
+                            content = @Content(schema = @Schema(implementation = DashboardSummaryResponse.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid day range",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+                    @ApiResponse(responseCode = "500", description = "Internal server error",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+            }
+    )
+    @GetMapping("/{tenantId}/summary")
+    public ResponseEntity<?> getDashboardSummary(
+            @Parameter(description = "Tenant ID", required = true, example = "tenant-123")
+            @PathVariable("tenantId") String tenantId,
+            @Parameter(description = "Template ID (optional)", example = "tpl_123e4567-e89b-12d3-a456-426614174000")
+            @RequestParam(value = "template", required = false) String templateId,
+            @Parameter(description = "Template version (optional, with template)", example = "5")
+            @RequestParam(value = "version", required = false) Integer version,
+            @Parameter(description = "First day (optional) - ISO 8601 date", example = "2025-01-01")
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @RequestParam(value = "from", required = false) LocalDate from,
+            @Parameter(description = "Last day (optional) - ISO 8601 date", example = "2025-01-31")
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @RequestParam(value = "to", required = false) LocalDate to,
+            HttpServletRequest httpRequest) {
+
+        try {
+            requireKnownTenant(tenantId);
+
+            return ResponseEntity.ok(consentAnalytics.summary(tenantId, templateId, version, from, to));
+
+        } catch (ConsentException e) {
+            HttpStatus status = ErrorCodes.VALIDATION_ERROR.equals(e.getErrorCode())
+                    ? HttpStatus.BAD_REQUEST : HttpStatus.INTERNAL_SERVER_ERROR;
+            return ResponseEntity.status(status).body(
+                    new ErrorResponse(e.getErrorCode(), e.getUserMessage(),
+                            e.getDeveloperDetails(), Instant.now(), httpRequest.getRequestURI())
+            );
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
                     new ErrorResponse(ErrorCodes.INTERNAL_ERROR, "Internal server error",
@@ -96,4 +190,69 @@ public class DashboardController {
             );
         }
     }
+
+    @Operation(
+            summary = "Export consents",
+            description = """
+                Streams the tenant's consents as NDJSON (default) or CSV, oldest document first, without
+                tokens or encrypted fields. Every row carries a cursor; if the download is interrupted,
+                pass the last cursor received as after to continue with the next row.
+                """,
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Export stream"),
+                    @ApiResponse(responseCode = "400", description = "Invalid format, status or cursor",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+                    @ApiResponse(responseCode = "503", description = "Too many concurrent exports",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+            }
+    )
+    @GetMapping("/{tenantId}/export")
+    public ResponseEntity<StreamingResponseBody> exportConsents(
+            @Parameter(description = "Tenant ID", required = true, example = "tenant-123")
+            @PathVariable("tenantId") String tenantId,
+            @Parameter(description = "ndjson or csv (optional, default ndjson)", example = "csv")
+            @RequestParam(value = "format", required = false) String format,
+            @Parameter(description = "Template ID (optional)", example = "tpl_123e4567-e89b-12d3-a456-426614174000")
+            @RequestParam(value = "template", required = false) String templateId,
+            @Parameter(description = "Template version (optional)", example = "5")
+            @RequestParam(value = "version", required = false) Integer version,
+            @Parameter(description = "Consent status (optional)", example = "ACTIVE")
+            @RequestParam(value = "status", required = false) String status,
+            @Parameter(description = "Created from (optional) - ISO 8601 format", example = "2025-01-01T00:00:00")
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            @RequestParam(value = "startDt", required = false) LocalDateTime startDate,
+            @Parameter(description = "Created until (optional) - ISO 8601 format", example = "2025-11-22T23:59:59")
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            @RequestParam(value = "endDt", required = false) LocalDateTime endDate,
+            @Parameter(description = "Cursor of the last row received (optional)")
+            @RequestParam(value = "after", required = false) String after) throws ConsentException {
+
+        // Errors before the first byte go through GlobalExceptionHandler; a stream cannot return one
+        requireKnownTenant(tenantId);
+
+        ConsentExportService.Format exportFormat = ConsentExportService.parseFormat(format);
+        StreamingResponseBody body = consentExportService.export(tenantId, exportFormat, templateId, version,
+                status, startDate, endDate, after);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.contentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"consents." + exportFormat.extension() + "\"")
+                .body(body);
+    }
+
+    /**
+     * The tenant comes from the path, so TenantDatabaseValidationFilter (which checks the
+     * X-Tenant-ID header) does not cover these routes.
+     */
+    private void requireKnownTenant(String tenantId) throws ConsentException {
+        CommonUtil.validateTenantId(tenantId);
+        if (!tenantRegistry.isKnownTenant(tenantId.trim())) {
+            throw new ConsentException(
+                    ErrorCodes.VALIDATION_ERROR,
+                    ErrorCodes.getDescription(ErrorCodes.VALIDATION_ERROR),
+                    "Tenant " + tenantId + " does not exist"
+            );
+        }
+    }
 }
\ No newline at end of file
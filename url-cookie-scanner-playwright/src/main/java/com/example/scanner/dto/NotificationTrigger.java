@@ -1,6 +1,7 @@
 package com.example.scanner.dto;
 
 import com.example.scanner.entity.AbstractEntity;
+import com.example.scanner.enums.LANGUAGE;
 import com.example.scanner.enums.NotificationStatus;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
@@ -9,6 +10,7 @@ import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.time.Instant;
 import java.util.List;
 
 @EqualsAndHashCode(callSuper = true)
@@ -36,4 +38,17 @@ public class NotificationTrigger extends AbstractEntity {
     private String notificationEventId;
     private String errorMessage;
 
+    /** Identifies the logical event; repeats within the dedupe window are not stored again */
+    private String eventKey;
+    /** Sent as X-Transaction-Id, unchanged across retries */
+    private String transactionId;
+    private LANGUAGE language;
+
+    // Outbox state, see NotificationDispatcher
+    private int attempts;
+    private Instant nextAttemptAt;
+    private String leaseOwner;
+    private Instant leaseUntil;
+    private Instant sentAt;
+
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.example.scanner.dto.request;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request to check the consent status of several devices and URLs at once")
+public class BatchCheckConsentRequest {
+
+    @ArraySchema(schema = @Schema(implementation = ConsentCheck.class),
+            arraySchema = @Schema(description = "Checks to resolve; results are returned in the same order"))
+    @NotEmpty(message = "At least one check is required")
+    @Valid
+    private List<ConsentCheck> checks;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "A single consent status check")
+    public static class ConsentCheck {
+
+        @Schema(description = "Device ID", example = "92342834928359235", required = true)
+        @NotBlank(message = "Device ID is required")
+        private String deviceId;
+
+        @Schema(description = "Website URL", example = "http://www.example.com", required = true)
+        @NotBlank(message = "URL is required")
+        private String url;
+
+        @Schema(description = "Consent ID (optional)", example = "pl_123e4567-CXXXXXX....")
+        private String consentId;
+    }
+}
@@ -27,4 +27,10 @@ public class DashboardRequest {
 
     @Schema(description = "End date filter (optional)")
     private LocalDateTime endDate;
+
+    @Schema(description = "Cursor from a previous response's nextCursor (optional)")
+    private String cursor;
+
+    @Schema(description = "Rows per template (optional)")
+    private Integer limit;
 }
\ No newline at end of file
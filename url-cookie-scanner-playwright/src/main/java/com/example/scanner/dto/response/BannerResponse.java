@@ -0,0 +1,39 @@
+package com.example.scanner.dto.response;
+
+import com.example.scanner.dto.Multilingual;
+import com.example.scanner.dto.UiConfig;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Banner content of a template version, limited to the requested languages")
+public class BannerResponse {
+
+    @Schema(description = "Template ID")
+    private String templateId;
+
+    @Schema(description = "Template version")
+    private Integer templateVersion;
+
+    @Schema(description = "Template name")
+    private String templateName;
+
+    @Schema(description = "Texts of the requested languages, or of all languages if none was requested")
+    private Multilingual multilingual;
+
+    @Schema(description = "Banner UI configuration")
+    private UiConfig uiConfig;
+
+    @Schema(description = "Preferences with their scanned cookies")
+    private List<PreferenceWithCookies> preferences;
+}
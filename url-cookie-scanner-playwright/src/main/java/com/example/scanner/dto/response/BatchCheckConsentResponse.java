@@ -0,0 +1,21 @@
+package com.example.scanner.dto.response;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Response after checking several consent statuses")
+public class BatchCheckConsentResponse {
+    @ArraySchema(schema = @Schema(implementation = CheckConsentResponse.class),
+            arraySchema = @Schema(description = "One status per requested check, in request order"))
+    List<CheckConsentResponse> results;
+}
@@ -0,0 +1,101 @@
+package com.example.scanner.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Consent analytics summary for a day range, from pre-aggregated counters")
+public class DashboardSummaryResponse {
+
+    @Schema(description = "Template ID filter, if any")
+    private String templateId;
+
+    @Schema(description = "Template version filter, if any")
+    private Integer templateVersion;
+
+    @Schema(description = "First day of the range (UTC)")
+    private LocalDate from;
+
+    @Schema(description = "Last day of the range (UTC)")
+    private LocalDate to;
+
+    @Schema(description = "Consents created")
+    private long consentsCreated;
+
+    @Schema(description = "Consent versions created by preference updates")
+    private long consentsUpdated;
+
+    @Schema(description = "Consents revoked")
+    private long consentsRevoked;
+
+    @Schema(description = "Consent handles created")
+    private long handlesCreated;
+
+    @Schema(description = "Handles created in the range that were used for a consent")
+    private long handlesUsed;
+
+    @Schema(description = "Handles created in the range that were rejected")
+    private long handlesRejected;
+
+    @Schema(description = "Handles created in the range that expired unused")
+    private long handlesExpired;
+
+    @Schema(description = "handlesUsed / handlesCreated; null when no handles were created")
+    private Double conversionRate;
+
+    @Schema(description = "Accept/reject counts per preference purpose")
+    private List<PurposeSummary> purposes;
+
+    @Schema(description = "Volumes per day, days without activity omitted")
+    private List<DailyVolume> daily;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PurposeSummary {
+
+        @Schema(description = "Preference purpose")
+        private String purpose;
+
+        @Schema(description = "Times the purpose was accepted")
+        private long accepted;
+
+        @Schema(description = "Times the purpose was not accepted")
+        private long rejected;
+
+        @Schema(description = "accepted / (accepted + rejected); null without choices")
+        private Double acceptRate;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DailyVolume {
+
+        @Schema(description = "Day (UTC), yyyy-MM-dd")
+        private String day;
+
+        @Schema(description = "Consents created")
+        private long consentsCreated;
+
+        @Schema(description = "Consent versions created by preference updates")
+        private long consentsUpdated;
+
+        @Schema(description = "Consents revoked")
+        private long consentsRevoked;
+
+        @Schema(description = "Consent handles created")
+        private long handlesCreated;
+    }
+}
@@ -35,4 +35,7 @@ public class DashboardTemplateResponse {
 
     @Schema(description = "List of consents for this template")
     private List<ConsentDetail> consents;
+
+    @Schema(description = "Cursor for the next page of this template; null on the last page")
+    private String nextCursor;
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import com.example.scanner.dto.CustomerIdentifiers;
 import com.example.scanner.dto.Multilingual;
 import com.example.scanner.dto.UiConfig;
 import com.example.scanner.enums.ConsentHandleStatus;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
@@ -84,4 +85,9 @@ public class GetHandleResponse {
     )
     private ConsentHandleStatus status;
 
+    /** Strong ETag of the response, for conditional requests; not part of the body */
+    @JsonIgnore
+    @Schema(hidden = true)
+    private String etag;
+
 }
\ No newline at end of file
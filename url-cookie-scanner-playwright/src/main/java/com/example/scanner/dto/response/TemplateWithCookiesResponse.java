@@ -6,6 +6,7 @@ import com.example.scanner.dto.DocumentMeta;
 import com.example.scanner.enums.TemplateStatus;
 import com.example.scanner.enums.VersionStatus;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
@@ -70,4 +71,9 @@ public class TemplateWithCookiesResponse {
     @Schema(description = "Updated timestamp")
     @JsonFormat(shape = JsonFormat.Shape.STRING, timezone = "UTC")
     private Instant updatedAt;
+
+    /** Strong ETag of this entry, for conditional requests; not part of the body */
+    @JsonIgnore
+    @Schema(hidden = true)
+    private String etag;
 }
\ No newline at end of file
@@ -0,0 +1,48 @@
+package com.example.scanner.entity;
+
+import com.example.scanner.dto.request.AuditRequest;
+import com.example.scanner.enums.OutboxStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Audit event waiting to be shipped to the audit module, stored in the shared database.
+ * Entries are deleted once the audit module has accepted them.
+ */
+@Document(collection = "audit_outbox")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditOutboxEntry {
+
+    /** ObjectId, so sorting by id follows insertion order */
+    @Id
+    private String id;
+
+    /** Entries with the same key (tenant and resource) are shipped in insertion order */
+    private String orderingKey;
+
+    private AuditRequest request;
+
+    private OutboxStatus status;
+
+    private int attempts;
+
+    private Instant createdAt;
+
+    private Instant nextAttemptAt;
+
+    /** Dispatcher instance that claimed the entry, until {@link #leaseUntil} */
+    private String leaseOwner;
+
+    private Instant leaseUntil;
+
+    private String lastError;
+}
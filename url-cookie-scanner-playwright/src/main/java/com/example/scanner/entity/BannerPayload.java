@@ -0,0 +1,50 @@
+package com.example.scanner.entity;
+
+import com.example.scanner.dto.Multilingual;
+import com.example.scanner.dto.UiConfig;
+import com.example.scanner.dto.response.PreferenceWithCookies;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The banner content of one template version: the template's texts and UI config joined with the
+ * scan's cookies per preference. Materialized when the version is created and dropped when the
+ * scan's cookies are edited.
+ */
+@Document(collection = "banner_payloads")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BannerPayload {
+
+    /** {@code templateId:version} */
+    @Id
+    private String id;
+
+    private String templateId;
+
+    private Integer templateVersion;
+
+    private String scanId;
+
+    private String templateName;
+
+    private Multilingual multilingual;
+
+    private UiConfig uiConfig;
+
+    private List<PreferenceWithCookies> preferences;
+
+    /** Strong ETag of the content above, quoted */
+    private String etag;
+
+    private Instant createdAt;
+}
@@ -0,0 +1,43 @@
+package com.example.scanner.entity;
+
+import com.example.scanner.enums.PlacementState;
+import com.example.scanner.enums.StorageMode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Cluster placement and storage mode of a tenant, stored in the shared database. Tenants
+ * without a placement document have their own database on the default cluster.
+ */
+@Document(collection = "tenant_placements")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TenantPlacement {
+
+    @Id
+    private String tenantId;
+
+    private String cluster;
+
+    private PlacementState state;
+
+    /** Null means {@link StorageMode#DATABASE} */
+    private StorageMode storageMode;
+
+    /** Cluster the tenant was last migrated from; its copy is kept until cleaned up */
+    private String previousCluster;
+
+    private Instant updatedAt;
+
+    public boolean isPooled() {
+        return storageMode == StorageMode.POOLED;
+    }
+}
@@ -3,5 +3,8 @@ package com.example.scanner.enums;
 public enum NotificationStatus {
     PENDING,
     SENT,
-    FAILED;
+    /** Last attempt failed; retried after nextAttemptAt */
+    FAILED,
+    /** Gave up after the maximum number of attempts */
+    DEAD;
 }
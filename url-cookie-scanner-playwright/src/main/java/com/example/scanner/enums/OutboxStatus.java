@@ -0,0 +1,9 @@
+package com.example.scanner.enums;
+
+public enum OutboxStatus {
+    /** Waiting to be shipped, possibly after a failed attempt */
+    PENDING,
+
+    /** Gave up after the maximum number of attempts; kept for inspection */
+    DEAD
+}
@@ -0,0 +1,9 @@
+package com.example.scanner.enums;
+
+public enum PlacementState {
+    /** Tenant is served from its placement cluster */
+    ACTIVE,
+
+    /** Tenant is being moved between clusters; its templates are not handed out */
+    FROZEN
+}
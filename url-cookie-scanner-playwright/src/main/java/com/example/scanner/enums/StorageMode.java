@@ -0,0 +1,9 @@
+package com.example.scanner.enums;
+
+public enum StorageMode {
+    /** Tenant has its own database ({@code tenant_db_<id>}) */
+    DATABASE,
+
+    /** Tenant documents live in shared collections, keyed by a {@code tenantId} field */
+    POOLED
+}
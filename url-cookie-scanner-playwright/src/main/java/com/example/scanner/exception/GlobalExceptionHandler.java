@@ -2,6 +2,7 @@ package com.example.scanner.exception;
 
 import com.example.scanner.constants.ErrorCodes;
 import com.example.scanner.dto.response.ErrorResponse;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
 import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
@@ -67,6 +68,55 @@ public class GlobalExceptionHandler {
                 .body(error);
     }
 
+    @ExceptionHandler(BulkheadFullException.class)
+    public ResponseEntity<ErrorResponse> handleBulkheadFull(
+            BulkheadFullException ex, WebRequest request) {
+
+        ErrorResponse error = new ErrorResponse(
+                "R5034", // Service Unavailable - Bulkhead Full
+                "Too many concurrent requests of this type. Please try again shortly.",
+                "Bulkhead full: " + ex.getMessage(),
+                Instant.now(),
+                request.getDescription(false)
+        );
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "5")
+                .body(error);
+    }
+
+    @ExceptionHandler(TenantMigrationInProgressException.class)
+    public ResponseEntity<ErrorResponse> handleTenantMigration(
+            TenantMigrationInProgressException ex, WebRequest request) {
+
+        ErrorResponse error = new ErrorResponse(
+                "R5035", // Service Unavailable - Tenant Migration
+                "Your data is being moved to a new location. Please try again in a few seconds.",
+                ex.getMessage(),
+                Instant.now(),
+                request.getDescription(false)
+        );
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "10")
+                .body(error);
+    }
+
+    @ExceptionHandler(UnknownTenantException.class)
+    public ResponseEntity<ErrorResponse> handleUnknownTenant(
+            UnknownTenantException ex, WebRequest request) {
+
+        ErrorResponse error = new ErrorResponse(
+                ErrorCodes.VALIDATION_ERROR,
+                "Invalid tenant ID - database does not exist",
+                ex.getMessage(),
+                Instant.now(),
+                request.getDescription(false)
+        );
+
+        return ResponseEntity.badRequest().body(error);
+    }
+
     @ExceptionHandler(TimeoutException.class)
     public ResponseEntity<ErrorResponse> handleTimeout(
             TimeoutException ex, WebRequest request) {
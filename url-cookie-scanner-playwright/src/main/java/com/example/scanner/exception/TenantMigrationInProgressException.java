@@ -0,0 +1,18 @@
+package com.example.scanner.exception;
+
+/**
+ * Thrown while a tenant is frozen for migration between Mongo clusters.
+ */
+public class TenantMigrationInProgressException extends RuntimeException {
+
+    private final String tenantId;
+
+    public TenantMigrationInProgressException(String tenantId) {
+        super("Tenant " + tenantId + " is being migrated between database clusters");
+        this.tenantId = tenantId;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+}
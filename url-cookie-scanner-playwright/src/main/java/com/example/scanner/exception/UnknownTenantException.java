@@ -0,0 +1,19 @@
+package com.example.scanner.exception;
+
+/**
+ * Thrown when a tenant ID does not belong to a tenant in the {@code TenantRegistry}, so no
+ * template is created for it and no database is created on its behalf.
+ */
+public class UnknownTenantException extends RuntimeException {
+
+    private final String tenantId;
+
+    public UnknownTenantException(String tenantId) {
+        super("Tenant " + tenantId + " does not exist");
+        this.tenantId = tenantId;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+}
@@ -6,6 +6,12 @@ public interface ConsentHandleRepository {
 
     CookieConsentHandle save(CookieConsentHandle consentHandle, String tenantId);
 
+    /**
+     * Store the handle's status and updatedAt only if the stored handle is still PENDING.
+     * Returns false, leaving the stored handle unchanged, when another request resolved it first.
+     */
+    boolean resolvePending(CookieConsentHandle consentHandle, String tenantId);
+
     CookieConsentHandle getByConsentHandleId(String consentHandleId, String tenantId);
 
     CookieConsentHandle findActiveConsentHandle(String deviceId, String url, String templateId,
@@ -20,6 +20,11 @@ public interface ConsentRepositoryCustom {
 
     Optional<CookieConsent> findByConsentIdAndVersion(String consentId, Integer version, String tenantId);
 
+    /**
+     * Only payloadHash and the status fields that change after a version is written
+     */
+    Optional<CookieConsent> findDigestByConsentIdAndVersion(String consentId, Integer version, String tenantId);
+
     CookieConsent findLatestByCreatedAt();
 
     Optional<CookieConsent> findById(String id, String tenantId);
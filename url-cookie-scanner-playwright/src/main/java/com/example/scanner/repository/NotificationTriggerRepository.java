@@ -1,9 +1,34 @@
 package com.example.scanner.repository;
 
 import com.example.scanner.dto.NotificationTrigger;
+import com.example.scanner.enums.NotificationStatus;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
 
 public interface NotificationTriggerRepository {
 
     NotificationTrigger save(NotificationTrigger notificationTrigger, String tenantId);
 
+    /**
+     * Insert a trigger unless one with the same event key was created since {@code dedupeSince}.
+     * Returns false for a duplicate.
+     */
+    boolean insertIfAbsent(NotificationTrigger notificationTrigger, LocalDateTime dedupeSince, String tenantId);
+
+    /**
+     * Lease up to {@code limit} due PENDING or FAILED triggers to {@code owner} until {@code leaseUntil}.
+     */
+    List<NotificationTrigger> claimDue(String owner, Instant leaseUntil, int limit, String tenantId);
+
+    /**
+     * Store the outcome of a send attempt for each trigger and clear its lease, in one bulk write.
+     */
+    void saveOutcomes(List<NotificationTrigger> notificationTriggers, String tenantId);
+
+    void releaseLeases(List<NotificationTrigger> notificationTriggers, String tenantId);
+
+    long countByStatus(NotificationStatus status, String tenantId);
+
 }
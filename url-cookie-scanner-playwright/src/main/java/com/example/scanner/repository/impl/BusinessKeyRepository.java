@@ -1,7 +1,7 @@
 package com.example.scanner.repository.impl;
 
 
-import com.example.scanner.config.MultiTenantMongoConfig;
+import com.example.scanner.config.TenantMongoTemplateRegistry;
 import com.example.scanner.dto.BusinessKey;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -22,16 +22,16 @@ public class BusinessKeyRepository {
     private static final String BUSINESSID = "businessId";
     private static final String COLLECTION_DATA_PROCESSORS = "data_processors";
 
-    private final MultiTenantMongoConfig mongoConfig;
+    private final TenantMongoTemplateRegistry mongoTemplateRegistry;
 
     public BusinessKey findByBusinessId(String tenantId, String businessId) {
-        MongoTemplate tenantMongoTemplate = mongoConfig.getMongoTemplateForTenant(tenantId);
+        MongoTemplate tenantMongoTemplate = mongoTemplateRegistry.getMongoTemplateForTenant(tenantId);
         Query query = new Query(Criteria.where(BUSINESSID).is(businessId));
         return tenantMongoTemplate.findOne(query, BusinessKey.class, COLLECTION_BUSINESS_KEYS);
     }
 
     public String findCertificateByBusinessId(String tenantId, String businessId) {
-        MongoTemplate tenantMongoTemplate = mongoConfig.getMongoTemplateForTenant(tenantId);
+        MongoTemplate tenantMongoTemplate = mongoTemplateRegistry.getMongoTemplateForTenant(tenantId);
 
         Query query = new Query(Criteria.where("businessId").is(businessId));
         query.fields().include("configurationJson.sslCertificate");
@@ -60,7 +60,7 @@ public class BusinessKeyRepository {
     }
 
     public String findCertOfDataProcessor(String tenantId, String dataProcessorId) {
-        MongoTemplate tenantMongoTemplate = mongoConfig.getMongoTemplateForTenant(tenantId);
+        MongoTemplate tenantMongoTemplate = mongoTemplateRegistry.getMongoTemplateForTenant(tenantId);
 
         Query query = new Query(Criteria.where("dataProcessorId").is(dataProcessorId));
         query.fields().include("attachment");
@@ -1,15 +1,18 @@
 package com.example.scanner.repository.impl;
 
-import com.example.scanner.config.MultiTenantMongoConfig;
+import com.example.scanner.config.TenantMongoTemplateRegistry;
 import com.example.scanner.config.TenantContext;
 import com.example.scanner.entity.CookieConsentHandle;
+import com.example.scanner.enums.ConsentHandleStatus;
 import com.example.scanner.repository.ConsentHandleRepository;
+import com.example.scanner.service.ConsentStatusCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -17,7 +20,8 @@ import org.springframework.stereotype.Repository;
 @Slf4j
 public class ConsentHandleRepositoryImpl implements ConsentHandleRepository {
 
-    private final MultiTenantMongoConfig mongoConfig;
+    private final TenantMongoTemplateRegistry mongoTemplateRegistry;
+    private final ConsentStatusCache statusCache;
 
     @Override
     public CookieConsentHandle save(CookieConsentHandle consentHandle, String tenantId) {
@@ -27,8 +31,35 @@ public class ConsentHandleRepositoryImpl implements ConsentHandleRepository {
 
         TenantContext.setCurrentTenant(tenantId);
         try {
-            MongoTemplate tenantMongoTemplate = mongoConfig.getMongoTemplateForTenant(tenantId);
-            return tenantMongoTemplate.save(consentHandle);
+            MongoTemplate tenantMongoTemplate = mongoTemplateRegistry.getMongoTemplateForTenant(tenantId);
+            CookieConsentHandle saved = tenantMongoTemplate.save(consentHandle);
+            statusCache.onHandleSaved(tenantId, saved);
+            return saved;
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
+    @Override
+    public boolean resolvePending(CookieConsentHandle consentHandle, String tenantId) {
+        if (tenantId == null) {
+            throw new IllegalStateException("Tenant context is not set");
+        }
+
+        TenantContext.setCurrentTenant(tenantId);
+        try {
+            MongoTemplate tenantMongoTemplate = mongoTemplateRegistry.getMongoTemplateForTenant(tenantId);
+            Query pending = new Query(Criteria.where("_id").is(consentHandle.getId())
+                    .and("status").is(ConsentHandleStatus.PENDING));
+            Update update = new Update()
+                    .set("status", consentHandle.getStatus())
+                    .set("updatedAt", consentHandle.getUpdatedAt());
+            boolean resolved = tenantMongoTemplate.updateFirst(pending, update, CookieConsentHandle.class)
+                    .getModifiedCount() > 0;
+            if (resolved) {
+                statusCache.onHandleSaved(tenantId, consentHandle);
+            }
+            return resolved;
         } finally {
             TenantContext.clear();
         }
@@ -42,7 +73,7 @@ public class ConsentHandleRepositoryImpl implements ConsentHandleRepository {
 
         TenantContext.setCurrentTenant(tenantId);
         try {
-            MongoTemplate tenantMongoTemplate = mongoConfig.getMongoTemplateForTenant(tenantId);
+            MongoTemplate tenantMongoTemplate = mongoTemplateRegistry.getMongoTemplateForTenant(tenantId);
             Criteria criteria = new Criteria();
             criteria.and("consentHandleId").is(consentHandleId);
             Query query = new Query();
@@ -62,7 +93,7 @@ public class ConsentHandleRepositoryImpl implements ConsentHandleRepository {
 
         TenantContext.setCurrentTenant(tenantId);
         try {
-            MongoTemplate tenantMongoTemplate = mongoConfig.getMongoTemplateForTenant(tenantId);
+            MongoTemplate tenantMongoTemplate = mongoTemplateRegistry.getMongoTemplateForTenant(tenantId);
 
             Criteria criteria = new Criteria();
             criteria.and("customerIdentifiers.value").is(deviceId)
@@ -1,12 +1,14 @@
 package com.example.scanner.repository.impl;
 
-import com.example.scanner.config.MultiTenantMongoConfig;
+import com.example.scanner.config.TenantMongoTemplateRegistry;
+import com.example.scanner.config.TenantReadRouter;
 import com.example.scanner.config.TenantContext;
 import com.example.scanner.constants.Constants;
 import com.example.scanner.dto.CustomerIdentifiers;
 import com.example.scanner.entity.CookieConsent;
 import com.example.scanner.enums.VersionStatus;
 import com.example.scanner.repository.ConsentRepositoryCustom;
+import com.example.scanner.service.ConsentStatusCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.logging.log4j.ThreadContext;
@@ -25,7 +27,9 @@ import java.util.Optional;
 @Slf4j
 public class ConsentRepositoryCustomImpl implements ConsentRepositoryCustom {
 
-    private final MultiTenantMongoConfig mongoConfig;
+    private final TenantMongoTemplateRegistry mongoTemplateRegistry;
+    private final TenantReadRouter readRouter;
+    private final ConsentStatusCache statusCache;
 
     @Override
     public CookieConsent saveToDatabase(CookieConsent consent, String tenantId) {
@@ -35,8 +39,10 @@ public class ConsentRepositoryCustomImpl implements ConsentRepositoryCustom {
 
         TenantContext.setCurrentTenant(tenantId);
         try {
-            MongoTemplate tenantMongoTemplate = mongoConfig.getMongoTemplateForTenant(tenantId);
-            return tenantMongoTemplate.save(consent);
+            MongoTemplate tenantMongoTemplate = mongoTemplateRegistry.getMongoTemplateForTenant(tenantId);
+            CookieConsent saved = tenantMongoTemplate.save(consent);
+            statusCache.onConsentSaved(tenantId, saved);
+            return saved;
         } finally {
             TenantContext.clear();
         }
@@ -53,7 +59,7 @@ public class ConsentRepositoryCustomImpl implements ConsentRepositoryCustom {
 
         TenantContext.setCurrentTenant(tenantId);
         try {
-            MongoTemplate tenantMongoTemplate = mongoConfig.getMongoTemplateForTenant(tenantId);
+            MongoTemplate tenantMongoTemplate = mongoTemplateRegistry.getMongoTemplateForTenant(tenantId);
 
             Criteria criteria = new Criteria();
             criteria.and("templateId").is(templateId)
@@ -77,7 +83,7 @@ public class ConsentRepositoryCustomImpl implements ConsentRepositoryCustom {
 
         TenantContext.setCurrentTenant(tenantId);
         try {
-            MongoTemplate tenantMongoTemplate = mongoConfig.getMongoTemplateForTenant(tenantId);
+            MongoTemplate tenantMongoTemplate = mongoTemplateRegistry.getMongoTemplateForTenant(tenantId);
 
             Query query = new Query(Criteria.where("consentId").is(consentId)
                     .and("consentStatus").is(VersionStatus.ACTIVE));
@@ -96,7 +102,8 @@ public class ConsentRepositoryCustomImpl implements ConsentRepositoryCustom {
 
         TenantContext.setCurrentTenant(tenantId);
         try {
-            MongoTemplate tenantMongoTemplate = mongoConfig.getMongoTemplateForTenant(tenantId);
+            // Only used for the consent history view, which tolerates replication lag
+            MongoTemplate tenantMongoTemplate = readRouter.templateFor(tenantId, TenantReadRouter.ReadClass.CONSENT_HISTORY);
 
             Query query = new Query(Criteria.where("consentId").is(consentId))
                     .with(Sort.by(Sort.Direction.DESC, "version"));
@@ -115,7 +122,7 @@ public class ConsentRepositoryCustomImpl implements ConsentRepositoryCustom {
 
         TenantContext.setCurrentTenant(tenantId);
         try {
-            MongoTemplate tenantMongoTemplate = mongoConfig.getMongoTemplateForTenant(tenantId);
+            MongoTemplate tenantMongoTemplate = mongoTemplateRegistry.getMongoTemplateForTenant(tenantId);
 
             Query query = new Query(Criteria.where("consentId").is(consentId)
                     .and("version").is(version));
@@ -127,6 +134,26 @@ public class ConsentRepositoryCustomImpl implements ConsentRepositoryCustom {
         }
     }
 
+    @Override
+    public Optional<CookieConsent> findDigestByConsentIdAndVersion(String consentId, Integer version, String tenantId) {
+        if (tenantId == null) {
+            throw new IllegalStateException("Tenant context is not set");
+        }
+
+        TenantContext.setCurrentTenant(tenantId);
+        try {
+            MongoTemplate tenantMongoTemplate = mongoTemplateRegistry.getMongoTemplateForTenant(tenantId);
+
+            Query query = new Query(Criteria.where("consentId").is(consentId)
+                    .and("version").is(version));
+            query.fields().include("payloadHash", "status", "consentStatus", "staleStatus");
+
+            return Optional.ofNullable(tenantMongoTemplate.findOne(query, CookieConsent.class));
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
     @Override
     public Optional<CookieConsent> findById(String id, String tenantId) {
         if (tenantId == null) {
@@ -135,7 +162,7 @@ public class ConsentRepositoryCustomImpl implements ConsentRepositoryCustom {
 
         TenantContext.setCurrentTenant(tenantId);
         try {
-            MongoTemplate tenantMongoTemplate = mongoConfig.getMongoTemplateForTenant(tenantId);
+            MongoTemplate tenantMongoTemplate = mongoTemplateRegistry.getMongoTemplateForTenant(tenantId);
 
             ObjectId objectId;
             if (ObjectId.isValid(id)) {
@@ -155,7 +182,7 @@ public class ConsentRepositoryCustomImpl implements ConsentRepositoryCustom {
 
     @Override
     public CookieConsent findLatestByCreatedAt() {
-        MongoTemplate tenantMongoTemplate = mongoConfig.getMongoTemplateForTenant(Constants.TENANT_ID_HEADER);
+        MongoTemplate tenantMongoTemplate = mongoTemplateRegistry.getMongoTemplateForTenant(Constants.TENANT_ID_HEADER);
         Query query = new Query();
         query.with(Sort.by(Sort.Direction.DESC, "createdAt"));
         query.limit(1);
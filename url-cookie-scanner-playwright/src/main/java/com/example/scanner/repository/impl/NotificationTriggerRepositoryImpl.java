@@ -1,22 +1,126 @@
 package com.example.scanner.repository.impl;
 
-import com.example.scanner.config.MultiTenantMongoConfig;
+import com.example.scanner.config.TenantMongoTemplateRegistry;
 import com.example.scanner.dto.NotificationTrigger;
+import com.example.scanner.enums.NotificationStatus;
 import com.example.scanner.repository.NotificationTriggerRepository;
+import com.mongodb.client.result.UpdateResult;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
 @Repository
 @RequiredArgsConstructor
 @Slf4j
 public class NotificationTriggerRepositoryImpl implements NotificationTriggerRepository {
 
-    private final MultiTenantMongoConfig mongoConfig;
+    private final TenantMongoTemplateRegistry mongoTemplateRegistry;
 
     @Override
     public NotificationTrigger save(NotificationTrigger notificationTrigger, String tenantId) {
-        return mongoConfig.getMongoTemplateForTenant(tenantId).save(notificationTrigger);
+        return mongoTemplateRegistry.getMongoTemplateForTenant(tenantId).save(notificationTrigger);
+    }
+
+    @Override
+    public boolean insertIfAbsent(NotificationTrigger notificationTrigger, LocalDateTime dedupeSince, String tenantId) {
+        MongoTemplate tenantMongoTemplate = mongoTemplateRegistry.getMongoTemplateForTenant(tenantId);
+
+        Document document = new Document();
+        tenantMongoTemplate.getConverter().write(notificationTrigger, document);
+        document.remove("_id");
+        Update update = new Update();
+        document.forEach(update::setOnInsert);
+
+        // Without a unique index two concurrent writers can both insert; the window catches retries
+        Query query = new Query(Criteria.where("eventKey").is(notificationTrigger.getEventKey())
+                .and("createdAt").gte(dedupeSince));
+        UpdateResult result = tenantMongoTemplate.upsert(query, update, NotificationTrigger.class);
+        return result.getUpsertedId() != null;
+    }
+
+    @Override
+    public List<NotificationTrigger> claimDue(String owner, Instant leaseUntil, int limit, String tenantId) {
+        MongoTemplate tenantMongoTemplate = mongoTemplateRegistry.getMongoTemplateForTenant(tenantId);
+        Instant now = Instant.now();
+        // Stored with millisecond precision; truncate so the read-back below matches
+        Instant lease = leaseUntil.truncatedTo(ChronoUnit.MILLIS);
+
+        Criteria due = new Criteria().andOperator(
+                Criteria.where("status").in(NotificationStatus.PENDING, NotificationStatus.FAILED),
+                new Criteria().orOperator(Criteria.where("nextAttemptAt").is(null), Criteria.where("nextAttemptAt").lte(now)),
+                new Criteria().orOperator(Criteria.where("leaseUntil").is(null), Criteria.where("leaseUntil").lt(now)));
+
+        Query candidates = new Query(due).with(Sort.by(Sort.Direction.ASC, "_id")).limit(limit);
+        candidates.fields().include("_id");
+        List<ObjectId> ids = tenantMongoTemplate.find(candidates, NotificationTrigger.class).stream()
+                .map(NotificationTrigger::getId)
+                .toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        tenantMongoTemplate.updateMulti(
+                new Query(new Criteria().andOperator(Criteria.where("_id").in(ids), due)),
+                new Update().set("leaseOwner", owner).set("leaseUntil", lease),
+                NotificationTrigger.class);
+
+        return tenantMongoTemplate.find(
+                new Query(Criteria.where("_id").in(ids).and("leaseOwner").is(owner).and("leaseUntil").is(lease))
+                        .with(Sort.by(Sort.Direction.ASC, "_id")),
+                NotificationTrigger.class);
+    }
+
+    @Override
+    public void saveOutcomes(List<NotificationTrigger> notificationTriggers, String tenantId) {
+        if (notificationTriggers.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplateRegistry.getMongoTemplateForTenant(tenantId)
+                .bulkOps(BulkOperations.BulkMode.UNORDERED, NotificationTrigger.class);
+        for (NotificationTrigger trigger : notificationTriggers) {
+            bulk.updateOne(new Query(Criteria.where("_id").is(trigger.getId())), new Update()
+                    .set("status", trigger.getStatus())
+                    .set("httpStatus", trigger.getHttpStatus())
+                    .set("notificationEventId", trigger.getNotificationEventId())
+                    .set("errorMessage", trigger.getErrorMessage())
+                    .set("transactionId", trigger.getTransactionId())
+                    .set("attempts", trigger.getAttempts())
+                    .set("nextAttemptAt", trigger.getNextAttemptAt())
+                    .set("sentAt", trigger.getSentAt())
+                    .set("updatedAt", LocalDateTime.now())
+                    .unset("leaseOwner")
+                    .unset("leaseUntil"));
+        }
+        bulk.execute();
+    }
+
+    @Override
+    public void releaseLeases(List<NotificationTrigger> notificationTriggers, String tenantId) {
+        if (notificationTriggers.isEmpty()) {
+            return;
+        }
+        mongoTemplateRegistry.getMongoTemplateForTenant(tenantId).updateMulti(
+                new Query(Criteria.where("_id").in(notificationTriggers.stream().map(NotificationTrigger::getId).toList())),
+                new Update().unset("leaseOwner").unset("leaseUntil"),
+                NotificationTrigger.class);
+    }
+
+    @Override
+    public long countByStatus(NotificationStatus status, String tenantId) {
+        return mongoTemplateRegistry.getMongoTemplateForTenant(tenantId)
+                .count(new Query(Criteria.where("status").is(status)), NotificationTrigger.class);
     }
 }
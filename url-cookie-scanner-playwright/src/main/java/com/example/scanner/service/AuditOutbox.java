@@ -0,0 +1,150 @@
+package com.example.scanner.service;
+
+import com.example.scanner.dto.request.AuditRequest;
+import com.example.scanner.entity.AuditOutboxEntry;
+import com.example.scanner.enums.OutboxStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Write side of the audit outbox.
+ *
+ * {@link #append(AuditRequest)} inserts the event into {@code audit_outbox} in the shared database
+ * before returning, and {@link AuditOutboxDispatcher} ships it from there, so a logged event
+ * survives a crash of this instance.
+ *
+ * With {@code audit.outbox.buffered=true} the event is only enqueued in memory instead and a
+ * scheduled flush writes the buffer with one bulk insert. That saves a round trip per event but
+ * loses up to {@code audit.outbox.flush-interval-ms} of events (at most
+ * {@code audit.outbox.buffer-capacity}) if the instance dies; the buffer is flushed on orderly
+ * shutdown, and when it is full the event is inserted synchronously instead of being dropped.
+ *
+ * Metrics: {@code audit_outbox_depth{stage="buffered"}} and
+ * {@code audit_outbox_dropped_total{reason="insert_failed"}} for events that could not be stored.
+ */
+@Slf4j
+@Component
+public class AuditOutbox {
+
+    static final String COLLECTION = "audit_outbox";
+
+    private static final int INSERT_ATTEMPTS = 3;
+
+    private final MongoTemplate sharedMongoTemplate;
+    private final boolean buffered;
+    private final BlockingQueue<AuditOutboxEntry> buffer;
+    private final int flushBatchSize;
+    private final Counter insertFailures;
+
+    public AuditOutbox(@Qualifier("sharedMongoTemplate") MongoTemplate sharedMongoTemplate,
+                       MeterRegistry meterRegistry,
+                       @Value("${audit.outbox.buffered:false}") boolean buffered,
+                       @Value("${audit.outbox.buffer-capacity:10000}") int bufferCapacity,
+                       @Value("${audit.outbox.flush-batch-size:500}") int flushBatchSize) {
+        this.sharedMongoTemplate = sharedMongoTemplate;
+        this.buffered = buffered;
+        this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        this.flushBatchSize = flushBatchSize;
+
+        this.insertFailures = Counter.builder("audit_outbox_dropped_total")
+                .description("Audit events dropped before reaching the audit module")
+                .tag("reason", "insert_failed")
+                .register(meterRegistry);
+
+        Gauge.builder("audit_outbox_depth", buffer, BlockingQueue::size)
+                .description("Audit events waiting to be shipped")
+                .tag("stage", "buffered")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            sharedMongoTemplate.indexOps(COLLECTION).ensureIndex(new Index()
+                    .on("status", Sort.Direction.ASC)
+                    .on("nextAttemptAt", Sort.Direction.ASC)
+                    .named("idx_status_nextAttemptAt"));
+            sharedMongoTemplate.indexOps(COLLECTION).ensureIndex(new Index()
+                    .on("orderingKey", Sort.Direction.ASC)
+                    .on("status", Sort.Direction.ASC)
+                    .named("idx_orderingKey_status"));
+        } catch (Exception e) {
+            log.warn("Failed to ensure indexes on {}: {}", COLLECTION, e.getMessage());
+        }
+    }
+
+    public void append(AuditRequest request) {
+        Instant now = Instant.now();
+        AuditOutboxEntry entry = AuditOutboxEntry.builder()
+                .orderingKey(orderingKey(request))
+                .request(request)
+                .status(OutboxStatus.PENDING)
+                .attempts(0)
+                .createdAt(now)
+                .nextAttemptAt(now)
+                .build();
+
+        if (!buffered || !buffer.offer(entry)) {
+            insert(List.of(entry));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${audit.outbox.flush-interval-ms:50}")
+    public void flush() {
+        List<AuditOutboxEntry> batch = new ArrayList<>(flushBatchSize);
+        while (buffer.drainTo(batch, flushBatchSize) > 0) {
+            insert(batch);
+            batch = new ArrayList<>(flushBatchSize);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void insert(List<AuditOutboxEntry> entries) {
+        for (int attempt = 1; attempt <= INSERT_ATTEMPTS; attempt++) {
+            try {
+                sharedMongoTemplate.insert(entries, COLLECTION);
+                return;
+            } catch (Exception e) {
+                if (attempt == INSERT_ATTEMPTS) {
+                    insertFailures.increment(entries.size());
+                    log.error("Dropped {} audit events, outbox insert failed: {}", entries.size(), e.getMessage());
+                    return;
+                }
+                try {
+                    Thread.sleep(100L << attempt);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    insertFailures.increment(entries.size());
+                    return;
+                }
+            }
+        }
+    }
+
+    private static String orderingKey(AuditRequest request) {
+        String resourceType = request.getResource() != null ? request.getResource().getType() : null;
+        String resourceId = request.getResource() != null ? request.getResource().getId() : null;
+        return request.getTenantId() + "|" + resourceType + "|" + resourceId;
+    }
+}
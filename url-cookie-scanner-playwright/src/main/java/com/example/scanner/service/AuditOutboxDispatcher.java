@@ -0,0 +1,333 @@
+package com.example.scanner.service;
+
+import com.example.scanner.client.AuditClient;
+import com.example.scanner.dto.request.AuditRequest;
+import com.example.scanner.entity.AuditOutboxEntry;
+import com.example.scanner.enums.OutboxStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Ships audit events from {@code audit_outbox} to the audit module.
+ *
+ * Each run claims a batch of due entries with a lease (so several instances can dispatch
+ * without sending an event twice), sends them, deletes the accepted entries in one write and
+ * reschedules the failed ones with exponential backoff. Entries with the same ordering key
+ * (tenant and resource) are sent one after another in insertion order; a failure holds back
+ * the later entries of that key until the failed one succeeds or is given up after
+ * {@code audit.outbox.max-attempts} and marked {@link OutboxStatus#DEAD}. Different keys are
+ * sent concurrently. The audit module only has a single-event endpoint, so a batch is one
+ * claim and one acknowledgement rather than one HTTP request.
+ *
+ * A batch waits at most half the lease for its sends. Keys that have not finished by then stop
+ * before their next entry, and a send still in flight acknowledges its own entry when it
+ * completes, so only entries that were actually accepted are deleted and none is sent twice as
+ * long as the audit client times out within the other half of the lease.
+ *
+ * Metrics: {@code audit_outbox_depth{stage="pending|dead"}}, the
+ * {@code audit_outbox_ship_latency_seconds} from logging to acceptance,
+ * {@code audit_outbox_retries_total} and {@code audit_outbox_dropped_total{reason="max_attempts"}}.
+ */
+@Slf4j
+@Component
+public class AuditOutboxDispatcher {
+
+    private static final int MAX_BATCHES_PER_RUN = 20;
+
+    private final MongoTemplate sharedMongoTemplate;
+    private final AuditClient auditClient;
+    private final Executor executor;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Timer shipLatency;
+    private final Counter retries;
+    private final Counter deadLettered;
+    private final AtomicLong pendingDepth = new AtomicLong();
+    private final AtomicLong deadDepth = new AtomicLong();
+
+    @Value("${audit.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${audit.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${audit.outbox.lease-ms:60000}")
+    private long leaseMs;
+
+    @Value("${audit.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${audit.outbox.backoff-initial-ms:1000}")
+    private long backoffInitialMs;
+
+    @Value("${audit.outbox.backoff-max-ms:300000}")
+    private long backoffMaxMs;
+
+    public AuditOutboxDispatcher(@Qualifier("sharedMongoTemplate") MongoTemplate sharedMongoTemplate,
+                                 AuditClient auditClient,
+                                 @Qualifier("auditDispatchExecutor") Executor executor,
+                                 MeterRegistry meterRegistry) {
+        this.sharedMongoTemplate = sharedMongoTemplate;
+        this.auditClient = auditClient;
+        this.executor = executor;
+
+        this.shipLatency = Timer.builder("audit_outbox_ship_latency_seconds")
+                .description("Time from logging an audit event to its acceptance by the audit module")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+
+        this.retries = Counter.builder("audit_outbox_retries_total")
+                .description("Failed audit shipping attempts that were rescheduled")
+                .register(meterRegistry);
+
+        this.deadLettered = Counter.builder("audit_outbox_dropped_total")
+                .description("Audit events dropped before reaching the audit module")
+                .tag("reason", "max_attempts")
+                .register(meterRegistry);
+
+        Gauge.builder("audit_outbox_depth", pendingDepth, AtomicLong::get)
+                .description("Audit events waiting to be shipped")
+                .tag("stage", "pending")
+                .register(meterRegistry);
+
+        Gauge.builder("audit_outbox_depth", deadDepth, AtomicLong::get)
+                .description("Audit events waiting to be shipped")
+                .tag("stage", "dead")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${audit.outbox.dispatch-interval-ms:1000}")
+    public void dispatch() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            for (int run = 0; run < MAX_BATCHES_PER_RUN; run++) {
+                List<AuditOutboxEntry> batch = claim();
+                if (batch.isEmpty()) {
+                    break;
+                }
+                ship(batch);
+                if (batch.size() < batchSize) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Audit outbox dispatch failed: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${audit.outbox.depth-sample-interval-ms:15000}")
+    public void sampleDepth() {
+        try {
+            pendingDepth.set(sharedMongoTemplate.count(
+                    new Query(Criteria.where("status").is(OutboxStatus.PENDING)), AuditOutboxEntry.class));
+            deadDepth.set(sharedMongoTemplate.count(
+                    new Query(Criteria.where("status").is(OutboxStatus.DEAD)), AuditOutboxEntry.class));
+        } catch (Exception e) {
+            log.debug("Audit outbox depth unavailable: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Lease up to batch-size due entries, skipping keys whose earlier entry is waiting for a retry
+     * or being sent.
+     */
+    private List<AuditOutboxEntry> claim() {
+        Instant now = Instant.now();
+        Query due = new Query(Criteria.where("status").is(OutboxStatus.PENDING)
+                .and("nextAttemptAt").lte(now)
+                .orOperator(Criteria.where("leaseUntil").is(null), Criteria.where("leaseUntil").lt(now)))
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .limit(batchSize);
+        due.fields().include("_id").include("orderingKey");
+        List<AuditOutboxEntry> candidates = sharedMongoTemplate.find(due, AuditOutboxEntry.class);
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+
+        Set<String> keys = candidates.stream().map(AuditOutboxEntry::getOrderingKey).collect(Collectors.toSet());
+        // Keys with an entry in backoff or in flight on another instance must wait for it
+        Set<String> blockedKeys = new HashSet<>(sharedMongoTemplate.findDistinct(
+                new Query(Criteria.where("status").is(OutboxStatus.PENDING)
+                        .and("orderingKey").in(keys)
+                        .orOperator(Criteria.where("nextAttemptAt").gt(now), Criteria.where("leaseUntil").gte(now))),
+                "orderingKey", AuditOutboxEntry.class, String.class));
+
+        List<String> ids = candidates.stream()
+                .filter(candidate -> !blockedKeys.contains(candidate.getOrderingKey()))
+                .map(AuditOutboxEntry::getId)
+                .toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        // Stored with millisecond precision; truncate so the read-back below matches
+        Instant leaseUntil = now.plusMillis(leaseMs).truncatedTo(ChronoUnit.MILLIS);
+        sharedMongoTemplate.updateMulti(
+                new Query(Criteria.where("_id").in(ids)
+                        .and("status").is(OutboxStatus.PENDING)
+                        .orOperator(Criteria.where("leaseUntil").is(null), Criteria.where("leaseUntil").lt(now))),
+                new Update().set("leaseOwner", nodeId).set("leaseUntil", leaseUntil),
+                AuditOutboxEntry.class);
+
+        return sharedMongoTemplate.find(
+                new Query(Criteria.where("_id").in(ids).and("leaseOwner").is(nodeId).and("leaseUntil").is(leaseUntil))
+                        .with(Sort.by(Sort.Direction.ASC, "_id")),
+                AuditOutboxEntry.class);
+    }
+
+    private void ship(List<AuditOutboxEntry> batch) {
+        Map<String, List<AuditOutboxEntry>> byKey = new LinkedHashMap<>();
+        for (AuditOutboxEntry entry : batch) {
+            byKey.computeIfAbsent(entry.getOrderingKey(), key -> new ArrayList<>()).add(entry);
+        }
+
+        Outcomes outcomes = new Outcomes();
+        CompletableFuture<?>[] sends = byKey.values().stream()
+                .map(entries -> CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < entries.size(); i++) {
+                        if (outcomes.isClosed()) {
+                            // Never sent: the entries stay leased and are claimed again once the lease expires
+                            return;
+                        }
+                        AuditOutboxEntry entry = entries.get(i);
+                        try {
+                            AuditRequest request = entry.getRequest();
+                            auditClient.send(request, request.getTenantId(), request.getBusinessId(),
+                                    request.getTransactionId());
+                            if (!outcomes.add(outcomes.shipped, List.of(entry))) {
+                                acknowledge(List.of(entry));
+                            }
+                        } catch (Exception e) {
+                            entry.setLastError(e.getMessage());
+                            if (outcomes.add(outcomes.failed, List.of(entry))) {
+                                outcomes.add(outcomes.heldBack, entries.subList(i + 1, entries.size()));
+                            } else {
+                                reschedule(entry);
+                            }
+                            return;
+                        }
+                    }
+                }, executor))
+                .toArray(CompletableFuture[]::new);
+
+        try {
+            // Half the lease, so that a send still running now can settle its entry before another
+            // instance may claim it
+            CompletableFuture.allOf(sends).get(leaseMs / 2, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            log.warn("Audit outbox batch did not complete within half the lease: {}", e.toString());
+        }
+        outcomes.close();
+        for (CompletableFuture<?> send : sends) {
+            // Keys that have not started yet are not sent at all
+            send.cancel(false);
+        }
+
+        acknowledge(outcomes.shipped);
+        outcomes.failed.forEach(this::reschedule);
+        release(outcomes.heldBack);
+    }
+
+    private void acknowledge(List<AuditOutboxEntry> shipped) {
+        if (shipped.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        sharedMongoTemplate.remove(new Query(Criteria.where("_id").in(
+                shipped.stream().map(AuditOutboxEntry::getId).toList())), AuditOutboxEntry.class);
+        for (AuditOutboxEntry entry : shipped) {
+            shipLatency.record(Duration.between(entry.getCreatedAt(), now));
+        }
+    }
+
+    private void reschedule(AuditOutboxEntry entry) {
+        int attempts = entry.getAttempts() + 1;
+        Update update = new Update()
+                .set("attempts", attempts)
+                .set("lastError", entry.getLastError())
+                .unset("leaseOwner")
+                .unset("leaseUntil");
+
+        if (attempts >= maxAttempts) {
+            update.set("status", OutboxStatus.DEAD);
+            deadLettered.increment();
+            log.error("Giving up on audit event {} after {} attempts: {}",
+                    entry.getRequest().getActionType(), attempts, entry.getLastError());
+        } else {
+            long backoffMs = Math.min(backoffMaxMs, backoffInitialMs << Math.min(attempts - 1, 20));
+            update.set("nextAttemptAt", Instant.now().plusMillis(backoffMs));
+            retries.increment();
+        }
+
+        sharedMongoTemplate.updateFirst(new Query(Criteria.where("_id").is(entry.getId())), update,
+                AuditOutboxEntry.class);
+    }
+
+    private void release(List<AuditOutboxEntry> heldBack) {
+        if (heldBack.isEmpty()) {
+            return;
+        }
+        sharedMongoTemplate.updateMulti(
+                new Query(Criteria.where("_id").in(heldBack.stream().map(AuditOutboxEntry::getId).toList())),
+                new Update().unset("leaseOwner").unset("leaseUntil"),
+                AuditOutboxEntry.class);
+    }
+
+    /**
+     * Results of one batch. Once the batch stops waiting it is closed: sends that finish later
+     * acknowledge or reschedule their entry themselves instead of recording it here.
+     */
+    private static final class Outcomes {
+
+        final List<AuditOutboxEntry> shipped = new ArrayList<>();
+        final List<AuditOutboxEntry> failed = new ArrayList<>();
+        final List<AuditOutboxEntry> heldBack = new ArrayList<>();
+        private boolean closed;
+
+        synchronized boolean isClosed() {
+            return closed;
+        }
+
+        synchronized boolean add(List<AuditOutboxEntry> outcome, List<AuditOutboxEntry> entries) {
+            if (closed) {
+                return false;
+            }
+            outcome.addAll(entries);
+            return true;
+        }
+
+        synchronized void close() {
+            closed = true;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import com.example.scanner.dto.request.AuditRequest;
 import com.example.scanner.dto.Resource;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
@@ -20,6 +21,10 @@ import java.util.UUID;
 public class AuditService {
 
     private final AuditClient auditClient;
+    private final AuditOutbox auditOutbox;
+
+    @Value("${audit.outbox.enabled:true}")
+    private boolean outboxEnabled;
 
     public void logAudit(String tenantId, String businessId, String component, String actionType,
                          String initiator, String resourceType, String resourceId, String actorId,
@@ -58,7 +63,12 @@ public class AuditService {
                     .timestamp(Instant.now().toString())
                     .build();
 
-            auditClient.createAudit(auditRequest, tenantId, businessId, transactionId);
+            if (outboxEnabled) {
+                // Shipped in the background by AuditOutboxDispatcher
+                auditOutbox.append(auditRequest);
+            } else {
+                auditClient.createAudit(auditRequest, tenantId, businessId, transactionId);
+            }
 
         } catch (Exception e) {
             log.error("Audit logging failed");
@@ -0,0 +1,235 @@
+package com.example.scanner.service;
+
+import com.example.scanner.config.TenantContext;
+import com.example.scanner.config.TenantMongoTemplateRegistry;
+import com.example.scanner.dto.response.PreferenceWithCookies;
+import com.example.scanner.entity.BannerPayload;
+import com.example.scanner.entity.ConsentTemplate;
+import com.example.scanner.entity.CookieEntity;
+import com.example.scanner.entity.ScanResultEntity;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Banner payloads ({@link BannerPayload}) per template version, so the banner fetch does not
+ * reload and regroup the scan's cookies on every request.
+ *
+ * Payloads are materialized into {@code banner_payloads} when a template version is created, and
+ * lazily for versions created before this store existed. They are served from an LRU of
+ * {@code banner.payload.cache.max-size} entries. Editing a scan's cookies deletes the payloads of
+ * that scan and evicts them here; other instances pick up the change when their entries expire,
+ * after {@code banner.payload.cache.ttl-seconds}.
+ *
+ * Read methods run inside the caller's tenant context.
+ */
+@Slf4j
+@Service
+public class BannerPayloadService {
+
+    private final TenantMongoTemplateRegistry mongoTemplateRegistry;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, BannerPayload> payloads;
+
+    public BannerPayloadService(TenantMongoTemplateRegistry mongoTemplateRegistry,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${banner.payload.cache.max-size:10000}") long maxSize,
+                                @Value("${banner.payload.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.mongoTemplateRegistry = mongoTemplateRegistry;
+        this.objectMapper = objectMapper;
+        this.payloads = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        GuavaCacheMetrics.monitor(meterRegistry, payloads, "banner_payload_cache");
+    }
+
+    /**
+     * Payload of a template version, or null if the version does not exist.
+     */
+    public BannerPayload get(String tenantId, String templateId, int version) {
+        BannerPayload payload = stored(tenantId, templateId, version);
+        if (payload != null) {
+            return payload;
+        }
+        MongoTemplate mongoTemplate = mongoTemplateRegistry.getMongoTemplateForTenant(tenantId);
+        ConsentTemplate template = mongoTemplate.findOne(new Query(Criteria.where("templateId").is(templateId)
+                .and("version").is(version)), ConsentTemplate.class);
+        return template != null ? materialize(tenantId, template, mongoTemplate) : null;
+    }
+
+    /**
+     * Payload of a template that has already been loaded.
+     */
+    public BannerPayload get(String tenantId, ConsentTemplate template) {
+        BannerPayload payload = stored(tenantId, template.getTemplateId(), template.getVersion());
+        return payload != null
+                ? payload
+                : materialize(tenantId, template, mongoTemplateRegistry.getMongoTemplateForTenant(tenantId));
+    }
+
+    private BannerPayload stored(String tenantId, String templateId, int version) {
+        String key = cacheKey(tenantId, templateId, version);
+        BannerPayload payload = payloads.getIfPresent(key);
+        if (payload == null) {
+            payload = mongoTemplateRegistry.getMongoTemplateForTenant(tenantId)
+                    .findById(payloadId(templateId, version), BannerPayload.class);
+            if (payload != null) {
+                payloads.put(key, payload);
+            }
+        }
+        return payload;
+    }
+
+    /**
+     * Build and store the payload of a new template version. A payload whose cookies could not
+     * be read is served but not stored, so the next request tries again.
+     */
+    public BannerPayload materialize(String tenantId, ConsentTemplate template, MongoTemplate mongoTemplate) {
+        Map<String, List<CookieEntity>> cookiesByCategory = fetchAndCategorizeCookies(template.getScanId(), mongoTemplate);
+
+        List<PreferenceWithCookies> preferences = template.getPreferences() == null
+                ? Collections.emptyList()
+                : template.getPreferences().stream()
+                        .map(preference -> PreferenceWithCookies.from(preference,
+                                cookiesByCategory != null
+                                        ? cookiesByCategory.getOrDefault(preference.getPurpose(), Collections.emptyList())
+                                        : Collections.emptyList()))
+                        .collect(Collectors.toList());
+
+        BannerPayload payload = BannerPayload.builder()
+                .id(payloadId(template.getTemplateId(), template.getVersion()))
+                .templateId(template.getTemplateId())
+                .templateVersion(template.getVersion())
+                .scanId(template.getScanId())
+                .templateName(template.getTemplateName())
+                .multilingual(template.getMultilingual())
+                .uiConfig(template.getUiConfig())
+                .preferences(preferences)
+                .createdAt(Instant.now())
+                .build();
+        payload.setEtag(contentEtag(payload));
+
+        if (cookiesByCategory != null) {
+            try {
+                mongoTemplate.save(payload);
+                payloads.put(cacheKey(tenantId, template.getTemplateId(), template.getVersion()), payload);
+            } catch (Exception e) {
+                log.warn("Failed to store banner payload for template {} v{}: {}",
+                        template.getTemplateId(), template.getVersion(), e.getMessage());
+            }
+        }
+        return payload;
+    }
+
+    /**
+     * Drop the payloads built from a scan after its cookies were edited.
+     */
+    public void onScanChanged(String tenantId, String scanId) {
+        TenantContext.setCurrentTenant(tenantId);
+        try {
+            MongoTemplate mongoTemplate = mongoTemplateRegistry.getMongoTemplateForTenant(tenantId);
+            mongoTemplate.remove(new Query(Criteria.where("scanId").is(scanId)), BannerPayload.class);
+        } catch (Exception e) {
+            log.warn("Failed to drop banner payloads of scan {}: {}", scanId, e.getMessage());
+        } finally {
+            TenantContext.clear();
+        }
+        String prefix = tenantId + "|";
+        payloads.asMap().entrySet().removeIf(entry ->
+                entry.getKey().startsWith(prefix) && scanId.equals(entry.getValue().getScanId()));
+    }
+
+    /**
+     * Strong ETag over the given parts, e.g. a payload ETag and the per-request fields around it.
+     */
+    public static String etag(Object... parts) {
+        StringBuilder joined = new StringBuilder();
+        for (Object part : parts) {
+            joined.append(Objects.toString(part, "")).append('\u0000');
+        }
+        return quotedHash(joined.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Scan cookies grouped by category; null if the scan could not be read.
+     */
+    private Map<String, List<CookieEntity>> fetchAndCategorizeCookies(String scanId, MongoTemplate mongoTemplate) {
+        if (scanId == null || scanId.trim().isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        try {
+            Query query = new Query(Criteria.where("transactionId").is(scanId));
+            query.fields().include("cookiesBySubdomain");
+            ScanResultEntity scanResult = mongoTemplate.findOne(query, ScanResultEntity.class);
+
+            if (scanResult == null || scanResult.getCookiesBySubdomain() == null) {
+                log.warn("No scan result or cookies found for scanId: {}", scanId);
+                return Collections.emptyMap();
+            }
+
+            return scanResult.getCookiesBySubdomain().values().stream()
+                    .flatMap(List::stream)
+                    .filter(cookie -> cookie.getCategory() != null && !cookie.getCategory().trim().isEmpty())
+                    .collect(Collectors.groupingBy(CookieEntity::getCategory));
+        } catch (Exception e) {
+            log.error("Error fetching cookies for scanId: {}", scanId, e);
+            return null;
+        }
+    }
+
+    private String contentEtag(BannerPayload payload) {
+        Map<String, Object> content = new LinkedHashMap<>();
+        content.put("templateName", payload.getTemplateName());
+        content.put("multilingual", payload.getMultilingual());
+        content.put("uiConfig", payload.getUiConfig());
+        content.put("preferences", payload.getPreferences());
+        try {
+            return quotedHash(objectMapper.writeValueAsBytes(content));
+        } catch (Exception e) {
+            // Unique per build, so clients revalidate rather than match a wrong version
+            return etag(payload.getId(), payload.getCreatedAt().toEpochMilli());
+        }
+    }
+
+    private static String quotedHash(byte[] bytes) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(hash) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String payloadId(String templateId, Integer version) {
+        return templateId + ":" + version;
+    }
+
+    private static String cacheKey(String tenantId, String templateId, Integer version) {
+        return tenantId + "|" + templateId + "|" + version;
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.scanner.service;
+
+import com.example.scanner.config.TenantContext;
+import com.example.scanner.dto.LanguageSpecificContent;
+import com.example.scanner.dto.Multilingual;
+import com.example.scanner.dto.response.BannerResponse;
+import com.example.scanner.entity.BannerPayload;
+import com.example.scanner.enums.LANGUAGE;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Banner responses ({@link BannerResponse}) serialized and gzip-compressed once per
+ * (template version, languages) and kept as bytes, so serving a banner is a buffer write.
+ *
+ * Entries are keyed by the payload's ETag, so a payload rebuilt after a cookie edit gets new
+ * entries and the old ones age out. The cache holds up to {@code banner.response.cache.max-bytes}
+ * of encoded bodies.
+ */
+@Service
+public class BannerResponseCache {
+
+    private final BannerPayloadService bannerPayloads;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, EncodedBanner> responses;
+
+    public BannerResponseCache(BannerPayloadService bannerPayloads,
+                               ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry,
+                               @Value("${banner.response.cache.max-bytes:67108864}") long maxBytes) {
+        this.bannerPayloads = bannerPayloads;
+        this.objectMapper = objectMapper;
+        this.responses = CacheBuilder.newBuilder()
+                .maximumWeight(maxBytes)
+                .<String, EncodedBanner>weigher((key, banner) -> banner.identity.length + banner.gzip.length)
+                .recordStats()
+                .build();
+        GuavaCacheMetrics.monitor(meterRegistry, responses, "banner_response_cache");
+    }
+
+    /**
+     * Encoded banner of a template version, or null if the version does not exist. Languages
+     * the template does not support are ignored; with none left, all languages are included.
+     */
+    public EncodedBanner get(String tenantId, String templateId, int version, Set<LANGUAGE> languages) {
+        BannerPayload payload;
+        TenantContext.setCurrentTenant(tenantId);
+        try {
+            payload = bannerPayloads.get(tenantId, templateId, version);
+        } finally {
+            TenantContext.clear();
+        }
+        if (payload == null) {
+            return null;
+        }
+
+        Multilingual multilingual = forLanguages(payload.getMultilingual(), languages);
+        String key = String.join("|", tenantId, templateId, String.valueOf(version), payload.getEtag(),
+                multilingual == payload.getMultilingual() ? "*" : multilingual.getSupportedLanguages().toString());
+        try {
+            return responses.get(key, () -> encode(payload, multilingual));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throw new IllegalStateException("Failed to encode banner of template " + templateId + " v" + version,
+                    e.getCause());
+        }
+    }
+
+    /**
+     * Parse a {@code lang} parameter: LANGUAGE names, case-insensitive, one per value or comma
+     * separated. Returns an empty set when no language is given.
+     */
+    public static Set<LANGUAGE> parseLanguages(List<String> values) {
+        Set<LANGUAGE> languages = EnumSet.noneOf(LANGUAGE.class);
+        if (values == null) {
+            return languages;
+        }
+        for (String value : values) {
+            for (String name : value.split(",")) {
+                if (!name.isBlank()) {
+                    try {
+                        languages.add(LANGUAGE.valueOf(name.trim().toUpperCase(Locale.ROOT)));
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("Unknown language: " + name.trim());
+                    }
+                }
+            }
+        }
+        return languages;
+    }
+
+    /**
+     * The texts of the given languages. Returns {@code multilingual} itself when nothing is
+     * filtered out.
+     */
+    public static Multilingual forLanguages(Multilingual multilingual, Set<LANGUAGE> languages) {
+        if (multilingual == null || languages == null || languages.isEmpty()
+                || multilingual.getSupportedLanguages() == null) {
+            return multilingual;
+        }
+
+        List<LANGUAGE> supported = new ArrayList<>();
+        for (LANGUAGE language : multilingual.getSupportedLanguages()) {
+            if (languages.contains(language)) {
+                supported.add(language);
+            }
+        }
+        if (supported.isEmpty() || supported.size() == multilingual.getSupportedLanguages().size()) {
+            return multilingual;
+        }
+
+        Map<LANGUAGE, LanguageSpecificContent> content = new LinkedHashMap<>();
+        if (multilingual.getLanguageSpecificContentMap() != null) {
+            for (LANGUAGE language : supported) {
+                if (multilingual.getLanguageSpecificContentMap().containsKey(language)) {
+                    content.put(language, multilingual.getLanguageSpecificContentMap().get(language));
+                }
+            }
+        }
+        return Multilingual.builder()
+                .supportedLanguages(supported)
+                .languageSpecificContentMap(content)
+                .build();
+    }
+
+    /**
+     * Whether an {@code Accept-Encoding} header admits gzip.
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        boolean wildcard = false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim().toLowerCase(Locale.ROOT);
+            boolean refused = false;
+            for (int i = 1; i < tokens.length; i++) {
+                String parameter = tokens[i].trim().toLowerCase(Locale.ROOT);
+                if (parameter.startsWith("q=")) {
+                    try {
+                        refused = Double.parseDouble(parameter.substring(2)) <= 0;
+                    } catch (NumberFormatException e) {
+                        refused = true;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                return !refused;
+            }
+            if (coding.equals("*")) {
+                wildcard = !refused;
+            }
+        }
+        return wildcard;
+    }
+
+    private EncodedBanner encode(BannerPayload payload, Multilingual multilingual) throws IOException {
+        BannerResponse response = BannerResponse.builder()
+                .templateId(payload.getTemplateId())
+                .templateVersion(payload.getTemplateVersion())
+                .templateName(payload.getTemplateName())
+                .multilingual(multilingual)
+                .uiConfig(payload.getUiConfig())
+                .preferences(payload.getPreferences())
+                .build();
+        byte[] identity = objectMapper.writeValueAsBytes(response);
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(identity.length / 4 + 64);
+        // Compressed once per entry, so the slowest level is affordable
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(identity);
+        }
+
+        String etag = BannerPayloadService.etag(payload.getEtag(), multilingual != null
+                ? multilingual.getSupportedLanguages() : null);
+        return new EncodedBanner(identity, compressed.toByteArray(), etag);
+    }
+
+    /**
+     * A banner body, uncompressed and gzip-compressed. Each encoding has its own strong ETag.
+     */
+    public static final class EncodedBanner {
+
+        private final byte[] identity;
+        private final byte[] gzip;
+        private final String etag;
+
+        private EncodedBanner(byte[] identity, byte[] gzip, String etag) {
+            this.identity = identity;
+            this.gzip = gzip;
+            this.etag = etag;
+        }
+
+        public byte[] body(boolean gzipped) {
+            return gzipped ? gzip : identity;
+        }
+
+        public String etag(boolean gzipped) {
+            return gzipped ? etag.substring(0, etag.length() - 1) + "-gzip\"" : etag;
+        }
+    }
+}
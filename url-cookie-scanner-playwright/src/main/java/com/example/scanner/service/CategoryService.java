@@ -1,5 +1,5 @@
 package com.example.scanner.service;
-import com.example.scanner.config.MultiTenantMongoConfig;
+import com.example.scanner.config.TenantMongoTemplateRegistry;
 import com.example.scanner.config.TenantContext;
 import com.example.scanner.constants.ErrorCodes;
 import com.example.scanner.dto.request.AddCookieCategoryRequest;
@@ -26,7 +26,7 @@ import java.util.stream.Collectors;
 public class CategoryService {
 
     private final CategoryRepositoryImpl categoryRepository;
-    private final MultiTenantMongoConfig mongoConfig;
+    private final TenantMongoTemplateRegistry mongoTemplateRegistry;
 
     public CookieCategoryResponse addCategory(AddCookieCategoryRequest request, String tenantId) {
         try {
@@ -178,7 +178,7 @@ public class CategoryService {
         }
 
         TenantContext.setCurrentTenant(tenantId);
-        MongoTemplate tenantMongoTemplate = mongoConfig.getMongoTemplateForTenant(tenantId);
+        MongoTemplate tenantMongoTemplate = mongoTemplateRegistry.getMongoTemplateForTenant(tenantId);
 
         try {
             Query query = new Query(Criteria.where("category").is(category));
@@ -193,7 +193,7 @@ public class CategoryService {
      */
     public List<String> getAllCategoryNames(String tenantId) {
         TenantContext.setCurrentTenant(tenantId);
-        MongoTemplate tenantMongoTemplate = mongoConfig.getMongoTemplateForTenant(tenantId);
+        MongoTemplate tenantMongoTemplate = mongoTemplateRegistry.getMongoTemplateForTenant(tenantId);
 
         try {
             List<CookieCategory> categories = tenantMongoTemplate.findAll(CookieCategory.class);
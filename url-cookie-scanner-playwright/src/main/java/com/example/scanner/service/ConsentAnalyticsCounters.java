@@ -0,0 +1,578 @@
+package com.example.scanner.service;
+
+import com.example.scanner.config.TenantContext;
+import com.example.scanner.config.TenantMongoTemplateRegistry;
+import com.example.scanner.config.TenantReadRouter;
+import com.example.scanner.constants.ErrorCodes;
+import com.example.scanner.dto.Preference;
+import com.example.scanner.dto.response.DashboardSummaryResponse;
+import com.example.scanner.entity.CookieConsent;
+import com.example.scanner.entity.CookieConsentHandle;
+import com.example.scanner.enums.ConsentHandleStatus;
+import com.example.scanner.enums.PreferenceStatus;
+import com.example.scanner.exception.ConsentException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pre-aggregated consent analytics in {@code consent_analytics_counters}, per template version
+ * and UTC day:
+ * <ul>
+ *   <li>one document with consent volumes ({@code consents.created|updated|revoked}) and handle
+ *       outcomes ({@code handles.created|USED|REJECTED|REQ_EXPIRED});</li>
+ *   <li>one document per preference purpose with {@code accepted} / {@code rejected} choices.</li>
+ * </ul>
+ * Consent events count on the day of the consent version; handle outcomes count on the day the
+ * handle was created, so a day's handle counts read as a conversion cohort.
+ *
+ * Each event is applied with {@code $inc} upserts in one bulk write before the call returns; a
+ * failed write is kept in memory and retried every {@code consent.analytics.flush-interval-ms}.
+ * With {@code consent.analytics.buffered=true} increments are instead coalesced in memory and
+ * written once per tenant and flush interval, which saves writes on busy tenants but loses up to
+ * one interval of counts if the node dies.
+ *
+ * {@link #rebuild} recomputes a tenant's counters from {@code cookie_consents} and
+ * {@code cookie_consent_handles} (exposed on the {@code consentanalytics} actuator endpoint). The
+ * counters carry a generation, and the tenant's current one is kept in
+ * {@code consent_analytics_generations}: a rebuild writes the next generation beside the live one
+ * and then switches the pointer with one conditional update, so live increments are never added
+ * on top of recomputed counts. Events logged between the aggregation and the switch are
+ * incremented in the old generation and may be missing from the new one.
+ *
+ * Metrics: {@code consent_analytics_flush_seconds}, {@code consent_analytics_flush_failures_total}.
+ */
+@Slf4j
+@Component
+public class ConsentAnalyticsCounters {
+
+    static final String COLLECTION = "consent_analytics_counters";
+    static final String GENERATIONS = "consent_analytics_generations";
+
+    private final TenantMongoTemplateRegistry mongoTemplateRegistry;
+    private final TenantReadRouter readRouter;
+    private final Map<CounterKey, Map<String, Long>> pending = new ConcurrentHashMap<>();
+    private final Timer flushTimer;
+    private final Counter flushFailures;
+
+    @Value("${consent.analytics.enabled:true}")
+    private boolean enabled;
+
+    @Value("${consent.analytics.buffered:false}")
+    private boolean buffered;
+
+    @Value("${consent.analytics.summary.max-days:366}")
+    private int summaryMaxDays;
+
+    public ConsentAnalyticsCounters(TenantMongoTemplateRegistry mongoTemplateRegistry,
+                                    TenantReadRouter readRouter,
+                                    MeterRegistry meterRegistry) {
+        this.mongoTemplateRegistry = mongoTemplateRegistry;
+        this.readRouter = readRouter;
+
+        this.flushTimer = Timer.builder("consent_analytics_flush_seconds")
+                .description("Time to apply buffered consent analytics increments")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.flushFailures = Counter.builder("consent_analytics_flush_failures_total")
+                .description("Tenant counter writes that failed and were kept for the next flush")
+                .register(meterRegistry);
+    }
+
+    public void consentCreated(String tenantId, CookieConsent consent) {
+        Map<CounterKey, Map<String, Long>> increments = new HashMap<>();
+        add(increments, consentKey(tenantId, consent, null), "consents.created");
+        addChoices(increments, tenantId, consent);
+        record(tenantId, increments);
+    }
+
+    public void consentUpdated(String tenantId, CookieConsent consent) {
+        Map<CounterKey, Map<String, Long>> increments = new HashMap<>();
+        add(increments, consentKey(tenantId, consent, null), "consents.updated");
+        addChoices(increments, tenantId, consent);
+        record(tenantId, increments);
+    }
+
+    public void consentRevoked(String tenantId, CookieConsent consent) {
+        Map<CounterKey, Map<String, Long>> increments = new HashMap<>();
+        add(increments, consentKey(tenantId, consent, null), "consents.revoked");
+        record(tenantId, increments);
+    }
+
+    public void handleCreated(String tenantId, CookieConsentHandle handle) {
+        Map<CounterKey, Map<String, Long>> increments = new HashMap<>();
+        add(increments, handleKey(tenantId, handle), "handles.created");
+        record(tenantId, increments);
+    }
+
+    /**
+     * A handle left PENDING; counts its current status (USED, REJECTED or REQ_EXPIRED).
+     */
+    public void handleResolved(String tenantId, CookieConsentHandle handle) {
+        if (handle.getStatus() != null && handle.getStatus() != ConsentHandleStatus.PENDING) {
+            Map<CounterKey, Map<String, Long>> increments = new HashMap<>();
+            add(increments, handleKey(tenantId, handle), "handles." + handle.getStatus().name());
+            record(tenantId, increments);
+        }
+    }
+
+    private static void addChoices(Map<CounterKey, Map<String, Long>> increments, String tenantId,
+                                   CookieConsent consent) {
+        if (consent.getPreferences() == null) {
+            return;
+        }
+        for (Preference preference : consent.getPreferences()) {
+            if (preference.getPurpose() == null) {
+                continue;
+            }
+            if (preference.getPreferenceStatus() == PreferenceStatus.ACCEPTED) {
+                add(increments, consentKey(tenantId, consent, preference.getPurpose()), "accepted");
+            } else if (preference.getPreferenceStatus() == PreferenceStatus.NOTACCEPTED) {
+                add(increments, consentKey(tenantId, consent, preference.getPurpose()), "rejected");
+            }
+        }
+    }
+
+    private static void add(Map<CounterKey, Map<String, Long>> increments, CounterKey key, String field) {
+        increments.computeIfAbsent(key, k -> new HashMap<>()).merge(field, 1L, Long::sum);
+    }
+
+    private void record(String tenantId, Map<CounterKey, Map<String, Long>> increments) {
+        if (!enabled || increments.isEmpty()) {
+            return;
+        }
+        if (!buffered) {
+            try {
+                write(tenantId, increments);
+                return;
+            } catch (Exception e) {
+                flushFailures.increment();
+                log.warn("Failed to write consent analytics for tenant {}, retrying next flush: {}",
+                        tenantId, e.getMessage());
+            }
+        }
+        increments.forEach((key, counts) -> counts.forEach((field, delta) -> buffer(key, field, delta)));
+    }
+
+    private void buffer(CounterKey key, String field, long delta) {
+        // compute() runs under the entry's lock, so flush() can take the entry without losing increments
+        pending.compute(key, (k, counts) -> {
+            Map<String, Long> updated = counts != null ? counts : new HashMap<>();
+            updated.merge(field, delta, Long::sum);
+            return updated;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${consent.analytics.flush-interval-ms:1000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+
+        Map<String, Map<CounterKey, Map<String, Long>>> byTenant = new HashMap<>();
+        for (CounterKey key : pending.keySet()) {
+            Map<String, Long> counts = pending.remove(key);
+            if (counts != null) {
+                byTenant.computeIfAbsent(key.tenantId, t -> new HashMap<>()).put(key, counts);
+            }
+        }
+
+        byTenant.forEach((tenantId, counters) -> {
+            try {
+                write(tenantId, counters);
+            } catch (Exception e) {
+                flushFailures.increment();
+                log.warn("Failed to write consent analytics for tenant {}, retrying next flush: {}",
+                        tenantId, e.getMessage());
+                counters.forEach((key, counts) -> counts.forEach((field, delta) -> buffer(key, field, delta)));
+            }
+        });
+
+        flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void write(String tenantId, Map<CounterKey, Map<String, Long>> counters) {
+        MongoTemplate tenantTemplate = mongoTemplateRegistry.getMongoTemplateForTenant(tenantId);
+        long generation = generation(tenantTemplate, tenantId);
+        BulkOperations bulk = tenantTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, COLLECTION);
+        counters.forEach((key, counts) -> {
+            Update update = new Update();
+            counts.forEach(update::inc);
+            setOnInsert(update, key, generation);
+            bulk.upsert(new Query(Criteria.where("_id").is(key.id(generation))), update);
+        });
+        bulk.execute();
+    }
+
+    private static void setOnInsert(Update update, CounterKey key, long generation) {
+        update.setOnInsert("templateId", key.templateId)
+                .setOnInsert("templateVersion", key.templateVersion)
+                .setOnInsert("day", key.day);
+        if (key.purpose != null) {
+            update.setOnInsert("purpose", key.purpose);
+        }
+        if (generation > 0) {
+            update.setOnInsert("generation", generation);
+        }
+    }
+
+    /**
+     * The tenant's current counter generation; 0 until its first rebuild.
+     */
+    private static long generation(MongoTemplate mongoTemplate, String tenantId) {
+        return number(mongoTemplate.findById(tenantId, Document.class, GENERATIONS), "current");
+    }
+
+    /**
+     * Counters of a generation. Generation 0 predates the first rebuild and has no field.
+     */
+    private static Criteria inGeneration(long generation) {
+        return Criteria.where("generation").is(generation > 0 ? generation : null);
+    }
+
+    /**
+     * Recompute all counters of a tenant from the consent and handle collections into the next
+     * generation, switch reads and writes to it and drop the older ones. Returns the number of
+     * counter documents written.
+     */
+    public Map<String, Object> rebuild(String tenantId) {
+        flush();
+        long start = System.nanoTime();
+
+        TenantContext.setCurrentTenant(tenantId);
+        try {
+            MongoTemplate tenantTemplate = mongoTemplateRegistry.getMongoTemplateForTenant(tenantId);
+            long current = generation(tenantTemplate, tenantId);
+            long next = current + 1;
+            // Left behind by a rebuild that failed before its switch
+            tenantTemplate.remove(new Query(inGeneration(next)), COLLECTION);
+            Map<CounterKey, Map<String, Long>> counters = new HashMap<>();
+
+            // Consent volumes: version 1 is a create, later versions an update or a revocation
+            AggregationOperation consentVolumes = context -> new Document("$group", new Document("_id",
+                    new Document("templateId", "$templateId")
+                            .append("templateVersion", "$templateVersion")
+                            .append("day", day("$createdAt"))
+                            .append("kind", new Document("$cond", List.of(
+                                    new Document("$lte", List.of("$version", 1)), "created",
+                                    new Document("$cond", List.of(
+                                            new Document("$eq", List.of("$status", "REVOKED")), "revoked", "updated"))))))
+                    .append("count", new Document("$sum", 1)));
+            for (Document row : tenantTemplate.aggregate(Aggregation.newAggregation(consentVolumes),
+                    "cookie_consents", Document.class)) {
+                Document id = row.get("_id", Document.class);
+                counters.computeIfAbsent(rebuildKey(tenantId, id, null), k -> new HashMap<>())
+                        .merge("consents." + id.getString("kind"), number(row, "count"), Long::sum);
+            }
+
+            // Preference choices of every create and preference update (revocations copy them)
+            AggregationOperation choices = context -> new Document("$group", new Document("_id",
+                    new Document("templateId", "$templateId")
+                            .append("templateVersion", "$templateVersion")
+                            .append("day", day("$createdAt"))
+                            .append("purpose", "$preferences.purpose"))
+                    .append("accepted", new Document("$sum", new Document("$cond", List.of(
+                            new Document("$eq", List.of("$preferences.preferenceStatus", "ACCEPTED")), 1, 0))))
+                    .append("rejected", new Document("$sum", new Document("$cond", List.of(
+                            new Document("$eq", List.of("$preferences.preferenceStatus", "NOTACCEPTED")), 1, 0)))));
+            Aggregation choiceAggregation = Aggregation.newAggregation(
+                    Aggregation.match(new Criteria().orOperator(
+                            Criteria.where("version").lte(1),
+                            Criteria.where("status").ne("REVOKED"))),
+                    Aggregation.unwind("preferences"),
+                    choices);
+            for (Document row : tenantTemplate.aggregate(choiceAggregation, "cookie_consents", Document.class)) {
+                Document id = row.get("_id", Document.class);
+                if (id.getString("purpose") == null) {
+                    continue;
+                }
+                Map<String, Long> counts = counters.computeIfAbsent(
+                        rebuildKey(tenantId, id, id.getString("purpose")), k -> new HashMap<>());
+                counts.put("accepted", number(row, "accepted"));
+                counts.put("rejected", number(row, "rejected"));
+            }
+
+            // Handle outcomes on the handle's creation day
+            AggregationOperation handleOutcomes = context -> new Document("$group", new Document("_id",
+                    new Document("templateId", "$templateId")
+                            .append("templateVersion", "$templateVersion")
+                            .append("day", day("$createdAt"))
+                            .append("status", "$status"))
+                    .append("count", new Document("$sum", 1)));
+            for (Document row : tenantTemplate.aggregate(Aggregation.newAggregation(handleOutcomes),
+                    "cookie_consent_handles", Document.class)) {
+                Document id = row.get("_id", Document.class);
+                Map<String, Long> counts = counters.computeIfAbsent(rebuildKey(tenantId, id, null),
+                        k -> new HashMap<>());
+                long count = number(row, "count");
+                counts.merge("handles.created", count, Long::sum);
+                String status = id.getString("status");
+                if (status != null && !ConsentHandleStatus.PENDING.name().equals(status)) {
+                    counts.merge("handles." + status, count, Long::sum);
+                }
+            }
+
+            counters.keySet().removeIf(key -> key.day == null || key.templateId == null);
+
+            if (!counters.isEmpty()) {
+                BulkOperations bulk = tenantTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, COLLECTION);
+                counters.forEach((key, counts) -> {
+                    Update update = new Update();
+                    counts.forEach(update::set);
+                    setOnInsert(update, key, next);
+                    bulk.upsert(new Query(Criteria.where("_id").is(key.id(next))), update);
+                });
+                bulk.execute();
+            }
+
+            switchGeneration(tenantTemplate, tenantId, current, next);
+            tenantTemplate.remove(new Query(Criteria.where("generation").ne(next)), COLLECTION);
+
+            long tookMs = (System.nanoTime() - start) / 1_000_000;
+            log.info("Rebuilt {} consent analytics counters for tenant {} in {} ms", counters.size(), tenantId, tookMs);
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("tenantId", tenantId);
+            result.put("counters", counters.size());
+            result.put("generation", next);
+            result.put("tookMs", tookMs);
+            return result;
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
+    private static void switchGeneration(MongoTemplate tenantTemplate, String tenantId, long current, long next) {
+        if (current == 0) {
+            try {
+                tenantTemplate.insert(new Document("_id", tenantId).append("current", next), GENERATIONS);
+                return;
+            } catch (DuplicateKeyException e) {
+                // Another rebuild switched first; fall through to the conditional update, which fails
+            }
+        }
+        long switched = tenantTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(tenantId).and("current").is(current)),
+                new Update().set("current", next), GENERATIONS).getModifiedCount();
+        if (switched == 0) {
+            throw new IllegalStateException("Consent analytics of tenant " + tenantId
+                    + " were rebuilt concurrently; generation " + current + " is no longer current");
+        }
+    }
+
+    /**
+     * Totals, per-purpose rates, handle conversion and daily volumes for a day range, read from
+     * the counters only. Cost depends on the number of days and template versions in range, not
+     * on the number of consents.
+     */
+    public DashboardSummaryResponse summary(String tenantId, String templateId, Integer templateVersion,
+                                            LocalDate from, LocalDate to) throws ConsentException {
+        LocalDate end = to != null ? to : LocalDate.now(ZoneOffset.UTC);
+        LocalDate start = from != null ? from : end.minusDays(29);
+        if (start.isAfter(end) || ChronoUnit.DAYS.between(start, end) >= summaryMaxDays) {
+            throw new ConsentException(
+                    ErrorCodes.VALIDATION_ERROR,
+                    ErrorCodes.getDescription(ErrorCodes.VALIDATION_ERROR),
+                    "Summary range must start before it ends and span at most " + summaryMaxDays + " days"
+            );
+        }
+
+        TenantContext.setCurrentTenant(tenantId);
+        try {
+            MongoTemplate mongoTemplate = readRouter.templateFor(tenantId, TenantReadRouter.ReadClass.DASHBOARD);
+
+            Criteria criteria = inGeneration(generation(mongoTemplate, tenantId))
+                    .and("day").gte(start.toString()).lte(end.toString());
+            if (StringUtils.hasText(templateId)) {
+                criteria.and("templateId").is(templateId);
+                if (templateVersion != null) {
+                    criteria.and("templateVersion").is(templateVersion);
+                }
+            }
+            Query query = new Query(criteria).with(Sort.by(Sort.Direction.ASC, "day"));
+
+            Map<String, Long> totals = new HashMap<>();
+            Map<String, DashboardSummaryResponse.DailyVolume> daily = new TreeMap<>();
+            Map<String, long[]> purposes = new TreeMap<>();
+
+            for (Document doc : mongoTemplate.find(query, Document.class, COLLECTION)) {
+                String purpose = doc.getString("purpose");
+                if (purpose != null) {
+                    long[] choices = purposes.computeIfAbsent(purpose, p -> new long[2]);
+                    choices[0] += number(doc, "accepted");
+                    choices[1] += number(doc, "rejected");
+                    continue;
+                }
+
+                Document consents = doc.get("consents", Document.class);
+                Document handles = doc.get("handles", Document.class);
+                DashboardSummaryResponse.DailyVolume volume = daily.computeIfAbsent(doc.getString("day"),
+                        d -> DashboardSummaryResponse.DailyVolume.builder().day(d).build());
+                volume.setConsentsCreated(volume.getConsentsCreated() + number(consents, "created"));
+                volume.setConsentsUpdated(volume.getConsentsUpdated() + number(consents, "updated"));
+                volume.setConsentsRevoked(volume.getConsentsRevoked() + number(consents, "revoked"));
+                volume.setHandlesCreated(volume.getHandlesCreated() + number(handles, "created"));
+
+                for (ConsentHandleStatus status : List.of(ConsentHandleStatus.USED, ConsentHandleStatus.REJECTED,
+                        ConsentHandleStatus.REQ_EXPIRED)) {
+                    totals.merge(status.name(), number(handles, status.name()), Long::sum);
+                }
+            }
+
+            long consentsCreated = 0, consentsUpdated = 0, consentsRevoked = 0, handlesCreated = 0;
+            for (DashboardSummaryResponse.DailyVolume volume : daily.values()) {
+                consentsCreated += volume.getConsentsCreated();
+                consentsUpdated += volume.getConsentsUpdated();
+                consentsRevoked += volume.getConsentsRevoked();
+                handlesCreated += volume.getHandlesCreated();
+            }
+            long handlesUsed = totals.getOrDefault(ConsentHandleStatus.USED.name(), 0L);
+
+            List<DashboardSummaryResponse.PurposeSummary> purposeSummaries = new ArrayList<>();
+            purposes.forEach((purpose, choices) -> purposeSummaries.add(DashboardSummaryResponse.PurposeSummary.builder()
+                    .purpose(purpose)
+                    .accepted(choices[0])
+                    .rejected(choices[1])
+                    .acceptRate(rate(choices[0], choices[0] + choices[1]))
+                    .build()));
+
+            return DashboardSummaryResponse.builder()
+                    .templateId(templateId)
+                    .templateVersion(templateVersion)
+                    .from(start)
+                    .to(end)
+                    .consentsCreated(consentsCreated)
+                    .consentsUpdated(consentsUpdated)
+                    .consentsRevoked(consentsRevoked)
+                    .handlesCreated(handlesCreated)
+                    .handlesUsed(handlesUsed)
+                    .handlesRejected(totals.getOrDefault(ConsentHandleStatus.REJECTED.name(), 0L))
+                    .handlesExpired(totals.getOrDefault(ConsentHandleStatus.REQ_EXPIRED.name(), 0L))
+                    .conversionRate(rate(handlesUsed, handlesCreated))
+                    .purposes(purposeSummaries)
+                    .daily(new ArrayList<>(daily.values()))
+                    .build();
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
+    private static Double rate(long part, long whole) {
+        return whole > 0 ? (double) part / whole : null;
+    }
+
+    private static long number(Document doc, String field) {
+        Object value = doc != null ? doc.get(field) : null;
+        return value instanceof Number number ? number.longValue() : 0L;
+    }
+
+    private static Document day(String dateField) {
+        return new Document("$dateToString", new Document("format", "%Y-%m-%d")
+                .append("date", dateField)
+                .append("timezone", "UTC"));
+    }
+
+    private static CounterKey consentKey(String tenantId, CookieConsent consent, String purpose) {
+        return new CounterKey(tenantId, consent.getTemplateId(), consent.getTemplateVersion(),
+                dayOf(consent.getCreatedAt()), purpose);
+    }
+
+    private static CounterKey handleKey(String tenantId, CookieConsentHandle handle) {
+        return new CounterKey(tenantId, handle.getTemplateId(), handle.getTemplateVersion(),
+                dayOf(handle.getCreatedAt()), null);
+    }
+
+    private static CounterKey rebuildKey(String tenantId, Document id, String purpose) {
+        Object version = id.get("templateVersion");
+        return new CounterKey(tenantId, id.getString("templateId"),
+                version instanceof Number number ? number.intValue() : null, id.getString("day"), purpose);
+    }
+
+    private static String dayOf(Instant instant) {
+        return LocalDate.ofInstant(instant != null ? instant : Instant.now(), ZoneOffset.UTC).toString();
+    }
+
+    private static final class CounterKey {
+
+        final String tenantId;
+        final String templateId;
+        final Integer templateVersion;
+        final String day;
+        final String purpose;
+
+        CounterKey(String tenantId, String templateId, Integer templateVersion, String day, String purpose) {
+            this.tenantId = tenantId;
+            this.templateId = templateId;
+            this.templateVersion = templateVersion;
+            this.day = day;
+            this.purpose = purpose;
+        }
+
+        /**
+         * Tenant-qualified, so ids stay unique when tenants share a pooled collection.
+         */
+        String id(long generation) {
+            String id = tenantId + "|" + templateId + "|" + templateVersion + "|" + day;
+            if (purpose != null) {
+                id += "|p|" + purpose;
+            }
+            return generation > 0 ? id + "|g" + generation : id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CounterKey other)) {
+                return false;
+            }
+            return tenantId.equals(other.tenantId)
+                    && Objects.equals(templateId, other.templateId)
+                    && Objects.equals(templateVersion, other.templateVersion)
+                    && Objects.equals(day, other.day)
+                    && Objects.equals(purpose, other.purpose);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(tenantId, templateId, templateVersion, day, purpose);
+        }
+    }
+}
@@ -0,0 +1,434 @@
+package com.example.scanner.service;
+
+import com.example.scanner.config.TenantContext;
+import com.example.scanner.config.TenantReadRouter;
+import com.example.scanner.config.TenantScopedMongoTemplate;
+import com.example.scanner.constants.ErrorCodes;
+import com.example.scanner.enums.Status;
+import com.example.scanner.exception.ConsentException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams a tenant's consents for audits as NDJSON or CSV, straight from a Mongo cursor to the
+ * response, so memory use does not grow with the tenant's size.
+ *
+ * Rows are read in {@code _id} order with a projection that leaves out tokens and encrypted
+ * fields, {@code consent.export.batch-size} documents per round trip, from the routed read
+ * template ({@code export} in {@code multi-tenant.read-routing.secondary-operations}). Every row
+ * carries an opaque {@code cursor}; passing the last one received as {@code after} continues an
+ * interrupted export with the next row. At most {@code consent.export.max-concurrent} exports
+ * run at once on a node.
+ *
+ * Metrics: {@code consent_export_seconds{format}}, {@code consent_export_rows_total{format}}.
+ */
+@Slf4j
+@Service
+public class ConsentExportService {
+
+    private static final String COLLECTION = "cookie_consents";
+
+    private static final List<String> COLUMNS = List.of(
+            "cursor", "consentId", "version", "consentHandleId", "templateId", "templateVersion", "businessId",
+            "status", "consentStatus", "customerIdentifierType", "customerIdentifierValue",
+            "acceptedPurposes", "rejectedPurposes", "startDate", "endDate", "createdAt", "updatedAt", "payloadHash");
+
+    private static final Document PROJECTION = new Document("consentId", 1)
+            .append("version", 1)
+            .append("consentHandleId", 1)
+            .append("templateId", 1)
+            .append("templateVersion", 1)
+            .append("businessId", 1)
+            .append("status", 1)
+            .append("consentStatus", 1)
+            .append("customerIdentifiers", 1)
+            .append("preferences.purpose", 1)
+            .append("preferences.preferenceStatus", 1)
+            .append("startDate", 1)
+            .append("endDate", 1)
+            .append("createdAt", 1)
+            .append("updatedAt", 1)
+            .append("payloadHash", 1);
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+    }
+
+    private final TenantReadRouter readRouter;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Semaphore permits;
+
+    @Value("${consent.export.batch-size:1000}")
+    private int batchSize;
+
+    public ConsentExportService(TenantReadRouter readRouter,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${consent.export.max-concurrent:4}") int maxConcurrent) {
+        this.readRouter = readRouter;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    public static Format parseFormat(String format) throws ConsentException {
+        if (!StringUtils.hasText(format)) {
+            return Format.NDJSON;
+        }
+        try {
+            return Format.valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ConsentException(
+                    ErrorCodes.VALIDATION_ERROR,
+                    ErrorCodes.getDescription(ErrorCodes.VALIDATION_ERROR),
+                    "Unsupported export format: " + format + " (expected ndjson or csv)"
+            );
+        }
+    }
+
+    /**
+     * Validate the request and prepare the export. Nothing is read until the returned body is
+     * written; the filter, template and tenant scope are resolved here, on the request thread.
+     * Throws {@link RejectedExecutionException} when the node is already running its maximum
+     * number of exports. The export slot itself is taken by the body, so a body that never runs
+     * (the client disconnects, the async request times out) holds nothing.
+     */
+    public StreamingResponseBody export(String tenantId, Format format, String templateId, Integer version,
+                                        String status, LocalDateTime startDate, LocalDateTime endDate,
+                                        String after) throws ConsentException {
+        Document filter = filter(templateId, version, status, startDate, endDate, after);
+
+        MongoCollection<Document> collection;
+        TenantContext.setCurrentTenant(tenantId);
+        try {
+            MongoTemplate mongoTemplate = readRouter.templateFor(tenantId, TenantReadRouter.ReadClass.EXPORT);
+            // Raw driver reads are neither tenant-scoped nor routed by the template; apply both here
+            filter.putAll(TenantScopedMongoTemplate.tenantFilter(mongoTemplate));
+            collection = mongoTemplate.getCollection(COLLECTION);
+            if (mongoTemplate.hasReadPreference()) {
+                collection = collection.withReadPreference(mongoTemplate.getReadPreference());
+            }
+        } finally {
+            TenantContext.clear();
+        }
+
+        // Fails fast while the response can still carry the error; the body re-checks when it starts
+        if (permits.availablePermits() == 0) {
+            throw new RejectedExecutionException("Consent export limit reached");
+        }
+
+        MongoCollection<Document> source = collection;
+        return out -> {
+            if (!permits.tryAcquire()) {
+                throw new RejectedExecutionException("Consent export limit reached");
+            }
+            long start = System.nanoTime();
+            try (MongoCursor<Document> cursor = source.find(filter)
+                    .projection(PROJECTION)
+                    .sort(new Document("_id", 1))
+                    .batchSize(batchSize)
+                    .iterator()) {
+                long rows = format == Format.CSV ? writeCsv(cursor, out) : writeNdjson(cursor, out);
+                log.debug("Consent export for tenant {} wrote {} rows", tenantId, rows);
+            } catch (IOException e) {
+                // Usually the client going away; it can resume from the last cursor it received
+                log.info("Consent export for tenant {} interrupted: {}", tenantId, e.getMessage());
+                throw e;
+            } finally {
+                permits.release();
+                Timer.builder("consent_export_seconds")
+                        .description("Duration of consent exports")
+                        .tag("format", format.extension())
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .register(meterRegistry)
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+
+    private long writeNdjson(MongoCursor<Document> cursor, OutputStream out) throws IOException {
+        Counter rowCounter = rowCounter(Format.NDJSON);
+        long rows = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            while (cursor.hasNext()) {
+                Document doc = cursor.next();
+                Document identifiers = doc.get("customerIdentifiers", Document.class);
+                List<String> accepted = new ArrayList<>();
+                List<String> rejected = new ArrayList<>();
+                purposes(doc, accepted, rejected);
+
+                generator.writeStartObject();
+                generator.writeStringField("cursor", encodeCursor(doc.get("_id")));
+                writeString(generator, "consentId", doc.getString("consentId"));
+                writeNumber(generator, "version", doc.get("version"));
+                writeString(generator, "consentHandleId", doc.getString("consentHandleId"));
+                writeString(generator, "templateId", doc.getString("templateId"));
+                writeNumber(generator, "templateVersion", doc.get("templateVersion"));
+                writeString(generator, "businessId", doc.getString("businessId"));
+                writeString(generator, "status", doc.getString("status"));
+                writeString(generator, "consentStatus", doc.getString("consentStatus"));
+                writeString(generator, "customerIdentifierType", identifiers != null ? identifiers.getString("type") : null);
+                writeString(generator, "customerIdentifierValue", identifiers != null ? identifiers.getString("value") : null);
+                generator.writeArrayFieldStart("acceptedPurposes");
+                for (String purpose : accepted) {
+                    generator.writeString(purpose);
+                }
+                generator.writeEndArray();
+                generator.writeArrayFieldStart("rejectedPurposes");
+                for (String purpose : rejected) {
+                    generator.writeString(purpose);
+                }
+                generator.writeEndArray();
+                writeString(generator, "startDate", isoDate(doc.get("startDate")));
+                writeString(generator, "endDate", isoDate(doc.get("endDate")));
+                writeString(generator, "createdAt", isoDate(doc.get("createdAt")));
+                writeString(generator, "updatedAt", isoDate(doc.get("updatedAt")));
+                writeString(generator, "payloadHash", doc.getString("payloadHash"));
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+
+                rows++;
+                rowCounter.increment();
+                if (rows % batchSize == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        out.flush();
+        return rows;
+    }
+
+    private long writeCsv(MongoCursor<Document> cursor, OutputStream out) throws IOException {
+        Counter rowCounter = rowCounter(Format.CSV);
+        long rows = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(String.join(",", COLUMNS));
+        writer.write("\r\n");
+        while (cursor.hasNext()) {
+            Document doc = cursor.next();
+            Document identifiers = doc.get("customerIdentifiers", Document.class);
+            List<String> accepted = new ArrayList<>();
+            List<String> rejected = new ArrayList<>();
+            purposes(doc, accepted, rejected);
+
+            List<Object> values = List.of(
+                    encodeCursor(doc.get("_id")),
+                    nullToEmpty(doc.get("consentId")),
+                    nullToEmpty(doc.get("version")),
+                    nullToEmpty(doc.get("consentHandleId")),
+                    nullToEmpty(doc.get("templateId")),
+                    nullToEmpty(doc.get("templateVersion")),
+                    nullToEmpty(doc.get("businessId")),
+                    nullToEmpty(doc.get("status")),
+                    nullToEmpty(doc.get("consentStatus")),
+                    identifiers != null ? nullToEmpty(identifiers.get("type")) : "",
+                    identifiers != null ? nullToEmpty(identifiers.get("value")) : "",
+                    String.join(";", accepted),
+                    String.join(";", rejected),
+                    nullToEmpty(isoDate(doc.get("startDate"))),
+                    nullToEmpty(isoDate(doc.get("endDate"))),
+                    nullToEmpty(isoDate(doc.get("createdAt"))),
+                    nullToEmpty(isoDate(doc.get("updatedAt"))),
+                    nullToEmpty(doc.get("payloadHash")));
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(csvField(values.get(i).toString()));
+            }
+            writer.write("\r\n");
+
+            rows++;
+            rowCounter.increment();
+            if (rows % batchSize == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private Document filter(String templateId, Integer version, String status, LocalDateTime startDate,
+                            LocalDateTime endDate, String after) throws ConsentException {
+        Document filter = new Document();
+        if (StringUtils.hasText(templateId)) {
+            filter.append("templateId", templateId);
+        }
+        if (version != null) {
+            filter.append("templateVersion", version);
+        }
+        if (StringUtils.hasText(status)) {
+            try {
+                filter.append("status", Status.valueOf(status.trim().toUpperCase(Locale.ROOT)).name());
+            } catch (IllegalArgumentException e) {
+                throw validation("Unknown consent status: " + status);
+            }
+        }
+        if (startDate != null || endDate != null) {
+            Document range = new Document();
+            if (startDate != null) {
+                range.append("$gte", Date.from(startDate.atZone(ZoneId.systemDefault()).toInstant()));
+            }
+            if (endDate != null) {
+                range.append("$lte", Date.from(endDate.atZone(ZoneId.systemDefault()).toInstant()));
+            }
+            filter.append("createdAt", range);
+        }
+        if (StringUtils.hasText(after)) {
+            Object afterId = decodeCursor(after);
+            if (afterId instanceof ObjectId) {
+                filter.append("_id", new Document("$gt", afterId));
+            } else {
+                // Strings sort before ObjectIds, so every ObjectId id is still ahead of a string cursor
+                filter.append("$or", List.of(
+                        new Document("_id", new Document("$gt", afterId)),
+                        new Document("_id", new Document("$type", "objectId"))));
+            }
+        }
+        return filter;
+    }
+
+    /**
+     * The cursor keeps the id's BSON type, so the resumed range compares like with like.
+     */
+    static String encodeCursor(Object id) {
+        String raw = id instanceof ObjectId ? "o:" + id : "s:" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Object decodeCursor(String cursor) throws ConsentException {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw validation("Invalid export cursor: " + e.getMessage());
+        }
+        if (raw.startsWith("o:") && ObjectId.isValid(raw.substring(2))) {
+            return new ObjectId(raw.substring(2));
+        }
+        if (raw.startsWith("s:") && raw.length() > 2) {
+            return raw.substring(2);
+        }
+        throw validation("Invalid export cursor");
+    }
+
+    private static void purposes(Document doc, List<String> accepted, List<String> rejected) {
+        List<Document> preferences = doc.getList("preferences", Document.class);
+        if (preferences == null) {
+            return;
+        }
+        for (Document preference : preferences) {
+            String purpose = preference.getString("purpose");
+            if (purpose == null) {
+                continue;
+            }
+            if ("ACCEPTED".equals(preference.getString("preferenceStatus"))) {
+                accepted.add(purpose);
+            } else if ("NOTACCEPTED".equals(preference.getString("preferenceStatus"))) {
+                rejected.add(purpose);
+            }
+        }
+    }
+
+    private static void writeString(JsonGenerator generator, String field, String value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(field);
+        } else {
+            generator.writeStringField(field, value);
+        }
+    }
+
+    private static void writeNumber(JsonGenerator generator, String field, Object value) throws IOException {
+        if (value instanceof Number number) {
+            generator.writeNumberField(field, number.longValue());
+        } else {
+            generator.writeNullField(field);
+        }
+    }
+
+    private static String isoDate(Object value) {
+        return value instanceof Date date ? date.toInstant().toString() : null;
+    }
+
+    private static Object nullToEmpty(Object value) {
+        return value != null ? value : "";
+    }
+
+    /**
+     * RFC 4180 quoting. Values that a spreadsheet would evaluate as a formula are prefixed with
+     * a quote.
+     */
+    private static String csvField(String value) {
+        if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+
+    private Counter rowCounter(Format format) {
+        return Counter.builder("consent_export_rows_total")
+                .description("Consent rows written by exports")
+                .tag("format", format.extension())
+                .register(meterRegistry);
+    }
+
+    private static ConsentException validation(String details) {
+        return new ConsentException(
+                ErrorCodes.VALIDATION_ERROR,
+                ErrorCodes.getDescription(ErrorCodes.VALIDATION_ERROR),
+                details
+        );
+    }
+}
@@ -1,20 +1,16 @@
 package com.example.scanner.service;
 
 import com.example.scanner.client.notification.NotificationManager;
-import com.example.scanner.config.MultiTenantMongoConfig;
 import com.example.scanner.config.TenantContext;
 import com.example.scanner.constants.AuditConstants;
 import com.example.scanner.constants.Constants;
 import com.example.scanner.constants.ErrorCodes;
-import com.example.scanner.dto.Preference;
 import com.example.scanner.dto.request.CreateHandleRequest;
 import com.example.scanner.dto.response.ConsentHandleResponse;
 import com.example.scanner.dto.response.GetHandleResponse;
-import com.example.scanner.dto.response.PreferenceWithCookies;
+import com.example.scanner.entity.BannerPayload;
 import com.example.scanner.entity.CookieConsentHandle;
 import com.example.scanner.entity.ConsentTemplate;
-import com.example.scanner.entity.CookieEntity;
-import com.example.scanner.entity.ScanResultEntity;
 import com.example.scanner.enums.ConsentHandleStatus;
 import com.example.scanner.enums.LANGUAGE;
 import com.example.scanner.enums.NotificationEvent;
@@ -25,16 +21,13 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataAccessException;
-import org.springframework.data.mongodb.core.MongoTemplate;
-import org.springframework.data.mongodb.core.query.Criteria;
-import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 import org.springframework.util.ObjectUtils;
 import com.example.scanner.dto.response.GetConsentHandleAndSecureCodeResponse;
 import com.example.scanner.dto.response.SecureCodeApiResponse;
 
+import java.time.Instant;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -43,10 +36,11 @@ public class ConsentHandleService {
 
     private final ConsentHandleRepository consentHandleRepository;
     private final ConsentTemplateService consentTemplateService;
-    private final MultiTenantMongoConfig mongoConfig;
     private final AuditService auditService;
     private final NotificationManager notificationManager;
     private final SecureCodeService secureCodeService;
+    private final ConsentAnalyticsCounters consentAnalytics;
+    private final BannerPayloadService bannerPayloads;
 
     @Value("${consent.handle.expiry.minutes:15}")
     private int handleExpiryMinutes;
@@ -103,6 +97,7 @@ public class ConsentHandleService {
             );
 
             CookieConsentHandle savedHandle = this.consentHandleRepository.save(consentHandle, tenantId);
+            consentAnalytics.handleCreated(tenantId, savedHandle);
 
             // Log handle created
             Map<String, Object> context3 = new HashMap<>();
@@ -158,6 +153,14 @@ public class ConsentHandleService {
 
     public GetHandleResponse getConsentHandleById(String consentHandleId, String tenantId)
             throws ScannerException {
+        return getConsentHandleById(consentHandleId, tenantId, null);
+    }
+
+    /**
+     * Handle with its banner content, with the texts limited to {@code languages} when given.
+     */
+    public GetHandleResponse getConsentHandleById(String consentHandleId, String tenantId, Set<LANGUAGE> languages)
+            throws ScannerException {
 
         if (tenantId == null || tenantId.trim().isEmpty()) {
             throw new ScannerException(ErrorCodes.VALIDATION_ERROR,
@@ -166,7 +169,6 @@ public class ConsentHandleService {
         }
 
         TenantContext.setCurrentTenant(tenantId);
-        MongoTemplate mongoTemplate = mongoConfig.getMongoTemplateForTenant(tenantId);
 
         try {
             // Fetch consent handle
@@ -180,43 +182,36 @@ public class ConsentHandleService {
 
             validateNotExpired(consentHandle, tenantId);
 
-            // Get template information
-            Optional<ConsentTemplate> templateOpt = consentTemplateService.getTemplateByTenantAndTemplateIdAndTemplateVersion(
+            // Template texts joined with the scan's cookies, precomputed per template version
+            BannerPayload payload = bannerPayloads.get(
                     tenantId, consentHandle.getTemplateId(), consentHandle.getTemplateVersion());
 
-            if (templateOpt.isEmpty()) {
+            if (payload == null) {
                 log.warn("Template not found");
                 throw new ScannerException(ErrorCodes.NOT_FOUND,
                         "Template not found",
                         "Template not found for consent handle: " + consentHandleId);
             }
 
-            ConsentTemplate template = templateOpt.get();
-
-            // STEP 1: Fetch cookies from scan results
-            Map<String, List<CookieEntity>> cookiesByCategory = fetchAndCategorizeCookies(
-                    template.getScanId(),
-                    mongoTemplate
-            );
-
-            // STEP 2: Create PreferenceWithCookies by matching purpose with cookie category
-            List<PreferenceWithCookies> preferencesWithCookies = mapCookiesToPreferences(
-                    template.getPreferences(),
-                    cookiesByCategory
-            );
-
             GetHandleResponse response = GetHandleResponse.builder()
                     .consentHandleId(consentHandle.getConsentHandleId())
-                    .templateId(template.getTemplateId())
-                    .templateName(template.getTemplateName())
+                    .templateId(payload.getTemplateId())
+                    .templateName(payload.getTemplateName())
                     .templateVersion(consentHandle.getTemplateVersion())
                     .url(consentHandle.getUrl())
                     .businessId(consentHandle.getBusinessId())
-                    .multilingual(template.getMultilingual())
-                    .uiConfig(template.getUiConfig())
-                    .preferences(preferencesWithCookies)
+                    .multilingual(BannerResponseCache.forLanguages(payload.getMultilingual(), languages))
+                    .uiConfig(payload.getUiConfig())
+                    .preferences(payload.getPreferences())
                     .customerIdentifiers(consentHandle.getCustomerIdentifiers())
                     .status(consentHandle.getStatus())
+                    .etag(BannerPayloadService.etag(payload.getEtag(), consentHandle.getConsentHandleId(),
+                            consentHandle.getUrl(), consentHandle.getBusinessId(), consentHandle.getStatus(),
+                            consentHandle.getCustomerIdentifiers() != null
+                                    ? consentHandle.getCustomerIdentifiers().getType() + ":"
+                                            + consentHandle.getCustomerIdentifiers().getValue()
+                                    : null,
+                            languages))
                     .build();
 
             log.info("Retrieved consent handle preferences and cookies for tenant");
@@ -228,81 +223,6 @@ public class ConsentHandleService {
         }
     }
 
-    /**
-     * Fetch all cookies from scan result and group them by category
-     */
-    private Map<String, List<CookieEntity>> fetchAndCategorizeCookies(
-            String scanId,
-            MongoTemplate mongoTemplate) {
-
-        if (scanId == null || scanId.trim().isEmpty()) {
-            log.warn("No scanId provided, returning empty cookie map");
-            return Collections.emptyMap();
-        }
-
-        try {
-            // Fetch scan result
-            Query query = new Query(Criteria.where("transactionId").is(scanId));
-            ScanResultEntity scanResult = mongoTemplate.findOne(query, ScanResultEntity.class);
-
-            if (scanResult == null || scanResult.getCookiesBySubdomain() == null) {
-                log.warn("No scan result or cookies found for scanId: {}", scanId);
-                return Collections.emptyMap();
-            }
-
-            // Flatten all cookies from all subdomains
-            List<CookieEntity> allCookies = scanResult.getCookiesBySubdomain().values()
-                    .stream()
-                    .flatMap(List::stream)
-                    .collect(Collectors.toList());
-
-            log.info("Found {} total cookies across all subdomains for scanId: {}",
-                    allCookies.size(), scanId);
-
-            // Group cookies by category
-            Map<String, List<CookieEntity>> cookiesByCategory = allCookies.stream()
-                    .filter(cookie -> cookie.getCategory() != null && !cookie.getCategory().trim().isEmpty())
-                    .collect(Collectors.groupingBy(CookieEntity::getCategory));
-
-            log.info("Categorized cookies into {} categories", cookiesByCategory.size());
-
-            return cookiesByCategory;
-
-        } catch (Exception e) {
-            log.error("Error fetching cookies for scanId: {}", scanId, e);
-            return Collections.emptyMap();
-        }
-    }
-
-    /**
-     * Map cookies to preferences based on matching purpose with cookie category
-     */
-    private List<PreferenceWithCookies> mapCookiesToPreferences(
-            List<Preference> preferences,
-            Map<String, List<CookieEntity>> cookiesByCategory) {
-
-        if (preferences == null || preferences.isEmpty()) {
-            log.warn("No preferences to map cookies to");
-            return Collections.emptyList();
-        }
-
-
-        return preferences.stream()
-                .map(preference -> {
-                    String categoryKey = preference.getPurpose();
-                    List<CookieEntity> matchingCookies = cookiesByCategory.getOrDefault(
-                            categoryKey,
-                            Collections.emptyList()
-                    );
-
-                    log.debug("Mapped {} cookies to preference category: {}",
-                            matchingCookies.size(), categoryKey);
-
-                    return PreferenceWithCookies.from(preference, matchingCookies);
-                })
-                .collect(Collectors.toList());
-    }
-
     private void validateTemplate(String tenantId, String templateId, int templateVersion) throws ScannerException {
         // Check if template exists using the existing ConsentTemplateService
         Optional<ConsentTemplate> templateOpt = consentTemplateService.getTemplateByTenantAndTemplateIdAndBusinessId(tenantId, templateId, templateVersion);
@@ -325,8 +245,15 @@ public class ConsentHandleService {
 
     private void validateNotExpired(CookieConsentHandle handle, String tenantId) {
         if (handle.isExpired()) {
+            boolean wasPending = handle.getStatus() == ConsentHandleStatus.PENDING;
             handle.setStatus(ConsentHandleStatus.REQ_EXPIRED);
-            consentHandleRepository.save(handle, tenantId);
+            handle.setUpdatedAt(Instant.now());
+            if (!wasPending) {
+                consentHandleRepository.save(handle, tenantId);
+            } else if (consentHandleRepository.resolvePending(handle, tenantId)) {
+                // Only the request that expired the handle counts it
+                consentAnalytics.handleResolved(tenantId, handle);
+            }
 
             throw new ConsentHandleExpiredException(
                     ErrorCodes.CONSENT_HANDLE_EXPIRED,
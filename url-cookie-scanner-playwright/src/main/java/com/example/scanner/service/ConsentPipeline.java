@@ -0,0 +1,121 @@
+package com.example.scanner.service;
+
+import com.example.scanner.constants.ErrorCodes;
+import com.example.scanner.exception.ConsentException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs independent stages of consent creation (Vault encryption, Vault signing, the consent
+ * save and the handle update) concurrently, so a request waits for the slowest stage instead
+ * of the sum of all of them.
+ *
+ * Every stage is recorded in {@code consent_pipeline_stage_seconds{stage}}; a group of stages
+ * started together shares one deadline of {@code consent.pipeline.timeout-ms}. Stages that miss
+ * the deadline fail the request with {@link ErrorCodes#EXTERNAL_SERVICE_ERROR} and are counted
+ * in {@code consent_pipeline_timeouts_total{stage}}.
+ */
+@Slf4j
+@Component
+public class ConsentPipeline {
+
+    private final Executor executor;
+    private final MeterRegistry meterRegistry;
+    private final long timeoutMs;
+    private final Map<String, Timer> stageTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> timeouts = new ConcurrentHashMap<>();
+
+    public ConsentPipeline(@Qualifier("consentPipelineExecutor") Executor executor,
+                           MeterRegistry meterRegistry,
+                           @Value("${consent.pipeline.timeout-ms:10000}") long timeoutMs) {
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Deadline for a group of stages started together; pass it to {@link #join}.
+     */
+    public long deadline() {
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+    }
+
+    public <T> CompletableFuture<T> submit(String stage, Callable<T> task) {
+        Timer timer = stageTimer(stage);
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                return task.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            } finally {
+                timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }, executor);
+    }
+
+    /**
+     * Wait for a stage until the group deadline. ConsentExceptions thrown by the stage are
+     * rethrown as is; other failures and timeouts become EXTERNAL_SERVICE_ERROR.
+     */
+    public <T> T join(CompletableFuture<T> future, String stage, long deadline) throws ConsentException {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            timeoutCounter(stage).increment();
+            log.error("Consent pipeline stage {} timed out after {} ms", stage, timeoutMs);
+            throw new ConsentException(ErrorCodes.EXTERNAL_SERVICE_ERROR,
+                    ErrorCodes.getDescription(ErrorCodes.EXTERNAL_SERVICE_ERROR),
+                    "Consent " + stage + " timed out after " + timeoutMs + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConsentException(ErrorCodes.INTERNAL_ERROR,
+                    ErrorCodes.getDescription(ErrorCodes.INTERNAL_ERROR),
+                    "Interrupted while waiting for consent " + stage);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException && e.getCause().getCause() != null
+                    ? e.getCause().getCause()
+                    : e.getCause();
+            if (cause instanceof ConsentException consentException) {
+                throw consentException;
+            }
+            throw new ConsentException(ErrorCodes.EXTERNAL_SERVICE_ERROR,
+                    ErrorCodes.getDescription(ErrorCodes.EXTERNAL_SERVICE_ERROR),
+                    "Consent " + stage + " failed: " + cause.getMessage());
+        }
+    }
+
+    private Timer stageTimer(String stage) {
+        return stageTimers.computeIfAbsent(stage, key -> Timer.builder("consent_pipeline_stage_seconds")
+                .description("Duration of a consent creation pipeline stage")
+                .tag("stage", key)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private Counter timeoutCounter(String stage) {
+        return timeouts.computeIfAbsent(stage, key -> Counter.builder("consent_pipeline_timeouts_total")
+                .description("Consent pipeline stages that missed their deadline")
+                .tag("stage", key)
+                .register(meterRegistry));
+    }
+}
@@ -1,13 +1,15 @@
 package com.example.scanner.service;
 
 import com.example.scanner.client.notification.NotificationManager;
-import com.example.scanner.config.MultiTenantMongoConfig;
+import com.example.scanner.config.TenantMongoTemplateRegistry;
+import com.example.scanner.config.TenantReadRouter;
 import com.example.scanner.config.TenantContext;
 import com.example.scanner.constants.AuditConstants;
 import com.example.scanner.constants.ErrorCodes;
 import com.example.scanner.dto.ConsentDetail;
 import com.example.scanner.dto.Preference;
 import com.example.scanner.dto.SignableConsent;
+import com.example.scanner.dto.request.BatchCheckConsentRequest;
 import com.example.scanner.dto.request.CreateConsentRequest;
 import com.example.scanner.dto.request.DashboardRequest;
 import com.example.scanner.dto.request.UpdateConsentRequest;
@@ -15,35 +17,37 @@ import com.example.scanner.dto.response.*;
 import com.example.scanner.entity.CookieConsent;
 import com.example.scanner.entity.CookieConsentHandle;
 import com.example.scanner.entity.ConsentTemplate;
-import com.example.scanner.entity.ScanResultEntity;
 import com.example.scanner.enums.*;
 import com.example.scanner.exception.ConsentException;
 import com.example.scanner.repository.ConsentHandleRepository;
 import com.example.scanner.repository.ConsentRepository;
+import com.example.scanner.util.ConsentSerializer;
 import com.example.scanner.util.ConsentUtil;
-import com.example.scanner.util.InstantTypeAdapter;
-import com.example.scanner.util.LocalDateTypeAdapter;
 import com.example.scanner.util.TokenUtility;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
@@ -54,12 +58,28 @@ public class ConsentService {
     private final ConsentHandleRepository consentHandleRepository;
     private final ConsentTemplateService templateService;
     private final TokenUtility tokenUtility;
+    private final ConsentSerializer consentSerializer;
     private final ConsentRepository consentRepository;
-    private final MultiTenantMongoConfig mongoConfig;
+    private final TenantMongoTemplateRegistry mongoTemplateRegistry;
+    private final TenantReadRouter readRouter;
+    private final ConsentStatusCache statusCache;
+    private final ConsentPipeline consentPipeline;
     private final AuditService auditService;
     private final VaultService vaultService;
+    private final VaultJwsVerifier vaultJwsVerifier;
     private final ObjectMapper objectMapper;
     private final NotificationManager notificationManager;
+    private final ConsentAnalyticsCounters consentAnalytics;
+
+    @Value("${consent.check.batch-max-size:100}")
+    private int checkBatchMaxSize;
+
+    @Value("${dashboard.page-size.default:100}")
+    private int dashboardDefaultPageSize;
+
+    @Value("${dashboard.page-size.max:1000}")
+    private int dashboardMaxPageSize;
+
     private static final String GENESIS_CHAIN = "0000000000000000000000000000000000000000000000000000000000000000";
 
     public ConsentCreateResponse createConsentByConsentHandleId(CreateConsentRequest request, String tenantId) throws Exception {
@@ -104,8 +124,7 @@ public class ConsentService {
 
         if (allNotAccepted) {
             log.info("All preferences are NOTACCEPTED - marking handle as REJECTED and not creating consent");
-            consentHandle.setStatus(ConsentHandleStatus.REJECTED);
-            consentHandleRepository.save(consentHandle, tenantId);
+            resolveHandle(consentHandle, ConsentHandleStatus.REJECTED, tenantId);
 
             log.info("Updated consent handle {} status to REJECTED", consentHandle.getConsentHandleId());
 
@@ -129,60 +148,33 @@ public class ConsentService {
         CookieConsent consent = buildNewConsent(consentHandle, template, processedPreferences,
                 request.getLanguagePreference());
 
-        // Generate JWT token
-        String consentToken = generateConsentToken(consent);
-        consent.setConsentJwtToken(consentToken);
         consent.setStaleStatus(StaleStatus.NOT_STALE);
 
-        SignableConsent signableConsent = toSignableConsent(consent);
+        // Serialize once; the canonical form is hashed, tokenized, encrypted and signed
+        ConsentSerializer.CanonicalConsent canonical = consentSerializer.serialize(toSignableConsent(consent));
+        String consentJsonStringHash = canonical.payloadHash();
+        consent.setPayloadHash(consentJsonStringHash);
 
-        // Convert SignableConsent to JSON
-        String signableJson;
-        try {
-            signableJson = objectMapper.writeValueAsString(signableConsent);
-            log.debug("Converted SignableConsent to JSON for signing");
-        } catch (Exception e) {
-            throw new ConsentException(ErrorCodes.INTERNAL_ERROR,
-                    ErrorCodes.getDescription(ErrorCodes.INTERNAL_ERROR),
-                    "Failed to convert signable consent to JSON: " + e.getMessage());
-        }
-
-        // Convert to JSON BEFORE encryption
-        String consentJsonString;
-        try {
-            consentJsonString = objectMapper.writeValueAsString(consent);
-            log.debug("Converted CookieConsent to JSON string");
-        } catch (Exception e) {
-            throw new ConsentException(ErrorCodes.INTERNAL_ERROR,
-                    ErrorCodes.getDescription(ErrorCodes.INTERNAL_ERROR),
-                    "Failed to convert consent to JSON: " + e.getMessage());
-        }
-
-        // Compute payload hash BEFORE encryption
-        String consentJsonStringHash = null;
-        try {
-            if (consentJsonString != null) {
-                consentJsonStringHash = ConsentUtil.computeSHA256Hash(consentJsonString);
-                consent.setPayloadHash(consentJsonStringHash);
-            }
-        } catch (Exception e) {
-            log.warn("Failed to compute payload hash");
-        }
+        // Generate JWT token
+        String consentToken = generateConsentToken(consent, canonical, tenantId);
+        consent.setConsentJwtToken(consentToken);
 
-        MongoTemplate mongoTemplate = mongoConfig.getMongoTemplateForTenant(tenantId);
+        MongoTemplate mongoTemplate = mongoTemplateRegistry.getMongoTemplateForTenant(tenantId);
 //        String previousChain = fetchLatestChain(mongoTemplate, CookieConsent.class);
 
 //        String chainedHash = ConsentUtil.computeSHA256Hash(previousChain + consentJsonStringHash);
         String chainedHash = ConsentUtil.computeSHA256Hash(GENESIS_CHAIN + consentJsonStringHash);
         consent.setCurrentChainHash(chainedHash);
 
-        // Encrypt (sets encryptionTime, encryptedReferenceId, encryptedString)
-        generateConsentEncryption(consent, tenantId);
-
-        String jwsToken = generateConsentSigning(signableJson, tenantId, consent.getBusinessId());
+        // Encrypt (sets encryptionTime, encryptedReferenceId, encryptedString) and sign concurrently
+        String jwsToken = encryptAndSign(consent, canonical.json(), tenantId);
 
-        // Save consent to database
-        consentRepository.saveToDatabase(consent, tenantId);
+        // Save consent and mark handle as USED together
+        boolean handleResolved = saveConsentAndMarkHandleUsed(consent, consentHandle, tenantId);
+        consentAnalytics.consentCreated(tenantId, consent);
+        if (handleResolved) {
+            consentAnalytics.handleResolved(tenantId, consentHandle);
+        }
 
         Map<String, Object> context4 = new HashMap<>();
         context4.put(AuditConstants.ACTION_CONSENT_ID, consent.getConsentId());
@@ -205,11 +197,6 @@ public class ConsentService {
                 consent.getConsentId()
         );
 
-        // Mark handle as USED
-        consentHandle.setStatus(ConsentHandleStatus.USED);
-        consentHandle.setUpdatedAt(Instant.now());
-        consentHandleRepository.save(consentHandle, tenantId);
-
         Map<String, Object> context5 = new HashMap<>();
         context5.put(AuditConstants.RESOURCE_CONSENT_HANDLE_ID, consentHandle.getConsentHandleId());
         auditService.logConsentHandleMarkedUsed(tenantId, consentHandle.getBusinessId(), consentHandle.getConsentHandleId(),
@@ -295,30 +282,15 @@ public class ConsentService {
         newVersion.setCreatedAt(Instant.now());
         newVersion.setUpdatedAt(Instant.now());
 
+        // Serialize once; the canonical form is hashed, tokenized and encrypted
+        ConsentSerializer.CanonicalConsent canonical = consentSerializer.serialize(toSignableConsent(newVersion));
+        String newPayloadHash = canonical.payloadHash();
+        newVersion.setPayloadHash(newPayloadHash);
+
         // Generate new JWT token
-        String consentToken = generateConsentToken(newVersion);
+        String consentToken = generateConsentToken(newVersion, canonical, tenantId);
         newVersion.setConsentJwtToken(consentToken);
 
-        // Convert to JSON BEFORE encryption
-        String consentJsonString;
-        try {
-            consentJsonString = objectMapper.writeValueAsString(newVersion);
-        } catch (Exception e) {
-            throw new ConsentException(ErrorCodes.INTERNAL_ERROR,
-                    ErrorCodes.getDescription(ErrorCodes.INTERNAL_ERROR),
-                    "Failed to convert consent to JSON: " + e.getMessage());
-        }
-
-        String newPayloadHash = null;
-        try {
-            if (consentJsonString != null) {
-                newPayloadHash = ConsentUtil.computeSHA256Hash(consentJsonString);
-            }
-        } catch (Exception e) {
-            log.warn("Failed to compute payload hash: {}", e.getMessage());
-        }
-
-        newVersion.setPayloadHash(newPayloadHash);
         String chainedHash = null;
         if (previousPayloadHash != null && newPayloadHash != null) {
             chainedHash = ConsentUtil.computeSHA256Hash(previousPayloadHash + newPayloadHash);
@@ -328,10 +300,11 @@ public class ConsentService {
         newVersion.setCurrentChainHash(chainedHash);
 
         // ENCRYPT
-        generateConsentEncryption(newVersion, tenantId);
+        generateConsentEncryption(newVersion, canonical.json(), tenantId);
 
         // Save new version
         consentRepository.saveToDatabase(newVersion, tenantId);
+        consentAnalytics.consentRevoked(tenantId, newVersion);
 
         Map<String, Object> context6 = new HashMap<>();
         context6.put(AuditConstants.ACTION_CONSENT_REVOKED, newVersion.getConsentId());
@@ -384,9 +357,7 @@ public class ConsentService {
         }
 
         // Mark handle as USED
-        consentHandle.setStatus(ConsentHandleStatus.USED);
-        consentHandle.setUpdatedAt(Instant.now());
-        consentHandleRepository.save(consentHandle, tenantId);
+        resolveHandle(consentHandle, ConsentHandleStatus.USED, tenantId);
 
         Map<String, Object> context7 = new HashMap<>();
         context7.put(AuditConstants.ACTION_CONSENT_HANDLE_MARKED_USED_AFTER_UPDATE, newVersion.getConsentId());
@@ -427,8 +398,7 @@ public class ConsentService {
 
             if (allNotAccepted) {
                 log.info("All preferences NOTACCEPTED in update - marking handle as REJECTED");
-                consentHandle.setStatus(ConsentHandleStatus.REJECTED);
-                consentHandleRepository.save(consentHandle, tenantId);
+                resolveHandle(consentHandle, ConsentHandleStatus.REJECTED, tenantId);
 
                 throw new ConsentException(
                         ErrorCodes.VALIDATION_ERROR,
@@ -466,35 +436,17 @@ public class ConsentService {
             newVersion.setStatus(determineConsentStatus(updatedPreferences));
         }
 
-        // Generate new JWT token
-        String consentToken = generateConsentToken(newVersion);
-        newVersion.setConsentJwtToken(consentToken);
         newVersion.setStaleStatus(StaleStatus.NOT_STALE);
 
-        SignableConsent signableConsent = toSignableConsent(newVersion);
-
-        // Convert SignableConsent to JSON for signing
-        String signableJson;
-        try {
-            signableJson = objectMapper.writeValueAsString(signableConsent);
-            log.debug("Converted SignableConsent to JSON for signing");
-        } catch (Exception e) {
-            throw new ConsentException(ErrorCodes.INTERNAL_ERROR,
-                    ErrorCodes.getDescription(ErrorCodes.INTERNAL_ERROR),
-                    "Failed to convert signable consent to JSON: " + e.getMessage());
-        }
-
-        String newPayloadHash = null;
-        try {
-            if (signableJson != null) {
-                newPayloadHash = ConsentUtil.computeSHA256Hash(signableJson);
-            }
-        } catch (Exception e) {
-            log.warn("Failed to compute payload hash: {}", e.getMessage());
-        }
-
+        // Serialize once; the canonical form is hashed, tokenized, encrypted and signed
+        ConsentSerializer.CanonicalConsent canonical = consentSerializer.serialize(toSignableConsent(newVersion));
+        String newPayloadHash = canonical.payloadHash();
         newVersion.setPayloadHash(newPayloadHash);
 
+        // Generate new JWT token
+        String consentToken = generateConsentToken(newVersion, canonical, tenantId);
+        newVersion.setConsentJwtToken(consentToken);
+
         // CHAIN HASH: Combine previous hash + new hash
         String chainedHash = null;
         if (previousPayloadHash != null && newPayloadHash != null) {
@@ -504,14 +456,13 @@ public class ConsentService {
         }
         newVersion.setCurrentChainHash(chainedHash);
 
-        // ENCRYPT (sets encryptionTime, encryptedReferenceId, encryptedString)
-        generateConsentEncryption(newVersion, tenantId);
-
-        // SIGN using SignableConsent JSON (without encryption fields)
-        String jwsToken = generateConsentSigning(signableJson, tenantId, newVersion.getBusinessId());
+        // ENCRYPT (sets encryptionTime, encryptedReferenceId, encryptedString) and SIGN using
+        // SignableConsent JSON (without encryption fields) concurrently
+        String jwsToken = encryptAndSign(newVersion, canonical.json(), tenantId);
 
         // Save new version
         consentRepository.saveToDatabase(newVersion, tenantId);
+        consentAnalytics.consentUpdated(tenantId, newVersion);
         Map<String, Object> context5 = new HashMap<>();
         context5.put(AuditConstants.RESOURCE_CONSENT, newVersion.getConsentId());
         auditService.logNewConsentVersionCreated(tenantId, null, newVersion.getConsentId()
@@ -961,157 +912,113 @@ public class ConsentService {
         return Status.ACTIVE;
     }
 
-    private String generateConsentToken(CookieConsent consent) throws Exception {
-        Gson gson = new GsonBuilder()
-                .registerTypeAdapter(LocalDateTime.class, new LocalDateTypeAdapter())
-                .registerTypeAdapter(Instant.class, new InstantTypeAdapter())
-                .create();
-
-        String json = gson.toJson(consent);
+    private String generateConsentToken(CookieConsent consent, ConsentSerializer.CanonicalConsent canonical,
+                                        String tenantId) throws Exception {
         Date expiry = Date.from(consent.getEndDate().atZone(ZoneId.systemDefault()).toInstant());
 
-        return tokenUtility.generateToken(json, expiry);
+        return tokenUtility.generateConsentToken(tenantId, canonical, consent.getConsentId(), consent.getVersion(),
+                consent.getStatus() != null ? consent.getStatus().name() : null, expiry);
     }
 
     //-----------------------------------Get DASHBOARD data-------------------------------
 
+    /**
+     * Dashboard rows per template version: consents (newest first, each joined with its handle
+     * status in the same aggregation), then handles that never produced a consent. Each template
+     * returns at most one page; {@code nextCursor} continues that template, and a request with a
+     * cursor reads only the template it was issued for.
+     */
     public List<DashboardTemplateResponse> getDashboardDataGroupedByTemplate(
             String tenantId, DashboardRequest request) throws ConsentException {
 
         log.info("Processing dashboard request");
 
+        DashboardCursor cursor = DashboardCursor.decode(request.getCursor());
+        int pageSize = request.getLimit() != null
+                ? Math.max(1, Math.min(request.getLimit(), dashboardMaxPageSize))
+                : dashboardDefaultPageSize;
+
         TenantContext.setCurrentTenant(tenantId);
-        MongoTemplate mongoTemplate = mongoConfig.getMongoTemplateForTenant(tenantId);
+        // Read-only analytics: may be served by a secondary within the staleness bound
+        MongoTemplate mongoTemplate = readRouter.templateFor(tenantId, TenantReadRouter.ReadClass.DASHBOARD);
 
         try {
-            List<ConsentTemplate> templates;
-
-            if (StringUtils.hasText(request.getTemplateID())) {
-                Query templateQuery = new Query(
-                        Criteria.where("templateId").is(request.getTemplateID())
-                );
+            Query templateQuery = new Query();
+            if (cursor != null) {
+                templateQuery.addCriteria(Criteria.where("templateId").is(cursor.templateId)
+                        .and("version").is(cursor.templateVersion));
+            } else if (StringUtils.hasText(request.getTemplateID())) {
+                templateQuery.addCriteria(Criteria.where("templateId").is(request.getTemplateID()));
 
                 if (request.getVersion() != null) {
                     templateQuery.addCriteria(
                             Criteria.where("version").is(request.getVersion())
                     );
                 }
+            }
+            if (StringUtils.hasText(request.getScanID())) {
+                templateQuery.addCriteria(Criteria.where("scanId").is(request.getScanID()));
+            }
+            templateQuery.fields().include("templateId", "version", "scanId", "templateStatus", "preferences.purpose");
 
-                templates = mongoTemplate.find(templateQuery, ConsentTemplate.class);
+            List<ConsentTemplate> templates = mongoTemplate.find(templateQuery, ConsentTemplate.class);
 
-            } else {
-                templates = mongoTemplate.find(new Query(), ConsentTemplate.class);
-            }
+            // One query for the scanned site and subdomain names of all templates
+            Map<String, Document> scans = findDashboardScans(mongoTemplate, templates);
 
-            // For each template, fetch consents and build response
             List<DashboardTemplateResponse> responses = new ArrayList<>();
 
             for (ConsentTemplate template : templates) {
-                // Apply scanId filter if provided
-                if (StringUtils.hasText(request.getScanID()) &&
-                        !request.getScanID().equals(template.getScanId())) {
-                    continue;
-                }
-
-                // Fetch scan results for this template
-                ScanResultEntity scanResult = null;
-                String scannedSite = null;
-                List<String> subDomains = null;
-
-                if (template.getScanId() != null) {
-                    Query scanQuery = new Query(
-                            Criteria.where("transactionId").is(template.getScanId())
-                    );
-                    scanResult = mongoTemplate.findOne(scanQuery, ScanResultEntity.class);
-
-                    if (scanResult != null) {
-                        scannedSite = scanResult.getUrl();
-                        if (scanResult.getCookiesBySubdomain() != null) {
-                            subDomains = scanResult.getCookiesBySubdomain().keySet().stream().toList();
-                        }
+                Document scan = template.getScanId() != null ? scans.get(template.getScanId()) : null;
+
+                List<String> templatePreferences = template.getPreferences() == null
+                        ? Collections.emptyList()
+                        : template.getPreferences().stream()
+                                .map(Preference::getPurpose)
+                                .collect(Collectors.toList());
+
+                List<ConsentDetail> details = new ArrayList<>();
+                String nextCursor = null;
+
+                // ========== STEP 1: Consents with their handle status ==========
+                if (cursor == null || cursor.phase == DashboardCursor.Phase.CONSENTS) {
+                    List<Document> consents = findDashboardConsents(mongoTemplate, template, request, cursor, pageSize);
+                    for (Document consent : consents.subList(0, Math.min(consents.size(), pageSize))) {
+                        details.add(toConsentDetail(consent, templatePreferences, mongoTemplate));
+                    }
+                    if (consents.size() > pageSize) {
+                        Document last = consents.get(pageSize - 1);
+                        nextCursor = DashboardCursor.encode(template, DashboardCursor.Phase.CONSENTS,
+                                last.getDate("createdAt"), last.get("_id"));
                     }
                 }
 
-                // ========== STEP 1: Fetch Consents (Existing Logic) ==========
-                Criteria consentCriteria = Criteria.where("templateId").is(template.getTemplateId())
-                        .and("templateVersion").is(template.getVersion());
-
-                if (request.getStartDate() != null) {
-                    consentCriteria.and("startDate").gte(request.getStartDate());
-                }
-
-                if (request.getEndDate() != null) {
-                    consentCriteria.and("endDate").lte(request.getEndDate());
-                }
-
-                Query consentQuery = new Query(consentCriteria);
-                consentQuery.with(Sort.by(Sort.Direction.DESC, "createdAt"));
-
-                List<CookieConsent> consents = mongoTemplate.find(consentQuery, CookieConsent.class);
-
-                // Map consents to ConsentDetail objects
-                List<ConsentDetail> consentDetails = consents.stream()
-                        .map(consent -> mapToConsentDetail(consent, template, mongoTemplate))
-                        .filter(Objects::nonNull)
-                        .collect(Collectors.toList());
-
-                // ========== STEP 2: NEW - Fetch Handles WITHOUT Consents ==========
-                // Get all consent handles for this template that are REJECTED, EXPIRED, or PENDING
-                Criteria handleCriteria = Criteria.where("templateId").is(template.getTemplateId())
-                        .and("templateVersion").is(template.getVersion())
-                        .and("status").in(
-                                ConsentHandleStatus.REJECTED,
-                                ConsentHandleStatus.REQ_EXPIRED,
-                                ConsentHandleStatus.PENDING
-                        );
-
-                if (request.getStartDate() != null && request.getEndDate() != null) {
-                    handleCriteria.and("createdAt")
-                            .gte(request.getStartDate().atZone(ZoneId.systemDefault()).toInstant())
-                            .lte(request.getEndDate().atZone(ZoneId.systemDefault()).toInstant());
-                } else if (request.getStartDate() != null) {
-                    handleCriteria.and("createdAt")
-                            .gte(request.getStartDate().atZone(ZoneId.systemDefault()).toInstant());
-                } else if (request.getEndDate() != null) {
-                    handleCriteria.and("createdAt")
-                            .lte(request.getEndDate().atZone(ZoneId.systemDefault()).toInstant());
+                // ========== STEP 2: Handles WITHOUT Consents (REJECTED/EXPIRED/PENDING) ==========
+                if (nextCursor == null) {
+                    DashboardCursor after = cursor != null && cursor.phase == DashboardCursor.Phase.HANDLES ? cursor : null;
+                    int remaining = pageSize - details.size();
+                    // With no room left the query only checks whether a handle page follows
+                    List<CookieConsentHandle> handles = findDashboardHandles(mongoTemplate, template, request, after,
+                            remaining);
+                    for (CookieConsentHandle handle : handles.subList(0, Math.min(handles.size(), remaining))) {
+                        details.add(toConsentDetail(handle, templatePreferences));
+                    }
+                    if (handles.size() > remaining) {
+                        CookieConsentHandle last = remaining > 0 ? handles.get(remaining - 1) : null;
+                        nextCursor = DashboardCursor.encode(template, DashboardCursor.Phase.HANDLES,
+                                last != null ? Date.from(last.getCreatedAt()) : null,
+                                last != null ? last.getId() : null);
+                    }
                 }
 
-                Query handleQuery = new Query(handleCriteria);
-                handleQuery.with(Sort.by(Sort.Direction.DESC, "createdAt"));
-
-                List<CookieConsentHandle> orphanHandles = mongoTemplate.find(handleQuery, CookieConsentHandle.class);
-
-                // Map orphan handles to ConsentDetail objects
-                List<ConsentDetail> handleDetails = orphanHandles.stream()
-                        .map(handle -> mapHandleToConsentDetail(handle, template))
-                        .filter(Objects::nonNull)
-                        .collect(Collectors.toList());
-
-                // ========== STEP 3: Combine Both Lists ==========
-                List<ConsentDetail> allDetails = new ArrayList<>();
-                allDetails.addAll(consentDetails);     // Consents with USED handles
-                allDetails.addAll(handleDetails);      // Orphan handles (REJECTED/EXPIRED/PENDING)
-
-                // Sort by creation time (most recent first)
-                allDetails.sort((a, b) -> {
-                    // Get creation time from consent or handle
-                    // Since we don't have createdAt in ConsentDetail, sort by consentVersion desc
-                    // Handles will have null version, so they'll come after
-                    if (a.getConsentVersion() == null && b.getConsentVersion() == null) return 0;
-                    if (a.getConsentVersion() == null) return 1;
-                    if (b.getConsentVersion() == null) return -1;
-                    return b.getConsentVersion().compareTo(a.getConsentVersion());
-                });
-
-                // Build template response
                 DashboardTemplateResponse templateResponse = DashboardTemplateResponse.builder()
                         .templateId(template.getTemplateId())
                         .status(template.getTemplateStatus())
-                        .scannedSites(scannedSite)
-                        .scannedSubDomains(subDomains)
+                        .scannedSites(scan != null ? scan.getString("url") : null)
+                        .scannedSubDomains(scan != null ? scan.getList("subDomains", String.class) : null)
                         .scanId(template.getScanId())
-                        .consents(allDetails)  // Contains both consents AND orphan handles
+                        .consents(details)  // Contains both consents AND orphan handles
+                        .nextCursor(nextCursor)
                         .build();
 
                 responses.add(templateResponse);
@@ -1131,72 +1038,223 @@ public class ConsentService {
         }
     }
 
-    private ConsentDetail mapHandleToConsentDetail(CookieConsentHandle handle, ConsentTemplate template) {
-        try {
-            // Get all template preference names
-            List<String> templatePreferences = template.getPreferences().stream()
-                    .map(Preference::getPurpose)
-                    .collect(Collectors.toList());
-
-            return ConsentDetail.builder()
-                    .consentID(null)  // No consent created
-                    .consentHandle(handle.getConsentHandleId())
-                    .templateVersion(handle.getTemplateVersion())
-                    .consentVersion(null)  // No consent version
-                    .templatePreferences(templatePreferences)
-                    .userSelectedPreference(Collections.emptyList())  // User didn't select anything OR rejected all
-                    .consentStatus(null)  // No consent = no consent status
-                    .consentHandleStatus(handle.getStatus().toString())  // REJECTED/EXPIRED/PENDING
-                    .customerIdentifier(handle.getCustomerIdentifiers())
-                    .build();
+    /**
+     * Scan URL and subdomain names per scan ID. The per-subdomain cookie lists are not read.
+     */
+    private Map<String, Document> findDashboardScans(MongoTemplate mongoTemplate, List<ConsentTemplate> templates) {
+        Set<String> scanIds = templates.stream()
+                .map(ConsentTemplate::getScanId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (scanIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
 
-        } catch (Exception e) {
-            log.error("Error mapping handle to detail");
-            return null;
+        AggregationOperation projectScan = context -> new Document("$project", new Document("transactionId", 1)
+                .append("url", 1)
+                .append("subDomains", new Document("$map", new Document("input",
+                        new Document("$objectToArray", "$cookiesBySubdomain"))
+                        .append("in", "$$this.k"))));
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("transactionId").in(scanIds)),
+                projectScan);
+
+        Map<String, Document> scans = new HashMap<>();
+        for (Document scan : mongoTemplate.aggregate(aggregation, "cookie_scan_results", Document.class)) {
+            scans.putIfAbsent(scan.getString("transactionId"), scan);
         }
+        return scans;
     }
 
-    private ConsentDetail mapToConsentDetail(CookieConsent consent, ConsentTemplate template,
-                                             MongoTemplate mongoTemplate) {
-        try {
-            // Fetch consent handle
-            Query handleQuery = new Query(
-                    Criteria.where("consentHandleId").is(consent.getConsentHandleId())
-            );
-            CookieConsentHandle handle = mongoTemplate.findOne(handleQuery, CookieConsentHandle.class);
-
-            // Get all template preference names
-            List<String> templatePreferences = template.getPreferences().stream()
-                    .map(Preference::getPurpose)
-                    .collect(Collectors.toList());
-
-            List<String> userAccepted = consent.getPreferences().stream()
-                    .filter(pref -> pref.getPreferenceStatus() == PreferenceStatus.ACCEPTED)
-                    .map(Preference::getPurpose)
-                    .collect(Collectors.toList());
-
-            Instant lastUpdated = consent.getUpdatedAt() != null &&
-                    consent.getCreatedAt() != null &&
-                    consent.getUpdatedAt().isAfter(consent.getCreatedAt())
-                    ? consent.getUpdatedAt()
-                    : consent.getCreatedAt();
-
-            return ConsentDetail.builder()
-                    .consentID(consent.getConsentId())
-                    .consentHandle(consent.getConsentHandleId())
-                    .templateVersion(consent.getTemplateVersion())
-                    .consentVersion(consent.getVersion())
-                    .templatePreferences(templatePreferences)
-                    .userSelectedPreference(userAccepted)
-                    .consentStatus(consent.getStatus().toString())
-                    .consentHandleStatus(handle.getStatus().toString())
-                    .customerIdentifier(consent.getCustomerIdentifiers())
-                    .lastUpdated(lastUpdated)
-                    .build();
+    /**
+     * One page of a template version's consents, newest first, with the status of each consent's
+     * handle joined in by {@code $lookup}. Reads {@code pageSize + 1} rows to detect a next page.
+     */
+    private List<Document> findDashboardConsents(MongoTemplate mongoTemplate, ConsentTemplate template,
+                                                 DashboardRequest request, DashboardCursor after, int pageSize) {
+        Criteria consentCriteria = Criteria.where("templateId").is(template.getTemplateId())
+                .and("templateVersion").is(template.getVersion());
 
-        } catch (Exception e) {
-            log.error("Error mapping consent");
-            return null;
+        if (request.getStartDate() != null) {
+            consentCriteria.and("startDate").gte(request.getStartDate());
+        }
+
+        if (request.getEndDate() != null) {
+            consentCriteria.and("endDate").lte(request.getEndDate());
+        }
+
+        if (after != null) {
+            consentCriteria.orOperator(after.keysetCriteria());
+        }
+
+        Document handleMatch = new Document("$expr", new Document("$eq", List.of("$consentHandleId", "$$handleId")));
+        AggregationOperation lookupHandle = context -> new Document("$lookup", new Document("from", "cookie_consent_handles")
+                .append("let", new Document("handleId", "$consentHandleId"))
+                .append("pipeline", List.of(
+                        new Document("$match", handleMatch),
+                        new Document("$limit", 1),
+                        new Document("$project", new Document("_id", 0).append("status", 1))))
+                .append("as", "handle"));
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(consentCriteria),
+                Aggregation.sort(Sort.by(Sort.Direction.DESC, "createdAt", "_id")),
+                Aggregation.limit(pageSize + 1L),
+                Aggregation.project("consentId", "consentHandleId", "templateVersion", "version", "status",
+                        "customerIdentifiers", "preferences", "createdAt", "updatedAt"),
+                lookupHandle);
+
+        return mongoTemplate.aggregate(aggregation, "cookie_consents", Document.class).getMappedResults();
+    }
+
+    /**
+     * One page of the template version's REJECTED, EXPIRED and PENDING handles, newest first.
+     * Reads {@code pageSize + 1} rows to detect a next page.
+     */
+    private List<CookieConsentHandle> findDashboardHandles(MongoTemplate mongoTemplate, ConsentTemplate template,
+                                                           DashboardRequest request, DashboardCursor after,
+                                                           int pageSize) {
+        Criteria handleCriteria = Criteria.where("templateId").is(template.getTemplateId())
+                .and("templateVersion").is(template.getVersion())
+                .and("status").in(
+                        ConsentHandleStatus.REJECTED,
+                        ConsentHandleStatus.REQ_EXPIRED,
+                        ConsentHandleStatus.PENDING
+                );
+
+        if (request.getStartDate() != null && request.getEndDate() != null) {
+            handleCriteria.and("createdAt")
+                    .gte(request.getStartDate().atZone(ZoneId.systemDefault()).toInstant())
+                    .lte(request.getEndDate().atZone(ZoneId.systemDefault()).toInstant());
+        } else if (request.getStartDate() != null) {
+            handleCriteria.and("createdAt")
+                    .gte(request.getStartDate().atZone(ZoneId.systemDefault()).toInstant());
+        } else if (request.getEndDate() != null) {
+            handleCriteria.and("createdAt")
+                    .lte(request.getEndDate().atZone(ZoneId.systemDefault()).toInstant());
+        }
+
+        Query handleQuery = new Query(handleCriteria);
+        if (after != null && after.createdAt != null) {
+            handleQuery.addCriteria(new Criteria().orOperator(after.keysetCriteria()));
+        }
+        handleQuery.with(Sort.by(Sort.Direction.DESC, "createdAt", "_id"));
+        handleQuery.limit(pageSize + 1);
+        handleQuery.fields().include("consentHandleId", "templateVersion", "status", "customerIdentifiers", "createdAt");
+
+        return mongoTemplate.find(handleQuery, CookieConsentHandle.class);
+    }
+
+    private ConsentDetail toConsentDetail(CookieConsentHandle handle, List<String> templatePreferences) {
+        return ConsentDetail.builder()
+                .consentID(null)  // No consent created
+                .consentHandle(handle.getConsentHandleId())
+                .templateVersion(handle.getTemplateVersion())
+                .consentVersion(null)  // No consent version
+                .templatePreferences(templatePreferences)
+                .userSelectedPreference(Collections.emptyList())  // User didn't select anything OR rejected all
+                .consentStatus(null)  // No consent = no consent status
+                .consentHandleStatus(handle.getStatus() != null ? handle.getStatus().toString() : null)  // REJECTED/EXPIRED/PENDING
+                .customerIdentifier(handle.getCustomerIdentifiers())
+                .build();
+    }
+
+    private ConsentDetail toConsentDetail(Document row, List<String> templatePreferences, MongoTemplate mongoTemplate) {
+        CookieConsent consent = mongoTemplate.getConverter().read(CookieConsent.class, row);
+
+        List<Document> handle = row.getList("handle", Document.class);
+        String handleStatus = handle != null && !handle.isEmpty() ? handle.get(0).getString("status") : null;
+
+        List<String> userAccepted = consent.getPreferences() == null
+                ? Collections.emptyList()
+                : consent.getPreferences().stream()
+                        .filter(pref -> pref.getPreferenceStatus() == PreferenceStatus.ACCEPTED)
+                        .map(Preference::getPurpose)
+                        .collect(Collectors.toList());
+
+        Instant lastUpdated = consent.getUpdatedAt() != null &&
+                consent.getCreatedAt() != null &&
+                consent.getUpdatedAt().isAfter(consent.getCreatedAt())
+                ? consent.getUpdatedAt()
+                : consent.getCreatedAt();
+
+        return ConsentDetail.builder()
+                .consentID(consent.getConsentId())
+                .consentHandle(consent.getConsentHandleId())
+                .templateVersion(consent.getTemplateVersion())
+                .consentVersion(consent.getVersion())
+                .templatePreferences(templatePreferences)
+                .userSelectedPreference(userAccepted)
+                .consentStatus(consent.getStatus() != null ? consent.getStatus().toString() : null)
+                .consentHandleStatus(handleStatus)
+                .customerIdentifier(consent.getCustomerIdentifiers())
+                .lastUpdated(lastUpdated)
+                .build();
+    }
+
+    /**
+     * Position in one template version's dashboard rows: the phase (consents, then orphan
+     * handles) and the (createdAt, _id) of the last row returned. Opaque to clients.
+     */
+    static final class DashboardCursor {
+
+        enum Phase { CONSENTS, HANDLES }
+
+        final String templateId;
+        final Integer templateVersion;
+        final Phase phase;
+        final Date createdAt;
+        final Object id;
+
+        private DashboardCursor(String templateId, Integer templateVersion, Phase phase, Date createdAt, Object id) {
+            this.templateId = templateId;
+            this.templateVersion = templateVersion;
+            this.phase = phase;
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+
+        /**
+         * Rows strictly after this position in (createdAt desc, _id desc) order.
+         */
+        Criteria[] keysetCriteria() {
+            return new Criteria[] {
+                    Criteria.where("createdAt").lt(createdAt),
+                    Criteria.where("createdAt").is(createdAt).and("_id").lt(id)
+            };
+        }
+
+        static String encode(ConsentTemplate template, Phase phase, Date createdAt, Object id) {
+            String raw = String.join("|", template.getTemplateId(), String.valueOf(template.getVersion()), phase.name(),
+                    createdAt != null ? String.valueOf(createdAt.getTime()) : "",
+                    id != null ? id.toString() : "");
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static DashboardCursor decode(String cursor) throws ConsentException {
+            if (!StringUtils.hasText(cursor)) {
+                return null;
+            }
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                        .split("\\|", -1);
+                if (parts.length != 5) {
+                    throw new IllegalArgumentException("expected 5 fields");
+                }
+                Phase phase = Phase.valueOf(parts[2]);
+                Date createdAt = parts[3].isEmpty() ? null : new Date(Long.parseLong(parts[3]));
+                Object id = parts[4].isEmpty() ? null : ObjectId.isValid(parts[4]) ? new ObjectId(parts[4]) : parts[4];
+                if (phase == Phase.CONSENTS && createdAt == null) {
+                    throw new IllegalArgumentException("missing position");
+                }
+                return new DashboardCursor(parts[0], Integer.valueOf(parts[1]), phase, createdAt, id);
+            } catch (IllegalArgumentException e) {
+                throw new ConsentException(
+                        ErrorCodes.VALIDATION_ERROR,
+                        ErrorCodes.getDescription(ErrorCodes.VALIDATION_ERROR),
+                        "Invalid dashboard cursor: " + e.getMessage()
+                );
+            }
         }
     }
 
@@ -1210,76 +1268,287 @@ public class ConsentService {
         TenantContext.setCurrentTenant(tenantId);
 
         try {
-            MongoTemplate mongoTemplate = mongoConfig.getMongoTemplateForTenant(TenantContext.getCurrentTenant());
             if (consentId != null && !consentId.isEmpty()) {
-                Query handleQuery = new Query(
-                        Criteria.where("consentId").is(consentId)
-                ).with(Sort.by(Sort.Direction.DESC, "version")).limit(1);
+                CheckConsentResponse cached = statusCache.getByConsentId(tenantId, consentId);
+                if (cached != null) {
+                    return cached;
+                }
+            } else {
+                if (!statusCache.isKnownDevice(tenantId, deviceId)) {
+                    return noRecord();
+                }
+                CheckConsentResponse cached = statusCache.getByDevice(tenantId, deviceId, url);
+                if (cached != null) {
+                    return cached;
+                }
+            }
 
-                CookieConsent consent = mongoTemplate.findOne(handleQuery, CookieConsent.class);
+            // Taken before the read so that a concurrent write is not overwritten by a stale status
+            long cacheGeneration = statusCache.generation(tenantId);
+            CheckConsentResponse response = readConsentStatus(deviceId, url, consentId);
+            if (consentId != null && !consentId.isEmpty()) {
+                statusCache.putByConsentId(tenantId, consentId, response, cacheGeneration);
+            } else {
+                statusCache.putByDevice(tenantId, deviceId, url, response, cacheGeneration);
+            }
+            return response;
 
-                if (consent == null) {
-                    return CheckConsentResponse.builder()
-                            .consentStatus("No_Record")
-                            .consentHandleId("No_Record")
-                            .build();
-                }
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid input parameters");
+            throw e;
+        } catch (Exception e) {
+            log.error("Failed to retrieve consent status");
+            throw new RuntimeException("Failed to retrieve consent status", e);
+        }finally {
+            TenantContext.clear();
+        }
+    }
+
+    private CheckConsentResponse readConsentStatus(String deviceId, String url, String consentId) {
+        // Read-your-writes right after consent creation: stays on the primary
+        MongoTemplate mongoTemplate = mongoTemplateRegistry.getMongoTemplateForTenant(TenantContext.getCurrentTenant());
+        if (consentId != null && !consentId.isEmpty()) {
+            Query handleQuery = new Query(
+                    Criteria.where("consentId").is(consentId)
+            ).with(Sort.by(Sort.Direction.DESC, "version")).limit(1);
+
+            CookieConsent consent = mongoTemplate.findOne(handleQuery, CookieConsent.class);
+
+            if (consent == null) {
+                return noRecord();
+            }
+
+            return CheckConsentResponse.builder()
+                    .consentStatus(consent.getStatus().toString())
+                    .consentHandleId(consent.getConsentHandleId())
+                    .build();
+        }
+        // Case 2: DeviceId and URL provided - find consent handle first
+        Query handleQuery = new Query();
+        handleQuery.addCriteria(Criteria.where("customerIdentifiers.value").is(deviceId));
+        handleQuery.addCriteria(Criteria.where("url").is(url));
+        handleQuery.with(Sort.by(Sort.Direction.DESC, "createdAt")); // Latest first
+        handleQuery.limit(1);
+
+        CookieConsentHandle latestHandle = mongoTemplate.findOne(handleQuery, CookieConsentHandle.class);
 
+        if (latestHandle == null) {
+            return noRecord();
+        }
+
+        if(latestHandle.getStatus().equals(ConsentHandleStatus.USED)){
+            Query consentQuery = new Query(Criteria.where("consentHandleId").is(latestHandle.getConsentHandleId()))
+                    .with(Sort.by(Sort.Direction.DESC, "version")).limit(1);;
+            CookieConsent consent = mongoTemplate.findOne(consentQuery, CookieConsent.class);
+
+            if (consent != null) {
                 return CheckConsentResponse.builder()
                         .consentStatus(consent.getStatus().toString())
-                        .consentHandleId(consent.getConsentHandleId())
+                        .consentHandleId(latestHandle.getConsentHandleId())
                         .build();
             }
-            // Case 2: DeviceId and URL provided - find consent handle first
-            Query handleQuery = new Query();
-            handleQuery.addCriteria(Criteria.where("customerIdentifiers.value").is(deviceId));
-            handleQuery.addCriteria(Criteria.where("url").is(url));
-            handleQuery.with(Sort.by(Sort.Direction.DESC, "createdAt")); // Latest first
-            handleQuery.limit(1);
+        }
 
-            CookieConsentHandle latestHandle = mongoTemplate.findOne(handleQuery, CookieConsentHandle.class);
+        return CheckConsentResponse.builder()
+                .consentStatus(latestHandle.getStatus().toString())
+                .consentHandleId(latestHandle.getConsentHandleId())
+                .build();
+    }
 
-            if (latestHandle == null) {
-                return CheckConsentResponse.builder()
-                        .consentStatus("No_Record")
-                        .consentHandleId("No_Record")
-                        .build();
+    /**
+     * Resolve several status checks for one tenant with the same semantics as
+     * {@link #getConsentStatus(String, String, String, String)}. Cache misses are answered by one
+     * aggregation over consent handles and one over consents instead of up to two finds per check.
+     * Results are returned in request order.
+     */
+    public List<CheckConsentResponse> getConsentStatuses(List<BatchCheckConsentRequest.ConsentCheck> checks,
+                                                         String tenantId) {
+        if (checks == null || checks.isEmpty()) {
+            throw new IllegalArgumentException("At least one check is required");
+        }
+        if (checks.size() > checkBatchMaxSize) {
+            throw new IllegalArgumentException("At most " + checkBatchMaxSize + " checks are allowed per batch");
+        }
+        for (int i = 0; i < checks.size(); i++) {
+            BatchCheckConsentRequest.ConsentCheck check = checks.get(i);
+            if (check == null || !StringUtils.hasText(check.getDeviceId()) || !StringUtils.hasText(check.getUrl())) {
+                throw new IllegalArgumentException("Device ID and URL are required for check " + i);
+            }
+        }
+        TenantContext.setCurrentTenant(tenantId);
+
+        try {
+            CheckConsentResponse[] results = new CheckConsentResponse[checks.size()];
+            Set<String> consentIds = new HashSet<>();
+            Set<String> deviceIds = new HashSet<>();
+            Set<String> urls = new HashSet<>();
+
+            // Filter misses of the whole batch are confirmed with one query
+            Set<String> unknownDevices = statusCache.findUnknownDevices(tenantId, checks.stream()
+                    .filter(check -> !StringUtils.hasLength(check.getConsentId()))
+                    .map(BatchCheckConsentRequest.ConsentCheck::getDeviceId)
+                    .collect(Collectors.toSet()));
+
+            for (int i = 0; i < checks.size(); i++) {
+                BatchCheckConsentRequest.ConsentCheck check = checks.get(i);
+                if (StringUtils.hasLength(check.getConsentId())) {
+                    results[i] = statusCache.getByConsentId(tenantId, check.getConsentId());
+                    if (results[i] == null) {
+                        consentIds.add(check.getConsentId());
+                    }
+                } else if (unknownDevices.contains(check.getDeviceId())) {
+                    results[i] = noRecord();
+                } else {
+                    results[i] = statusCache.getByDevice(tenantId, check.getDeviceId(), check.getUrl());
+                    if (results[i] == null) {
+                        deviceIds.add(check.getDeviceId());
+                        urls.add(check.getUrl());
+                    }
+                }
             }
 
-            if(latestHandle.getStatus().equals(ConsentHandleStatus.USED)){
-                Query consentQuery = new Query(Criteria.where("consentHandleId").is(latestHandle.getConsentHandleId()))
-                        .with(Sort.by(Sort.Direction.DESC, "version")).limit(1);;
-                CookieConsent consent = mongoTemplate.findOne(consentQuery, CookieConsent.class);
+            if (consentIds.isEmpty() && deviceIds.isEmpty()) {
+                return Arrays.asList(results);
+            }
 
-                if (consent != null) {
-                    return CheckConsentResponse.builder()
-                            .consentStatus(consent.getStatus().toString())
-                            .consentHandleId(latestHandle.getConsentHandleId())
-                            .build();
+            // Read-your-writes as in the single check: stays on the primary
+            long cacheGeneration = statusCache.generation(tenantId);
+            MongoTemplate mongoTemplate = mongoTemplateRegistry.getMongoTemplateForTenant(tenantId);
+
+            Map<String, Document> latestHandles = deviceIds.isEmpty()
+                    ? Map.of()
+                    : findLatestHandles(mongoTemplate, deviceIds, urls);
+            Set<String> usedHandleIds = latestHandles.values().stream()
+                    .filter(handle -> ConsentHandleStatus.USED.name().equals(handle.getString("status")))
+                    .map(handle -> handle.getString("consentHandleId"))
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+
+            Map<String, Document> consentsById = new HashMap<>();
+            Map<String, Document> consentsByHandleId = new HashMap<>();
+            if (!consentIds.isEmpty() || !usedHandleIds.isEmpty()) {
+                for (Document consent : findLatestConsents(mongoTemplate, consentIds, usedHandleIds)) {
+                    consentsById.put(consent.getString("_id"), consent);
+                    String consentHandleId = consent.getString("consentHandleId");
+                    if (usedHandleIds.contains(consentHandleId)) {
+                        consentsByHandleId.merge(consentHandleId, consent,
+                                (current, candidate) -> version(candidate) > version(current) ? candidate : current);
+                    }
                 }
             }
 
-                return CheckConsentResponse.builder()
-                        .consentStatus(latestHandle.getStatus().toString())
-                        .consentHandleId(latestHandle.getConsentHandleId())
-                        .build();
+            for (int i = 0; i < checks.size(); i++) {
+                if (results[i] != null) {
+                    continue;
+                }
+                BatchCheckConsentRequest.ConsentCheck check = checks.get(i);
+                if (StringUtils.hasLength(check.getConsentId())) {
+                    Document consent = consentsById.get(check.getConsentId());
+                    results[i] = consent == null
+                            ? noRecord()
+                            : CheckConsentResponse.builder()
+                                    .consentStatus(consent.getString("status"))
+                                    .consentHandleId(consent.getString("consentHandleId"))
+                                    .build();
+                    statusCache.putByConsentId(tenantId, check.getConsentId(), results[i], cacheGeneration);
+                } else {
+                    Document handle = latestHandles.get(check.getDeviceId() + "|" + check.getUrl());
+                    results[i] = handle == null
+                            ? noRecord()
+                            : statusFromHandle(handle, consentsByHandleId.get(handle.getString("consentHandleId")));
+                    statusCache.putByDevice(tenantId, check.getDeviceId(), check.getUrl(), results[i], cacheGeneration);
+                }
+            }
+
+            return Arrays.asList(results);
 
         } catch (IllegalArgumentException e) {
             log.error("Invalid input parameters");
             throw e;
         } catch (Exception e) {
-            log.error("Failed to retrieve consent status");
-            throw new RuntimeException("Failed to retrieve consent status", e);
-        }finally {
+            log.error("Failed to retrieve consent statuses");
+            throw new RuntimeException("Failed to retrieve consent statuses", e);
+        } finally {
             TenantContext.clear();
         }
     }
 
+    /**
+     * Latest handle per (deviceId, url), keyed by {@code deviceId|url}. The $in filters may match
+     * combinations that were not requested; those are never looked up.
+     */
+    private Map<String, Document> findLatestHandles(MongoTemplate mongoTemplate, Set<String> deviceIds, Set<String> urls) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("customerIdentifiers.value").in(deviceIds).and("url").in(urls)),
+                Aggregation.sort(Sort.Direction.DESC, "createdAt"),
+                Aggregation.project("url", "consentHandleId", "status").and("customerIdentifiers.value").as("deviceId"),
+                Aggregation.group("deviceId", "url")
+                        .first("consentHandleId").as("consentHandleId")
+                        .first("status").as("status"));
+
+        Map<String, Document> latestHandles = new HashMap<>();
+        for (Document handle : mongoTemplate.aggregate(aggregation, "cookie_consent_handles", Document.class)) {
+            Document key = handle.get("_id", Document.class);
+            latestHandles.put(key.getString("deviceId") + "|" + key.getString("url"), handle);
+        }
+        return latestHandles;
+    }
+
+    /**
+     * Latest version of every consent matching the requested consent IDs or handle IDs, one
+     * document per consent ID.
+     */
+    private List<Document> findLatestConsents(MongoTemplate mongoTemplate, Set<String> consentIds,
+                                              Set<String> consentHandleIds) {
+        List<Criteria> matches = new ArrayList<>();
+        if (!consentIds.isEmpty()) {
+            matches.add(Criteria.where("consentId").in(consentIds));
+        }
+        if (!consentHandleIds.isEmpty()) {
+            matches.add(Criteria.where("consentHandleId").in(consentHandleIds));
+        }
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(new Criteria().orOperator(matches)),
+                Aggregation.sort(Sort.Direction.DESC, "version"),
+                Aggregation.group("consentId")
+                        .first("consentHandleId").as("consentHandleId")
+                        .first("status").as("status")
+                        .first("version").as("version"));
+
+        return mongoTemplate.aggregate(aggregation, "cookie_consents", Document.class).getMappedResults();
+    }
+
+    private static CheckConsentResponse statusFromHandle(Document handle, Document consent) {
+        String status = consent != null ? consent.getString("status") : handle.getString("status");
+        return CheckConsentResponse.builder()
+                .consentStatus(status)
+                .consentHandleId(handle.getString("consentHandleId"))
+                .build();
+    }
+
+    private static int version(Document consent) {
+        Object version = consent.get("version");
+        return version instanceof Number number ? number.intValue() : 0;
+    }
+
+    private static CheckConsentResponse noRecord() {
+        return CheckConsentResponse.builder()
+                .consentStatus("No_Record")
+                .consentHandleId("No_Record")
+                .build();
+    }
+
     private SignableConsent verifyJwsToken(String jwsToken, String tenantId, String businessId) throws ConsentException {
         log.info("Starting JWS token verification");
 
-        // Step 1: Verify token with vault service
-        VaultVerifyResponse verifyResponse = verifyTokenWithVault(jwsToken, tenantId, businessId);
+        // Step 1: Verify token with the cached vault keys, or with vault service
+        VaultVerifyResponse verifyResponse = vaultJwsVerifier.isLocal()
+                ? vaultJwsVerifier.verify(jwsToken, tenantId, businessId)
+                : null;
+        if (verifyResponse == null) {
+            verifyResponse = verifyTokenWithVault(jwsToken, tenantId, businessId);
+        }
 
         // Step 2: Validate response
         validateVaultResponse(verifyResponse);
@@ -1287,17 +1556,24 @@ public class ConsentService {
         // Step 3: Extract SignableConsent from JWS payload
         SignableConsent jwsConsent = extractSignableConsentFromPayload(verifyResponse.getPayload());
 
-        // Step 4: Fetch consent from database
+        // Step 4: Compare against the stored payload hash; legacy hashes fall through to a full compare
+        SignableConsent digestMatch = matchStoredDigest(verifyResponse.getPayload(), jwsConsent, tenantId);
+        if (digestMatch != null) {
+            log.info("JWS token verification successful");
+            return digestMatch;
+        }
+
+        // Step 5: Fetch consent from database
         CookieConsent dbConsent = fetchConsentFromDatabase(
                 jwsConsent.getConsentId(),
                 jwsConsent.getVersion(),
                 tenantId
         );
 
-        // Step 5: Convert DB consent to SignableConsent
+        // Step 6: Convert DB consent to SignableConsent
         SignableConsent dbSignableConsent = toSignableConsent(dbConsent);
 
-        // Step 6: Compare SignableConsent objects (NO encryption fields)
+        // Step 7: Compare SignableConsent objects (NO encryption fields)
         SignableConsent signableConsent = compareSignableConsents(jwsConsent, dbSignableConsent);
 
         log.info("JWS token verification successful");
@@ -1346,6 +1622,60 @@ public class ConsentService {
         }
     }
 
+    /**
+     * Match the token's consent against the stored payload hash and the fields that change after
+     * a version is written. Returns null when the hashes differ (versions hashed before the
+     * canonical form), so the caller compares the full document instead.
+     */
+    private SignableConsent matchStoredDigest(Map<String, Object> payload, SignableConsent jwsConsent, String tenantId)
+            throws ConsentException {
+        String consentId = jwsConsent.getConsentId();
+        Integer version = jwsConsent.getVersion();
+
+        ConsentStatusCache.VersionDigest digest = statusCache.getDigest(tenantId, consentId, version);
+        if (digest == null) {
+            long cacheGeneration = statusCache.generation(tenantId);
+            CookieConsent stored = consentRepository.findDigestByConsentIdAndVersion(consentId, version, tenantId)
+                    .orElseThrow(() -> {
+                        log.error("Consent not found in database");
+                        return new ConsentException(
+                                ErrorCodes.CONSENT_NOT_FOUND,
+                                ErrorCodes.getDescription(ErrorCodes.CONSENT_NOT_FOUND),
+                                "No consent found with ID: " + consentId + ", version: " + version
+                        );
+                    });
+            digest = new ConsentStatusCache.VersionDigest(stored);
+            statusCache.putDigest(tenantId, consentId, version, digest, cacheGeneration);
+        }
+
+        if (digest.getPayloadHash() == null) {
+            return null;
+        }
+
+        // The signed data is the canonical JSON itself; hash it as is rather than re-serializing
+        Object data = payload.get("data");
+        String payloadHash = data instanceof String
+                ? ConsentUtil.computeSHA256Hash((String) data)
+                : consentSerializer.serialize(jwsConsent).payloadHash();
+        if (!digest.getPayloadHash().equals(payloadHash)) {
+            return null;
+        }
+
+        StaleStatus jwsStaleStatus = jwsConsent.getStaleStatus() != null ? jwsConsent.getStaleStatus() : StaleStatus.NOT_STALE;
+        if (jwsConsent.getStatus() != digest.getStatus()
+                || jwsConsent.getConsentStatus() != digest.getConsentStatus()
+                || jwsStaleStatus != digest.getStaleStatus()) {
+            log.error("Consent status mismatch between JWS and database for consent {}", consentId);
+            throw new ConsentException(
+                    ErrorCodes.VALIDATION_ERROR,
+                    ErrorCodes.getDescription(ErrorCodes.VALIDATION_ERROR),
+                    "Consent data in JWS token does not match database records"
+            );
+        }
+
+        return normalizeTimestamps(jwsConsent);
+    }
+
     /**
      * Normalize timestamps to millisecond precision
      */
@@ -1504,22 +1834,13 @@ public class ConsentService {
     }
 
     /**
-     * Encrypt consent payload using Vault API
+     * Encrypt the canonical consent JSON using Vault API
      * Sets: encryptionTime, encryptedReferenceId, encryptedString
-     * Returns: encrypted JSON string
+     * Returns: the JSON that was encrypted
      */
-    private String generateConsentEncryption(CookieConsent consent, String tenantId) throws ConsentException {
-        CookieConsent tempConsent = new CookieConsent(consent);
-        Gson gson = new GsonBuilder()
-                .registerTypeAdapter(LocalDateTime.class, new LocalDateTypeAdapter())
-                .registerTypeAdapter(Instant.class, new InstantTypeAdapter())
-                .disableHtmlEscaping()
-                .create();
-
-        String consentJsonString = "";
+    private String generateConsentEncryption(CookieConsent consent, String consentJsonString, String tenantId)
+            throws ConsentException {
         try {
-            consentJsonString = gson.toJson(tempConsent).replaceAll("\\s+", "");
-
             // Encrypt the consentJsonString using Vault encryptPayload API
             String businessId = consent.getBusinessId();
 
@@ -1549,6 +1870,85 @@ public class ConsentService {
         return consentJsonString;
     }
 
+    /**
+     * Run Vault encryption and signing concurrently; both inputs are complete at this point.
+     * Returns: JWS token
+     */
+    private String encryptAndSign(CookieConsent consent, String canonicalJson, String tenantId) throws ConsentException {
+        String businessId = consent.getBusinessId();
+        long deadline = consentPipeline.deadline();
+
+        CompletableFuture<String> encryption = consentPipeline.submit("encrypt",
+                () -> generateConsentEncryption(consent, canonicalJson, tenantId));
+        CompletableFuture<String> signing = consentPipeline.submit("sign",
+                () -> generateConsentSigning(canonicalJson, tenantId, businessId));
+
+        consentPipeline.join(encryption, "encrypt", deadline);
+        return consentPipeline.join(signing, "sign", deadline);
+    }
+
+    /**
+     * Save a new consent and mark its handle USED as concurrent writes. If the consent save fails,
+     * the handle is put back to its previous status so that the request can be retried. A save
+     * that times out keeps running, so the handle is only restored if it eventually fails.
+     */
+    /**
+     * Returns whether this request moved the handle out of PENDING; a concurrent request that
+     * resolved it first keeps its status.
+     */
+    private boolean saveConsentAndMarkHandleUsed(CookieConsent consent, CookieConsentHandle consentHandle,
+                                                 String tenantId) throws ConsentException {
+        ConsentHandleStatus previousStatus = consentHandle.getStatus();
+        consentHandle.setStatus(ConsentHandleStatus.USED);
+        consentHandle.setUpdatedAt(Instant.now());
+        long deadline = consentPipeline.deadline();
+
+        CompletableFuture<CookieConsent> consentSave = consentPipeline.submit("save_consent",
+                () -> consentRepository.saveToDatabase(consent, tenantId));
+        CompletableFuture<Boolean> handleUpdate = consentPipeline.submit("mark_handle_used",
+                () -> consentHandleRepository.resolvePending(consentHandle, tenantId));
+
+        consentSave.whenComplete((saved, failure) -> {
+            if (failure != null) {
+                handleUpdate.thenAccept(resolved -> {
+                    if (resolved) {
+                        restoreHandle(consentHandle, previousStatus, tenantId);
+                    }
+                });
+            }
+        });
+        // Joined through a copy: a timeout cancels the copy and leaves the save's own outcome intact
+        consentPipeline.join(consentSave.copy(), "save_consent", deadline);
+        return consentPipeline.join(handleUpdate, "mark_handle_used", deadline);
+    }
+
+    /**
+     * Store a new handle status. A PENDING handle is moved with a conditional update, so its
+     * outcome is counted once even when concurrent requests resolve it.
+     */
+    private void resolveHandle(CookieConsentHandle consentHandle, ConsentHandleStatus status, String tenantId) {
+        boolean wasPending = consentHandle.getStatus() == ConsentHandleStatus.PENDING;
+        consentHandle.setStatus(status);
+        consentHandle.setUpdatedAt(Instant.now());
+        if (!wasPending) {
+            consentHandleRepository.save(consentHandle, tenantId);
+        } else if (consentHandleRepository.resolvePending(consentHandle, tenantId)) {
+            consentAnalytics.handleResolved(tenantId, consentHandle);
+        }
+    }
+
+    private void restoreHandle(CookieConsentHandle consentHandle, ConsentHandleStatus previousStatus,
+                               String tenantId) {
+        try {
+            consentHandle.setStatus(previousStatus);
+            consentHandle.setUpdatedAt(Instant.now());
+            consentHandleRepository.save(consentHandle, tenantId);
+        } catch (Exception restoreFailure) {
+            log.error("Failed to restore consent handle {} after consent save failure",
+                    consentHandle.getConsentHandleId());
+        }
+    }
+
     /**
      * Sign consent JSON using Vault API
      * Returns: JWS token
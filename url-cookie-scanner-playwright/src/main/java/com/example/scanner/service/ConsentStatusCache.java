@@ -0,0 +1,587 @@
+package com.example.scanner.service;
+
+import com.example.scanner.config.TenantMongoTemplateRegistry;
+import com.example.scanner.config.TenantScopedMongoTemplate;
+import com.example.scanner.dto.response.CheckConsentResponse;
+import com.example.scanner.entity.CookieConsent;
+import com.example.scanner.entity.CookieConsentHandle;
+import com.example.scanner.enums.StaleStatus;
+import com.example.scanner.enums.Status;
+import com.example.scanner.enums.VersionStatus;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.mongodb.client.MongoCollection;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Near cache for the {@code /consent/check} hot path.
+ *
+ * Resolved statuses are cached per tenant by (deviceId, url) and by consentId. The consent and
+ * handle repositories report every write through {@link #onConsentSaved} and
+ * {@link #onHandleSaved}, which invalidate the affected entries synchronously and publish the
+ * invalidation to the other instances through {@code consent_cache_invalidations} in the shared
+ * database. Entries also expire after {@code consent.status-cache.ttl-seconds}, which bounds
+ * staleness if an invalidation is missed. Reads racing a write are detected with a generation
+ * counter per tenant, so writes in one tenant do not stop other tenants' reads from being cached.
+ *
+ * A per-tenant Bloom filter of device IDs that have a consent handle screens out unknown devices.
+ * The filter learns of handles created on other instances only through the invalidation poll, so
+ * a miss is confirmed against the database once and then remembered for
+ * {@code consent.status-cache.bloom.negative-ttl-seconds}; repeated checks of an unknown device
+ * answer "No_Record" without a round trip. A remembered miss is dropped as soon as an
+ * invalidation for the device arrives, so the TTL only bounds staleness when one is lost.
+ *
+ * Token validation also caches the payload hash and mutable status fields of each consent
+ * version ({@link VersionDigest}); they are invalidated with the consent's other entries.
+ */
+@Slf4j
+@Component
+public class ConsentStatusCache {
+
+    static final String COLLECTION_INVALIDATIONS = "consent_cache_invalidations";
+    private static final String COLLECTION_HANDLES = "cookie_consent_handles";
+
+    private final TenantMongoTemplateRegistry mongoTemplateRegistry;
+    private final MongoTemplate sharedMongoTemplate;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Cache<String, CheckConsentResponse> statuses;
+    private final Cache<String, String> deviceKeysByHandle;
+    private final Cache<String, Map<Integer, VersionDigest>> digests;
+    private final Cache<ObjectId, Boolean> appliedEvents;
+    private final Cache<String, Boolean> unknownDevices;
+    private final Map<String, DeviceFilter> deviceFilters = new ConcurrentHashMap<>();
+
+    /** Per tenant; bumped on every invalidation so that reads racing a write do not cache the old status */
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    private volatile Date lastPoll = new Date();
+
+    private final Counter bloomRejected;
+    private final Counter bloomStale;
+    private final Counter invalidationsPublished;
+    private final Counter invalidationsReceived;
+    private final Counter publishFailures;
+
+    @Value("${consent.status-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${consent.status-cache.bloom.enabled:true}")
+    private boolean bloomEnabled;
+
+    @Value("${consent.status-cache.bloom.false-positive-probability:0.01}")
+    private double falsePositiveProbability;
+
+    @Value("${consent.status-cache.bloom.idle-tenant-minutes:60}")
+    private long idleTenantMinutes;
+
+    @Value("${consent.status-cache.invalidation-lookback-ms:5000}")
+    private long invalidationLookbackMs;
+
+    public ConsentStatusCache(TenantMongoTemplateRegistry mongoTemplateRegistry,
+                              @Qualifier("sharedMongoTemplate") MongoTemplate sharedMongoTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${consent.status-cache.ttl-seconds:60}") long ttlSeconds,
+                              @Value("${consent.status-cache.max-size:200000}") long maxSize,
+                              @Value("${consent.status-cache.bloom.negative-ttl-seconds:5}") long negativeTtlSeconds) {
+        this.mongoTemplateRegistry = mongoTemplateRegistry;
+        this.sharedMongoTemplate = sharedMongoTemplate;
+
+        this.statuses = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        this.deviceKeysByHandle = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .build();
+        this.digests = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .build();
+        this.appliedEvents = CacheBuilder.newBuilder()
+                .expireAfterWrite(5, TimeUnit.MINUTES)
+                .build();
+        this.unknownDevices = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(negativeTtlSeconds, TimeUnit.SECONDS)
+                .build();
+
+        GuavaCacheMetrics.monitor(meterRegistry, statuses, "consent_status_cache");
+
+        this.bloomRejected = Counter.builder("consent_status_device_bloom_rejected_total")
+                .description("Consent checks answered No_Record by the device Bloom filter")
+                .register(meterRegistry);
+
+        this.bloomStale = Counter.builder("consent_status_device_bloom_stale_total")
+                .description("Devices missing from the Bloom filter that had a consent handle in the database")
+                .register(meterRegistry);
+
+        this.invalidationsPublished = Counter.builder("consent_status_invalidations_total")
+                .description("Consent status cache invalidations")
+                .tag("direction", "published")
+                .register(meterRegistry);
+
+        this.invalidationsReceived = Counter.builder("consent_status_invalidations_total")
+                .description("Consent status cache invalidations")
+                .tag("direction", "received")
+                .register(meterRegistry);
+
+        this.publishFailures = Counter.builder("consent_status_invalidations_total")
+                .description("Consent status cache invalidations")
+                .tag("direction", "publish_failed")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            // Events only need to live long enough for every instance to poll them
+            sharedMongoTemplate.indexOps(COLLECTION_INVALIDATIONS).ensureIndex(new Index()
+                    .on("createdAt", Sort.Direction.ASC)
+                    .expire(Duration.ofMinutes(10))
+                    .named("idx_createdAt_ttl"));
+        } catch (Exception e) {
+            log.warn("Failed to ensure TTL index on {}: {}", COLLECTION_INVALIDATIONS, e.getMessage());
+        }
+    }
+
+    /**
+     * Snapshot to pass to the put methods of the tenant; take it before reading from the database.
+     */
+    public long generation(String tenantId) {
+        return generationOf(tenantId).get();
+    }
+
+    public CheckConsentResponse getByDevice(String tenantId, String deviceId, String url) {
+        return enabled ? statuses.getIfPresent(deviceKey(tenantId, deviceId, url)) : null;
+    }
+
+    public CheckConsentResponse getByConsentId(String tenantId, String consentId) {
+        return enabled ? statuses.getIfPresent(consentKey(tenantId, consentId)) : null;
+    }
+
+    public void putByDevice(String tenantId, String deviceId, String url, CheckConsentResponse response,
+                            long generationAtRead) {
+        if (!enabled) {
+            return;
+        }
+        String key = deviceKey(tenantId, deviceId, url);
+        if (response.getConsentHandleId() != null && !"No_Record".equals(response.getConsentHandleId())) {
+            deviceKeysByHandle.put(handleKey(tenantId, response.getConsentHandleId()), key);
+        }
+        put(tenantId, key, response, generationAtRead);
+    }
+
+    public void putByConsentId(String tenantId, String consentId, CheckConsentResponse response,
+                               long generationAtRead) {
+        if (enabled) {
+            put(tenantId, consentKey(tenantId, consentId), response, generationAtRead);
+        }
+    }
+
+    public VersionDigest getDigest(String tenantId, String consentId, Integer version) {
+        if (!enabled) {
+            return null;
+        }
+        Map<Integer, VersionDigest> versions = digests.getIfPresent(consentKey(tenantId, consentId));
+        return versions != null ? versions.get(version) : null;
+    }
+
+    public void putDigest(String tenantId, String consentId, Integer version, VersionDigest digest,
+                          long generationAtRead) {
+        AtomicLong generation = generationOf(tenantId);
+        if (!enabled || generation.get() != generationAtRead) {
+            return;
+        }
+        String key = consentKey(tenantId, consentId);
+        digests.asMap().computeIfAbsent(key, k -> new ConcurrentHashMap<>()).put(version, digest);
+        // An invalidation may have landed between the check and the put
+        if (generation.get() != generationAtRead) {
+            digests.invalidate(key);
+        }
+    }
+
+    /**
+     * False only if the device has no consent handle in the tenant.
+     */
+    public boolean isKnownDevice(String tenantId, String deviceId) {
+        return !findUnknownDevices(tenantId, List.of(deviceId)).contains(deviceId);
+    }
+
+    /**
+     * The devices among {@code deviceIds} that have no consent handle in the tenant. Filter misses
+     * not remembered yet are confirmed with a single query for the whole batch.
+     */
+    public Set<String> findUnknownDevices(String tenantId, Collection<String> deviceIds) {
+        if (!enabled || !bloomEnabled) {
+            return Set.of();
+        }
+        DeviceFilter filter = filterFor(tenantId);
+        if (filter == null) {
+            return Set.of();
+        }
+
+        Set<String> unknown = new HashSet<>();
+        Set<String> toConfirm = new HashSet<>();
+        for (String deviceId : deviceIds) {
+            if (filter.mightContain(deviceId)) {
+                continue;
+            }
+            if (unknownDevices.getIfPresent(unknownDeviceKey(tenantId, deviceId)) != null) {
+                unknown.add(deviceId);
+            } else {
+                toConfirm.add(deviceId);
+            }
+        }
+
+        if (!toConfirm.isEmpty()) {
+            long generationAtRead = generation(tenantId);
+            Set<String> withHandles = devicesWithHandles(tenantId, toConfirm);
+            List<String> remembered = new ArrayList<>();
+            for (String deviceId : toConfirm) {
+                if (withHandles.contains(deviceId)) {
+                    bloomStale.increment();
+                    registerDevice(tenantId, deviceId);
+                } else {
+                    String key = unknownDeviceKey(tenantId, deviceId);
+                    unknownDevices.put(key, Boolean.TRUE);
+                    remembered.add(key);
+                    unknown.add(deviceId);
+                }
+            }
+            // A handle may have been created between the read and the put
+            if (generation(tenantId) != generationAtRead) {
+                unknownDevices.invalidateAll(remembered);
+            }
+        }
+        bloomRejected.increment(unknown.size());
+        return unknown;
+    }
+
+    /**
+     * Called after a consent handle is created or its status changes.
+     */
+    public void onHandleSaved(String tenantId, CookieConsentHandle handle) {
+        if (!enabled || handle == null) {
+            return;
+        }
+        String deviceId = handle.getCustomerIdentifiers() != null ? handle.getCustomerIdentifiers().getValue() : null;
+        invalidateLocal(tenantId, deviceId, handle.getUrl(), handle.getConsentHandleId(), null);
+        publish(tenantId, deviceId, handle.getUrl(), handle.getConsentHandleId(), null);
+    }
+
+    /**
+     * Called after a consent version is created, updated or revoked.
+     */
+    public void onConsentSaved(String tenantId, CookieConsent consent) {
+        if (!enabled || consent == null) {
+            return;
+        }
+        invalidateLocal(tenantId, null, null, consent.getConsentHandleId(), consent.getConsentId());
+        publish(tenantId, null, null, consent.getConsentHandleId(), consent.getConsentId());
+    }
+
+    @Scheduled(fixedDelayString = "${consent.status-cache.invalidation-poll-ms:500}")
+    public void pollInvalidations() {
+        if (!enabled) {
+            return;
+        }
+        Date pollStart = new Date();
+        try {
+            // Look back to cover clock skew between instances; applied events are skipped
+            Query query = new Query(Criteria.where("createdAt").gte(new Date(lastPoll.getTime() - invalidationLookbackMs))
+                    .and("node").ne(nodeId))
+                    .with(Sort.by(Sort.Direction.ASC, "createdAt"));
+            for (Document event : sharedMongoTemplate.find(query, Document.class, COLLECTION_INVALIDATIONS)) {
+                if (appliedEvents.asMap().putIfAbsent(event.getObjectId("_id"), Boolean.TRUE) != null) {
+                    continue;
+                }
+                invalidationsReceived.increment();
+                invalidateLocal(event.getString("tenantId"), event.getString("deviceId"), event.getString("url"),
+                        event.getString("consentHandleId"), event.getString("consentId"));
+            }
+            lastPoll = pollStart;
+        } catch (Exception e) {
+            log.warn("Failed to poll consent cache invalidations: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${consent.status-cache.bloom.rebuild-interval-ms:300000}",
+            initialDelayString = "${consent.status-cache.bloom.rebuild-interval-ms:300000}")
+    public void rebuildDeviceFilters() {
+        long idleCutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(idleTenantMinutes);
+        deviceFilters.entrySet().removeIf(entry -> entry.getValue().lastAccess < idleCutoff);
+
+        for (String tenantId : deviceFilters.keySet()) {
+            rebuild(tenantId);
+        }
+    }
+
+    private void put(String tenantId, String key, CheckConsentResponse response, long generationAtRead) {
+        AtomicLong generation = generationOf(tenantId);
+        if (generation.get() != generationAtRead) {
+            return;
+        }
+        statuses.put(key, response);
+        // An invalidation may have landed between the check and the put
+        if (generation.get() != generationAtRead) {
+            statuses.invalidate(key);
+        }
+    }
+
+    private void invalidateLocal(String tenantId, String deviceId, String url, String consentHandleId, String consentId) {
+        if (tenantId == null) {
+            return;
+        }
+        generationOf(tenantId).incrementAndGet();
+        if (deviceId != null && url != null) {
+            statuses.invalidate(deviceKey(tenantId, deviceId, url));
+        }
+        if (consentHandleId != null) {
+            String deviceKey = deviceKeysByHandle.getIfPresent(handleKey(tenantId, consentHandleId));
+            if (deviceKey != null) {
+                statuses.invalidate(deviceKey);
+            }
+        }
+        if (consentId != null) {
+            statuses.invalidate(consentKey(tenantId, consentId));
+            digests.invalidate(consentKey(tenantId, consentId));
+        }
+        if (deviceId != null) {
+            registerDevice(tenantId, deviceId);
+            unknownDevices.invalidate(unknownDeviceKey(tenantId, deviceId));
+        }
+    }
+
+    private AtomicLong generationOf(String tenantId) {
+        return generations.computeIfAbsent(tenantId, id -> new AtomicLong());
+    }
+
+    /**
+     * The devices the tenant has a handle for, in one query. All of them if the handles cannot be
+     * read, so the checks fall through to the regular lookup.
+     */
+    private Set<String> devicesWithHandles(String tenantId, Set<String> deviceIds) {
+        try {
+            return new HashSet<>(mongoTemplateRegistry.getMongoTemplateForTenant(tenantId).findDistinct(
+                    new Query(Criteria.where("customerIdentifiers.value").in(deviceIds)),
+                    "customerIdentifiers.value", COLLECTION_HANDLES, String.class));
+        } catch (Exception e) {
+            log.warn("Failed to confirm device filter misses for tenant {}: {}", tenantId, e.getMessage());
+            return deviceIds;
+        }
+    }
+
+    private void publish(String tenantId, String deviceId, String url, String consentHandleId, String consentId) {
+        try {
+            sharedMongoTemplate.insert(new Document("node", nodeId)
+                    .append("tenantId", tenantId)
+                    .append("deviceId", deviceId)
+                    .append("url", url)
+                    .append("consentHandleId", consentHandleId)
+                    .append("consentId", consentId)
+                    .append("createdAt", new Date()), COLLECTION_INVALIDATIONS);
+            invalidationsPublished.increment();
+        } catch (Exception e) {
+            // Other instances fall back to the cache TTL
+            publishFailures.increment();
+            log.warn("Failed to publish consent cache invalidation: {}", e.getMessage());
+        }
+    }
+
+    private void registerDevice(String tenantId, String deviceId) {
+        DeviceFilter filter = deviceFilters.get(tenantId);
+        // A retired filter has been replaced by a rebuild; retry on the current one
+        while (filter != null && !filter.put(deviceId)) {
+            filter = deviceFilters.get(tenantId);
+        }
+    }
+
+    private DeviceFilter filterFor(String tenantId) {
+        DeviceFilter filter = deviceFilters.get(tenantId);
+        if (filter == null) {
+            filter = deviceFilters.computeIfAbsent(tenantId, this::build);
+        }
+        if (filter == null) {
+            return null;
+        }
+        filter.lastAccess = System.currentTimeMillis();
+        return filter;
+    }
+
+    private void rebuild(String tenantId) {
+        DeviceFilter previous = deviceFilters.get(tenantId);
+        if (previous == null) {
+            return;
+        }
+        // Devices registered while the collection is scanned are replayed into the new filter
+        previous.startCapture();
+        DeviceFilter rebuilt = build(tenantId);
+        if (rebuilt == null) {
+            previous.stopCapture();
+            return;
+        }
+        rebuilt.lastAccess = previous.lastAccess;
+        deviceFilters.put(tenantId, rebuilt);
+        for (String deviceId : previous.retire()) {
+            rebuilt.put(deviceId);
+        }
+    }
+
+    /**
+     * Scan the device IDs of a tenant's consent handles into a fresh filter. Returns null if the
+     * collection cannot be read, in which case every device is treated as known.
+     */
+    private DeviceFilter build(String tenantId) {
+        try {
+            MongoTemplate tenantTemplate = mongoTemplateRegistry.getMongoTemplateForTenant(tenantId);
+            MongoCollection<Document> collection = tenantTemplate.getCollection(COLLECTION_HANDLES);
+            Document tenantFilter = TenantScopedMongoTemplate.tenantFilter(tenantTemplate);
+            long documents = tenantFilter.isEmpty()
+                    ? collection.estimatedDocumentCount()
+                    : collection.countDocuments(tenantFilter);
+
+            // Size for growth so devices registered between rebuilds do not degrade the error rate
+            BloomFilter<CharSequence> bloom = BloomFilter.create(
+                    Funnels.stringFunnel(StandardCharsets.UTF_8), Math.max(documents * 2, 1024), falsePositiveProbability);
+
+            int count = 0;
+            for (Document doc : collection.find(tenantFilter)
+                    .projection(new Document("customerIdentifiers.value", 1).append("_id", 0))) {
+                Document identifiers = doc.get("customerIdentifiers", Document.class);
+                String deviceId = identifiers != null ? identifiers.getString("value") : null;
+                if (deviceId != null) {
+                    bloom.put(deviceId);
+                    count++;
+                }
+            }
+
+            log.debug("Built device filter for tenant {} with {} handles", tenantId, count);
+            return new DeviceFilter(bloom);
+        } catch (Exception e) {
+            log.warn("Failed to build device filter for tenant {}: {}", tenantId, e.getMessage());
+            return null;
+        }
+    }
+
+    private static String deviceKey(String tenantId, String deviceId, String url) {
+        return tenantId + "|d|" + deviceId + "|" + url;
+    }
+
+    private static String consentKey(String tenantId, String consentId) {
+        return tenantId + "|c|" + consentId;
+    }
+
+    private static String unknownDeviceKey(String tenantId, String deviceId) {
+        return tenantId + "|" + deviceId;
+    }
+
+    private static String handleKey(String tenantId, String consentHandleId) {
+        return tenantId + "|" + consentHandleId;
+    }
+
+    /**
+     * Payload hash of a consent version plus the fields that change after it is written.
+     */
+    public static final class VersionDigest {
+
+        private final String payloadHash;
+        private final Status status;
+        private final VersionStatus consentStatus;
+        private final StaleStatus staleStatus;
+
+        public VersionDigest(CookieConsent consent) {
+            this.payloadHash = consent.getPayloadHash();
+            this.status = consent.getStatus();
+            this.consentStatus = consent.getConsentStatus();
+            this.staleStatus = consent.getStaleStatus() != null ? consent.getStaleStatus() : StaleStatus.NOT_STALE;
+        }
+
+        public String getPayloadHash() {
+            return payloadHash;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public VersionStatus getConsentStatus() {
+            return consentStatus;
+        }
+
+        public StaleStatus getStaleStatus() {
+            return staleStatus;
+        }
+    }
+
+    private static final class DeviceFilter {
+        private final BloomFilter<CharSequence> bloom;
+        private volatile long lastAccess = System.currentTimeMillis();
+        private Set<String> captured;
+        private boolean retired;
+
+        DeviceFilter(BloomFilter<CharSequence> bloom) {
+            this.bloom = bloom;
+        }
+
+        boolean mightContain(String deviceId) {
+            return bloom.mightContain(deviceId);
+        }
+
+        synchronized boolean put(String deviceId) {
+            if (retired) {
+                return false;
+            }
+            bloom.put(deviceId);
+            if (captured != null) {
+                captured.add(deviceId);
+            }
+            return true;
+        }
+
+        synchronized void startCapture() {
+            captured = new HashSet<>();
+        }
+
+        synchronized void stopCapture() {
+            captured = null;
+        }
+
+        synchronized Set<String> retire() {
+            retired = true;
+            return captured != null ? captured : Set.of();
+        }
+    }
+}
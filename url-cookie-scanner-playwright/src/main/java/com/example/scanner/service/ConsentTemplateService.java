@@ -1,6 +1,7 @@
 package com.example.scanner.service;
 
-import com.example.scanner.config.MultiTenantMongoConfig;
+import com.example.scanner.config.TenantMongoTemplateRegistry;
+import com.example.scanner.config.TenantReadRouter;
 import com.example.scanner.config.TenantContext;
 import com.example.scanner.constants.AuditConstants;
 import com.example.scanner.constants.ErrorCodes;
@@ -8,6 +9,7 @@ import com.example.scanner.dto.request.CreateTemplateRequest;
 import com.example.scanner.dto.Preference;
 import com.example.scanner.dto.request.UpdateTemplateRequest;
 import com.example.scanner.dto.response.UpdateTemplateResponse;
+import com.example.scanner.entity.BannerPayload;
 import com.example.scanner.entity.ConsentTemplate;
 import com.example.scanner.entity.ScanResultEntity;
 import com.example.scanner.enums.PreferenceStatus;
@@ -24,10 +26,7 @@ import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import com.example.scanner.dto.response.TemplateWithCookiesResponse;
-import com.example.scanner.dto.response.PreferenceWithCookies;
-import com.example.scanner.entity.CookieEntity;
 import java.util.stream.Collectors;
-import com.example.scanner.entity.CookieEntity;
 
 import java.util.*;
 
@@ -39,9 +38,11 @@ import java.time.LocalDateTime;
 @Slf4j
 public class ConsentTemplateService {
 
-    private final MultiTenantMongoConfig mongoConfig;
+    private final TenantMongoTemplateRegistry mongoTemplateRegistry;
+    private final TenantReadRouter readRouter;
     private final CategoryService categoryService;
     private final AuditService auditService;
+    private final BannerPayloadService bannerPayloads;
 
 
     public Optional<ConsentTemplate> getTemplateByTenantAndTemplateIdAndTemplateVersion(String tenantId, String templateId, int templateVersion) {
@@ -49,7 +50,7 @@ public class ConsentTemplateService {
         validateInputs(templateId, "template ID cannot be null or empty");
 
         TenantContext.setCurrentTenant(tenantId);
-        MongoTemplate tenantMongoTemplate = mongoConfig.getMongoTemplateForTenant(tenantId);
+        MongoTemplate tenantMongoTemplate = mongoTemplateRegistry.getMongoTemplateForTenant(tenantId);
 
         try {
             Query query = new Query(Criteria.where("templateId").is(templateId).and("version").is(templateVersion));
@@ -66,7 +67,7 @@ public class ConsentTemplateService {
         validateInputs(templateId, "template ID cannot be null or empty");
 
         TenantContext.setCurrentTenant(tenantId);
-        MongoTemplate tenantMongoTemplate = mongoConfig.getMongoTemplateForTenant(tenantId);
+        MongoTemplate tenantMongoTemplate = mongoTemplateRegistry.getMongoTemplateForTenant(tenantId);
 
         try {
             Query query = new Query(Criteria.where("templateId").is(templateId)
@@ -84,7 +85,7 @@ public class ConsentTemplateService {
         validateInputs(tenantId, "Tenant ID cannot be null or empty");
 
         TenantContext.setCurrentTenant(tenantId);
-        MongoTemplate tenantMongoTemplate = mongoConfig.getMongoTemplateForTenant(tenantId);
+        MongoTemplate tenantMongoTemplate = mongoTemplateRegistry.getMongoTemplateForTenant(tenantId);
 
         try {
             return tenantMongoTemplate.findAll(ConsentTemplate.class);
@@ -105,7 +106,7 @@ public class ConsentTemplateService {
         validateScanExists(tenantId, createRequest.getScanId());
 
         TenantContext.setCurrentTenant(tenantId);
-        MongoTemplate tenantMongoTemplate = mongoConfig.getMongoTemplateForTenant(tenantId);
+        MongoTemplate tenantMongoTemplate = mongoTemplateRegistry.getMongoTemplateForTenant(tenantId);
 
         try {
             // Check if template already exists for this scan ID
@@ -123,6 +124,7 @@ public class ConsentTemplateService {
 
             // Save template
             ConsentTemplate savedTemplate = tenantMongoTemplate.save(template);
+            bannerPayloads.materialize(tenantId, savedTemplate, tenantMongoTemplate);
 
             Map<String, Object> context2 = new HashMap<>();
             context2.put(AuditConstants.RESOURCE_COOKIE_TEMPLATE_ID,  savedTemplate.getTemplateId());
@@ -146,7 +148,7 @@ public class ConsentTemplateService {
         }
 
         TenantContext.setCurrentTenant(tenantId);
-        MongoTemplate tenantMongoTemplate = mongoConfig.getMongoTemplateForTenant(tenantId);
+        MongoTemplate tenantMongoTemplate = mongoTemplateRegistry.getMongoTemplateForTenant(tenantId);
 
         try {
             Query query = new Query(Criteria.where("transactionId").is(scanId));
@@ -268,7 +270,7 @@ public class ConsentTemplateService {
         auditService.logTemplateUpdateInitiated(tenantId, businessId, templateId, context);
 
         TenantContext.setCurrentTenant(tenantId);
-        MongoTemplate tenantMongoTemplate = mongoConfig.getMongoTemplateForTenant(tenantId);
+        MongoTemplate tenantMongoTemplate = mongoTemplateRegistry.getMongoTemplateForTenant(tenantId);
 
         try {
             // Step 2: Find current ACTIVE template
@@ -322,6 +324,7 @@ public class ConsentTemplateService {
 
             // Step 4: Save new template record
             ConsentTemplate savedNewTemplate = tenantMongoTemplate.save(newTemplate);
+            bannerPayloads.materialize(tenantId, savedNewTemplate, tenantMongoTemplate);
 
             // Log new version created
             Map<String, Object> context2 = new HashMap<>();
@@ -357,7 +360,7 @@ public class ConsentTemplateService {
         validateInputs(templateId, "Template ID cannot be null or empty");
 
         TenantContext.setCurrentTenant(tenantId);
-        MongoTemplate tenantMongoTemplate = mongoConfig.getMongoTemplateForTenant(tenantId);
+        MongoTemplate tenantMongoTemplate = readRouter.templateFor(tenantId, TenantReadRouter.ReadClass.TEMPLATE_HISTORY);
 
         try {
             Query query = new Query(Criteria.where("templateId").is(templateId))
@@ -396,7 +399,7 @@ public class ConsentTemplateService {
         }
 
         TenantContext.setCurrentTenant(tenantId);
-        MongoTemplate tenantMongoTemplate = mongoConfig.getMongoTemplateForTenant(tenantId);
+        MongoTemplate tenantMongoTemplate = mongoTemplateRegistry.getMongoTemplateForTenant(tenantId);
 
         try {
             Query query = new Query(Criteria.where("templateId").is(templateId)
@@ -510,7 +513,7 @@ public class ConsentTemplateService {
                 tenantId, businessId, scanId, templateId);
 
         TenantContext.setCurrentTenant(tenantId);
-        MongoTemplate mongoTemplate = mongoConfig.getMongoTemplateForTenant(tenantId);
+        MongoTemplate mongoTemplate = mongoTemplateRegistry.getMongoTemplateForTenant(tenantId);
 
         try {
             // Build dynamic query - always filter by ACTIVE templates
@@ -542,8 +545,7 @@ public class ConsentTemplateService {
             // Map templates to response with cookies
             return templates.stream()
                     .map(template -> {
-                        List<PreferenceWithCookies> preferencesWithCookies =
-                                fetchAndMapCookies(template.getScanId(), template.getPreferences(), mongoTemplate);
+                        BannerPayload payload = bannerPayloads.get(tenantId, template);
 
                         return TemplateWithCookiesResponse.builder()
                                 .id(template.getId())
@@ -557,10 +559,13 @@ public class ConsentTemplateService {
                                 .uiConfig(template.getUiConfig())
                                 .documentMeta(template.getDocumentMeta())
                                 .privacyPolicyDocument(template.getPrivacyPolicyDocument())
-                                .preferencesWithCookies(preferencesWithCookies)
+                                .preferencesWithCookies(payload.getPreferences())
                                 .version(template.getVersion())
                                 .createdAt(template.getCreatedAt())
                                 .updatedAt(template.getUpdatedAt())
+                                // Fields outside the payload are fixed per version, except the statuses
+                                .etag(BannerPayloadService.etag(payload.getEtag(), template.getId(),
+                                        template.getStatus(), template.getTemplateStatus(), template.getUpdatedAt()))
                                 .build();
                     })
                     .collect(Collectors.toList());
@@ -569,57 +574,4 @@ public class ConsentTemplateService {
             TenantContext.clear();
         }
     }
-
-    /**
-     * Fetch cookies from scan and map to preferences
-     */
-    private List<PreferenceWithCookies> fetchAndMapCookies(
-            String scanId, List<Preference> preferences, MongoTemplate mongoTemplate) {
-
-        if (scanId == null || preferences == null || preferences.isEmpty()) {
-            return Collections.emptyList();
-        }
-
-        try {
-            // Get scan result
-            Query scanQuery = new Query(Criteria.where("transactionId").is(scanId));
-            ScanResultEntity scanResult = mongoTemplate.findOne(scanQuery, ScanResultEntity.class);
-
-            if (scanResult == null || scanResult.getCookiesBySubdomain() == null) {
-                log.warn("No cookies found for scanId");
-                // Return preferences without cookies
-                return preferences.stream()
-                        .map(pref -> PreferenceWithCookies.from(pref, Collections.emptyList()))
-                        .collect(Collectors.toList());
-            }
-
-            // Flatten all cookies from all subdomains
-            List<CookieEntity> allCookies = scanResult.getCookiesBySubdomain().values().stream()
-                    .flatMap(List::stream)
-                    .collect(Collectors.toList());
-
-            // Group cookies by category
-            Map<String, List<CookieEntity>> cookiesByCategory = allCookies.stream()
-                    .filter(cookie -> cookie.getCategory() != null)
-                    .collect(Collectors.groupingBy(CookieEntity::getCategory));
-
-            // Map cookies to preferences based on purpose
-            return preferences.stream()
-                    .map(preference -> {
-                        String categoryKey = preference.getPurpose();
-                        List<CookieEntity> matchingCookies = cookiesByCategory.getOrDefault(
-                                categoryKey, Collections.emptyList());
-
-                        return PreferenceWithCookies.from(preference, matchingCookies);
-                    })
-                    .collect(Collectors.toList());
-
-        } catch (Exception e) {
-            log.error("Error fetching cookies");
-            // Return preferences without cookies on error
-            return preferences.stream()
-                    .map(pref -> PreferenceWithCookies.from(pref, Collections.emptyList()))
-                    .collect(Collectors.toList());
-        }
-    }
 }
\ No newline at end of file
@@ -5,6 +5,9 @@ import com.example.scanner.dto.response.CookieCategorizationResponse;
 import com.example.scanner.exception.CookieCategorizationException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,6 +23,7 @@ import org.springframework.web.client.RestTemplate;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -52,6 +56,10 @@ public class CookieCategorizationService {
     private final ObjectMapper objectMapper;
     private final CategoryService categoryService;
     private final CookieCsvLoaderService cookieCsvLoaderService;
+    private final LocalCookieClassifier localCookieClassifier;
+    // Resolved by parameter name among the CircuitBreaker beans in CircuitBreakerConfiguration
+    private final CircuitBreaker categorizationCircuitBreaker;
+    private final MeterRegistry meterRegistry;
     private final Map<String, CacheEntry> categorizationCache = new ConcurrentHashMap<>();
 
 
@@ -59,6 +67,14 @@ public class CookieCategorizationService {
      * Categorize cookies with retry mechanism
      */
     public Map<String, CookieCategorizationResponse> categorizeCookies(List<String> cookieNames, String tenantId) throws CookieCategorizationException {
+        return categorizeCookies(cookieNames, Collections.emptyMap(), tenantId);
+    }
+
+    /**
+     * Categorize cookies, using the setting domain of each cookie as an extra signal for the local model
+     */
+    public Map<String, CookieCategorizationResponse> categorizeCookies(List<String> cookieNames, Map<String, String> domainsByName,
+                                                                       String tenantId) throws CookieCategorizationException {
         if (cookieNames == null || cookieNames.isEmpty()) {
             log.debug("No cookie names provided for categorization");
             return Collections.emptyMap();
@@ -79,9 +95,9 @@ public class CookieCategorizationService {
                 log.debug("Fetching categorization uncached cookies");
 
                 if (useExternalApi) {
-                    apiResults = callCategorizationApiWithRetry(uncachedCookies);
+                    apiResults = categorizeWithLocalModelAndApi(uncachedCookies, domainsByName);
                 } else {
-                    apiResults = getCategoriesFromCsv(uncachedCookies);
+                    apiResults = getCategoriesFromCsv(uncachedCookies, domainsByName);
                 }
 
                 if (!apiResults.isEmpty()) {
@@ -188,6 +204,72 @@ public class CookieCategorizationService {
         }
     }
 
+    /**
+     * Resolve names with the local model first; only low-confidence names go to the external API,
+     * and only while the categorization circuit breaker permits calls.
+     */
+    private Map<String, CookieCategorizationResponse> categorizeWithLocalModelAndApi(List<String> cookieNames,
+                                                                                     Map<String, String> domainsByName) {
+        Map<String, CookieCategorizationResponse> results = new ConcurrentHashMap<>();
+        Map<String, LocalCookieClassifier.Prediction> lowConfidence = new ConcurrentHashMap<>();
+        List<String> lowConfidenceNames = new ArrayList<>();
+
+        for (String cookieName : cookieNames) {
+            LocalCookieClassifier.Prediction prediction =
+                    localCookieClassifier.classify(cookieName, domainsByName.get(cookieName));
+
+            if (prediction != null && prediction.getConfidence() >= localCookieClassifier.getConfidenceThreshold()) {
+                results.put(cookieName, toResponse(cookieName, prediction.getCategory(), prediction.getConfidence()));
+            } else {
+                lowConfidenceNames.add(cookieName);
+                if (prediction != null) {
+                    lowConfidence.put(cookieName, prediction);
+                }
+            }
+        }
+
+        meterRegistry.counter("cookie_categorization_external_total", "outcome", "avoided").increment(results.size());
+
+        if (lowConfidenceNames.isEmpty()) {
+            return results;
+        }
+
+        try {
+            Map<String, CookieCategorizationResponse> apiResults =
+                    categorizationCircuitBreaker.executeCallable(() -> callCategorizationApiWithRetry(lowConfidenceNames));
+            results.putAll(apiResults);
+            meterRegistry.counter("cookie_categorization_external_total", "outcome", "success").increment(lowConfidenceNames.size());
+        } catch (CallNotPermittedException e) {
+            log.warn("Categorization circuit breaker is open, using local predictions for low-confidence cookies");
+            meterRegistry.counter("cookie_categorization_external_total", "outcome", "rejected").increment(lowConfidenceNames.size());
+        } catch (Exception e) {
+            log.warn("External categorization failed, using local predictions for low-confidence cookies");
+            meterRegistry.counter("cookie_categorization_external_total", "outcome", "failure").increment(lowConfidenceNames.size());
+        }
+
+        // Anything the API did not answer falls back to the best local guess
+        for (String cookieName : lowConfidenceNames) {
+            if (!results.containsKey(cookieName)) {
+                LocalCookieClassifier.Prediction prediction = lowConfidence.get(cookieName);
+                results.put(cookieName, prediction != null
+                        ? toResponse(cookieName, prediction.getCategory(), prediction.getConfidence())
+                        : toResponse(cookieName, "Others", 0.0));
+            }
+        }
+
+        return results;
+    }
+
+    private CookieCategorizationResponse toResponse(String cookieName, String category, double confidence) {
+        CookieCategorizationResponse response = new CookieCategorizationResponse();
+        response.setName(cookieName);
+        response.setCategory(category);
+        response.setConfidence(confidence);
+        response.setDescription(cookieCsvLoaderService.getDescriptionForCookie(cookieName));
+        response.setDescription_gpt(null);
+        return response;
+    }
+
     private Map<String, CookieCategorizationResponse> getCachedResults(List<String> cookieNames) {
         if (!cacheEnabled) {
             return Collections.emptyMap();
@@ -313,23 +395,21 @@ public class CookieCategorizationService {
     }
 
     /**
-     * Get categories from CSV data
+     * Get categories from the knowledge base, falling back to a confident local model prediction
      */
-    private Map<String, CookieCategorizationResponse> getCategoriesFromCsv(List<String> cookieNames) {
+    private Map<String, CookieCategorizationResponse> getCategoriesFromCsv(List<String> cookieNames,
+                                                                           Map<String, String> domainsByName) {
         Map<String, CookieCategorizationResponse> results = new ConcurrentHashMap<>();
 
         for (String cookieName : cookieNames) {
-            String category = cookieCsvLoaderService.getCategoryForCookie(cookieName);
+            LocalCookieClassifier.Prediction prediction =
+                    localCookieClassifier.classify(cookieName, domainsByName.get(cookieName));
 
-            if (category == null) {
-                category = "Others";
+            if (prediction != null && prediction.getConfidence() >= localCookieClassifier.getConfidenceThreshold()) {
+                results.put(cookieName, toResponse(cookieName, prediction.getCategory(), prediction.getConfidence()));
+            } else {
+                results.put(cookieName, toResponse(cookieName, "Others", 0.0));
             }
-            CookieCategorizationResponse response = new CookieCategorizationResponse();
-            response.setName(cookieName);
-            response.setCategory(category);
-            response.setDescription(null);
-            response.setDescription_gpt(null);
-            results.put(cookieName, response);
         }
 
         log.debug("CSV lookup: found out of cookies");
@@ -0,0 +1,296 @@
+package com.example.scanner.service;
+
+import com.example.scanner.util.CookieKnowledgeBaseCompiler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+
+import static com.example.scanner.util.CookieKnowledgeBaseCompiler.*;
+
+/**
+ * Read-only cookie knowledge base backed by the compact binary image produced by
+ * {@link CookieKnowledgeBaseCompiler}.
+ *
+ * Source precedence: an external file ({@code cookie.knowledge-base.path}, memory-mapped and
+ * hot-reloaded when it changes), then a bundled {@code cookie-knowledge-base.bin}, then the
+ * bundled CSV compiled in memory. Lookups compare the query bytes against the buffer in place;
+ * only the returned value is materialised as a String.
+ */
+@Service
+@Slf4j
+public class CookieKnowledgeBase {
+
+    private static final String BUNDLED_BINARY = "cookie-knowledge-base.bin";
+    private static final String BUNDLED_CSV = "open-cookie-database.csv";
+
+    @Value("${cookie.knowledge-base.path:}")
+    private String knowledgeBasePath;
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>(Snapshot.EMPTY);
+    private final List<Runnable> reloadListeners = new CopyOnWriteArrayList<>();
+
+    @PostConstruct
+    public void load() {
+        try {
+            Path external = externalPath();
+            if (external != null && Files.isRegularFile(external)) {
+                current.set(mapFile(external));
+            } else {
+                current.set(loadBundled());
+            }
+            Snapshot snapshot = current.get();
+            log.info("Cookie knowledge base loaded from {}: {} entries, {} bytes",
+                    snapshot.source, snapshot.entryCount, snapshot.buffer.capacity());
+        } catch (Exception e) {
+            log.error("Failed to load cookie knowledge base: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Swap in a new image when the external file changes. The new mapping is validated
+     * before it replaces the current one, so readers never observe a partial image.
+     */
+    @Scheduled(fixedDelayString = "${cookie.knowledge-base.reload-interval-ms:30000}")
+    public void reloadIfChanged() {
+        Path external = externalPath();
+        if (external == null || !Files.isRegularFile(external)) {
+            return;
+        }
+
+        try {
+            Snapshot snapshot = current.get();
+            FileTime modified = Files.getLastModifiedTime(external);
+            long size = Files.size(external);
+            if (modified.equals(snapshot.lastModified) && size == snapshot.fileSize) {
+                return;
+            }
+
+            Snapshot reloaded = mapFile(external);
+            current.set(reloaded);
+            log.info("Cookie knowledge base reloaded from {}: {} entries", reloaded.source, reloaded.entryCount);
+        } catch (Exception e) {
+            log.error("Failed to reload cookie knowledge base, keeping previous version: {}", e.getMessage());
+            return;
+        }
+
+        for (Runnable listener : reloadListeners) {
+            try {
+                listener.run();
+            } catch (Exception e) {
+                log.error("Cookie knowledge base reload listener failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Run {@code listener} on the reloading thread after a new image has been swapped in.
+     */
+    public void addReloadListener(Runnable listener) {
+        reloadListeners.add(listener);
+    }
+
+    public String getCategory(String cookieName) {
+        return lookup(cookieName, 1);
+    }
+
+    public String getDescription(String cookieName) {
+        return lookup(cookieName, 2);
+    }
+
+    public String getProvider(String cookieName) {
+        return lookup(cookieName, 3);
+    }
+
+    public boolean contains(String cookieName) {
+        return findEntry(current.get(), cookieName) >= 0;
+    }
+
+    public int size() {
+        return current.get().entryCount;
+    }
+
+    /**
+     * Visit every (name, category) pair without building an intermediate map.
+     */
+    public void forEachCategory(BiConsumer<String, String> consumer) {
+        Snapshot snapshot = current.get();
+        for (int entry = 0; entry < snapshot.entryCount; entry++) {
+            int entryPos = snapshot.entriesPos + entry * ENTRY_SIZE;
+            consumer.accept(snapshot.string(snapshot.buffer.getInt(entryPos)),
+                    snapshot.string(snapshot.buffer.getInt(entryPos + Integer.BYTES)));
+        }
+    }
+
+    private String lookup(String cookieName, int field) {
+        Snapshot snapshot = current.get();
+        int entry = findEntry(snapshot, cookieName);
+        if (entry < 0) {
+            return null;
+        }
+        int stringId = snapshot.buffer.getInt(snapshot.entriesPos + entry * ENTRY_SIZE + field * Integer.BYTES);
+        return snapshot.string(stringId);
+    }
+
+    private int findEntry(Snapshot snapshot, String cookieName) {
+        if (cookieName == null || snapshot.entryCount == 0) {
+            return -1;
+        }
+
+        byte[] key = cookieName.trim().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = snapshot.buffer;
+        int mask = snapshot.tableSlots - 1;
+        int slot = hash(key) & mask;
+
+        for (int probes = 0; probes < snapshot.tableSlots; probes++) {
+            int value = buffer.getInt(snapshot.tablePos + slot * Integer.BYTES);
+            if (value == 0) {
+                return -1;
+            }
+            int entry = value - 1;
+            int nameId = buffer.getInt(snapshot.entriesPos + entry * ENTRY_SIZE);
+            if (snapshot.stringEquals(nameId, key)) {
+                return entry;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private Path externalPath() {
+        return knowledgeBasePath == null || knowledgeBasePath.isBlank() ? null : Paths.get(knowledgeBasePath);
+    }
+
+    private Snapshot mapFile(Path path) throws IOException {
+        FileTime modified = Files.getLastModifiedTime(path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            // The mapping stays valid after the channel is closed and is released when the snapshot is collected
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return new Snapshot(mapped, path.toString(), modified, size);
+        }
+    }
+
+    private Snapshot loadBundled() throws IOException {
+        ClassPathResource binary = new ClassPathResource(BUNDLED_BINARY);
+        if (binary.exists()) {
+            try (InputStream in = binary.getInputStream()) {
+                return new Snapshot(toDirectBuffer(in.readAllBytes()), "classpath:" + BUNDLED_BINARY, null, -1);
+            }
+        }
+
+        ClassPathResource csv = new ClassPathResource(BUNDLED_CSV);
+        if (!csv.exists()) {
+            log.warn("No cookie knowledge base found on classpath");
+            return Snapshot.EMPTY;
+        }
+        // The build bundles the image; this only happens when running from unprocessed classes
+        log.warn("No {} on classpath, compiling {} at startup", BUNDLED_BINARY, BUNDLED_CSV);
+        try (InputStream in = csv.getInputStream()) {
+            return new Snapshot(toDirectBuffer(CookieKnowledgeBaseCompiler.compile(in)), "classpath:" + BUNDLED_CSV, null, -1);
+        }
+    }
+
+    private static ByteBuffer toDirectBuffer(byte[] image) {
+        ByteBuffer direct = ByteBuffer.allocateDirect(image.length);
+        direct.put(image).flip();
+        return direct;
+    }
+
+    private static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot();
+
+        final ByteBuffer buffer;
+        final String source;
+        final FileTime lastModified;
+        final long fileSize;
+        final int entryCount;
+        final int tableSlots;
+        final int stringOffsetsPos;
+        final int stringDataPos;
+        final int entriesPos;
+        final int tablePos;
+
+        private Snapshot() {
+            this.buffer = ByteBuffer.allocate(0);
+            this.source = "empty";
+            this.lastModified = null;
+            this.fileSize = -1;
+            this.entryCount = 0;
+            this.tableSlots = 0;
+            this.stringOffsetsPos = 0;
+            this.stringDataPos = 0;
+            this.entriesPos = 0;
+            this.tablePos = 0;
+        }
+
+        Snapshot(ByteBuffer buffer, String source, FileTime lastModified, long fileSize) {
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+                throw new IllegalStateException("Not a cookie knowledge base image: " + source);
+            }
+            if (buffer.getInt(4) != FORMAT_VERSION) {
+                throw new IllegalStateException("Unsupported knowledge base format version " + buffer.getInt(4));
+            }
+
+            this.buffer = buffer;
+            this.source = source;
+            this.lastModified = lastModified;
+            this.fileSize = fileSize;
+            this.entryCount = buffer.getInt(HEADER_ENTRY_COUNT);
+            this.tableSlots = buffer.getInt(HEADER_TABLE_SLOTS);
+            this.stringOffsetsPos = buffer.getInt(HEADER_STRING_OFFSETS_POS);
+            this.stringDataPos = buffer.getInt(HEADER_STRING_DATA_POS);
+            this.entriesPos = buffer.getInt(HEADER_ENTRIES_POS);
+            this.tablePos = buffer.getInt(HEADER_TABLE_POS);
+
+            if (Integer.bitCount(tableSlots) != 1
+                    || (long) tablePos + (long) tableSlots * Integer.BYTES > buffer.capacity()) {
+                throw new IllegalStateException("Corrupt cookie knowledge base image: " + source);
+            }
+        }
+
+        boolean stringEquals(int stringId, byte[] key) {
+            int start = buffer.getInt(stringOffsetsPos + stringId * Integer.BYTES);
+            int end = buffer.getInt(stringOffsetsPos + (stringId + 1) * Integer.BYTES);
+            if (end - start != key.length) {
+                return false;
+            }
+            int base = stringDataPos + start;
+            for (int i = 0; i < key.length; i++) {
+                if (buffer.get(base + i) != key[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        String string(int stringId) {
+            if (stringId == NO_STRING) {
+                return null;
+            }
+            int start = buffer.getInt(stringOffsetsPos + stringId * Integer.BYTES);
+            int end = buffer.getInt(stringOffsetsPos + (stringId + 1) * Integer.BYTES);
+            byte[] bytes = new byte[end - start];
+            buffer.get(stringDataPos + start, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package com.example.scanner.service;
 
-import com.example.scanner.config.MultiTenantMongoConfig;
+import com.example.scanner.config.TenantMongoTemplateRegistry;
 import com.example.scanner.constants.ErrorCodes;
 import com.example.scanner.dto.request.AddCookieRequest;
 import com.example.scanner.dto.response.AddCookieResponse;
@@ -38,8 +38,9 @@ public class CookieService {
     private static final Logger log = LoggerFactory.getLogger(CookieService.class);
     private static final String DEFAULT_SUBDOMAIN = "main";
 
-    private final MultiTenantMongoConfig mongoConfig;
+    private final TenantMongoTemplateRegistry mongoTemplateRegistry;
     private final CategoryService categoryService;
+    private final BannerPayloadService bannerPayloads;
 
     /**
      * Update a specific cookie's category and description within a transaction
@@ -128,7 +129,7 @@ public class CookieService {
     private Optional<ScanResultEntity> findScanResultByTransactionId(String tenantId, String transactionId) throws DataAccessException {
         TenantContext.setCurrentTenant(tenantId);
         try {
-            MongoTemplate tenantMongoTemplate = mongoConfig.getMongoTemplateForTenant(tenantId);
+            MongoTemplate tenantMongoTemplate = mongoTemplateRegistry.getMongoTemplateForTenant(tenantId);
             Query query = new Query(Criteria.where("transactionId").is(transactionId));
             ScanResultEntity result = tenantMongoTemplate.findOne(query, ScanResultEntity.class);
             return Optional.ofNullable(result);
@@ -216,11 +217,13 @@ public class CookieService {
     private void saveScanResult(String tenantId, ScanResultEntity scanResult, String transactionId) throws DataAccessException {
         TenantContext.setCurrentTenant(tenantId);
         try {
-            MongoTemplate tenantMongoTemplate = mongoConfig.getMongoTemplateForTenant(tenantId);
+            MongoTemplate tenantMongoTemplate = mongoTemplateRegistry.getMongoTemplateForTenant(tenantId);
             tenantMongoTemplate.save(scanResult);
         } finally {
             TenantContext.clear();
         }
+        // Banner payloads of templates built on this scan carry the old cookies
+        bannerPayloads.onScanChanged(tenantId, transactionId);
     }
 
     /**
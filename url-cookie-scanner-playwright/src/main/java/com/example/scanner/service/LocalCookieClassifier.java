@@ -0,0 +1,271 @@
+package com.example.scanner.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * In-process cookie categorizer trained from the cookie knowledge base at startup.
+ *
+ * Multinomial naive Bayes over character 2-4 grams of the cookie name, name tokens
+ * (split on separators and camelCase) and, when known, the labels of the setting domain.
+ * Features the training data never produced are ignored rather than scored with the smoothing
+ * mass, which would favour the smallest classes; the knowledge base only holds names, so domain
+ * labels count once it carries them. Exact knowledge base hits short-circuit with confidence 1.0.
+ * The model is retrained whenever the knowledge base reloads.
+ */
+@Service
+@Slf4j
+public class LocalCookieClassifier {
+
+    private static final double ALPHA = 0.1;
+    private static final int MIN_NGRAM = 2;
+    private static final int MAX_NGRAM = 4;
+
+    private final CookieKnowledgeBase cookieKnowledgeBase;
+
+    private final Counter exactHits;
+    private final Counter confidentPredictions;
+    private final Counter lowConfidencePredictions;
+    private final DistributionSummary confidenceDistribution;
+
+    @Value("${cookie.categorization.local-model.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cookie.categorization.local-model.confidence-threshold:0.85}")
+    private double confidenceThreshold;
+
+    private volatile Model model;
+
+    public LocalCookieClassifier(CookieKnowledgeBase cookieKnowledgeBase, MeterRegistry meterRegistry) {
+        this.cookieKnowledgeBase = cookieKnowledgeBase;
+
+        this.exactHits = Counter.builder("cookie_categorization_local_total")
+                .description("Cookie names resolved by the local model")
+                .tag("outcome", "exact")
+                .register(meterRegistry);
+
+        this.confidentPredictions = Counter.builder("cookie_categorization_local_total")
+                .description("Cookie names resolved by the local model")
+                .tag("outcome", "confident")
+                .register(meterRegistry);
+
+        this.lowConfidencePredictions = Counter.builder("cookie_categorization_local_total")
+                .description("Cookie names resolved by the local model")
+                .tag("outcome", "low_confidence")
+                .register(meterRegistry);
+
+        this.confidenceDistribution = DistributionSummary.builder("cookie_categorization_local_confidence")
+                .description("Confidence of local model predictions for unknown cookie names")
+                .publishPercentiles(0.1, 0.5, 0.9)
+                .minimumExpectedValue(0.0)
+                .maximumExpectedValue(1.0)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            log.info("Local cookie categorization model is disabled");
+            return;
+        }
+        train();
+        cookieKnowledgeBase.addReloadListener(this::train);
+    }
+
+    /**
+     * Train on the current knowledge base and swap the new model in.
+     */
+    void train() {
+
+        long start = System.nanoTime();
+        Map<String, Integer> classIds = new HashMap<>();
+        Map<String, Integer> featureIds = new HashMap<>();
+        List<int[]> samples = new ArrayList<>();
+        List<Integer> labels = new ArrayList<>();
+
+        cookieKnowledgeBase.forEachCategory((name, category) -> {
+            int classId = classIds.computeIfAbsent(category, c -> classIds.size());
+            List<String> features = extractFeatures(name, null);
+            int[] ids = new int[features.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = featureIds.computeIfAbsent(features.get(i), f -> featureIds.size());
+            }
+            samples.add(ids);
+            labels.add(classId);
+        });
+
+        if (classIds.isEmpty()) {
+            log.warn("Cookie knowledge base is empty, local categorization model not trained");
+            return;
+        }
+
+        int classCount = classIds.size();
+        int featureCount = featureIds.size();
+        double[][] featureCounts = new double[classCount][featureCount];
+        double[] featureTotals = new double[classCount];
+        double[] classCounts = new double[classCount];
+
+        for (int s = 0; s < samples.size(); s++) {
+            int c = labels.get(s);
+            classCounts[c]++;
+            for (int f : samples.get(s)) {
+                featureCounts[c][f]++;
+                featureTotals[c]++;
+            }
+        }
+
+        // Convert counts into smoothed log probabilities in place
+        double[] logPriors = new double[classCount];
+        for (int c = 0; c < classCount; c++) {
+            logPriors[c] = Math.log(classCounts[c] / samples.size());
+            double denominator = featureTotals[c] + ALPHA * featureCount;
+            for (int f = 0; f < featureCount; f++) {
+                featureCounts[c][f] = Math.log((featureCounts[c][f] + ALPHA) / denominator);
+            }
+        }
+
+        String[] classNames = new String[classCount];
+        classIds.forEach((name, id) -> classNames[id] = name);
+
+        this.model = new Model(classNames, featureIds, featureCounts, logPriors);
+        log.info("Local cookie categorization model trained on {} names ({} classes, {} features) in {}ms",
+                samples.size(), classCount, featureCount, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public boolean isEnabled() {
+        return enabled && model != null;
+    }
+
+    public double getConfidenceThreshold() {
+        return confidenceThreshold;
+    }
+
+    /**
+     * Categorize a cookie name. Returns null when the model is disabled or untrained.
+     *
+     * @param domain domain that set the cookie, may be null
+     */
+    public Prediction classify(String cookieName, String domain) {
+        if (cookieName == null || cookieName.isBlank()) {
+            return null;
+        }
+
+        String known = cookieKnowledgeBase.getCategory(cookieName);
+        if (known != null) {
+            exactHits.increment();
+            return new Prediction(known, 1.0, true);
+        }
+
+        Model current = this.model;
+        if (!enabled || current == null) {
+            return null;
+        }
+
+        Prediction prediction = current.predict(extractFeatures(cookieName.trim(), domain));
+        confidenceDistribution.record(prediction.getConfidence());
+        if (prediction.getConfidence() >= confidenceThreshold) {
+            confidentPredictions.increment();
+        } else {
+            lowConfidencePredictions.increment();
+        }
+        return prediction;
+    }
+
+    static List<String> extractFeatures(String name, String domain) {
+        List<String> features = new ArrayList<>();
+        String lower = name.toLowerCase(Locale.ROOT);
+
+        String padded = "^" + lower + "$";
+        for (int n = MIN_NGRAM; n <= MAX_NGRAM; n++) {
+            for (int i = 0; i + n <= padded.length(); i++) {
+                features.add(padded.substring(i, i + n));
+            }
+        }
+
+        for (String token : name.split("[^A-Za-z0-9]+|(?<=[a-z])(?=[A-Z])|(?<=[A-Za-z])(?=[0-9])")) {
+            if (!token.isEmpty()) {
+                features.add("t:" + token.toLowerCase(Locale.ROOT));
+            }
+        }
+
+        if (domain != null && !domain.isBlank()) {
+            String[] labels = domain.toLowerCase(Locale.ROOT).replaceFirst("^\\.", "").split("\\.");
+            // Skip the TLD and generic host labels; keep the labels that identify the vendor
+            for (int i = 0; i < labels.length - 1; i++) {
+                if (!labels[i].isEmpty() && !labels[i].equals("www")) {
+                    features.add("d:" + labels[i]);
+                }
+            }
+        }
+
+        return features;
+    }
+
+    public static class Prediction {
+        private final String category;
+        private final double confidence;
+        private final boolean exact;
+
+        Prediction(String category, double confidence, boolean exact) {
+            this.category = category;
+            this.confidence = confidence;
+            this.exact = exact;
+        }
+
+        public String getCategory() { return category; }
+        public double getConfidence() { return confidence; }
+        public boolean isExact() { return exact; }
+    }
+
+    private static final class Model {
+        private final String[] classNames;
+        private final Map<String, Integer> featureIds;
+        private final double[][] logLikelihoods;
+        private final double[] logPriors;
+
+        Model(String[] classNames, Map<String, Integer> featureIds, double[][] logLikelihoods,
+              double[] logPriors) {
+            this.classNames = classNames;
+            this.featureIds = featureIds;
+            this.logLikelihoods = logLikelihoods;
+            this.logPriors = logPriors;
+        }
+
+        Prediction predict(List<String> features) {
+            double[] scores = logPriors.clone();
+            for (String feature : features) {
+                Integer id = featureIds.get(feature);
+                if (id == null) {
+                    continue;
+                }
+                for (int c = 0; c < scores.length; c++) {
+                    scores[c] += logLikelihoods[c][id];
+                }
+            }
+
+            // Softmax over log scores gives the posterior of the best class
+            int best = 0;
+            for (int c = 1; c < scores.length; c++) {
+                if (scores[c] > scores[best]) {
+                    best = c;
+                }
+            }
+            double sum = 0;
+            for (double score : scores) {
+                sum += Math.exp(score - scores[best]);
+            }
+            return new Prediction(classNames[best], 1.0 / sum, false);
+        }
+    }
+}
@@ -8,8 +8,11 @@ import com.example.scanner.enums.RequestorType;
 import com.example.scanner.exception.CustomException;
 import com.example.scanner.repository.JwkKeyRepository;
 import com.example.scanner.repository.impl.BusinessKeyRepository;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import com.auth0.jwt.*;
@@ -23,13 +26,26 @@ import java.security.spec.X509EncodedKeySpec;
 import java.util.Base64;
 import java.util.HashMap;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
 import java.util.Map;
 import java.util.TreeMap;
-
-
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Detached JWS signatures on requests and responses.
+ *
+ * Request signatures are checked with the certificate of the business (system_configurations)
+ * or data processor (data_processors). The parsed key and its verifier are cached per tenant and
+ * owner for {@code app.verify.key-cache.ttl-seconds}; certificates are written by another
+ * service, which calls {@link #invalidate} (exposed on the {@code requestsigningkeys} actuator
+ * endpoint) when one changes. Payloads are serialized with the application's ObjectMapper.
+ */
 @Slf4j
 @Service
 public class RequestResponseSignatureService {
@@ -40,11 +56,11 @@ public class RequestResponseSignatureService {
     private static final String HEADER_ENTITY = "requestor-type";
     private static final String HEADER_DATA_PROCESSOR_ID = "data-processor-id";
 
-    @Autowired
-    private BusinessKeyRepository businessKeyRepository;
-
-    @Autowired
-    private JwkKeyRepository jwkKeyRepository;
+    private final BusinessKeyRepository businessKeyRepository;
+    private final JwkKeyRepository jwkKeyRepository;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter payloadWriter;
+    private final Cache<String, JWTVerifier> verifiers;
 
     @Value("${app.sign.response:false}")
     private boolean signResponse;
@@ -52,6 +68,32 @@ public class RequestResponseSignatureService {
     @Value("${app.verify.request:false}")
     private boolean verifyRequest;
 
+    public RequestResponseSignatureService(BusinessKeyRepository businessKeyRepository,
+                                           JwkKeyRepository jwkKeyRepository,
+                                           ObjectMapper objectMapper,
+                                           MeterRegistry meterRegistry,
+                                           @Value("${app.verify.key-cache.ttl-seconds:600}") long cacheTtlSeconds,
+                                           @Value("${app.verify.key-cache.max-size:10000}") long cacheMaxSize) {
+        this.businessKeyRepository = businessKeyRepository;
+        this.jwkKeyRepository = jwkKeyRepository;
+        this.objectMapper = objectMapper;
+        this.payloadWriter = objectMapper.writer();
+        this.verifiers = CacheBuilder.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheTtlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+
+        GuavaCacheMetrics.monitor(meterRegistry, verifiers, "request_signature_key_cache");
+    }
+
+    /**
+     * Request body as the map that is signed and verified, top-level keys sorted.
+     */
+    public Map<String, Object> toSignablePayload(Object body) {
+        return objectMapper.convertValue(body, new TypeReference<TreeMap<String, Object>>() {});
+    }
+
     public boolean verifyRequest(Map<String, Object> payload, Map<String, String> headers) {
         if(!verifyRequest){
             log.info("Request verification is disabled");
@@ -63,29 +105,21 @@ public class RequestResponseSignatureService {
             String dataprocessorId = headers.get(HEADER_DATA_PROCESSOR_ID);
             String detachedJwt = headers.get(HEADER_SIGNATURE);
             String entity = headers.get(HEADER_ENTITY);
-            String encodedKey = "";
             RequestorType entityType = RequestorType.fromString(entity);
 
+            String ownerId;
             switch (entityType) {
                 case DATAPROCESSOR:
-                    encodedKey = businessKeyRepository.findCertOfDataProcessor(tenantId, dataprocessorId);
+                    ownerId = dataprocessorId;
+                    break;
                 case DATAFIDUCIARY:
-                    encodedKey = businessKeyRepository.findCertificateByBusinessId(tenantId, businessId);
+                    ownerId = businessId;
                     break;
                 default:
                     throw new CustomException(ErrorCodes.INVALID_REQUEST, "Unknown entity type: " + entity);
             }
 
-            String key = decodeCertificate(encodedKey);
-            String pem = key
-                    .replace("-----BEGIN PUBLIC KEY-----", "")
-                    .replace("-----END PUBLIC KEY-----", "")
-                    .replaceAll("\\s", "");
-
-            byte[] keyBytes = Base64.getDecoder().decode(pem);
-            X509EncodedKeySpec spec = new X509EncodedKeySpec(keyBytes);
-            KeyFactory keyFactory = KeyFactory.getInstance("RSA");
-            PublicKey publicKey = keyFactory.generatePublic(spec);
+            JWTVerifier verifier = verifierFor(tenantId, entityType, ownerId);
 
             // Reconstruct full JWT (header.payload.signature)
             String[] parts = detachedJwt.split("\\.\\.");
@@ -97,16 +131,13 @@ public class RequestResponseSignatureService {
             String header = parts[0];
             String signature = parts[1];
 
-            ObjectMapper mapper = new ObjectMapper();
-            String payloadJson = mapper.writeValueAsString(payload);
+            String payloadJson = payloadWriter.writeValueAsString(payload);
             String payloadBase64 = Base64.getUrlEncoder()
                     .withoutPadding()
                     .encodeToString(payloadJson.getBytes(StandardCharsets.UTF_8));
 
             String reconstructedJwt = header + "." + payloadBase64 + "." + signature;
 
-            Algorithm verifyAlgo = Algorithm.RSA256((RSAPublicKey) publicKey, null);
-            JWTVerifier verifier = JWT.require(verifyAlgo).build();
             verifier.verify(reconstructedJwt);
 
             log.info("Detached JWT verification successful");
@@ -149,8 +180,7 @@ public class RequestResponseSignatureService {
             PrivateKey privateKey = keyFactory.generatePrivate(keySpec);
 
             // Convert payload to JSON
-            ObjectMapper mapper = new ObjectMapper();
-            String payloadJson = mapper.writeValueAsString(payload);
+            String payloadJson = payloadWriter.writeValueAsString(payload);
 
             // Sign JWT
             Algorithm algorithm = Algorithm.RSA256(null, (RSAPrivateKey) privateKey);
@@ -175,6 +205,52 @@ public class RequestResponseSignatureService {
         }
     }
 
+    /**
+     * Drop the cached keys of a business or data processor after its certificate changed.
+     */
+    public void invalidate(String tenantId, String ownerId) {
+        verifiers.invalidate(cacheKey(tenantId, RequestorType.DATAFIDUCIARY, ownerId));
+        verifiers.invalidate(cacheKey(tenantId, RequestorType.DATAPROCESSOR, ownerId));
+        log.info("Request signing keys invalidated for owner {} in tenant {}", ownerId, tenantId);
+    }
+
+    private JWTVerifier verifierFor(String tenantId, RequestorType entityType, String ownerId) throws Exception {
+        try {
+            return verifiers.get(cacheKey(tenantId, entityType, ownerId),
+                    () -> loadVerifier(tenantId, entityType, ownerId));
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    private JWTVerifier loadVerifier(String tenantId, RequestorType entityType, String ownerId) throws Exception {
+        String encodedKey = entityType == RequestorType.DATAPROCESSOR
+                ? businessKeyRepository.findCertOfDataProcessor(tenantId, ownerId)
+                : businessKeyRepository.findCertificateByBusinessId(tenantId, ownerId);
+
+        String key = decodeCertificate(encodedKey);
+        if (key == null) {
+            throw new IllegalStateException("No usable certificate for " + entityType + " " + ownerId);
+        }
+        String pem = key
+                .replace("-----BEGIN PUBLIC KEY-----", "")
+                .replace("-----END PUBLIC KEY-----", "")
+                .replaceAll("\\s", "");
+
+        byte[] keyBytes = Base64.getDecoder().decode(pem);
+        X509EncodedKeySpec spec = new X509EncodedKeySpec(keyBytes);
+        KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+        PublicKey publicKey = keyFactory.generatePublic(spec);
+
+        // JWTVerifier is immutable and thread-safe, so one instance serves all requests
+        Algorithm verifyAlgo = Algorithm.RSA256((RSAPublicKey) publicKey, null);
+        return JWT.require(verifyAlgo).build();
+    }
+
+    private static String cacheKey(String tenantId, RequestorType entityType, String ownerId) {
+        return tenantId + "|" + entityType + "|" + ownerId;
+    }
+
     public String decodeCertificate(String encodedValue) {
         if (encodedValue == null || encodedValue.isBlank()) {
             return null;
@@ -1,6 +1,7 @@
 package com.example.scanner.service;
 
-import com.example.scanner.config.MultiTenantMongoConfig;
+import com.example.scanner.config.TenantBulkheads;
+import com.example.scanner.config.TenantMongoTemplateRegistry;
 import com.example.scanner.constants.AuditConstants;
 import com.example.scanner.constants.ErrorCodes;
 import com.example.scanner.dto.response.CookieCategorizationResponse;
@@ -53,7 +54,8 @@ public class ScanService {
 
     private final CookieCategorizationService cookieCategorizationService;
     private final CookieScanMetrics metrics;
-    private final MultiTenantMongoConfig mongoConfig;
+    private final TenantMongoTemplateRegistry mongoTemplateRegistry;
+    private final TenantBulkheads tenantBulkheads;
     private final AuditService auditService;
 
     @Value("${scanner.browser.launch.timeout.ms:30000}")
@@ -775,8 +777,15 @@ public class ScanService {
             log.info("Categorizing {} unique cookie names with ONE API call (from {} cookies to save)",
                     cookieNames.size(), cookiesToSave.size());
 
+            Map<String, String> domainsByName = new HashMap<>();
+            for (CookieDto cookie : cookiesToSave) {
+                if (cookie.getDomain() != null) {
+                    domainsByName.putIfAbsent(cookie.getName(), cookie.getDomain());
+                }
+            }
+
             Map<String, CookieCategorizationResponse> results =
-                    cookieCategorizationService.categorizeCookies(cookieNames,tenantId);
+                    cookieCategorizationService.categorizeCookies(cookieNames, domainsByName, tenantId);
 
             for (CookieDto cookie : cookiesToSave) {
                 String cookieName = cookie.getName();
@@ -815,8 +824,8 @@ public class ScanService {
     private void saveScanResultToTenant(String tenantId, ScanResultEntity result) {
         TenantContext.setCurrentTenant(tenantId);
         try {
-            MongoTemplate tenantMongoTemplate = mongoConfig.getMongoTemplateForTenant(tenantId);
-            tenantMongoTemplate.save(result);
+            MongoTemplate tenantMongoTemplate = mongoTemplateRegistry.getMongoTemplateForTenant(tenantId);
+            tenantBulkheads.run(tenantId, TenantBulkheads.OperationClass.SCAN_WRITE, () -> tenantMongoTemplate.save(result));
         } finally {
             TenantContext.clear();
         }
@@ -829,7 +838,7 @@ public class ScanService {
     private ScanResultEntity findScanResultFromTenant(String tenantId, String transactionId) {
         TenantContext.setCurrentTenant(tenantId);
         try {
-            MongoTemplate tenantMongoTemplate = mongoConfig.getMongoTemplateForTenant(tenantId);
+            MongoTemplate tenantMongoTemplate = mongoTemplateRegistry.getMongoTemplateForTenant(tenantId);
             Query query = new Query(Criteria.where("transactionId").is(transactionId));
             return tenantMongoTemplate.findOne(query, ScanResultEntity.class);
         } finally {
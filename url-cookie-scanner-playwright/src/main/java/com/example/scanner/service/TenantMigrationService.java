@@ -0,0 +1,370 @@
+package com.example.scanner.service;
+
+import com.example.scanner.config.TenantClusterRouter;
+import com.example.scanner.config.TenantIndexProvisioner;
+import com.example.scanner.config.TenantMongoTemplateRegistry;
+import com.example.scanner.entity.TenantPlacement;
+import com.example.scanner.enums.PlacementState;
+import com.example.scanner.enums.StorageMode;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.scanner.config.TenantScopedMongoTemplate.TENANT_FIELD;
+
+/**
+ * Online migration of a tenant database between Mongo clusters, and moves between a tenant's
+ * own database and the pooled collections ({@link #migrateStorage}).
+ *
+ * 1. Open a change stream on the source database (replica sets only).
+ * 2. Bulk copy every collection to the target while the tenant stays online.
+ * 3. Freeze the tenant and wait one placement cache TTL plus a grace period, so every
+ *    instance stops handing out templates and in-flight requests finish.
+ * 4. Apply the changes captured since step 1, or re-copy everything when change streams are
+ *    unavailable (standalone mongod), then ensure indexes on the target.
+ * 5. Switch the placement to the target cluster and unfreeze.
+ *
+ * The source database is left in place so the move can be reverted by migrating back.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TenantMigrationService {
+
+    private final TenantClusterRouter clusterRouter;
+    private final TenantMongoTemplateRegistry mongoTemplateRegistry;
+    private final TenantIndexProvisioner indexProvisioner;
+
+    @Value("${multi-tenant.migration.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${multi-tenant.migration.freeze-grace-ms:2000}")
+    private long freezeGraceMs;
+
+    public synchronized Map<String, Object> migrate(String tenantId, String targetCluster) {
+        if (!clusterRouter.isEnabled()) {
+            throw new IllegalStateException("Tenant routing is disabled (multi-tenant.routing.enabled=false)");
+        }
+        if (!clusterRouter.isKnownCluster(targetCluster)) {
+            throw new IllegalArgumentException("Unknown cluster: " + targetCluster);
+        }
+
+        clusterRouter.invalidate(tenantId);
+        TenantPlacement current = clusterRouter.placementFor(tenantId);
+        String sourceCluster = current.getCluster();
+        if (sourceCluster.equals(targetCluster)) {
+            throw new IllegalArgumentException("Tenant " + tenantId + " is already on cluster " + targetCluster);
+        }
+        if (current.getState() != PlacementState.ACTIVE) {
+            throw new IllegalStateException("Tenant " + tenantId + " is already being migrated");
+        }
+        if (current.isPooled()) {
+            throw new IllegalStateException("Tenant " + tenantId + " is pooled; move it to its own database first");
+        }
+
+        String databaseName = mongoTemplateRegistry.getDatabaseName(tenantId);
+        MongoDatabase source = clusterRouter.clientForCluster(sourceCluster, tenantId).getDatabase(databaseName);
+        MongoDatabase target = clusterRouter.clientForCluster(targetCluster, tenantId).getDatabase(databaseName);
+        if (target.listCollectionNames().first() != null) {
+            throw new IllegalStateException("Database " + databaseName + " already exists on cluster " + targetCluster);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("tenantId", tenantId);
+        result.put("sourceCluster", sourceCluster);
+        result.put("targetCluster", targetCluster);
+        long start = System.currentTimeMillis();
+
+        MongoChangeStreamCursor<ChangeStreamDocument<Document>> changes = openChangeStream(source);
+        boolean frozen = false;
+        try {
+            result.put("copied", copyAll(source, target));
+
+            clusterRouter.savePlacement(placement(tenantId, sourceCluster, PlacementState.FROZEN,
+                    StorageMode.DATABASE, current.getPreviousCluster()));
+            frozen = true;
+            long freezeStart = System.currentTimeMillis();
+            Thread.sleep(clusterRouter.getPlacementCacheTtlSeconds() * 1000 + freezeGraceMs);
+
+            if (changes != null) {
+                result.put("changesApplied", applyChanges(changes, target));
+            } else {
+                target.drop();
+                result.put("recopied", copyAll(source, target));
+            }
+
+            indexProvisioner.reprovision(tenantId, mongoTemplateRegistry.getMongoTemplateOnCluster(targetCluster, tenantId));
+
+            clusterRouter.savePlacement(placement(tenantId, targetCluster, PlacementState.ACTIVE,
+                    StorageMode.DATABASE, sourceCluster));
+            frozen = false;
+            mongoTemplateRegistry.evict(tenantId);
+
+            result.put("freezeMs", System.currentTimeMillis() - freezeStart);
+            result.put("totalMs", System.currentTimeMillis() - start);
+            log.info("Migrated tenant {} from {} to {} in {}ms", tenantId, sourceCluster, targetCluster,
+                    System.currentTimeMillis() - start);
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Migration of tenant " + tenantId + " was interrupted", e);
+        } finally {
+            if (changes != null) {
+                changes.close();
+            }
+            if (frozen) {
+                // Unfreeze on the source cluster; the partial copy on the target is left for inspection
+                clusterRouter.savePlacement(placement(tenantId, sourceCluster, PlacementState.ACTIVE,
+                        StorageMode.DATABASE, current.getPreviousCluster()));
+                log.error("Migration of tenant {} to {} failed, tenant restored on {}", tenantId, targetCluster, sourceCluster);
+            }
+        }
+    }
+
+    /**
+     * Move a tenant between its own database and the pooled collections on its current
+     * cluster. Pooled tenants are small, so the tenant is frozen for the whole copy instead of
+     * tailing a change stream. Document counts are verified before the switch; afterwards the
+     * source copy is removed so a later move back starts from a clean target.
+     */
+    public synchronized Map<String, Object> migrateStorage(String tenantId, StorageMode targetMode) {
+        if (!clusterRouter.isPooledEnabled()) {
+            throw new IllegalStateException("Pooled storage is disabled (multi-tenant.pooled.enabled=false)");
+        }
+
+        clusterRouter.invalidate(tenantId);
+        TenantPlacement current = clusterRouter.placementFor(tenantId);
+        StorageMode sourceMode = current.isPooled() ? StorageMode.POOLED : StorageMode.DATABASE;
+        if (sourceMode == targetMode) {
+            throw new IllegalArgumentException("Tenant " + tenantId + " already uses " + targetMode + " storage");
+        }
+        if (current.getState() != PlacementState.ACTIVE) {
+            throw new IllegalStateException("Tenant " + tenantId + " is already being migrated");
+        }
+
+        String cluster = current.getCluster();
+        MongoClient client = clusterRouter.clientForCluster(cluster, tenantId);
+        MongoDatabase tenantDatabase = client.getDatabase(mongoTemplateRegistry.getDatabaseName(tenantId));
+        MongoDatabase pooledDatabase = client.getDatabase(clusterRouter.getPooledDatabase());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("tenantId", tenantId);
+        result.put("cluster", cluster);
+        result.put("sourceMode", sourceMode);
+        result.put("targetMode", targetMode);
+        long start = System.currentTimeMillis();
+
+        clusterRouter.savePlacement(placement(tenantId, cluster, PlacementState.FROZEN, sourceMode,
+                current.getPreviousCluster()));
+        boolean frozen = true;
+        try {
+            Thread.sleep(clusterRouter.getPlacementCacheTtlSeconds() * 1000 + freezeGraceMs);
+
+            Map<String, Long> copied;
+            if (targetMode == StorageMode.POOLED) {
+                copied = copyToPool(tenantId, tenantDatabase, pooledDatabase);
+                indexProvisioner.reprovisionPooled(cluster, mongoTemplateRegistry.getPooledTemplateOnCluster(cluster, tenantId));
+            } else {
+                // A database left by an earlier move is stale; the pooled documents are authoritative
+                tenantDatabase.drop();
+                copied = copyFromPool(tenantId, pooledDatabase, tenantDatabase);
+                indexProvisioner.reprovision(tenantId, mongoTemplateRegistry.getMongoTemplateOnCluster(cluster, tenantId));
+            }
+            result.put("copied", copied);
+
+            clusterRouter.savePlacement(placement(tenantId, cluster, PlacementState.ACTIVE, targetMode,
+                    current.getPreviousCluster()));
+            frozen = false;
+            mongoTemplateRegistry.evict(tenantId);
+
+            if (targetMode == StorageMode.POOLED) {
+                tenantDatabase.drop();
+            } else {
+                for (String name : copied.keySet()) {
+                    pooledDatabase.getCollection(name).deleteMany(Filters.eq(TENANT_FIELD, tenantId));
+                }
+            }
+
+            result.put("totalMs", System.currentTimeMillis() - start);
+            log.info("Moved tenant {} from {} to {} storage in {}ms", tenantId, sourceMode, targetMode,
+                    System.currentTimeMillis() - start);
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Storage migration of tenant " + tenantId + " was interrupted", e);
+        } finally {
+            if (frozen) {
+                clusterRouter.savePlacement(placement(tenantId, cluster, PlacementState.ACTIVE, sourceMode,
+                        current.getPreviousCluster()));
+                log.error("Storage migration of tenant {} to {} failed, tenant restored to {}", tenantId, targetMode, sourceMode);
+            }
+        }
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> openChangeStream(MongoDatabase source) {
+        try {
+            return source.watch().fullDocument(FullDocument.UPDATE_LOOKUP).cursor();
+        } catch (Exception e) {
+            log.info("Change streams unavailable on {} ({}), deltas will be re-copied during the freeze",
+                    source.getName(), e.getMessage());
+            return null;
+        }
+    }
+
+    private Map<String, Long> copyAll(MongoDatabase source, MongoDatabase target) {
+        Map<String, Long> copied = new LinkedHashMap<>();
+        for (String name : source.listCollectionNames()) {
+            if (name.startsWith("system.")) {
+                continue;
+            }
+            copied.put(name, copy(source.getCollection(name).find().batchSize(batchSize), target.getCollection(name), null));
+        }
+        return copied;
+    }
+
+    private Map<String, Long> copyToPool(String tenantId, MongoDatabase tenantDatabase, MongoDatabase pooledDatabase) {
+        Map<String, Long> copied = new LinkedHashMap<>();
+        for (String name : tenantDatabase.listCollectionNames()) {
+            if (name.startsWith("system.")) {
+                continue;
+            }
+            MongoCollection<Document> to = pooledDatabase.getCollection(name);
+            // Remove leftovers of an earlier pooled period before copying
+            to.deleteMany(Filters.eq(TENANT_FIELD, tenantId));
+            long count = copy(tenantDatabase.getCollection(name).find().batchSize(batchSize), to, tenantId);
+            verify(name, tenantDatabase.getCollection(name).countDocuments(), to.countDocuments(Filters.eq(TENANT_FIELD, tenantId)));
+            copied.put(name, count);
+        }
+        return copied;
+    }
+
+    private Map<String, Long> copyFromPool(String tenantId, MongoDatabase pooledDatabase, MongoDatabase tenantDatabase) {
+        Map<String, Long> copied = new LinkedHashMap<>();
+        for (String name : pooledDatabase.listCollectionNames()) {
+            if (name.startsWith("system.")) {
+                continue;
+            }
+            MongoCollection<Document> from = pooledDatabase.getCollection(name);
+            long expected = from.countDocuments(Filters.eq(TENANT_FIELD, tenantId));
+            if (expected == 0) {
+                continue;
+            }
+            // tenantId is kept on the documents; entities without the field ignore it
+            MongoCollection<Document> to = tenantDatabase.getCollection(name);
+            long count = copy(from.find(Filters.eq(TENANT_FIELD, tenantId)).batchSize(batchSize), to, null);
+            verify(name, expected, to.countDocuments());
+            copied.put(name, count);
+        }
+        return copied;
+    }
+
+    private long copy(Iterable<Document> documents, MongoCollection<Document> to, String stampTenantId) {
+        long count = 0;
+        List<WriteModel<Document>> batch = new ArrayList<>(batchSize);
+        for (Document doc : documents) {
+            if (stampTenantId != null) {
+                doc.put(TENANT_FIELD, stampTenantId);
+            }
+            batch.add(new InsertOneModel<>(doc));
+            if (batch.size() >= batchSize) {
+                insert(to, batch);
+                count += batch.size();
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            insert(to, batch);
+            count += batch.size();
+        }
+        return count;
+    }
+
+    /**
+     * Targets hold none of the tenant's documents when the copy starts, so plain inserts suffice.
+     * In the pooled collections an _id taken by another tenant fails the copy instead of
+     * replacing that tenant's document.
+     */
+    private static void insert(MongoCollection<Document> to, List<WriteModel<Document>> batch) {
+        try {
+            to.bulkWrite(batch);
+        } catch (MongoBulkWriteException e) {
+            if (e.getWriteErrors().stream().anyMatch(error -> error.getCategory() == ErrorCategory.DUPLICATE_KEY)) {
+                throw new IllegalStateException("Copy of " + to.getNamespace().getCollectionName()
+                        + " failed: a document _id is already used in the target", e);
+            }
+            throw e;
+        }
+    }
+
+    private static void verify(String collection, long expected, long actual) {
+        if (expected != actual) {
+            throw new IllegalStateException("Copy of " + collection + " incomplete: expected " + expected
+                    + " documents, found " + actual);
+        }
+    }
+
+    /**
+     * Replays source changes by _id. Only used by {@link #migrate}, whose target is the tenant's
+     * own database on another cluster, never the pooled collections.
+     */
+    private long applyChanges(MongoChangeStreamCursor<ChangeStreamDocument<Document>> changes, MongoDatabase target) {
+        long applied = 0;
+        ChangeStreamDocument<Document> change;
+        while ((change = changes.tryNext()) != null) {
+            if (change.getNamespace() == null || change.getOperationType() == null) {
+                continue;
+            }
+            MongoCollection<Document> collection = target.getCollection(change.getNamespace().getCollectionName());
+            switch (change.getOperationType()) {
+                case INSERT, REPLACE, UPDATE -> {
+                    // Lookup returns the current document, or null if it was deleted afterwards
+                    if (change.getFullDocument() != null) {
+                        collection.replaceOne(Filters.eq("_id", change.getFullDocument().get("_id")),
+                                change.getFullDocument(), new ReplaceOptions().upsert(true));
+                        applied++;
+                    }
+                }
+                case DELETE -> {
+                    BsonDocument key = change.getDocumentKey();
+                    if (key != null) {
+                        collection.deleteOne(Filters.eq("_id", key.get("_id")));
+                        applied++;
+                    }
+                }
+                default -> log.debug("Ignoring {} event during migration", change.getOperationType());
+            }
+        }
+        return applied;
+    }
+
+    private static TenantPlacement placement(String tenantId, String cluster, PlacementState state,
+                                             StorageMode storageMode, String previousCluster) {
+        return TenantPlacement.builder()
+                .tenantId(tenantId)
+                .cluster(cluster)
+                .state(state)
+                .storageMode(storageMode)
+                .previousCluster(previousCluster)
+                .build();
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.scanner.service;
+
+import com.example.scanner.dto.response.VaultVerifyResponse;
+import com.example.scanner.util.JwsVerifiers;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSObject;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.text.ParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifies Vault-signed consent JWS tokens locally, with the Vault public keys of each
+ * (tenant, business) cached for {@code vault.jws.jwks-ttl-minutes}.
+ *
+ * Enabled with {@code vault.jws.verification-mode=local}. A token whose kid is not in the cached
+ * set triggers a refetch, at most once per {@code vault.jws.jwks-min-refresh-ms}. When a token
+ * cannot be checked locally (JWKS unavailable, unknown kid, unsupported algorithm)
+ * {@link #verify} returns null and the caller asks Vault instead.
+ *
+ * Metrics: {@code consent_jws_verifications_total{path="local|remote_fallback"}}.
+ */
+@Slf4j
+@Component
+public class VaultJwsVerifier {
+
+    private final VaultService vaultService;
+    private final Cache<String, SigningKeys> jwks;
+    private final Map<String, Long> lastFetch = new ConcurrentHashMap<>();
+    private final Counter local;
+    private final Counter remoteFallback;
+
+    @Value("${vault.jws.verification-mode:remote}")
+    private String verificationMode;
+
+    @Value("${vault.jws.jwks-min-refresh-ms:30000}")
+    private long minRefreshMs;
+
+    public VaultJwsVerifier(VaultService vaultService,
+                            MeterRegistry meterRegistry,
+                            @Value("${vault.jws.jwks-ttl-minutes:60}") long ttlMinutes) {
+        this.vaultService = vaultService;
+        this.jwks = CacheBuilder.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(ttlMinutes, TimeUnit.MINUTES)
+                .build();
+
+        this.local = Counter.builder("consent_jws_verifications_total")
+                .description("Consent JWS verifications by where the signature was checked")
+                .tag("path", "local")
+                .register(meterRegistry);
+        this.remoteFallback = Counter.builder("consent_jws_verifications_total")
+                .description("Consent JWS verifications by where the signature was checked")
+                .tag("path", "remote_fallback")
+                .register(meterRegistry);
+    }
+
+    public boolean isLocal() {
+        return "local".equalsIgnoreCase(verificationMode);
+    }
+
+    /**
+     * Verify the signature with the cached Vault keys. Returns the result in the shape of
+     * Vault's verify response, or null if the token has to be verified by Vault.
+     */
+    public VaultVerifyResponse verify(String jwsToken, String tenantId, String businessId) {
+        JWSObject jws;
+        try {
+            jws = JWSObject.parse(jwsToken);
+        } catch (ParseException e) {
+            local.increment();
+            return VaultVerifyResponse.builder().valid(false).build();
+        }
+
+        JWSVerifier verifier = verifierFor(tenantId, businessId, jws.getHeader().getKeyID());
+        if (verifier == null) {
+            remoteFallback.increment();
+            return null;
+        }
+
+        try {
+            if (!jws.verify(verifier)) {
+                local.increment();
+                return VaultVerifyResponse.builder().valid(false).build();
+            }
+        } catch (JOSEException e) {
+            log.debug("Local JWS verification not possible: {}", e.getMessage());
+            remoteFallback.increment();
+            return null;
+        }
+
+        local.increment();
+        return VaultVerifyResponse.builder()
+                .valid(true)
+                .payload(new HashMap<>(jws.getPayload().toJSONObject()))
+                .build();
+    }
+
+    private JWSVerifier verifierFor(String tenantId, String businessId, String kid) {
+        String key = tenantId + "|" + businessId;
+        SigningKeys keys = jwks.getIfPresent(key);
+        if (keys == null || (keys.find(kid) == null && refreshAllowed(key))) {
+            keys = fetch(key, tenantId, businessId);
+            if (keys == null) {
+                return null;
+            }
+        }
+        return keys.find(kid);
+    }
+
+    private boolean refreshAllowed(String key) {
+        Long last = lastFetch.get(key);
+        return last == null || System.currentTimeMillis() - last >= minRefreshMs;
+    }
+
+    private SigningKeys fetch(String key, String tenantId, String businessId) {
+        lastFetch.put(key, System.currentTimeMillis());
+        try {
+            Map<String, JWSVerifier> verifiers = new HashMap<>();
+            for (JWK jwk : JWKSet.parse(vaultService.getSigningKeys(tenantId, businessId)).getKeys()) {
+                try {
+                    verifiers.put(jwk.getKeyID(), JwsVerifiers.forKey(jwk));
+                } catch (JOSEException e) {
+                    log.warn("Skipping vault key {}: {}", jwk.getKeyID(), e.getMessage());
+                }
+            }
+            SigningKeys keys = new SigningKeys(verifiers);
+            jwks.put(key, keys);
+            return keys;
+        } catch (Exception e) {
+            log.warn("Failed to fetch vault signing keys for tenant {}: {}", tenantId, e.getMessage());
+            return null;
+        }
+    }
+
+    private static final class SigningKeys {
+
+        private final Map<String, JWSVerifier> verifiers;
+
+        SigningKeys(Map<String, JWSVerifier> verifiers) {
+            this.verifiers = verifiers;
+        }
+
+        /**
+         * Tokens without a kid can only be matched when the set has a single key.
+         */
+        JWSVerifier find(String kid) {
+            if (kid == null) {
+                return verifiers.size() == 1 ? verifiers.values().iterator().next() : null;
+            }
+            return verifiers.get(kid);
+        }
+    }
+}
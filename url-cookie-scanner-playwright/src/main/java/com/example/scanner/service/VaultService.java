@@ -30,6 +30,14 @@ public class VaultService {
         return vaultClient.verifyToken(jwt, tenantId, businessId);
     }
 
+    /**
+     * Public signing keys (JWK set JSON) used by vault for a tenant's business
+     */
+    public String getSigningKeys(String tenantId, String businessId) {
+        log.info("Fetching signing keys from vault service");
+        return vaultClient.fetchJwks(tenantId, businessId);
+    }
+
 
     public EncryptPayloadResponse encryptPayload(String tenantId, String businessId, String dataCategoryType, String dataCategoryValue, String dataString) {
         log.info("Encrypting payload via vault service");
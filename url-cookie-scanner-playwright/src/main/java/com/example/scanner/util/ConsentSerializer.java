@@ -0,0 +1,131 @@
+package com.example.scanner.util;
+
+import com.example.scanner.constants.ErrorCodes;
+import com.example.scanner.dto.SignableConsent;
+import com.example.scanner.exception.ConsentException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Canonical byte form of a consent version.
+ *
+ * One consent is serialized once, as its {@link SignableConsent}, and the result is used for
+ * the payload hash, Vault signing, Vault encryption and the consent token. The form is
+ * deterministic: properties and map keys are sorted, and timestamps are written with
+ * millisecond precision (the precision Mongo stores), so the hash of a consent read back from
+ * the database matches the hash taken when it was created.
+ *
+ * Metrics: {@code consent_serialization_seconds} and
+ * {@code consent_serialization_allocated_bytes} per serialization.
+ */
+@Component
+public class ConsentSerializer {
+
+    private static final DateTimeFormatter LOCAL_DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS");
+    private static final DateTimeFormatter INSTANT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'").withZone(ZoneOffset.UTC);
+
+    private final ObjectWriter writer;
+    private final Timer serializationTimer;
+    private final DistributionSummary allocatedBytes;
+    private final com.sun.management.ThreadMXBean threadMXBean;
+
+    public ConsentSerializer(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        SimpleModule timestamps = new SimpleModule("canonical-timestamps");
+        timestamps.addSerializer(LocalDateTime.class, new JsonSerializer<>() {
+            @Override
+            public void serialize(LocalDateTime value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+                gen.writeString(LOCAL_DATE_TIME.format(value));
+            }
+        });
+        timestamps.addSerializer(Instant.class, new JsonSerializer<>() {
+            @Override
+            public void serialize(Instant value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+                gen.writeString(INSTANT.format(value));
+            }
+        });
+
+        ObjectMapper canonical = objectMapper.copy()
+                .configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true)
+                .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+                .registerModule(timestamps);
+        this.writer = canonical.writerFor(SignableConsent.class);
+
+        this.serializationTimer = Timer.builder("consent_serialization_seconds")
+                .description("Time to produce the canonical form of a consent")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.allocatedBytes = DistributionSummary.builder("consent_serialization_allocated_bytes")
+                .description("Heap allocated while producing the canonical form of a consent")
+                .baseUnit("bytes")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        this.threadMXBean = bean instanceof com.sun.management.ThreadMXBean sunBean
+                && sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()
+                ? sunBean : null;
+    }
+
+    public CanonicalConsent serialize(SignableConsent consent) throws ConsentException {
+        long start = System.nanoTime();
+        long allocatedBefore = threadMXBean != null ? threadMXBean.getCurrentThreadAllocatedBytes() : -1;
+        try {
+            byte[] bytes = writer.writeValueAsBytes(consent);
+            CanonicalConsent canonical = new CanonicalConsent(
+                    new String(bytes, StandardCharsets.UTF_8), ConsentUtil.computeSHA256Hash(bytes));
+            if (allocatedBefore >= 0) {
+                allocatedBytes.record(threadMXBean.getCurrentThreadAllocatedBytes() - allocatedBefore);
+            }
+            return canonical;
+        } catch (JsonProcessingException e) {
+            throw new ConsentException(ErrorCodes.INTERNAL_ERROR,
+                    ErrorCodes.getDescription(ErrorCodes.INTERNAL_ERROR),
+                    "Failed to convert consent to JSON: " + e.getMessage());
+        } finally {
+            serializationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Canonical JSON of a consent version and its SHA-256 (hex), stored as the payload hash.
+     */
+    public static final class CanonicalConsent {
+
+        private final String json;
+        private final String payloadHash;
+
+        private CanonicalConsent(String json, String payloadHash) {
+            this.json = json;
+            this.payloadHash = payloadHash;
+        }
+
+        public String json() {
+            return json;
+        }
+
+        public String payloadHash() {
+            return payloadHash;
+        }
+    }
+}
@@ -126,9 +126,19 @@ public class ConsentUtil {
      * @return SHA-256 hash as hexadecimal string
      */
     public static String computeSHA256Hash(String input) {
+        return computeSHA256Hash(input.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Compute SHA-256 hash of already encoded bytes
+     *
+     * @param input The bytes to hash
+     * @return SHA-256 hash as hexadecimal string
+     */
+    public static String computeSHA256Hash(byte[] input) {
         try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hashBytes = digest.digest(input.getBytes(StandardCharsets.UTF_8));
+            byte[] hashBytes = digest.digest(input);
 
             // Convert bytes to hexadecimal string
             StringBuilder hexString = new StringBuilder();
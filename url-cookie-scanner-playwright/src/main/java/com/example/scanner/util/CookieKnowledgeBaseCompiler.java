@@ -0,0 +1,266 @@
+package com.example.scanner.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compiles the cookie knowledge base CSV into the compact binary format read by
+ * {@link com.example.scanner.service.CookieKnowledgeBase}.
+ *
+ * Layout (big-endian):
+ * <pre>
+ *   header      : magic, formatVersion, entryCount, stringCount, tableSlots,
+ *                 stringOffsetsPos, stringDataPos, entriesPos, tablePos
+ *   offsets     : int[stringCount + 1] offsets into the string data block
+ *   string data : interned UTF-8 strings, each distinct value stored once
+ *   entries     : int[entryCount][4] = name, category, description, provider string ids (-1 = none)
+ *   table       : int[tableSlots] open-addressing hash of cookie name -> entry index + 1 (0 = empty)
+ * </pre>
+ *
+ * Run as a build step: {@code java ... CookieKnowledgeBaseCompiler <input.csv> <output.bin>}
+ */
+public final class CookieKnowledgeBaseCompiler {
+
+    public static final int MAGIC = 0x434B4231; // "CKB1"
+    public static final int FORMAT_VERSION = 1;
+    public static final int HEADER_SIZE = 40;
+    public static final int ENTRY_SIZE = 16;
+    public static final int NO_STRING = -1;
+
+    public static final int HEADER_ENTRY_COUNT = 8;
+    public static final int HEADER_STRING_COUNT = 12;
+    public static final int HEADER_TABLE_SLOTS = 16;
+    public static final int HEADER_STRING_OFFSETS_POS = 20;
+    public static final int HEADER_STRING_DATA_POS = 24;
+    public static final int HEADER_ENTRIES_POS = 28;
+    public static final int HEADER_TABLE_POS = 32;
+
+    private CookieKnowledgeBaseCompiler() {
+        throw new UnsupportedOperationException("Utility class should not be instantiated");
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: CookieKnowledgeBaseCompiler <input.csv> <output.bin>");
+            System.exit(1);
+        }
+
+        Path input = Paths.get(args[0]);
+        Path output = Paths.get(args[1]);
+
+        byte[] compiled;
+        try (InputStream in = Files.newInputStream(input)) {
+            compiled = compile(in);
+        }
+
+        // Write to a temp file and move it into place so a running loader never maps a half-written file
+        Path parent = output.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, "cookie-knowledge-base", ".tmp");
+        Files.write(temp, compiled);
+        Files.move(temp, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        System.out.printf("Compiled %s -> %s (%d bytes)%n", input, output, compiled.length);
+    }
+
+    /**
+     * Parse the CSV and produce the binary knowledge base image.
+     * Recognised columns (case-insensitive): Category, Cookie name / Cookie / Data Key name,
+     * Description, Data Controller / Provider / Platform. Only category and name are required.
+     */
+    public static byte[] compile(InputStream csv) throws IOException {
+        Map<String, Integer> stringIds = new LinkedHashMap<>();
+        Map<String, int[]> entries = new LinkedHashMap<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+            String headerLine = reader.readLine();
+            if (headerLine == null) {
+                throw new IOException("Knowledge base CSV is empty");
+            }
+
+            List<String> header = parseCsvLine(stripBom(headerLine));
+            int categoryCol = findColumn(header, "category");
+            int nameCol = findColumn(header, "cookie name", "cookie / data key name", "name");
+            int descriptionCol = findColumn(header, "description");
+            int providerCol = findColumn(header, "data controller", "provider", "platform");
+
+            if (categoryCol < 0 || nameCol < 0) {
+                throw new IOException("Knowledge base CSV must contain Category and Cookie name columns");
+            }
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                List<String> fields = parseCsvLine(line);
+                String name = field(fields, nameCol);
+                String category = field(fields, categoryCol);
+                if (name == null || category == null) {
+                    continue;
+                }
+
+                // Last row wins for duplicate names, matching the previous map-based loader
+                entries.put(name, new int[]{
+                        intern(stringIds, name),
+                        intern(stringIds, category),
+                        intern(stringIds, field(fields, descriptionCol)),
+                        intern(stringIds, field(fields, providerCol))
+                });
+            }
+        }
+
+        return write(stringIds, entries);
+    }
+
+    /**
+     * FNV-1a over UTF-8 bytes. Shared by the compiler and the runtime reader.
+     */
+    public static int hash(byte[] bytes) {
+        int h = 0x811C9DC5;
+        for (byte b : bytes) {
+            h ^= (b & 0xFF);
+            h *= 0x01000193;
+        }
+        return h;
+    }
+
+    private static byte[] write(Map<String, Integer> stringIds, Map<String, int[]> entries) {
+        List<byte[]> strings = new ArrayList<>(stringIds.size());
+        int stringDataSize = 0;
+        for (String value : stringIds.keySet()) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            strings.add(bytes);
+            stringDataSize += bytes.length;
+        }
+
+        int entryCount = entries.size();
+        int tableSlots = Integer.highestOneBit(Math.max(entryCount * 2, 16) - 1) << 1; // load factor <= 0.5
+
+        int stringOffsetsPos = HEADER_SIZE;
+        int stringDataPos = stringOffsetsPos + (strings.size() + 1) * Integer.BYTES;
+        int entriesPos = align(stringDataPos + stringDataSize);
+        int tablePos = entriesPos + entryCount * ENTRY_SIZE;
+        int totalSize = tablePos + tableSlots * Integer.BYTES;
+
+        ByteBuffer buffer = ByteBuffer.allocate(totalSize);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, FORMAT_VERSION);
+        buffer.putInt(HEADER_ENTRY_COUNT, entryCount);
+        buffer.putInt(HEADER_STRING_COUNT, strings.size());
+        buffer.putInt(HEADER_TABLE_SLOTS, tableSlots);
+        buffer.putInt(HEADER_STRING_OFFSETS_POS, stringOffsetsPos);
+        buffer.putInt(HEADER_STRING_DATA_POS, stringDataPos);
+        buffer.putInt(HEADER_ENTRIES_POS, entriesPos);
+        buffer.putInt(HEADER_TABLE_POS, tablePos);
+
+        int offset = 0;
+        for (int i = 0; i < strings.size(); i++) {
+            byte[] bytes = strings.get(i);
+            buffer.putInt(stringOffsetsPos + i * Integer.BYTES, offset);
+            buffer.put(stringDataPos + offset, bytes);
+            offset += bytes.length;
+        }
+        buffer.putInt(stringOffsetsPos + strings.size() * Integer.BYTES, offset);
+
+        int index = 0;
+        int mask = tableSlots - 1;
+        for (int[] entry : entries.values()) {
+            int entryPos = entriesPos + index * ENTRY_SIZE;
+            for (int i = 0; i < 4; i++) {
+                buffer.putInt(entryPos + i * Integer.BYTES, entry[i]);
+            }
+
+            int slot = hash(strings.get(entry[0])) & mask;
+            while (buffer.getInt(tablePos + slot * Integer.BYTES) != 0) {
+                slot = (slot + 1) & mask;
+            }
+            buffer.putInt(tablePos + slot * Integer.BYTES, index + 1);
+            index++;
+        }
+
+        return buffer.array();
+    }
+
+    private static int intern(Map<String, Integer> stringIds, String value) {
+        if (value == null) {
+            return NO_STRING;
+        }
+        return stringIds.computeIfAbsent(value, v -> stringIds.size());
+    }
+
+    private static int align(int position) {
+        return (position + 3) & ~3;
+    }
+
+    private static int findColumn(List<String> header, String... names) {
+        for (String name : names) {
+            for (int i = 0; i < header.size(); i++) {
+                if (header.get(i).trim().toLowerCase(Locale.ROOT).equals(name)) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static String field(List<String> fields, int column) {
+        if (column < 0 || column >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(column).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String stripBom(String line) {
+        return !line.isEmpty() && line.charAt(0) == '\uFEFF' ? line.substring(1) : line;
+    }
+
+    /**
+     * Minimal RFC 4180 line parser: handles quoted fields and escaped quotes.
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inQuotes = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (inQuotes) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        inQuotes = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                inQuotes = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.scanner.util;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.jca.JCAContext;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.util.Base64URL;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.EdECPoint;
+import java.security.spec.EdECPrivateKeySpec;
+import java.security.spec.EdECPublicKeySpec;
+import java.security.spec.NamedParameterSpec;
+import java.util.Set;
+
+/**
+ * EdDSA (Ed25519) signer and verifier on the JDK's own Ed25519 provider. Nimbus' built-in
+ * Ed25519 classes need Tink, which is not on the classpath.
+ */
+public final class Ed25519Jca {
+
+    private static final Set<JWSAlgorithm> ALGORITHMS = Set.of(JWSAlgorithm.EdDSA);
+
+    private Ed25519Jca() {
+    }
+
+    public static JWSSigner signer(OctetKeyPair key) throws JOSEException {
+        requireEd25519(key);
+        try {
+            PrivateKey privateKey = KeyFactory.getInstance("Ed25519").generatePrivate(
+                    new EdECPrivateKeySpec(NamedParameterSpec.ED25519, key.getD().decode()));
+            return new Signer(privateKey);
+        } catch (GeneralSecurityException e) {
+            throw new JOSEException("Invalid Ed25519 private key: " + e.getMessage(), e);
+        }
+    }
+
+    public static JWSVerifier verifier(OctetKeyPair key) throws JOSEException {
+        requireEd25519(key);
+        try {
+            return new Verifier(KeyFactory.getInstance("Ed25519").generatePublic(
+                    new EdECPublicKeySpec(NamedParameterSpec.ED25519, point(key.getX().decode()))));
+        } catch (GeneralSecurityException e) {
+            throw new JOSEException("Invalid Ed25519 public key: " + e.getMessage(), e);
+        }
+    }
+
+    private static void requireEd25519(OctetKeyPair key) throws JOSEException {
+        if (!Curve.Ed25519.equals(key.getCurve())) {
+            throw new JOSEException("Unsupported OKP curve " + key.getCurve() + ", only Ed25519 is supported");
+        }
+    }
+
+    /**
+     * RFC 8032 encoding: little-endian y with the parity of x in the top bit.
+     */
+    private static EdECPoint point(byte[] encoded) {
+        boolean xOdd = (encoded[encoded.length - 1] & 0x80) != 0;
+        byte[] y = new byte[encoded.length];
+        for (int i = 0; i < encoded.length; i++) {
+            y[i] = encoded[encoded.length - 1 - i];
+        }
+        y[0] &= 0x7f;
+        return new EdECPoint(xOdd, new BigInteger(1, y));
+    }
+
+    private static void requireEdDsa(JWSHeader header) throws JOSEException {
+        if (!JWSAlgorithm.EdDSA.equals(header.getAlgorithm())) {
+            throw new JOSEException("Unsupported JWS algorithm " + header.getAlgorithm() + ", must be EdDSA");
+        }
+    }
+
+    private static final class Signer implements JWSSigner {
+
+        private final PrivateKey privateKey;
+        private final JCAContext jcaContext = new JCAContext();
+
+        Signer(PrivateKey privateKey) {
+            this.privateKey = privateKey;
+        }
+
+        @Override
+        public Base64URL sign(JWSHeader header, byte[] signingInput) throws JOSEException {
+            requireEdDsa(header);
+            try {
+                Signature signature = Signature.getInstance("Ed25519");
+                signature.initSign(privateKey);
+                signature.update(signingInput);
+                return Base64URL.encode(signature.sign());
+            } catch (GeneralSecurityException e) {
+                throw new JOSEException("Ed25519 signing failed: " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public Set<JWSAlgorithm> supportedJWSAlgorithms() {
+            return ALGORITHMS;
+        }
+
+        @Override
+        public JCAContext getJCAContext() {
+            return jcaContext;
+        }
+    }
+
+    private static final class Verifier implements JWSVerifier {
+
+        private final PublicKey publicKey;
+        private final JCAContext jcaContext = new JCAContext();
+
+        Verifier(PublicKey publicKey) {
+            this.publicKey = publicKey;
+        }
+
+        @Override
+        public boolean verify(JWSHeader header, byte[] signingInput, Base64URL signature) throws JOSEException {
+            requireEdDsa(header);
+            try {
+                Signature verifier = Signature.getInstance("Ed25519");
+                verifier.initVerify(publicKey);
+                verifier.update(signingInput);
+                return verifier.verify(signature.decode());
+            } catch (GeneralSecurityException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public Set<JWSAlgorithm> supportedJWSAlgorithms() {
+            return ALGORITHMS;
+        }
+
+        @Override
+        public JCAContext getJCAContext() {
+            return jcaContext;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.scanner.util;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.jwk.RSAKey;
+
+/**
+ * Builds JWS verifiers from JWKs. Verifiers are thread-safe and meant to be built once per key
+ * and cached.
+ */
+public final class JwsVerifiers {
+
+    private JwsVerifiers() {
+    }
+
+    public static JWSVerifier forKey(JWK jwk) throws JOSEException {
+        if (jwk instanceof RSAKey rsaKey) {
+            return new RSASSAVerifier(rsaKey.toRSAPublicKey());
+        }
+        if (jwk instanceof ECKey ecKey) {
+            return new ECDSAVerifier(ecKey.toECPublicKey());
+        }
+        if (jwk instanceof OctetKeyPair okp) {
+            return Ed25519Jca.verifier(okp);
+        }
+        throw new JOSEException("Unsupported key type " + jwk.getKeyType() + " for key " + jwk.getKeyID());
+    }
+}
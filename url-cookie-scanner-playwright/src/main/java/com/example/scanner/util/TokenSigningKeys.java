@@ -0,0 +1,247 @@
+package com.example.scanner.util;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.jwk.RSAKey;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Consent token signing keys, parsed once with their signers and verifiers built up front.
+ *
+ * Source precedence: an external JWK or JWK set file ({@code consent.token.jwk-set.path},
+ * hot-reloaded when it changes), then the bundled {@code jwt-set.json}. RSA (RS256), P-256
+ * (ES256) and Ed25519 (EdDSA) keys are supported; the algorithm comes from the key's
+ * {@code alg}, or its type and curve. For each algorithm, tokens are signed with the key named by
+ * {@code consent.token.signing-kid} or else the first private key of that algorithm in the set,
+ * and carry its kid. To rotate, add the new private key at the top of the set and keep the old
+ * keys (their public halves are enough) so tokens they signed still verify. Keys without a kid
+ * are identified by their RFC 7638 thumbprint.
+ */
+@Component
+@Slf4j
+public class TokenSigningKeys {
+
+    private static final String BUNDLED_KEYS = "/jwt-set.json";
+
+    @Value("${consent.token.jwk-set.path:}")
+    private String jwkSetPath;
+
+    @Value("${consent.token.signing-kid:}")
+    private String signingKid;
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+
+    @PostConstruct
+    public void load() {
+        try {
+            Path external = externalPath();
+            if (external != null && Files.isRegularFile(external)) {
+                current.set(readFile(external));
+            } else {
+                try (InputStream is = TokenSigningKeys.class.getResourceAsStream(BUNDLED_KEYS)) {
+                    if (is == null) {
+                        throw new IllegalStateException("jwt-set.json file not found in classpath resources");
+                    }
+                    current.set(build(new String(is.readAllBytes(), StandardCharsets.UTF_8),
+                            "classpath:" + BUNDLED_KEYS, null, -1));
+                }
+            }
+            Snapshot snapshot = current.get();
+            log.info("Consent token keys loaded from {}: {} keys, signing with {}",
+                    snapshot.source, snapshot.verifiers.size(), snapshot.signingKids());
+        } catch (Exception e) {
+            log.error("Failed to load consent token keys: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Swap in the key set when the external file changes. The new set is fully built before it
+     * replaces the current one; a broken file leaves the previous keys in use.
+     */
+    @Scheduled(fixedDelayString = "${consent.token.jwk-set.reload-interval-ms:30000}")
+    public void reloadIfChanged() {
+        Path external = externalPath();
+        if (external == null || !Files.isRegularFile(external)) {
+            return;
+        }
+
+        try {
+            Snapshot snapshot = current.get();
+            FileTime modified = Files.getLastModifiedTime(external);
+            long size = Files.size(external);
+            if (snapshot != null && modified.equals(snapshot.lastModified) && size == snapshot.fileSize) {
+                return;
+            }
+
+            Snapshot reloaded = readFile(external);
+            current.set(reloaded);
+            log.info("Consent token keys reloaded from {}: {} keys, signing with {}",
+                    reloaded.source, reloaded.verifiers.size(), reloaded.signingKids());
+        } catch (Exception e) {
+            log.error("Failed to reload consent token keys, keeping previous version: {}", e.getMessage());
+        }
+    }
+
+    public SigningKey signingKey(JWSAlgorithm algorithm) {
+        SigningKey signingKey = snapshot().signingKeys.get(algorithm);
+        if (signingKey == null) {
+            throw new IllegalStateException("No consent token signing key for " + algorithm);
+        }
+        return signingKey;
+    }
+
+    /**
+     * Verifiers for a token's kid. Tokens issued before kids were set carry none; they are
+     * checked against every key.
+     */
+    public List<JWSVerifier> verifiersFor(String kid) {
+        Snapshot snapshot = snapshot();
+        if (kid == null) {
+            return new ArrayList<>(snapshot.verifiers.values());
+        }
+        JWSVerifier verifier = snapshot.verifiers.get(kid);
+        return verifier != null ? List.of(verifier) : List.of();
+    }
+
+    private Snapshot snapshot() {
+        Snapshot snapshot = current.get();
+        if (snapshot == null) {
+            throw new IllegalStateException("Consent token signing keys are not loaded");
+        }
+        return snapshot;
+    }
+
+    private Path externalPath() {
+        return jwkSetPath == null || jwkSetPath.isBlank() ? null : Paths.get(jwkSetPath);
+    }
+
+    private Snapshot readFile(Path path) throws Exception {
+        FileTime modified = Files.getLastModifiedTime(path);
+        long size = Files.size(path);
+        return build(Files.readString(path, StandardCharsets.UTF_8), path.toString(), modified, size);
+    }
+
+    private Snapshot build(String json, String source, FileTime lastModified, long fileSize) throws Exception {
+        List<JWK> keys = json.contains("\"keys\"") ? JWKSet.parse(json).getKeys() : List.of(JWK.parse(json));
+
+        Map<String, JWSVerifier> verifiers = new LinkedHashMap<>();
+        Map<JWSAlgorithm, SigningKey> signingKeys = new LinkedHashMap<>();
+        for (JWK jwk : keys) {
+            String kid = jwk.getKeyID() != null ? jwk.getKeyID() : jwk.computeThumbprint().toString();
+            verifiers.put(kid, JwsVerifiers.forKey(jwk));
+            if (!jwk.isPrivate()) {
+                continue;
+            }
+            JWSAlgorithm algorithm = algorithm(jwk);
+            if (kid.equals(signingKid) || !signingKeys.containsKey(algorithm)) {
+                signingKeys.put(algorithm, new SigningKey(kid, algorithm, signer(jwk)));
+            }
+        }
+        if (signingKeys.isEmpty()) {
+            throw new IllegalStateException("No private signing key in " + source);
+        }
+        return new Snapshot(source, lastModified, fileSize, signingKeys, verifiers);
+    }
+
+    private static JWSAlgorithm algorithm(JWK jwk) {
+        if (jwk.getAlgorithm() != null) {
+            return JWSAlgorithm.parse(jwk.getAlgorithm().getName());
+        }
+        if (jwk instanceof ECKey) {
+            return JWSAlgorithm.ES256;
+        }
+        if (jwk instanceof OctetKeyPair) {
+            return JWSAlgorithm.EdDSA;
+        }
+        return JWSAlgorithm.RS256;
+    }
+
+    private static JWSSigner signer(JWK jwk) throws JOSEException {
+        if (jwk instanceof RSAKey rsaKey) {
+            return new RSASSASigner(rsaKey);
+        }
+        if (jwk instanceof ECKey ecKey && Curve.P_256.equals(ecKey.getCurve())) {
+            return new ECDSASigner(ecKey);
+        }
+        if (jwk instanceof OctetKeyPair okp) {
+            return Ed25519Jca.signer(okp);
+        }
+        throw new IllegalStateException("Unsupported consent token key " + jwk.getKeyType() + " " + jwk.getKeyID());
+    }
+
+    /**
+     * Signer and header values for new tokens. Nimbus signers are thread-safe, so one instance
+     * is shared by all requests.
+     */
+    public static final class SigningKey {
+
+        private final String kid;
+        private final JWSAlgorithm algorithm;
+        private final JWSSigner signer;
+
+        private SigningKey(String kid, JWSAlgorithm algorithm, JWSSigner signer) {
+            this.kid = kid;
+            this.algorithm = algorithm;
+            this.signer = signer;
+        }
+
+        public String kid() {
+            return kid;
+        }
+
+        public JWSAlgorithm algorithm() {
+            return algorithm;
+        }
+
+        public JWSSigner signer() {
+            return signer;
+        }
+    }
+
+    private static final class Snapshot {
+
+        final String source;
+        final FileTime lastModified;
+        final long fileSize;
+        final Map<JWSAlgorithm, SigningKey> signingKeys;
+        final Map<String, JWSVerifier> verifiers;
+
+        Snapshot(String source, FileTime lastModified, long fileSize,
+                 Map<JWSAlgorithm, SigningKey> signingKeys, Map<String, JWSVerifier> verifiers) {
+            this.source = source;
+            this.lastModified = lastModified;
+            this.fileSize = fileSize;
+            this.signingKeys = signingKeys;
+            this.verifiers = verifiers;
+        }
+
+        List<String> signingKids() {
+            return signingKeys.values().stream().map(key -> key.algorithm + "=" + key.kid).toList();
+        }
+    }
+}
@@ -1,78 +1,154 @@
 package com.example.scanner.util;
 
+import com.example.scanner.config.ConsentTokenProperties;
 import com.example.scanner.dto.response.ConsentTokenValidateResponse;
+import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.JOSEObjectType;
 import com.nimbusds.jose.JWSAlgorithm;
 import com.nimbusds.jose.JWSHeader;
 import com.nimbusds.jose.JWSVerifier;
-import com.nimbusds.jose.crypto.RSASSASigner;
-import com.nimbusds.jose.crypto.RSASSAVerifier;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Component;
 
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
-import com.nimbusds.jose.jwk.JWK;
-import com.nimbusds.jose.jwk.RSAKey;
 import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Signs and verifies consent tokens with the cached keys of {@link TokenSigningKeys}, in the
+ * algorithm and claim format configured for the tenant in {@link ConsentTokenProperties}.
+ *
+ * Metrics: {@code consent_token_seconds{operation="sign|verify",algorithm}} for the cost per
+ * token and {@code consent_token_bytes{algorithm,claims}} for the size of issued tokens.
+ */
 @Component
 public class TokenUtility {
-    public static RSAKey loadRSAKey() throws Exception {
-        try (InputStream is = TokenUtility.class.getResourceAsStream("/jwt-set.json")) {
-            if (is == null) {
-                throw new IllegalStateException("jwt-set.json file not found in classpath resources");
-            }
-            String json = new String(is.readAllBytes(), StandardCharsets.UTF_8);
-            JWK jwk = JWK.parse(json);
-            return (RSAKey) jwk;
-        } catch (Exception e) {
-            throw new Exception("Unable to load JWT signing key: " + e.getMessage(), e);
-        }
-    }
 
-    public String generateToken(String data, Date expiryDate) throws Exception {
-        RSAKey rsaKey = loadRSAKey();
+    private static final String ISSUER = "JIO CONSENT";
+
+    private final TokenSigningKeys signingKeys;
+    private final ConsentTokenProperties tokenProperties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> sizes = new ConcurrentHashMap<>();
+
+    public TokenUtility(TokenSigningKeys signingKeys, ConsentTokenProperties tokenProperties,
+                        MeterRegistry meterRegistry) {
+        this.signingKeys = signingKeys;
+        this.tokenProperties = tokenProperties;
+        this.meterRegistry = meterRegistry;
+    }
 
-        JWTClaimsSet claims = new JWTClaimsSet.Builder()
-                .subject(data)
-                .issuer("JIO CONSENT")
+    /**
+     * Token for one consent version, from its canonical form (see {@link ConsentSerializer}).
+     * In compact mode the subject is the consent id and the consent JSON is only represented
+     * by its payload hash ({@code cph}).
+     */
+    public String generateConsentToken(String tenantId, ConsentSerializer.CanonicalConsent canonical,
+                                       String consentId, Integer version, String status,
+                                       Date expiryDate) throws Exception {
+        ConsentTokenProperties.Claims claimsMode = tokenProperties.claimsFor(tenantId);
+        JWTClaimsSet.Builder claims = new JWTClaimsSet.Builder()
+                .issuer(ISSUER)
                 .issueTime(new Date())
-                .expirationTime(expiryDate)
-                .build();
+                .expirationTime(expiryDate);
+
+        if (claimsMode == ConsentTokenProperties.Claims.COMPACT) {
+            claims.subject(consentId)
+                    .claim("ver", version)
+                    .claim("sts", status)
+                    .claim("cph", canonical.payloadHash());
+        } else {
+            claims.subject(canonical.json());
+        }
+
+        JWSAlgorithm algorithm = JWSAlgorithm.parse(tokenProperties.algorithmFor(tenantId));
+        String token = sign(claims.build(), algorithm);
+        size(algorithm, claimsMode).record(token.length());
+        return token;
+    }
+
+    private String sign(JWTClaimsSet claims, JWSAlgorithm algorithm) throws JOSEException {
+        long start = System.nanoTime();
+        try {
+            TokenSigningKeys.SigningKey signingKey = signingKeys.signingKey(algorithm);
 
-        SignedJWT signedJWT = new SignedJWT(
-                new JWSHeader.Builder(JWSAlgorithm.RS256)
-                        .keyID(rsaKey.getKeyID())
-                        .type(JOSEObjectType.JWT)
-                        .build(),
-                claims
-        );
+            SignedJWT signedJWT = new SignedJWT(
+                    new JWSHeader.Builder(signingKey.algorithm())
+                            .keyID(signingKey.kid())
+                            .type(JOSEObjectType.JWT)
+                            .build(),
+                    claims
+            );
 
-        signedJWT.sign(new RSASSASigner(rsaKey));
+            signedJWT.sign(signingKey.signer());
 
-        return signedJWT.serialize();
+            return signedJWT.serialize();
+        } finally {
+            timer("sign", algorithm).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
     }
 
+    /**
+     * Accepts tokens of every algorithm in the key set, whatever the tenant currently issues.
+     */
     public ConsentTokenValidateResponse verifyConsentToken(String token) throws Exception {
+        long start = System.nanoTime();
         SignedJWT signedJWT = SignedJWT.parse(token);
-        RSAKey rsaKey = loadRSAKey();
+        try {
+            if (!verifySignature(signedJWT)) {
+                return new ConsentTokenValidateResponse("Invalid Consent Token");
+            }
 
-        JWSVerifier verifier = new RSASSAVerifier(rsaKey.toRSAPublicKey());
+            Date now = new Date();
+            Date expirationTime = signedJWT.getJWTClaimsSet().getExpirationTime();
 
-        if (!signedJWT.verify(verifier)) {
-            return new ConsentTokenValidateResponse("Invalid Consent Token");
-        }
+            if (now.after(expirationTime)) {
+                return new ConsentTokenValidateResponse("Expired Consent Token");
+            }
 
-        Date now = new Date();
-        Date expirationTime = signedJWT.getJWTClaimsSet().getExpirationTime();
+            return new ConsentTokenValidateResponse("Valid Consent Token");
+        } finally {
+            timer("verify", signedJWT.getHeader().getAlgorithm())
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
 
-        if (now.after(expirationTime)) {
-            return new ConsentTokenValidateResponse("Expired Consent Token");
+    private boolean verifySignature(SignedJWT signedJWT) {
+        for (JWSVerifier verifier : signingKeys.verifiersFor(signedJWT.getHeader().getKeyID())) {
+            try {
+                if (signedJWT.verify(verifier)) {
+                    return true;
+                }
+            } catch (JOSEException e) {
+                // Key of a different algorithm; only reachable for tokens without a kid
+            }
         }
+        return false;
+    }
+
+    private Timer timer(String operation, JWSAlgorithm algorithm) {
+        return timers.computeIfAbsent(operation + "|" + algorithm, key -> Timer.builder("consent_token_seconds")
+                .description("Time to sign or verify a consent token")
+                .tag("operation", operation)
+                .tag("algorithm", algorithm.getName())
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry));
+    }
 
-        return new ConsentTokenValidateResponse("Valid Consent Token");
+    private DistributionSummary size(JWSAlgorithm algorithm, ConsentTokenProperties.Claims claims) {
+        return sizes.computeIfAbsent(algorithm + "|" + claims, key -> DistributionSummary.builder("consent_token_bytes")
+                .description("Size of issued consent tokens")
+                .baseUnit("bytes")
+                .tag("algorithm", algorithm.getName())
+                .tag("claims", claims.name().toLowerCase())
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry));
     }
 
 }
@@ -0,0 +1,168 @@
+package com.example.scanner.client.notification;
+
+import com.example.scanner.config.TenantRegistry;
+import com.example.scanner.dto.NotificationTrigger;
+import com.example.scanner.dto.response.TriggerEventResponse;
+import com.example.scanner.enums.NotificationStatus;
+import com.example.scanner.repository.NotificationTriggerRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationDispatcherTest {
+
+    private static final String TENANT = "t1";
+
+    private NotificationTriggerRepository repository;
+    private NotificationApiManager notificationApi;
+    private NotificationDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(NotificationTriggerRepository.class);
+        notificationApi = mock(NotificationApiManager.class);
+        dispatcher = new NotificationDispatcher(repository, notificationApi, mock(TenantRegistry.class),
+                new ObjectMapper(), Runnable::run, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(dispatcher, "enabled", true);
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 100);
+        ReflectionTestUtils.setField(dispatcher, "leaseMs", 60000L);
+        ReflectionTestUtils.setField(dispatcher, "sweepIntervalMs", 60000L);
+        ReflectionTestUtils.setField(dispatcher, "tenantRatePerSecond", 1000.0);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(dispatcher, "backoffInitialMs", 5000L);
+        ReflectionTestUtils.setField(dispatcher, "backoffMaxMs", 900000L);
+        ReflectionTestUtils.setField(dispatcher, "dedupeWindowMinutes", 10L);
+        when(repository.insertIfAbsent(any(), any(), eq(TENANT))).thenReturn(true);
+    }
+
+    @Test
+    void duplicateEventIsNotDispatched() {
+        when(repository.insertIfAbsent(any(), any(), eq(TENANT))).thenReturn(false);
+
+        assertFalse(dispatcher.enqueue(trigger(), TENANT));
+        dispatcher.dispatch();
+
+        verify(repository, never()).claimDue(anyString(), any(), anyInt(), eq(TENANT));
+    }
+
+    @Test
+    void acceptedTriggerIsMarkedSent() {
+        NotificationTrigger trigger = enqueuedAndClaimed();
+        when(notificationApi.posttriggerEvent(anyMap(), any(), eq(TriggerEventResponse.class)))
+                .thenReturn(ResponseEntity.ok(TriggerEventResponse.builder().eventId("event-1").build()));
+
+        dispatcher.dispatch();
+
+        NotificationTrigger outcome = savedOutcome();
+        assertEquals(NotificationStatus.SENT, outcome.getStatus());
+        assertEquals("event-1", outcome.getNotificationEventId());
+        assertEquals(1, outcome.getAttempts());
+        assertNull(outcome.getNextAttemptAt());
+        assertNotNull(outcome.getSentAt());
+        assertEquals(trigger.getTransactionId(), outcome.getTransactionId());
+    }
+
+    @Test
+    void failedSendIsRetriedWithBackoff() {
+        enqueuedAndClaimed();
+        when(notificationApi.posttriggerEvent(anyMap(), any(), eq(TriggerEventResponse.class)))
+                .thenThrow(new RestClientException("notification module down"));
+
+        Instant before = Instant.now();
+        dispatcher.dispatch();
+
+        NotificationTrigger outcome = savedOutcome();
+        assertEquals(NotificationStatus.FAILED, outcome.getStatus());
+        assertEquals(1, outcome.getAttempts());
+        assertFalse(outcome.getNextAttemptAt().isBefore(before.plusMillis(5000)));
+    }
+
+    @Test
+    void rateLimitedSendIsRetried() {
+        enqueuedAndClaimed();
+        when(notificationApi.posttriggerEvent(anyMap(), any(), eq(TriggerEventResponse.class)))
+                .thenThrow(new HttpClientErrorException(HttpStatus.TOO_MANY_REQUESTS));
+
+        dispatcher.dispatch();
+
+        assertEquals(NotificationStatus.FAILED, savedOutcome().getStatus());
+    }
+
+    @Test
+    void clientErrorIsDeadLetteredWithoutRetry() {
+        enqueuedAndClaimed();
+        when(notificationApi.posttriggerEvent(anyMap(), any(), eq(TriggerEventResponse.class)))
+                .thenThrow(new HttpClientErrorException(HttpStatus.BAD_REQUEST));
+
+        dispatcher.dispatch();
+
+        NotificationTrigger outcome = savedOutcome();
+        assertEquals(NotificationStatus.DEAD, outcome.getStatus());
+        assertNull(outcome.getNextAttemptAt());
+    }
+
+    @Test
+    void triggerIsDeadLetteredAfterMaxAttempts() {
+        NotificationTrigger trigger = enqueuedAndClaimed();
+        trigger.setAttempts(2);
+        when(notificationApi.posttriggerEvent(anyMap(), any(), eq(TriggerEventResponse.class)))
+                .thenThrow(new RestClientException("notification module down"));
+
+        dispatcher.dispatch();
+
+        NotificationTrigger outcome = savedOutcome();
+        assertEquals(NotificationStatus.DEAD, outcome.getStatus());
+        assertEquals(3, outcome.getAttempts());
+        assertTrue(outcome.getErrorMessage().contains("notification module down"));
+    }
+
+    private NotificationTrigger enqueuedAndClaimed() {
+        NotificationTrigger trigger = trigger();
+        assertTrue(dispatcher.enqueue(trigger, TENANT));
+        assertEquals(NotificationStatus.PENDING, trigger.getStatus());
+        when(repository.claimDue(anyString(), any(), anyInt(), eq(TENANT))).thenReturn(List.of(trigger));
+        return trigger;
+    }
+
+    @SuppressWarnings("unchecked")
+    private NotificationTrigger savedOutcome() {
+        ArgumentCaptor<List<NotificationTrigger>> outcomes = ArgumentCaptor.forClass(List.class);
+        verify(repository).saveOutcomes(outcomes.capture(), eq(TENANT));
+        assertEquals(1, outcomes.getValue().size());
+        return outcomes.getValue().get(0);
+    }
+
+    private static NotificationTrigger trigger() {
+        return NotificationTrigger.builder()
+                .eventType("COOKIE_CONSENT_CREATED")
+                .resource("COOKIE_CONSENT")
+                .businessId("b1")
+                .eventKey("COOKIE_CONSENT_CREATED:consent-1:1")
+                .build();
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.scanner.config;
+
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BusinessIdRegistryTest {
+
+    private static final String TENANT = "t1";
+
+    private MongoTemplate mongoTemplate;
+    private MongoCollection<Document> collection;
+    private BusinessIdRegistry registry;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        collection = mock(MongoCollection.class);
+        TenantMongoTemplateRegistry templates = mock(TenantMongoTemplateRegistry.class);
+        when(templates.getMongoTemplateForTenant(TENANT)).thenReturn(mongoTemplate);
+        when(mongoTemplate.getCollection(BusinessIdRegistry.COLLECTION_BUSINESS_APPLICATIONS)).thenReturn(collection);
+        givenStoredIds("b1");
+
+        registry = new BusinessIdRegistry(templates, new SimpleMeterRegistry(), 300, 1000, 10, 1000);
+        ReflectionTestUtils.setField(registry, "bloomEnabled", true);
+        ReflectionTestUtils.setField(registry, "falsePositiveProbability", 0.001);
+        ReflectionTestUtils.setField(registry, "idleTenantMinutes", 60L);
+    }
+
+    @Test
+    void filterMissIsRejectedWithoutQuery() {
+        assertFalse(registry.exists(TENANT, "unknown"));
+        assertFalse(registry.exists(TENANT, "unknown"));
+
+        verify(mongoTemplate, never()).exists(any(Query.class), anyString());
+    }
+
+    @Test
+    void filterHitIsConfirmedOnceAgainstMongo() {
+        when(mongoTemplate.exists(any(Query.class), eq(BusinessIdRegistry.COLLECTION_BUSINESS_APPLICATIONS)))
+                .thenReturn(true);
+
+        assertTrue(registry.exists(TENANT, "b1"));
+        assertTrue(registry.exists(TENANT, "b1"));
+
+        verify(mongoTemplate, times(1)).exists(any(Query.class), anyString());
+    }
+
+    @Test
+    void registeredIdIsAcceptedBeforeTheNextRebuild() {
+        assertFalse(registry.exists(TENANT, "b2"));
+        when(mongoTemplate.exists(any(Query.class), eq(BusinessIdRegistry.COLLECTION_BUSINESS_APPLICATIONS)))
+                .thenReturn(true);
+
+        registry.registerBusinessId(TENANT, "b2");
+
+        assertTrue(registry.exists(TENANT, "b2"));
+    }
+
+    @Test
+    void registeredIdSurvivesARebuildThatMissedIt() {
+        registry.exists(TENANT, "b1");
+        registry.registerBusinessId(TENANT, "b2");
+        when(mongoTemplate.exists(any(Query.class), eq(BusinessIdRegistry.COLLECTION_BUSINESS_APPLICATIONS)))
+                .thenReturn(true);
+
+        // The scan ran before the new application was visible
+        registry.rebuildFilters();
+
+        assertTrue(registry.exists(TENANT, "b2"));
+    }
+
+    @Test
+    void withoutTheFilterEveryMissIsCheckedAgainstMongo() {
+        ReflectionTestUtils.setField(registry, "bloomEnabled", false);
+
+        assertFalse(registry.exists(TENANT, "unknown"));
+
+        verify(mongoTemplate).exists(any(Query.class), eq(BusinessIdRegistry.COLLECTION_BUSINESS_APPLICATIONS));
+        verify(collection, never()).find(any(Bson.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenStoredIds(String... businessIds) {
+        when(collection.estimatedDocumentCount()).thenReturn((long) businessIds.length);
+        FindIterable<Document> found = mock(FindIterable.class);
+        when(collection.find(any(Bson.class))).thenReturn(found);
+        when(found.projection(any())).thenReturn(found);
+        when(found.iterator()).thenAnswer(invocation -> cursor(List.of(businessIds).stream()
+                .map(id -> new Document("businessId", id))
+                .iterator()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static MongoCursor<Document> cursor(Iterator<Document> documents) {
+        MongoCursor<Document> cursor = mock(MongoCursor.class);
+        when(cursor.hasNext()).thenAnswer(invocation -> documents.hasNext());
+        when(cursor.next()).thenAnswer(invocation -> documents.next());
+        return cursor;
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.scanner.config;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.CountOptions;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoExceptionTranslator;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TenantScopedMongoTemplateTest {
+
+    private static final String COLLECTION = "consents";
+
+    private final AtomicReference<String> tenant = new AtomicReference<>("t1");
+    private final List<Document> stored = List.of(
+            new Document("_id", "c-1").append("tenantId", "t1").append("status", "ACTIVE"),
+            new Document("_id", "c-2").append("tenantId", "t2").append("status", "ACTIVE"));
+
+    private MongoCollection<Document> collection;
+    private TenantScopedMongoTemplate template;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MongoDatabaseFactory factory = mock(MongoDatabaseFactory.class);
+        MongoDatabase database = mock(MongoDatabase.class);
+        collection = mock(MongoCollection.class, RETURNS_SELF);
+        when(factory.getMongoDatabase()).thenReturn(database);
+        when(factory.getExceptionTranslator()).thenReturn(new MongoExceptionTranslator());
+        when(factory.getCodecRegistry()).thenReturn(MongoClientSettings.getDefaultCodecRegistry());
+        when(database.getCollection(COLLECTION)).thenReturn(collection);
+        when(database.getCollection(COLLECTION, Document.class)).thenReturn(collection);
+        when(collection.find(any(Bson.class), eq(Document.class)))
+                .thenAnswer(invocation -> found(matching(invocation.getArgument(0))));
+        when(collection.countDocuments(any(Bson.class), any(CountOptions.class)))
+                .thenAnswer(invocation -> (long) matching(invocation.getArgument(0)).size());
+
+        template = new TenantScopedMongoTemplate(factory, tenant::get);
+    }
+
+    @Test
+    void queriesAreRestrictedToTheTenant() {
+        template.find(new Query(Criteria.where("status").is("ACTIVE")), Document.class, COLLECTION);
+
+        assertEquals(new Document("status", "ACTIVE").append("tenantId", "t1"), lastFilter());
+    }
+
+    @Test
+    void otherTenantsDocumentsAreNotRead() {
+        Query active = new Query(Criteria.where("status").is("ACTIVE"));
+
+        assertEquals(List.of("c-1"), template.find(active, Document.class, COLLECTION).stream()
+                .map(document -> document.get("_id")).toList());
+        assertEquals(1, template.count(active, COLLECTION));
+        assertNull(template.findById("c-2", Document.class, COLLECTION));
+    }
+
+    @Test
+    void unscopedTemplateReadsEveryTenant() {
+        tenant.set(null);
+
+        assertEquals(2, template.find(new Query(), Document.class, COLLECTION).size());
+        assertEquals(new Document(), lastFilter());
+    }
+
+    @Test
+    void aggregationsStartWithTheTenantMatch() {
+        List<Document> pipeline = render(Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("status").is("ACTIVE"))));
+
+        assertEquals(new Document("$match", new Document("tenantId", "t1")), pipeline.get(0));
+        assertEquals(new Document("$match", new Document("status", "ACTIVE")), pipeline.get(1));
+    }
+
+    @Test
+    void lookupPipelinesAreRestrictedToTheTenant() {
+        List<Document> pipeline = render(Aggregation.newAggregation(
+                Aggregation.lookup("cookie_consent_handles", "consentHandleId", "consentHandleId", "handle"),
+                Aggregation.unwind("handle")));
+
+        Document lookup = pipeline.get(1).get("$lookup", Document.class);
+        assertEquals("cookie_consent_handles", lookup.getString("from"));
+        assertEquals(List.of(new Document("$match", new Document("tenantId", "t1"))), lookup.get("pipeline"));
+    }
+
+    @Test
+    void nestedJoinsAreRestrictedToTheTenant() {
+        Document tenantMatch = new Document("$match", new Document("tenantId", "t1"));
+        Document nestedLookup = new Document("$lookup", new Document("from", "handles").append("as", "h")
+                .append("pipeline", List.of(new Document("$unionWith", "archive"))));
+
+        Document facet = TenantScopedMongoTemplate.scopedStage(
+                new Document("$facet", new Document("joined", List.of(nestedLookup))), "t1");
+
+        Document lookup = facet.get("$facet", Document.class).getList("joined", Document.class).get(0)
+                .get("$lookup", Document.class);
+        List<?> lookupPipeline = lookup.getList("pipeline", Object.class);
+        assertEquals(tenantMatch, lookupPipeline.get(0));
+        assertEquals(new Document("$unionWith", new Document("coll", "archive").append("pipeline", List.of(tenantMatch))),
+                lookupPipeline.get(1));
+    }
+
+    @Test
+    void graphLookupSearchIsRestrictedToTheTenant() {
+        Document stage = TenantScopedMongoTemplate.scopedStage(new Document("$graphLookup",
+                new Document("from", "categories").append("restrictSearchWithMatch", new Document("active", true))), "t1");
+
+        assertEquals(new Document("$and", List.of(new Document("active", true), new Document("tenantId", "t1"))),
+                stage.get("$graphLookup", Document.class).get("restrictSearchWithMatch"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void bulkOperationsAreScopedAndStamped() {
+        when(collection.bulkWrite(anyList(), any(BulkWriteOptions.class))).thenReturn(mock(BulkWriteResult.class));
+
+        template.bulkOps(BulkOperations.BulkMode.ORDERED, COLLECTION)
+                .updateOne(new Query(Criteria.where("status").is("ACTIVE")), new Update().set("status", "REVOKED"))
+                .insert(new Document("_id", "c-3"))
+                .execute();
+
+        ArgumentCaptor<List<WriteModel<Document>>> models = ArgumentCaptor.forClass(List.class);
+        verify(collection).bulkWrite(models.capture(), any(BulkWriteOptions.class));
+        UpdateOneModel<Document> update = (UpdateOneModel<Document>) models.getValue().get(0);
+        InsertOneModel<Document> insert = (InsertOneModel<Document>) models.getValue().get(1);
+        assertEquals(new Document("status", "ACTIVE").append("tenantId", "t1"), update.getFilter());
+        assertEquals("t1", insert.getDocument().getString("tenantId"));
+    }
+
+    private List<Document> render(Aggregation aggregation) {
+        return Aggregation.newAggregation(TenantScopedMongoTemplate.scopedPipeline(aggregation, tenant.get()))
+                .toPipeline(Aggregation.DEFAULT_CONTEXT);
+    }
+
+    private Bson lastFilter() {
+        ArgumentCaptor<Bson> filter = ArgumentCaptor.forClass(Bson.class);
+        verify(collection).find(filter.capture(), eq(Document.class));
+        return filter.getValue();
+    }
+
+    /**
+     * Documents equal to the filter on every field it names; enough for the equality filters
+     * these tests produce.
+     */
+    private List<Document> matching(Bson filter) {
+        Document conditions = (Document) filter;
+        return stored.stream()
+                .filter(document -> conditions.entrySet().stream()
+                        .allMatch((Map.Entry<String, Object> condition) ->
+                                condition.getValue().equals(document.get(condition.getKey()))))
+                .toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static FindIterable<Document> found(List<Document> documents) {
+        FindIterable<Document> found = mock(FindIterable.class, RETURNS_SELF);
+        when(found.iterator()).thenAnswer(invocation -> cursor(documents.iterator()));
+        when(found.first()).thenReturn(documents.isEmpty() ? null : documents.get(0));
+        return found;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static MongoCursor<Document> cursor(Iterator<Document> documents) {
+        MongoCursor<Document> cursor = mock(MongoCursor.class);
+        when(cursor.hasNext()).thenAnswer(invocation -> documents.hasNext());
+        when(cursor.next()).thenAnswer(invocation -> documents.next());
+        return cursor;
+    }
+}
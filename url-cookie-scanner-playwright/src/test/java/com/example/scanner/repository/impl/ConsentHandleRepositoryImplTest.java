@@ -0,0 +1,82 @@
+package com.example.scanner.repository.impl;
+
+import com.example.scanner.config.TenantMongoTemplateRegistry;
+import com.example.scanner.entity.CookieConsentHandle;
+import com.example.scanner.enums.ConsentHandleStatus;
+import com.example.scanner.service.ConsentStatusCache;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConsentHandleRepositoryImplTest {
+
+    private static final String TENANT = "t1";
+
+    private MongoTemplate mongoTemplate;
+    private ConsentStatusCache statusCache;
+    private ConsentHandleRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        statusCache = mock(ConsentStatusCache.class);
+        TenantMongoTemplateRegistry templates = mock(TenantMongoTemplateRegistry.class);
+        when(templates.getMongoTemplateForTenant(TENANT)).thenReturn(mongoTemplate);
+        repository = new ConsentHandleRepositoryImpl(templates, statusCache);
+    }
+
+    @Test
+    void pendingHandleIsResolvedWithAConditionalUpdate() {
+        givenModified(1);
+        CookieConsentHandle handle = handle(ConsentHandleStatus.USED);
+
+        assertTrue(repository.resolvePending(handle, TENANT));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(CookieConsentHandle.class));
+        assertEquals(new Document("_id", "h-1").append("status", ConsentHandleStatus.PENDING),
+                query.getValue().getQueryObject());
+        assertEquals(ConsentHandleStatus.USED, ((Document) update.getValue().getUpdateObject().get("$set")).get("status"));
+        verify(statusCache).onHandleSaved(TENANT, handle);
+    }
+
+    @Test
+    void handleResolvedByAnotherRequestIsLeftAlone() {
+        givenModified(0);
+
+        assertFalse(repository.resolvePending(handle(ConsentHandleStatus.REJECTED), TENANT));
+
+        verify(statusCache, never()).onHandleSaved(any(), any());
+    }
+
+    private void givenModified(long modified) {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(CookieConsentHandle.class)))
+                .thenReturn(UpdateResult.acknowledged(modified, modified, null));
+    }
+
+    private static CookieConsentHandle handle(ConsentHandleStatus status) {
+        CookieConsentHandle handle = new CookieConsentHandle();
+        handle.setId("h-1");
+        handle.setStatus(status);
+        handle.setUpdatedAt(Instant.now());
+        return handle;
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.scanner.service;
+
+import com.example.scanner.client.AuditClient;
+import com.example.scanner.dto.request.AuditRequest;
+import com.example.scanner.entity.AuditOutboxEntry;
+import com.example.scanner.enums.OutboxStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuditOutboxDispatcherTest {
+
+    private MongoTemplate mongoTemplate;
+    private AuditClient auditClient;
+    private AuditOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        auditClient = mock(AuditClient.class);
+        dispatcher = new AuditOutboxDispatcher(mongoTemplate, auditClient, Runnable::run, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(dispatcher, "enabled", true);
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 200);
+        ReflectionTestUtils.setField(dispatcher, "leaseMs", 60000L);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(dispatcher, "backoffInitialMs", 1000L);
+        ReflectionTestUtils.setField(dispatcher, "backoffMaxMs", 300000L);
+    }
+
+    @Test
+    void claimLeasesDueEntriesBeforeShippingThem() {
+        givenClaimed(entry("1", "t1|r1", 0));
+
+        dispatcher.dispatch();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateMulti(query.capture(), update.capture(), eq(AuditOutboxEntry.class));
+        assertEquals(OutboxStatus.PENDING, query.getValue().getQueryObject().get("status"));
+        Document set = set(update.getValue());
+        assertTrue(set.containsKey("leaseOwner"));
+        assertTrue(set.containsKey("leaseUntil"));
+    }
+
+    @Test
+    void shippedEntriesAreDeleted() {
+        givenClaimed(entry("1", "t1|r1", 0), entry("2", "t1|r2", 0));
+
+        dispatcher.dispatch();
+
+        verify(auditClient, times(2)).send(any(), any(), any(), any());
+        verify(mongoTemplate).remove(any(Query.class), eq(AuditOutboxEntry.class));
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(AuditOutboxEntry.class));
+    }
+
+    @Test
+    void failedEntryIsRescheduledWithBackoff() {
+        givenClaimed(entry("1", "t1|r1", 0));
+        doThrow(new IllegalStateException("audit module down")).when(auditClient).send(any(), any(), any(), any());
+
+        Instant before = Instant.now();
+        dispatcher.dispatch();
+
+        Update update = rescheduled();
+        Document set = set(update);
+        assertEquals(1, set.get("attempts"));
+        assertEquals("audit module down", set.get("lastError"));
+        assertFalse(set.containsKey("status"));
+        Instant nextAttemptAt = (Instant) set.get("nextAttemptAt");
+        assertFalse(nextAttemptAt.isBefore(before.plusMillis(1000)));
+        assertTrue(unset(update).containsKey("leaseOwner"));
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(AuditOutboxEntry.class));
+    }
+
+    @Test
+    void entryIsDeadLetteredAfterMaxAttempts() {
+        givenClaimed(entry("1", "t1|r1", 2));
+        doThrow(new IllegalStateException("audit module down")).when(auditClient).send(any(), any(), any(), any());
+
+        dispatcher.dispatch();
+
+        Document set = set(rescheduled());
+        assertEquals(3, set.get("attempts"));
+        assertEquals(OutboxStatus.DEAD, set.get("status"));
+        assertFalse(set.containsKey("nextAttemptAt"));
+    }
+
+    @Test
+    void failureHoldsBackLaterEntriesOfTheSameKey() {
+        AuditOutboxEntry first = entry("1", "t1|r1", 0);
+        AuditOutboxEntry second = entry("2", "t1|r1", 0);
+        givenClaimed(first, second);
+        doThrow(new IllegalStateException("audit module down")).when(auditClient)
+                .send(eq(first.getRequest()), any(), any(), any());
+
+        dispatcher.dispatch();
+
+        verify(auditClient, never()).send(eq(second.getRequest()), any(), any(), any());
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        // The claim, then the release of the held back entry
+        verify(mongoTemplate, times(2)).updateMulti(any(Query.class), updates.capture(), eq(AuditOutboxEntry.class));
+        Document release = unset(updates.getAllValues().get(1));
+        assertTrue(release.containsKey("leaseOwner"));
+        assertTrue(release.containsKey("leaseUntil"));
+    }
+
+    @Test
+    void onlyEntriesSentWithinHalfTheLeaseAreAcknowledgedByTheBatch() throws Exception {
+        dispatcher = new AuditOutboxDispatcher(mongoTemplate, auditClient, command -> new Thread(command).start(),
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(dispatcher, "enabled", true);
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 200);
+        ReflectionTestUtils.setField(dispatcher, "leaseMs", 200L);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 3);
+        AuditOutboxEntry fast = entry("1", "t1|r1", 0);
+        AuditOutboxEntry slow = entry("2", "t1|r2", 0);
+        AuditOutboxEntry afterSlow = entry("3", "t1|r2", 0);
+        givenClaimed(fast, slow, afterSlow);
+        CountDownLatch slowSent = new CountDownLatch(1);
+        when(auditClient.send(eq(slow.getRequest()), any(), any(), any())).thenAnswer(invocation -> {
+            slowSent.await();
+            return null;
+        });
+
+        dispatcher.dispatch();
+
+        ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(removed.capture(), eq(AuditOutboxEntry.class));
+        assertEquals(List.of("1"), removedIds(removed.getValue()));
+
+        slowSent.countDown();
+
+        // The late send acknowledges its own entry, and the rest of its key waits for the lease to expire
+        verify(mongoTemplate, timeout(1000).times(2)).remove(removed.capture(), eq(AuditOutboxEntry.class));
+        assertEquals(List.of("2"), removedIds(removed.getValue()));
+        Thread.sleep(100);
+        verify(auditClient, never()).send(eq(afterSlow.getRequest()), any(), any(), any());
+    }
+
+    private void givenClaimed(AuditOutboxEntry... entries) {
+        // Candidates first, then the entries whose lease was won
+        when(mongoTemplate.find(any(Query.class), eq(AuditOutboxEntry.class)))
+                .thenReturn(List.of(entries), List.of(entries), List.of());
+    }
+
+    private Update rescheduled() {
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(AuditOutboxEntry.class));
+        return update.getValue();
+    }
+
+    private static List<?> removedIds(Query query) {
+        return (List<?>) ((Document) query.getQueryObject().get("_id")).get("$in");
+    }
+
+    private static Document set(Update update) {
+        return (Document) update.getUpdateObject().get("$set");
+    }
+
+    private static Document unset(Update update) {
+        return (Document) update.getUpdateObject().get("$unset");
+    }
+
+    private static AuditOutboxEntry entry(String id, String orderingKey, int attempts) {
+        return AuditOutboxEntry.builder()
+                .id(id)
+                .orderingKey(orderingKey)
+                .request(AuditRequest.builder()
+                        .auditId("audit-" + id)
+                        .tenantId("t1")
+                        .businessId("b1")
+                        .transactionId("tx-" + id)
+                        .actionType("CONSENT_CREATED")
+                        .build())
+                .status(OutboxStatus.PENDING)
+                .attempts(attempts)
+                .createdAt(Instant.now())
+                .nextAttemptAt(Instant.now())
+                .build();
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.scanner.service;
+
+import com.example.scanner.dto.Resource;
+import com.example.scanner.dto.request.AuditRequest;
+import com.example.scanner.entity.AuditOutboxEntry;
+import com.example.scanner.enums.OutboxStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class AuditOutboxTest {
+
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void appendStoresTheEventBeforeReturning() {
+        AuditOutbox outbox = new AuditOutbox(mongoTemplate, new SimpleMeterRegistry(), false, 10, 500);
+
+        outbox.append(request("r1"));
+
+        ArgumentCaptor<List<AuditOutboxEntry>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(mongoTemplate).insert(inserted.capture(), eq(AuditOutbox.COLLECTION));
+        AuditOutboxEntry entry = inserted.getValue().get(0);
+        assertEquals("t1|consent|r1", entry.getOrderingKey());
+        assertEquals(OutboxStatus.PENDING, entry.getStatus());
+    }
+
+    @Test
+    void bufferedEventsAreStoredOnFlush() {
+        AuditOutbox outbox = new AuditOutbox(mongoTemplate, new SimpleMeterRegistry(), true, 10, 500);
+
+        outbox.append(request("r1"));
+        outbox.append(request("r2"));
+        verify(mongoTemplate, never()).insert(anyList(), eq(AuditOutbox.COLLECTION));
+
+        outbox.flush();
+
+        verify(mongoTemplate, times(1)).insert(anyList(), eq(AuditOutbox.COLLECTION));
+    }
+
+    @Test
+    void fullBufferStoresTheEventImmediately() {
+        AuditOutbox outbox = new AuditOutbox(mongoTemplate, new SimpleMeterRegistry(), true, 1, 500);
+
+        outbox.append(request("r1"));
+        outbox.append(request("r2"));
+
+        verify(mongoTemplate, times(1)).insert(anyList(), eq(AuditOutbox.COLLECTION));
+    }
+
+    private static AuditRequest request(String resourceId) {
+        return AuditRequest.builder()
+                .tenantId("t1")
+                .actionType("CONSENT_CREATED")
+                .resource(Resource.builder().type("consent").id(resourceId).build())
+                .build();
+    }
+}
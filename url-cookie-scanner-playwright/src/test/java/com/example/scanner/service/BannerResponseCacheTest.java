@@ -0,0 +1,118 @@
+package com.example.scanner.service;
+
+import com.example.scanner.dto.LanguageSpecificContent;
+import com.example.scanner.dto.Multilingual;
+import com.example.scanner.entity.BannerPayload;
+import com.example.scanner.enums.LANGUAGE;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BannerResponseCacheTest {
+
+    @Test
+    void gzipIsAcceptedWhenListed() {
+        assertTrue(BannerResponseCache.acceptsGzip("gzip"));
+        assertTrue(BannerResponseCache.acceptsGzip("br, GZIP;q=0.8, deflate"));
+        assertTrue(BannerResponseCache.acceptsGzip("x-gzip"));
+        assertTrue(BannerResponseCache.acceptsGzip("identity, *"));
+    }
+
+    @Test
+    void gzipIsRefusedWhenMissingOrWeightedZero() {
+        assertFalse(BannerResponseCache.acceptsGzip(null));
+        assertFalse(BannerResponseCache.acceptsGzip(""));
+        assertFalse(BannerResponseCache.acceptsGzip("br, deflate"));
+        assertFalse(BannerResponseCache.acceptsGzip("gzip;q=0"));
+        assertFalse(BannerResponseCache.acceptsGzip("gzip; q=0.0"));
+        assertFalse(BannerResponseCache.acceptsGzip("gzip;q=abc"));
+        assertFalse(BannerResponseCache.acceptsGzip("*;q=0"));
+        // An explicit refusal wins over the wildcard
+        assertFalse(BannerResponseCache.acceptsGzip("*, gzip;q=0"));
+    }
+
+    @Test
+    void languagesAreParsedCaseInsensitively() {
+        assertEquals(EnumSet.of(LANGUAGE.ENGLISH, LANGUAGE.HINDI, LANGUAGE.TAMIL),
+                BannerResponseCache.parseLanguages(List.of("english, Hindi", "TAMIL", " ")));
+        assertTrue(BannerResponseCache.parseLanguages(null).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> BannerResponseCache.parseLanguages(List.of("klingon")));
+    }
+
+    @Test
+    void requestedLanguagesAreKept() {
+        Multilingual filtered = BannerResponseCache.forLanguages(multilingual(), Set.of(LANGUAGE.HINDI, LANGUAGE.TAMIL));
+
+        assertEquals(List.of(LANGUAGE.HINDI), filtered.getSupportedLanguages());
+        assertEquals(Set.of(LANGUAGE.HINDI), filtered.getLanguageSpecificContentMap().keySet());
+        assertEquals("Hindi", filtered.getLanguageSpecificContentMap().get(LANGUAGE.HINDI).getTitle());
+    }
+
+    @Test
+    void unfilteredLanguagesReturnTheSameInstance() {
+        Multilingual multilingual = multilingual();
+
+        assertSame(multilingual, BannerResponseCache.forLanguages(multilingual, null));
+        assertSame(multilingual, BannerResponseCache.forLanguages(multilingual, Set.of()));
+        assertSame(multilingual, BannerResponseCache.forLanguages(multilingual, EnumSet.allOf(LANGUAGE.class)));
+        // None of the requested languages is supported: the banner falls back to all of them
+        assertSame(multilingual, BannerResponseCache.forLanguages(multilingual, Set.of(LANGUAGE.TAMIL)));
+        assertNull(BannerResponseCache.forLanguages(null, Set.of(LANGUAGE.HINDI)));
+    }
+
+    @Test
+    void encodedBannerIsCachedPerLanguages() throws Exception {
+        BannerPayloadService payloads = mock(BannerPayloadService.class);
+        when(payloads.get("t1", "template-1", 1)).thenReturn(BannerPayload.builder()
+                .templateId("template-1")
+                .templateVersion(1)
+                .templateName("Banner")
+                .multilingual(multilingual())
+                .etag("\"payload-1\"")
+                .build());
+        BannerResponseCache cache = new BannerResponseCache(payloads, new ObjectMapper(), new SimpleMeterRegistry(),
+                1 << 20);
+
+        BannerResponseCache.EncodedBanner all = cache.get("t1", "template-1", 1, Set.of());
+        BannerResponseCache.EncodedBanner hindi = cache.get("t1", "template-1", 1, Set.of(LANGUAGE.HINDI));
+
+        assertSame(all, cache.get("t1", "template-1", 1, Set.of()));
+        assertNotSame(all, hindi);
+        assertNotEquals(all.etag(false), hindi.etag(false));
+        assertNotEquals(all.etag(false), all.etag(true));
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(all.body(true)))) {
+            assertArrayEquals(all.body(false), gzip.readAllBytes());
+        }
+        assertNull(cache.get("t1", "template-2", 1, Set.of()));
+    }
+
+    private static Multilingual multilingual() {
+        Map<LANGUAGE, LanguageSpecificContent> content = new LinkedHashMap<>();
+        content.put(LANGUAGE.ENGLISH, LanguageSpecificContent.builder().title("English").build());
+        content.put(LANGUAGE.HINDI, LanguageSpecificContent.builder().title("Hindi").build());
+        return Multilingual.builder()
+                .supportedLanguages(List.of(LANGUAGE.ENGLISH, LANGUAGE.HINDI))
+                .languageSpecificContentMap(content)
+                .build();
+    }
+}
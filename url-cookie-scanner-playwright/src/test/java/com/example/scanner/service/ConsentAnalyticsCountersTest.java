@@ -0,0 +1,177 @@
+package com.example.scanner.service;
+
+import com.example.scanner.config.TenantMongoTemplateRegistry;
+import com.example.scanner.config.TenantReadRouter;
+import com.example.scanner.entity.CookieConsentHandle;
+import com.example.scanner.enums.ConsentHandleStatus;
+import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConsentAnalyticsCountersTest {
+
+    private static final String TENANT = "t1";
+
+    private MongoTemplate mongoTemplate;
+    private BulkOperations bulk;
+    private ConsentAnalyticsCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        bulk = mock(BulkOperations.class, RETURNS_SELF);
+        TenantMongoTemplateRegistry templates = mock(TenantMongoTemplateRegistry.class);
+        when(templates.getMongoTemplateForTenant(TENANT)).thenReturn(mongoTemplate);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ConsentAnalyticsCounters.COLLECTION))
+                .thenReturn(bulk);
+
+        counters = new ConsentAnalyticsCounters(templates, mock(TenantReadRouter.class), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(counters, "enabled", true);
+    }
+
+    @Test
+    void eventIsWrittenBeforeReturning() {
+        counters.handleCreated(TENANT, handle(ConsentHandleStatus.PENDING));
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulk).upsert(any(Query.class), update.capture());
+        verify(bulk).execute();
+        assertEquals(new Document("handles.created", 1L), update.getValue().getUpdateObject().get("$inc"));
+    }
+
+    @Test
+    void failedWriteIsRetriedOnFlush() {
+        when(bulk.execute()).thenThrow(new IllegalStateException("primary stepped down")).thenReturn(null);
+
+        counters.handleCreated(TENANT, handle(ConsentHandleStatus.PENDING));
+        counters.flush();
+
+        verify(bulk, times(2)).execute();
+    }
+
+    @Test
+    void bufferedIncrementsAreCoalescedUntilFlush() {
+        ReflectionTestUtils.setField(counters, "buffered", true);
+
+        counters.handleCreated(TENANT, handle(ConsentHandleStatus.PENDING));
+        counters.handleCreated(TENANT, handle(ConsentHandleStatus.PENDING));
+        verify(bulk, never()).execute();
+
+        counters.flush();
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulk).upsert(any(Query.class), update.capture());
+        assertEquals(new Document("handles.created", 2L), update.getValue().getUpdateObject().get("$inc"));
+    }
+
+    @Test
+    void disabledCountersWriteNothing() {
+        ReflectionTestUtils.setField(counters, "enabled", false);
+
+        counters.handleCreated(TENANT, handle(ConsentHandleStatus.PENDING));
+        counters.flush();
+
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(ConsentAnalyticsCounters.COLLECTION));
+    }
+
+    @Test
+    void writesGoToTheCurrentGeneration() {
+        when(mongoTemplate.findById(TENANT, Document.class, ConsentAnalyticsCounters.GENERATIONS))
+                .thenReturn(new Document("_id", TENANT).append("current", 2L));
+
+        counters.handleCreated(TENANT, handle(ConsentHandleStatus.PENDING));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulk).upsert(query.capture(), update.capture());
+        assertEquals("t1|template-1|1|2026-01-15|g2", query.getValue().getQueryObject().get("_id"));
+        assertEquals(2L, ((Document) update.getValue().getUpdateObject().get("$setOnInsert")).get("generation"));
+    }
+
+    @Test
+    void rebuildWritesTheNextGenerationBeforeSwitchingToIt() {
+        givenHandleOutcome("USED", 3);
+
+        counters.rebuild(TENANT);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulk).upsert(query.capture(), update.capture());
+        assertEquals("t1|template-1|1|2026-01-15|g1", query.getValue().getQueryObject().get("_id"));
+        // Set rather than incremented, so nothing written to the live generation is added twice
+        assertEquals(new Document("handles.created", 3L).append("handles.USED", 3L),
+                update.getValue().getUpdateObject().get("$set"));
+        assertNull(update.getValue().getUpdateObject().get("$inc"));
+
+        InOrder order = inOrder(bulk, mongoTemplate);
+        order.verify(bulk).execute();
+        order.verify(mongoTemplate).insert(new Document("_id", TENANT).append("current", 1L),
+                ConsentAnalyticsCounters.GENERATIONS);
+        ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+        order.verify(mongoTemplate).remove(removed.capture(), eq(ConsentAnalyticsCounters.COLLECTION));
+        assertEquals(new Document("generation", new Document("$ne", 1L)), removed.getValue().getQueryObject());
+    }
+
+    @Test
+    void concurrentRebuildFailsTheSwitch() {
+        when(mongoTemplate.findById(TENANT, Document.class, ConsentAnalyticsCounters.GENERATIONS))
+                .thenReturn(new Document("_id", TENANT).append("current", 1L));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ConsentAnalyticsCounters.GENERATIONS)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+        givenHandleOutcome("USED", 3);
+
+        assertThrows(IllegalStateException.class, () -> counters.rebuild(TENANT));
+
+        verify(mongoTemplate, never()).remove(
+                new Query(Criteria.where("generation").ne(2L)), ConsentAnalyticsCounters.COLLECTION);
+    }
+
+    private void givenHandleOutcome(String status, int count) {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq("cookie_consents"), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+        Document row = new Document("_id", new Document("templateId", "template-1")
+                .append("templateVersion", 1)
+                .append("day", "2026-01-15")
+                .append("status", status))
+                .append("count", count);
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq("cookie_consent_handles"), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(row), new Document()));
+    }
+
+    private static CookieConsentHandle handle(ConsentHandleStatus status) {
+        CookieConsentHandle handle = new CookieConsentHandle();
+        handle.setTemplateId("template-1");
+        handle.setTemplateVersion(1);
+        handle.setStatus(status);
+        handle.setCreatedAt(Instant.parse("2026-01-15T10:00:00Z"));
+        return handle;
+    }
+}
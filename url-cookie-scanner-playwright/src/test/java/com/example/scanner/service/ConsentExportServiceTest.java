@@ -0,0 +1,105 @@
+package com.example.scanner.service;
+
+import com.example.scanner.config.TenantReadRouter;
+import com.example.scanner.exception.ConsentException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.MongoCollection;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ConsentExportServiceTest {
+
+    @Test
+    void objectIdCursorRoundTrips() throws ConsentException {
+        ObjectId id = new ObjectId();
+
+        assertEquals(id, ConsentExportService.decodeCursor(ConsentExportService.encodeCursor(id)));
+    }
+
+    @Test
+    void stringCursorKeepsItsType() throws ConsentException {
+        // A string that happens to be a valid ObjectId hex must not come back as an ObjectId
+        String id = new ObjectId().toHexString();
+
+        assertEquals(id, ConsentExportService.decodeCursor(ConsentExportService.encodeCursor(id)));
+    }
+
+    @Test
+    void cursorIsUrlSafe() {
+        String cursor = ConsentExportService.encodeCursor("consent/with+odd?chars");
+
+        assertEquals(-1, cursor.indexOf('/'));
+        assertEquals(-1, cursor.indexOf('+'));
+        assertEquals(-1, cursor.indexOf('='));
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThrows(ConsentException.class, () -> ConsentExportService.decodeCursor("not base64!"));
+        assertThrows(ConsentException.class, () -> ConsentExportService.decodeCursor(encode("x:123")));
+        assertThrows(ConsentException.class, () -> ConsentExportService.decodeCursor(encode("o:not-an-id")));
+        assertThrows(ConsentException.class, () -> ConsentExportService.decodeCursor(encode("s:")));
+    }
+
+    @Test
+    void unknownFormatIsRejected() throws ConsentException {
+        assertEquals(ConsentExportService.Format.NDJSON, ConsentExportService.parseFormat(null));
+        assertEquals(ConsentExportService.Format.CSV, ConsentExportService.parseFormat(" csv "));
+        assertThrows(ConsentException.class, () -> ConsentExportService.parseFormat("xml"));
+    }
+
+    @Test
+    void bodiesThatNeverRunHoldNoExportSlot() throws ConsentException {
+        ConsentExportService service = service(1);
+
+        // Abandoned before writing, e.g. the client went away or the async request timed out
+        service.export("t1", ConsentExportService.Format.NDJSON, null, null, null, null, null, null);
+
+        assertDoesNotThrow(() -> service.export("t1", ConsentExportService.Format.NDJSON,
+                null, null, null, null, null, null));
+    }
+
+    @Test
+    void exportIsRejectedWhileAllSlotsAreTaken() throws Exception {
+        ConsentExportService service = service(1);
+        StreamingResponseBody body = service.export("t1", ConsentExportService.Format.NDJSON,
+                null, null, null, null, null, null);
+        // Another export is running
+        ((Semaphore) ReflectionTestUtils.getField(service, "permits")).acquire();
+
+        assertThrows(RejectedExecutionException.class, () -> body.writeTo(new ByteArrayOutputStream()));
+        assertThrows(RejectedExecutionException.class, () -> service.export("t1",
+                ConsentExportService.Format.NDJSON, null, null, null, null, null, null));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ConsentExportService service(int maxConcurrent) {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.getCollection(anyString())).thenReturn(mock(MongoCollection.class));
+        TenantReadRouter readRouter = mock(TenantReadRouter.class);
+        when(readRouter.templateFor(anyString(), any())).thenReturn(mongoTemplate);
+        return new ConsentExportService(readRouter, new ObjectMapper(), new SimpleMeterRegistry(), maxConcurrent);
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.scanner.service;
+
+import com.example.scanner.config.TenantMongoTemplateRegistry;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConsentStatusCacheTest {
+
+    private static final String TENANT = "t1";
+    private static final String HANDLES = "cookie_consent_handles";
+
+    private MongoTemplate mongoTemplate;
+    private ConsentStatusCache cache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        MongoCollection<Document> collection = mock(MongoCollection.class);
+        TenantMongoTemplateRegistry templates = mock(TenantMongoTemplateRegistry.class);
+        when(templates.getMongoTemplateForTenant(TENANT)).thenReturn(mongoTemplate);
+        when(mongoTemplate.getCollection(HANDLES)).thenReturn(collection);
+        givenHandlesOf(collection, "known");
+
+        cache = new ConsentStatusCache(templates, mock(MongoTemplate.class), new SimpleMeterRegistry(), 60, 1000, 5);
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "bloomEnabled", true);
+        ReflectionTestUtils.setField(cache, "falsePositiveProbability", 0.001);
+        ReflectionTestUtils.setField(cache, "idleTenantMinutes", 60L);
+    }
+
+    @Test
+    void filterMissesOfABatchAreConfirmedInOneQuery() {
+        when(mongoTemplate.findDistinct(any(Query.class), eq("customerIdentifiers.value"), eq(HANDLES), eq(String.class)))
+                .thenReturn(List.of("created-elsewhere"));
+
+        Set<String> unknown = cache.findUnknownDevices(TENANT, List.of("known", "new-1", "new-2", "created-elsewhere"));
+
+        assertEquals(Set.of("new-1", "new-2"), unknown);
+        verify(mongoTemplate, times(1)).findDistinct(any(Query.class), anyString(), eq(HANDLES), eq(String.class));
+        // Learned from the confirmation
+        assertTrue(cache.isKnownDevice(TENANT, "created-elsewhere"));
+    }
+
+    @Test
+    void confirmedMissesAreRememberedWithoutAnotherQuery() {
+        when(mongoTemplate.findDistinct(any(Query.class), anyString(), eq(HANDLES), eq(String.class)))
+                .thenReturn(List.of());
+
+        cache.findUnknownDevices(TENANT, List.of("new-1", "new-2"));
+
+        assertEquals(Set.of("new-1", "new-2"), cache.findUnknownDevices(TENANT, List.of("new-1", "new-2")));
+        assertFalse(cache.isKnownDevice(TENANT, "new-1"));
+        verify(mongoTemplate, times(1)).findDistinct(any(Query.class), anyString(), eq(HANDLES), eq(String.class));
+    }
+
+    @Test
+    void unreadableHandlesTreatEveryMissAsKnown() {
+        when(mongoTemplate.findDistinct(any(Query.class), anyString(), eq(HANDLES), eq(String.class)))
+                .thenThrow(new IllegalStateException("no primary"));
+
+        assertTrue(cache.findUnknownDevices(TENANT, List.of("new-1")).isEmpty());
+    }
+
+    @Test
+    void withoutTheFilterNoDeviceIsUnknown() {
+        ReflectionTestUtils.setField(cache, "bloomEnabled", false);
+
+        assertTrue(cache.findUnknownDevices(TENANT, List.of("new-1")).isEmpty());
+        verify(mongoTemplate, never()).findDistinct(any(Query.class), anyString(), anyString(), eq(String.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void givenHandlesOf(MongoCollection<Document> collection, String... deviceIds) {
+        when(collection.estimatedDocumentCount()).thenReturn((long) deviceIds.length);
+        FindIterable<Document> found = mock(FindIterable.class);
+        when(collection.find(any(Bson.class))).thenReturn(found);
+        when(found.projection(any())).thenReturn(found);
+        when(found.iterator()).thenAnswer(invocation -> cursor(List.of(deviceIds).stream()
+                .map(id -> new Document("customerIdentifiers", new Document("value", id)))
+                .iterator()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static MongoCursor<Document> cursor(Iterator<Document> documents) {
+        MongoCursor<Document> cursor = mock(MongoCursor.class);
+        when(cursor.hasNext()).thenAnswer(invocation -> documents.hasNext());
+        when(cursor.next()).thenAnswer(invocation -> documents.next());
+        return cursor;
+    }
+}
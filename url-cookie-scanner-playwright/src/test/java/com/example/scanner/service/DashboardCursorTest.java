@@ -0,0 +1,93 @@
+package com.example.scanner.service;
+
+import com.example.scanner.entity.ConsentTemplate;
+import com.example.scanner.exception.ConsentException;
+import com.example.scanner.service.ConsentService.DashboardCursor;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DashboardCursorTest {
+
+    @Test
+    void consentCursorRoundTrips() throws ConsentException {
+        Date createdAt = new Date(1768473012345L);
+        ObjectId id = new ObjectId();
+
+        DashboardCursor cursor = DashboardCursor.decode(
+                DashboardCursor.encode(template("template-1", 3), DashboardCursor.Phase.CONSENTS, createdAt, id));
+
+        assertEquals("template-1", cursor.templateId);
+        assertEquals(3, cursor.templateVersion);
+        assertEquals(DashboardCursor.Phase.CONSENTS, cursor.phase);
+        assertEquals(createdAt, cursor.createdAt);
+        assertEquals(id, cursor.id);
+    }
+
+    @Test
+    void handleCursorKeepsStringIds() throws ConsentException {
+        String id = UUID.randomUUID().toString();
+
+        DashboardCursor cursor = DashboardCursor.decode(DashboardCursor.encode(template("template-1", 1),
+                DashboardCursor.Phase.HANDLES, new Date(1768473012345L), id));
+
+        assertEquals(DashboardCursor.Phase.HANDLES, cursor.phase);
+        assertEquals(id, cursor.id);
+    }
+
+    @Test
+    void handleCursorWithoutPositionStartsAtTheFirstHandle() throws ConsentException {
+        // Issued when the consents filled the page and only the handles follow
+        DashboardCursor cursor = DashboardCursor.decode(
+                DashboardCursor.encode(template("template-1", 1), DashboardCursor.Phase.HANDLES, null, null));
+
+        assertEquals(DashboardCursor.Phase.HANDLES, cursor.phase);
+        assertNull(cursor.createdAt);
+        assertNull(cursor.id);
+    }
+
+    @Test
+    void cursorIsUrlSafe() {
+        String cursor = DashboardCursor.encode(template("template/with+odd?chars", 1),
+                DashboardCursor.Phase.CONSENTS, new Date(), new ObjectId());
+
+        assertEquals(-1, cursor.indexOf('/'));
+        assertEquals(-1, cursor.indexOf('+'));
+        assertEquals(-1, cursor.indexOf('='));
+    }
+
+    @Test
+    void missingCursorStartsAtTheFirstPage() throws ConsentException {
+        assertNull(DashboardCursor.decode(null));
+        assertNull(DashboardCursor.decode(" "));
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThrows(ConsentException.class, () -> DashboardCursor.decode("not base64!"));
+        assertThrows(ConsentException.class, () -> DashboardCursor.decode(encode("template-1|1|CONSENTS|123")));
+        assertThrows(ConsentException.class, () -> DashboardCursor.decode(encode("template-1|1|OTHER|123|id")));
+        assertThrows(ConsentException.class, () -> DashboardCursor.decode(encode("template-1|x|CONSENTS|123|id")));
+        assertThrows(ConsentException.class, () -> DashboardCursor.decode(encode("template-1|1|CONSENTS|soon|id")));
+        assertThrows(ConsentException.class, () -> DashboardCursor.decode(encode("template-1|1|CONSENTS||")));
+    }
+
+    private static ConsentTemplate template(String templateId, int version) {
+        ConsentTemplate template = new ConsentTemplate();
+        template.setTemplateId(templateId);
+        template.setVersion(version);
+        return template;
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
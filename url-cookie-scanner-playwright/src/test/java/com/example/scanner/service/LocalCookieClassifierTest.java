@@ -0,0 +1,83 @@
+package com.example.scanner.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalCookieClassifierTest {
+
+    private LocalCookieClassifier classifier;
+
+    @BeforeEach
+    void setUp() {
+        CookieKnowledgeBase knowledgeBase = new CookieKnowledgeBase();
+        knowledgeBase.load();
+        classifier = classifier(knowledgeBase, true);
+    }
+
+    @Test
+    void knownNameIsAnExactHit() {
+        LocalCookieClassifier.Prediction prediction = classifier.classify("_ga", null);
+
+        assertEquals("Analytics", prediction.getCategory());
+        assertEquals(1.0, prediction.getConfidence());
+        assertTrue(prediction.isExact());
+    }
+
+    @Test
+    void unknownNamesArePredictedFromSimilarNames() {
+        assertPredicted("_ga_ABC123", "Analytics");
+        assertPredicted("_hjSessionUser_123", "Analytics");
+        assertPredicted("_fbp_x", "Advertisment");
+        assertPredicted("PHPSESSID2", "Necessary");
+        assertPredicted("cookieconsent_status2", "Functional");
+    }
+
+    @Test
+    void unseenDomainLabelsDoNotChangeThePrediction() {
+        LocalCookieClassifier.Prediction withoutDomain = classifier.classify("_gid_x", null);
+        LocalCookieClassifier.Prediction withDomain = classifier.classify("_gid_x", "tracker.some-vendor.com");
+
+        assertEquals(withoutDomain.getCategory(), withDomain.getCategory());
+        assertEquals(withoutDomain.getConfidence(), withDomain.getConfidence(), 1e-12);
+    }
+
+    @Test
+    void blankNameIsNotClassified() {
+        assertNull(classifier.classify(" ", null));
+        assertNull(classifier.classify(null, null));
+    }
+
+    @Test
+    void disabledModelOnlyAnswersExactHits() {
+        CookieKnowledgeBase knowledgeBase = new CookieKnowledgeBase();
+        knowledgeBase.load();
+        LocalCookieClassifier disabled = classifier(knowledgeBase, false);
+
+        assertFalse(disabled.isEnabled());
+        assertEquals("Analytics", disabled.classify("_ga", null).getCategory());
+        assertNull(disabled.classify("_ga_ABC123", null));
+    }
+
+    private void assertPredicted(String cookieName, String category) {
+        LocalCookieClassifier.Prediction prediction = classifier.classify(cookieName, null);
+
+        assertEquals(category, prediction.getCategory(), cookieName);
+        assertFalse(prediction.isExact());
+        assertTrue(prediction.getConfidence() > 0.5 && prediction.getConfidence() <= 1.0, cookieName);
+    }
+
+    private static LocalCookieClassifier classifier(CookieKnowledgeBase knowledgeBase, boolean enabled) {
+        LocalCookieClassifier classifier = new LocalCookieClassifier(knowledgeBase, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(classifier, "enabled", enabled);
+        ReflectionTestUtils.setField(classifier, "confidenceThreshold", 0.85);
+        classifier.init();
+        return classifier;
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.scanner.util;
+
+import com.example.scanner.dto.CustomerIdentifiers;
+import com.example.scanner.dto.LanguageSpecificContent;
+import com.example.scanner.dto.Multilingual;
+import com.example.scanner.dto.Preference;
+import com.example.scanner.dto.SignableConsent;
+import com.example.scanner.enums.LANGUAGE;
+import com.example.scanner.enums.Status;
+import com.example.scanner.enums.VersionStatus;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class ConsentSerializerTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 15, 10, 30, 12, 345_678_901);
+    private static final Instant CREATED = Instant.parse("2026-01-15T10:30:12.345678901Z");
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConsentSerializer serializer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        serializer = new ConsentSerializer(objectMapper, meterRegistry);
+    }
+
+    @Test
+    void payloadHashIsTheHashOfTheCanonicalJson() throws Exception {
+        ConsentSerializer.CanonicalConsent canonical = serializer.serialize(consent(START, CREATED, new LinkedHashMap<>()));
+
+        assertEquals(ConsentUtil.computeSHA256Hash(canonical.json()), canonical.payloadHash());
+    }
+
+    @Test
+    void serializingTwiceGivesTheSameBytes() throws Exception {
+        ConsentSerializer.CanonicalConsent first = serializer.serialize(consent(START, CREATED, new LinkedHashMap<>()));
+        ConsentSerializer.CanonicalConsent second = new ConsentSerializer(objectMapper, new SimpleMeterRegistry())
+                .serialize(consent(START, CREATED, new LinkedHashMap<>()));
+
+        assertEquals(first.json(), second.json());
+        assertEquals(first.payloadHash(), second.payloadHash());
+    }
+
+    @Test
+    void propertiesAreSorted() throws Exception {
+        String json = serializer.serialize(consent(START, CREATED, new LinkedHashMap<>())).json();
+
+        List<String> keys = new ArrayList<>(objectMapper.readValue(json, new TypeReference<LinkedHashMap<String, Object>>() {
+        }).keySet());
+        List<String> sorted = new ArrayList<>(keys);
+        sorted.sort(null);
+
+        assertEquals(sorted, keys);
+    }
+
+    @Test
+    void mapInsertionOrderDoesNotChangeTheHash() throws Exception {
+        Map<LANGUAGE, LanguageSpecificContent> hindiFirst = new LinkedHashMap<>();
+        hindiFirst.put(LANGUAGE.HINDI, content("Cookie"));
+        hindiFirst.put(LANGUAGE.ENGLISH, content("Cookie"));
+        Map<LANGUAGE, LanguageSpecificContent> englishFirst = new HashMap<>();
+        englishFirst.put(LANGUAGE.ENGLISH, content("Cookie"));
+        englishFirst.put(LANGUAGE.HINDI, content("Cookie"));
+
+        assertEquals(serializer.serialize(consent(START, CREATED, hindiFirst)).payloadHash(),
+                serializer.serialize(consent(START, CREATED, englishFirst)).payloadHash());
+    }
+
+    @Test
+    void hashSurvivesTheRoundTripThroughMongo() throws Exception {
+        // Mongo keeps millisecond precision, so a consent read back loses its micro and nanoseconds
+        SignableConsent created = consent(START, CREATED, new LinkedHashMap<>());
+        SignableConsent readBack = consent(START.truncatedTo(ChronoUnit.MILLIS),
+                CREATED.truncatedTo(ChronoUnit.MILLIS), new LinkedHashMap<>());
+
+        assertEquals(serializer.serialize(created).payloadHash(), serializer.serialize(readBack).payloadHash());
+    }
+
+    @Test
+    void timestampsAreWrittenToTheMillisecond() throws Exception {
+        Map<String, Object> json = objectMapper.readValue(
+                serializer.serialize(consent(START, CREATED, new LinkedHashMap<>())).json(),
+                new TypeReference<Map<String, Object>>() {
+                });
+
+        assertEquals("2026-01-15T10:30:12.345", json.get("startDate"));
+        assertEquals("2026-01-15T10:30:12.345Z", json.get("createdAt"));
+    }
+
+    @Test
+    void changedConsentChangesTheHash() throws Exception {
+        SignableConsent consent = consent(START, CREATED, new LinkedHashMap<>());
+        String before = serializer.serialize(consent).payloadHash();
+
+        consent.setStatus(Status.REVOKED);
+
+        assertNotEquals(before, serializer.serialize(consent).payloadHash());
+    }
+
+    @Test
+    void serializationIsTimed() throws Exception {
+        serializer.serialize(consent(START, CREATED, new LinkedHashMap<>()));
+
+        assertEquals(1, meterRegistry.get("consent_serialization_seconds").timer().count());
+    }
+
+    private static SignableConsent consent(LocalDateTime start, Instant created,
+                                           Map<LANGUAGE, LanguageSpecificContent> content) {
+        return SignableConsent.builder()
+                .consentId("consent-1")
+                .consentHandleId("handle-1")
+                .businessId("business-1")
+                .templateId("template-1")
+                .templateVersion(1)
+                .languagePreferences(LANGUAGE.ENGLISH)
+                .multilingual(Multilingual.builder()
+                        .supportedLanguages(List.of(LANGUAGE.ENGLISH, LANGUAGE.HINDI))
+                        .languageSpecificContentMap(content)
+                        .build())
+                .customerIdentifiers(CustomerIdentifiers.builder().type("EMAIL").value("user@example.com").build())
+                .preferences(List.of(Preference.builder().purpose("Analytics").isMandatory(false).build()))
+                .status(Status.ACTIVE)
+                .consentStatus(VersionStatus.ACTIVE)
+                .version(1)
+                .startDate(start)
+                .endDate(start.plusYears(1))
+                .createdAt(created)
+                .updatedAt(created)
+                .build();
+    }
+
+    private static LanguageSpecificContent content(String title) {
+        return LanguageSpecificContent.builder().title(title).label("We use cookies").build();
+    }
+}
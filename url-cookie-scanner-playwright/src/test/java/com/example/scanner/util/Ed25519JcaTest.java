@@ -0,0 +1,106 @@
+package com.example.scanner.util;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSObject;
+import com.nimbusds.jose.Payload;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.util.Base64URL;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class Ed25519JcaTest {
+
+    private static KeyPair jdkKeyPair;
+    private static OctetKeyPair key;
+    private static OctetKeyPair otherKey;
+
+    @BeforeAll
+    static void generateKeys() throws Exception {
+        jdkKeyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        key = toJwk(jdkKeyPair, "ed-1");
+        otherKey = toJwk(KeyPairGenerator.getInstance("Ed25519").generateKeyPair(), "ed-2");
+    }
+
+    @Test
+    void signedTokenVerifies() throws Exception {
+        JWSObject jws = sign(key, "consent-1");
+
+        JWSObject parsed = JWSObject.parse(jws.serialize());
+
+        assertTrue(parsed.verify(Ed25519Jca.verifier(key.toPublicJWK())));
+    }
+
+    @Test
+    void jdkSignatureVerifies() throws Exception {
+        // Checks the RFC 8032 decoding of the public key against keys the JDK encoded itself
+        byte[] signingInput = "header.payload".getBytes(StandardCharsets.UTF_8);
+        Signature signature = Signature.getInstance("Ed25519");
+        signature.initSign(jdkKeyPair.getPrivate());
+        signature.update(signingInput);
+
+        assertTrue(Ed25519Jca.verifier(key).verify(new JWSHeader(JWSAlgorithm.EdDSA), signingInput,
+                Base64URL.encode(signature.sign())));
+    }
+
+    @Test
+    void tamperedPayloadDoesNotVerify() throws Exception {
+        String[] parts = sign(key, "consent-1").serialize().split("\\.");
+        String tampered = parts[0] + "." + Base64URL.encode("consent-2") + "." + parts[2];
+
+        assertFalse(JWSObject.parse(tampered).verify(Ed25519Jca.verifier(key)));
+    }
+
+    @Test
+    void otherKeyDoesNotVerify() throws Exception {
+        JWSObject parsed = JWSObject.parse(sign(key, "consent-1").serialize());
+
+        assertFalse(parsed.verify(Ed25519Jca.verifier(otherKey)));
+    }
+
+    @Test
+    void onlyEdDsaHeadersAreSigned() throws Exception {
+        JWSObject jws = new JWSObject(new JWSHeader(JWSAlgorithm.RS256), new Payload("consent-1"));
+
+        assertThrows(JOSEException.class, () -> jws.sign(Ed25519Jca.signer(key)));
+    }
+
+    @Test
+    void otherCurvesAreRejected() {
+        OctetKeyPair x25519 = new OctetKeyPair.Builder(Curve.X25519, key.getX()).d(key.getD()).build();
+
+        assertThrows(JOSEException.class, () -> Ed25519Jca.signer(x25519));
+        assertThrows(JOSEException.class, () -> Ed25519Jca.verifier(x25519));
+    }
+
+    private static JWSObject sign(OctetKeyPair signingKey, String payload) throws Exception {
+        JWSObject jws = new JWSObject(new JWSHeader.Builder(JWSAlgorithm.EdDSA).keyID(signingKey.getKeyID()).build(),
+                new Payload(payload));
+        jws.sign(Ed25519Jca.signer(signingKey));
+        return jws;
+    }
+
+    /**
+     * The raw 32-byte keys are the tail of the JDK's X.509 and PKCS#8 encodings.
+     */
+    static OctetKeyPair toJwk(KeyPair keyPair, String kid) {
+        byte[] x509 = keyPair.getPublic().getEncoded();
+        byte[] pkcs8 = keyPair.getPrivate().getEncoded();
+        return new OctetKeyPair.Builder(Curve.Ed25519, Base64URL.encode(Arrays.copyOfRange(x509, x509.length - 32, x509.length)))
+                .d(Base64URL.encode(Arrays.copyOfRange(pkcs8, pkcs8.length - 32, pkcs8.length)))
+                .keyID(kid)
+                .build();
+    }
+}
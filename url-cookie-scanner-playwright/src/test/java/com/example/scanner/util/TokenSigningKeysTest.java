@@ -0,0 +1,155 @@
+package com.example.scanner.util;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSObject;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.Payload;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenSigningKeysTest {
+
+    private static RSAKey oldKey;
+    private static RSAKey newKey;
+    private static ECKey ecKey;
+
+    @TempDir
+    Path dir;
+
+    @BeforeAll
+    static void generateKeys() throws Exception {
+        oldKey = new RSAKeyGenerator(2048).keyID("old").algorithm(JWSAlgorithm.RS256).generate();
+        newKey = new RSAKeyGenerator(2048).keyID("new").algorithm(JWSAlgorithm.RS256).generate();
+        ecKey = new ECKeyGenerator(Curve.P_256).keyID("ec").generate();
+    }
+
+    @Test
+    void bundledKeyIsIdentifiedByItsThumbprint() throws Exception {
+        TokenSigningKeys keys = keys(null, null);
+
+        TokenSigningKeys.SigningKey signingKey = keys.signingKey(JWSAlgorithm.RS256);
+
+        assertEquals(JWSAlgorithm.RS256, signingKey.algorithm());
+        assertTrue(verifies(keys, sign(signingKey)));
+    }
+
+    @Test
+    void signersAndVerifiersAreBuiltOnce() throws Exception {
+        TokenSigningKeys keys = keys(write(oldKey), null);
+
+        assertSame(keys.signingKey(JWSAlgorithm.RS256), keys.signingKey(JWSAlgorithm.RS256));
+        assertSame(keys.verifiersFor("old").get(0), keys.verifiersFor("old").get(0));
+    }
+
+    @Test
+    void firstPrivateKeyOfEachAlgorithmSigns() throws Exception {
+        TokenSigningKeys keys = keys(write(newKey, oldKey, ecKey), null);
+
+        assertEquals("new", keys.signingKey(JWSAlgorithm.RS256).kid());
+        assertEquals("ec", keys.signingKey(JWSAlgorithm.ES256).kid());
+        assertThrows(IllegalStateException.class, () -> keys.signingKey(JWSAlgorithm.EdDSA));
+    }
+
+    @Test
+    void configuredKidSigns() throws Exception {
+        TokenSigningKeys keys = keys(write(newKey, oldKey), "old");
+
+        assertEquals("old", keys.signingKey(JWSAlgorithm.RS256).kid());
+    }
+
+    @Test
+    void verifiersAreLookedUpByKid() throws Exception {
+        TokenSigningKeys keys = keys(write(newKey, oldKey.toPublicJWK(), ecKey), null);
+
+        assertEquals(1, keys.verifiersFor("old").size());
+        assertEquals(List.of(), keys.verifiersFor("unknown"));
+        // Tokens issued before kids were set are checked against every key
+        assertEquals(3, keys.verifiersFor(null).size());
+    }
+
+    @Test
+    void rotatedKeySignsAndOldTokensStillVerify() throws Exception {
+        Path file = write(oldKey);
+        TokenSigningKeys keys = keys(file, null);
+        JWSObject oldToken = sign(keys.signingKey(JWSAlgorithm.RS256));
+
+        rewrite(file, newKey, oldKey.toPublicJWK());
+        keys.reloadIfChanged();
+
+        assertEquals("new", keys.signingKey(JWSAlgorithm.RS256).kid());
+        assertTrue(verifies(keys, oldToken));
+        assertTrue(verifies(keys, sign(keys.signingKey(JWSAlgorithm.RS256))));
+    }
+
+    @Test
+    void brokenFileKeepsThePreviousKeys() throws Exception {
+        Path file = write(oldKey);
+        TokenSigningKeys keys = keys(file, null);
+
+        rewrite(file);
+        keys.reloadIfChanged();
+
+        assertEquals("old", keys.signingKey(JWSAlgorithm.RS256).kid());
+    }
+
+    private TokenSigningKeys keys(Path file, String signingKid) {
+        TokenSigningKeys keys = new TokenSigningKeys();
+        ReflectionTestUtils.setField(keys, "jwkSetPath", file != null ? file.toString() : "");
+        ReflectionTestUtils.setField(keys, "signingKid", signingKid != null ? signingKid : "");
+        keys.load();
+        return keys;
+    }
+
+    private Path write(JWK... jwks) throws Exception {
+        Path file = dir.resolve("jwk-set.json");
+        Files.writeString(file, new JWKSet(List.of(jwks)).toString(false), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static void rewrite(Path file, JWK... jwks) throws Exception {
+        String json = jwks.length > 0 ? new JWKSet(List.of(jwks)).toString(false) : "{\"keys\": [";
+        FileTime previous = Files.getLastModifiedTime(file);
+        Files.writeString(file, json, StandardCharsets.UTF_8);
+        // Coarse file system timestamps could otherwise hide the change
+        Files.setLastModifiedTime(file, FileTime.from(previous.toInstant().plusSeconds(1)));
+    }
+
+    private static JWSObject sign(TokenSigningKeys.SigningKey signingKey) throws Exception {
+        JWSObject jws = new JWSObject(new JWSHeader.Builder(signingKey.algorithm()).keyID(signingKey.kid()).build(),
+                new Payload("consent-" + Instant.now()));
+        jws.sign(signingKey.signer());
+        return jws;
+    }
+
+    private static boolean verifies(TokenSigningKeys keys, JWSObject jws) throws Exception {
+        JWSObject parsed = JWSObject.parse(jws.serialize());
+        for (JWSVerifier verifier : keys.verifiersFor(parsed.getHeader().getKeyID())) {
+            if (parsed.verify(verifier)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}